@@ -0,0 +1,53 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler and writes the results to
+ * jmh-result.json, so runs before and after an upgrade can be compared, for example
+ * with https://jmh.morethan.io. Accepts the JMH command line options, for example a
+ * regular expression that selects the benchmarks. {@link OpenAIClientStartupBenchmark}
+ * forks a JVM per measurement and is excluded, run it with the JMH main class.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar ch.rasc.openai4j.benchmarks.Benchmarks Decoder
+ * </pre>
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {
+		// main class
+	}
+
+	public static void main(String[] args)
+			throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+				.exclude(OpenAIClientStartupBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).resultFormat(ResultFormatType.JSON)
+				.result("jmh-result.json").build();
+		new Runner(options).run();
+	}
+
+}
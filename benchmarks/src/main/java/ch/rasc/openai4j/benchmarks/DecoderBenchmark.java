@@ -0,0 +1,136 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import ch.rasc.openai4j.JsonDecoder;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse;
+import ch.rasc.openai4j.embeddings.EmbeddingCreateResponse;
+import ch.rasc.openai4j.images.ImageResponse;
+import feign.Request;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.jackson.JacksonDecoder;
+
+/**
+ * Decoding of large responses with {@link JsonDecoder} compared to Feign's
+ * {@link JacksonDecoder} without the type specific deserializers, which is how
+ * responses were decoded before. Run with {@code -prof gc} to compare the allocation
+ * rate per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DecoderBenchmark {
+
+	/**
+	 * Removes the {@link JsonDeserialize} annotation of the response types.
+	 */
+	@JsonDeserialize
+	abstract static class DefaultDeserializer {
+		// mixin only
+	}
+
+	private static final Request REQUEST = Request.create(Request.HttpMethod.POST,
+			"http://localhost/v1", Map.of(), null, StandardCharsets.UTF_8, null);
+
+	@Param({ "embeddings", "embeddingsBase64", "chatCompletion", "chatCompletionLogprobs",
+			"image" })
+	public String response;
+
+	private byte[] body;
+
+	private Class<?> type;
+
+	private Decoder jacksonDecoder;
+
+	private Decoder jsonDecoder;
+
+	@Setup
+	public void setup() {
+		ObjectMapper mapper = new ObjectMapper()
+				.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+		ObjectMapper defaultMapper = mapper.copy()
+				.addMixIn(EmbeddingCreateResponse.class, DefaultDeserializer.class)
+				.addMixIn(ImageResponse.class, DefaultDeserializer.class);
+		this.jacksonDecoder = new JacksonDecoder(defaultMapper);
+		this.jsonDecoder = new JsonDecoder(mapper);
+
+		switch (this.response) {
+		case "embeddings" -> {
+			// 100 inputs, text-embedding-3-small
+			this.body = Payloads.embeddings(100, 1536, false);
+			this.type = EmbeddingCreateResponse.class;
+		}
+		case "embeddingsBase64" -> {
+			this.body = Payloads.embeddings(100, 1536, true);
+			this.type = EmbeddingCreateResponse.class;
+		}
+		case "chatCompletion" -> {
+			this.body = Payloads.chatCompletion(1000, false);
+			this.type = ChatCompletionResponse.class;
+		}
+		case "chatCompletionLogprobs" -> {
+			this.body = Payloads.chatCompletion(1000, true);
+			this.type = ChatCompletionResponse.class;
+		}
+		default -> {
+			// a 1024x1024 png is about 1.5 MB
+			this.body = Payloads.image(1_500_000);
+			this.type = ImageResponse.class;
+		}
+		}
+	}
+
+	private Response response() {
+		return Response.builder().status(200).headers(Map.of()).body(this.body)
+				.request(REQUEST).build();
+	}
+
+	@Benchmark
+	public Object jacksonDecoder() throws IOException {
+		return this.jacksonDecoder.decode(response(), this.type);
+	}
+
+	@Benchmark
+	public Object jsonDecoder() throws IOException {
+		return this.jsonDecoder.decode(response(), this.type);
+	}
+
+}
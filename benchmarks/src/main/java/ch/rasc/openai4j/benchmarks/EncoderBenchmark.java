@@ -0,0 +1,124 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.rasc.openai4j.JsonEncoder;
+import ch.rasc.openai4j.chatcompletions.AssistantMessage;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionCreateRequest;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionMessage;
+import ch.rasc.openai4j.chatcompletions.UserMessage;
+import ch.rasc.openai4j.chatcompletions.UserMessage.ImageContent;
+import ch.rasc.openai4j.chatcompletions.UserMessage.TextContent;
+import feign.RequestTemplate;
+import feign.codec.Encoder;
+import feign.jackson.JacksonEncoder;
+
+/**
+ * Encoding of large requests with {@link JsonEncoder} compared to Feign's
+ * {@link JacksonEncoder}. Run with {@code -prof gc} to compare the allocation rate
+ * per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EncoderBenchmark {
+
+	@Param({ "conversation", "image" })
+	public String request;
+
+	private ChatCompletionCreateRequest body;
+
+	private Encoder jacksonEncoder;
+
+	private Encoder jsonEncoder;
+
+	@Setup
+	public void setup() {
+		ObjectMapper mapper = new ObjectMapper()
+				.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+		this.jacksonEncoder = new JacksonEncoder(mapper);
+		this.jsonEncoder = new JsonEncoder(mapper);
+
+		Random random = new Random(42);
+		List<ChatCompletionMessage> messages = new ArrayList<>();
+		if ("conversation".equals(this.request)) {
+			// 100 turns of about 2 KB each
+			for (int i = 0; i < 50; i++) {
+				messages.add(UserMessage.of(text(random, 2000)));
+				messages.add(
+						AssistantMessage.builder().content(text(random, 2000)).build());
+			}
+		}
+		else {
+			// a 1024x1024 png is about 1.5 MB
+			byte[] image = new byte[1_500_000];
+			random.nextBytes(image);
+			messages.add(UserMessage.of(List.of(TextContent.of("What is in this image?"),
+					ImageContent.of("data:image/png;base64,"
+							+ Base64.getEncoder().encodeToString(image)))));
+		}
+		this.body = ChatCompletionCreateRequest.builder().model("gpt-4o")
+				.messages(messages).build();
+	}
+
+	private static String text(Random random, int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append(i % 6 == 5 ? ' ' : (char) ('a' + random.nextInt(26)));
+		}
+		return sb.toString();
+	}
+
+	@Benchmark
+	public RequestTemplate jacksonEncoder() {
+		RequestTemplate template = new RequestTemplate();
+		this.jacksonEncoder.encode(this.body, ChatCompletionCreateRequest.class,
+				template);
+		return template;
+	}
+
+	@Benchmark
+	public RequestTemplate jsonEncoder() {
+		RequestTemplate template = new RequestTemplate();
+		this.jsonEncoder.encode(this.body, ChatCompletionCreateRequest.class, template);
+		return template;
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.rasc.openai4j.vectorsearch.FlatIndex;
+import ch.rasc.openai4j.vectorsearch.SearchResult;
+import ch.rasc.openai4j.vectorsearch.SimilarityKernels;
+
+/**
+ * Exact top 10 search of {@link FlatIndex} over 100,000 vectors, with the Vector API
+ * kernels and the scalar kernels, on the calling thread and in parallel on the common
+ * fork-join pool. The forks start with {@code --add-modules jdk.incubator.vector}, the
+ * simd parameter switches to the scalar kernels with the system property
+ * openai4j.vectorsearch.simd.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class FlatIndexBenchmark {
+
+	@Param({ "100000" })
+	public int size;
+
+	@Param({ "256", "1536" })
+	public int dimensions;
+
+	@Param({ "true", "false" })
+	public boolean simd;
+
+	@Param({ "true", "false" })
+	public boolean parallel;
+
+	private FlatIndex index;
+
+	private float[] query;
+
+	private float[] a;
+
+	private float[] b;
+
+	@Setup
+	public void setup() {
+		// must be set before the kernels are loaded
+		System.setProperty("openai4j.vectorsearch.simd", String.valueOf(this.simd));
+		if (SimilarityKernels.isVectorApiEnabled() != this.simd) {
+			throw new IllegalStateException("Vector API kernels are not available");
+		}
+		Random random = new Random(42);
+		this.index = FlatIndex.builder().dimensions(this.dimensions)
+				.initialCapacity(this.size)
+				.pool(this.parallel ? ForkJoinPool.commonPool() : null).build();
+		for (int i = 0; i < this.size; i++) {
+			this.index.add(gaussian(random));
+		}
+		this.query = gaussian(random);
+		this.a = gaussian(random);
+		this.b = gaussian(random);
+	}
+
+	@Benchmark
+	public List<SearchResult> search() {
+		return this.index.search(this.query, 10);
+	}
+
+	/**
+	 * One dot product, the kernel the search runs for every row.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public float dot() {
+		return SimilarityKernels.dot(this.a, 0, this.b, 0, this.dimensions);
+	}
+
+	private float[] gaussian(Random random) {
+		float[] vector = new float[this.dimensions];
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] = (float) random.nextGaussian();
+		}
+		return vector;
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.rasc.openai4j.vectorsearch.HnswIndex;
+import ch.rasc.openai4j.vectorsearch.SearchResult;
+
+/**
+ * Queries per second of {@link HnswIndex#search(float[], int, int)} for different
+ * candidate list sizes. The vectors are drawn around random cluster centers, like
+ * embeddings of documents about a limited number of topics. The setup prints the
+ * recall@10 compared with an exact search, so the recall and QPS trade-off of ef can
+ * be read from one run.
+ * <p>
+ * Building the index takes a while, the index is saved to the temporary directory and
+ * loaded by the following forks with the same size and dimensions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HnswIndexBenchmark {
+
+	private static final int K = 10;
+
+	private static final int QUERIES = 1000;
+
+	private static final int RECALL_QUERIES = 100;
+
+	@Param({ "10000", "100000" })
+	public int size;
+
+	@Param({ "256" })
+	public int dimensions;
+
+	@Param({ "16", "64", "128" })
+	public int ef;
+
+	private HnswIndex index;
+
+	private float[][] queries;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		Random random = new Random(42);
+		float[][] centers = new float[100][];
+		for (int i = 0; i < centers.length; i++) {
+			centers[i] = gaussian(random, null, 1);
+		}
+		float[][] vectors = new float[this.size][];
+		for (int i = 0; i < this.size; i++) {
+			vectors[i] = gaussian(random, centers[random.nextInt(centers.length)], 0.5f);
+		}
+		this.queries = new float[QUERIES][];
+		for (int i = 0; i < QUERIES; i++) {
+			this.queries[i] = gaussian(random, centers[random.nextInt(centers.length)],
+					0.5f);
+		}
+
+		Path file = Path.of(System.getProperty("java.io.tmpdir"),
+				"openai4j-hnsw-" + this.size + "-" + this.dimensions + ".idx");
+		if (Files.exists(file)) {
+			this.index = HnswIndex.load(file);
+		}
+		else {
+			this.index = HnswIndex.builder().dimensions(this.dimensions).build();
+			for (float[] vector : vectors) {
+				this.index.add(vector);
+			}
+			this.index.save(file);
+		}
+
+		int found = 0;
+		for (int q = 0; q < RECALL_QUERIES; q++) {
+			Set<Integer> exact = exact(this.queries[q]);
+			for (SearchResult result : this.index.search(this.queries[q], K, this.ef)) {
+				if (exact.contains(result.id())) {
+					found++;
+				}
+			}
+		}
+		System.out.printf("%nrecall@%d (ef %d): %.3f%n", K, this.ef,
+				(double) found / (RECALL_QUERIES * K));
+	}
+
+	@Benchmark
+	public List<SearchResult> search() {
+		float[] query = this.queries[this.next++ % QUERIES];
+		return this.index.search(query, K, this.ef);
+	}
+
+	/**
+	 * Exact top k by cosine similarity over the vectors of the index, the index stores
+	 * them normalized.
+	 */
+	private Set<Integer> exact(float[] query) {
+		float norm = 0;
+		for (float value : query) {
+			norm += value * value;
+		}
+		norm = (float) Math.sqrt(norm);
+		int[] ids = new int[K];
+		float[] scores = new float[K];
+		Arrays.fill(scores, Float.NEGATIVE_INFINITY);
+		for (int id = 0; id < this.index.size(); id++) {
+			float[] vector = this.index.vector(id);
+			float score = 0;
+			for (int i = 0; i < vector.length; i++) {
+				score += vector[i] * query[i];
+			}
+			score /= norm;
+			if (score > scores[K - 1]) {
+				int i = K - 1;
+				while (i > 0 && scores[i - 1] < score) {
+					scores[i] = scores[i - 1];
+					ids[i] = ids[i - 1];
+					i--;
+				}
+				scores[i] = score;
+				ids[i] = id;
+			}
+		}
+		Set<Integer> result = new HashSet<>();
+		for (int id : ids) {
+			result.add(id);
+		}
+		return result;
+	}
+
+	private float[] gaussian(Random random, float[] center, float scale) {
+		float[] vector = new float[this.dimensions];
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] = (center != null ? center[i] : 0)
+					+ (float) random.nextGaussian() * scale;
+		}
+		return vector;
+	}
+
+}
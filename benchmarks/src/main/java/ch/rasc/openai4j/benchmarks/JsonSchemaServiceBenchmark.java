@@ -0,0 +1,119 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import ch.rasc.openai4j.common.JsonSchemaService;
+
+/**
+ * JSON schema generation for structured outputs and Java functions. The schema is
+ * generated for every request that uses
+ * {@link ch.rasc.openai4j.chatcompletions.service.ChatCompletionsService}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonSchemaServiceBenchmark {
+
+	public record Location(
+			@JsonProperty(required = true) @JsonPropertyDescription("Latitude")
+			float latitude,
+			@JsonProperty(required = true) @JsonPropertyDescription("Longitude")
+			float longitude) {
+	}
+
+	public enum Unit {
+		CELSIUS, FAHRENHEIT
+	}
+
+	public record Forecast(@JsonProperty(required = true) Location location,
+			@JsonProperty(required = true) Unit unit,
+			@JsonProperty(required = true) @JsonPropertyDescription("Days") int days) {
+	}
+
+	public record Address(@JsonProperty(required = true) String street,
+			@JsonProperty(required = true) String city,
+			@JsonProperty(required = true) String country) {
+	}
+
+	public record Person(@JsonProperty(required = true) String name,
+			@JsonProperty(required = true) int age,
+			@JsonProperty(required = true) List<Address> addresses,
+			@JsonProperty(required = true) List<String> emails) {
+	}
+
+	public record Invoice(@JsonProperty(required = true) String number,
+			@JsonProperty(required = true) Person customer,
+			@JsonProperty(required = true) List<Line> lines,
+			@JsonProperty(required = true) double total) {
+	}
+
+	public record Line(@JsonProperty(required = true) String product,
+			@JsonProperty(required = true) int quantity,
+			@JsonProperty(required = true) double price) {
+	}
+
+	private JsonSchemaService jsonSchemaService;
+
+	@Setup
+	public void setup() {
+		this.jsonSchemaService = new JsonSchemaService();
+	}
+
+	@Benchmark
+	public ObjectNode generateStrictSchemaFlat() {
+		return this.jsonSchemaService.generateStrictSchema(Location.class);
+	}
+
+	@Benchmark
+	public ObjectNode generateStrictSchemaNested() {
+		return this.jsonSchemaService.generateStrictSchema(Forecast.class);
+	}
+
+	@Benchmark
+	public ObjectNode generateStrictSchemaDeep() {
+		return this.jsonSchemaService.generateStrictSchema(Invoice.class);
+	}
+
+	/**
+	 * Creating the service builds the schema generators.
+	 */
+	@Benchmark
+	public JsonSchemaService create() {
+		return new JsonSchemaService();
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import com.sun.net.httpserver.HttpServer;
+
+import ch.rasc.openai4j.Configuration;
+import ch.rasc.openai4j.OpenAIClient;
+
+/**
+ * Prints the retained heap of an {@link OpenAIClient} after creation and after the
+ * first use of a sub-client. The configuration (HTTP client, logger, retryer) is
+ * measured separately because it is usually shared by the application.
+ */
+public class OpenAIClientFootprint {
+
+	public static void main(String[] args) throws IOException {
+		// lambdas are hidden classes, JOL needs this to read their captured fields
+		System.setProperty("jol.magicFieldOffset", "true");
+
+		byte[] response = """
+				{"object":"list","data":[]}""".getBytes(StandardCharsets.UTF_8);
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, response.length);
+			try (var body = exchange.getResponseBody()) {
+				body.write(response);
+			}
+		});
+		server.start();
+
+		try {
+			Configuration configuration = Configuration.builder().apiKey("sk-benchmark")
+					.baseUrl("http://localhost:" + server.getAddress().getPort()).build();
+			long configurationSize = GraphLayout.parseInstance(configuration)
+					.totalSize();
+			System.out.printf("Configuration:                     %,10d bytes%n",
+					configurationSize);
+
+			OpenAIClient client = OpenAIClient.create(configuration);
+			System.out.printf("OpenAIClient after create:         %,10d bytes%n",
+					retained(client, configurationSize));
+
+			client.models.list();
+			System.out.printf("OpenAIClient after first request:  %,10d bytes%n",
+					retained(client, configurationSize));
+		}
+		finally {
+			server.stop(0);
+		}
+	}
+
+	private static long retained(OpenAIClient client, long configurationSize) {
+		return GraphLayout.parseInstance(client).totalSize() - configurationSize;
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpServer;
+
+import ch.rasc.openai4j.Configuration;
+import ch.rasc.openai4j.OpenAIClient;
+import ch.rasc.openai4j.models.Model;
+
+/**
+ * Cold start cost of {@link OpenAIClient}. Every measurement runs in a fresh JVM
+ * (single shot, no warmup), which is what a serverless function pays on a cold
+ * start. Use {@link OpenAIClientFootprint} for the retained heap.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class OpenAIClientStartupBenchmark {
+
+	private static final byte[] MODEL_RESPONSE = """
+			{"id":"gpt-4o","object":"model","created":1715367049,"owned_by":"system"}"""
+			.getBytes(StandardCharsets.UTF_8);
+
+	private HttpServer server;
+
+	private Configuration configuration;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		this.server.createContext("/", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, MODEL_RESPONSE.length);
+			try (var body = exchange.getResponseBody()) {
+				body.write(MODEL_RESPONSE);
+			}
+		});
+		this.server.start();
+		this.configuration = configuration();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.server.stop(0);
+	}
+
+	private Configuration configuration() {
+		return Configuration.builder().apiKey("sk-benchmark")
+				.baseUrl("http://localhost:" + this.server.getAddress().getPort()).build();
+	}
+
+	/**
+	 * Configuration (including the default HTTP client) and {@link OpenAIClient}.
+	 */
+	@Benchmark
+	public OpenAIClient createWithConfiguration() {
+		return OpenAIClient.create(configuration());
+	}
+
+	/**
+	 * {@link OpenAIClient} only, the configuration is created in the setup.
+	 */
+	@Benchmark
+	public OpenAIClient create() {
+		return OpenAIClient.create(this.configuration);
+	}
+
+	/**
+	 * Client creation and the first request of a single sub-client.
+	 */
+	@Benchmark
+	public Model createAndFirstRequest() {
+		return OpenAIClient.create(this.configuration).models.retrieve("gpt-4o");
+	}
+
+}
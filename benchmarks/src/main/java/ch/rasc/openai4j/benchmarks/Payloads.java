@@ -0,0 +1,154 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+/**
+ * Response bodies shaped like the responses of the OpenAI API, generated with a fixed
+ * seed so every run decodes the same bytes.
+ */
+final class Payloads {
+
+	private Payloads() {
+		// utility class
+	}
+
+	/**
+	 * Embeddings response with float arrays, or with base64 encoded little endian
+	 * float32 vectors like the API returns for encoding_format=base64.
+	 */
+	static byte[] embeddings(int count, int dimensions, boolean base64) {
+		Random random = new Random(42);
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"object\":\"list\",\"data\":[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"object\":\"embedding\",\"index\":").append(i)
+					.append(",\"embedding\":");
+			if (base64) {
+				ByteBuffer buffer = ByteBuffer.allocate(dimensions * Float.BYTES)
+						.order(ByteOrder.LITTLE_ENDIAN);
+				for (int j = 0; j < dimensions; j++) {
+					buffer.putFloat((float) (random.nextGaussian() * 0.05));
+				}
+				sb.append('"').append(Base64.getEncoder().encodeToString(buffer.array()))
+						.append('"');
+			}
+			else {
+				sb.append('[');
+				for (int j = 0; j < dimensions; j++) {
+					if (j > 0) {
+						sb.append(',');
+					}
+					sb.append((float) (random.nextGaussian() * 0.05));
+				}
+				sb.append(']');
+			}
+			sb.append('}');
+		}
+		sb.append("],\"model\":\"text-embedding-3-small\",\"usage\":{\"prompt_tokens\":")
+				.append(count * 8).append(",\"total_tokens\":").append(count * 8)
+				.append("}}");
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Chat completion response with a completion of the given number of tokens, with
+	 * logprobs and two top logprobs per token.
+	 */
+	static byte[] chatCompletion(int tokens, boolean logprobs) {
+		Random random = new Random(42);
+		String[] words = new String[tokens];
+		for (int i = 0; i < tokens; i++) {
+			words[i] = word(random);
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append("{\"id\":\"chatcmpl-AbCdEf\",\"object\":\"chat.completion\",")
+				.append("\"created\":1733000000,\"model\":\"gpt-4o-2024-08-06\",")
+				.append("\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",")
+				.append("\"content\":\"").append(String.join(" ", words))
+				.append("\",\"refusal\":null},\"logprobs\":");
+		if (logprobs) {
+			sb.append("{\"content\":[");
+			for (int i = 0; i < tokens; i++) {
+				if (i > 0) {
+					sb.append(',');
+				}
+				logprob(sb, words[i], random);
+				sb.setLength(sb.length() - 1);
+				sb.append(",\"top_logprobs\":[");
+				logprob(sb, words[i], random);
+				sb.append(',');
+				logprob(sb, word(random), random);
+				sb.append("]}");
+			}
+			sb.append("],\"refusal\":null}");
+		}
+		else {
+			sb.append("null");
+		}
+		sb.append(",\"finish_reason\":\"stop\"}],\"usage\":{\"prompt_tokens\":120,")
+				.append("\"completion_tokens\":").append(tokens)
+				.append(",\"total_tokens\":").append(120 + tokens)
+				.append(",\"prompt_tokens_details\":{\"cached_tokens\":0,")
+				.append("\"audio_tokens\":0},\"completion_tokens_details\":")
+				.append("{\"reasoning_tokens\":0,\"audio_tokens\":0,")
+				.append("\"accepted_prediction_tokens\":0,")
+				.append("\"rejected_prediction_tokens\":0}},")
+				.append("\"system_fingerprint\":\"fp_7f6be3efb0\"}");
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Image response with a base64 encoded image of the given size.
+	 */
+	static byte[] image(int bytes) {
+		byte[] image = new byte[bytes];
+		new Random(42).nextBytes(image);
+		return ("{\"created\":1733000000,\"data\":[{\"b64_json\":\""
+				+ Base64.getEncoder().encodeToString(image)
+				+ "\",\"revised_prompt\":\"a cat\"}]}").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void logprob(StringBuilder sb, String token, Random random) {
+		sb.append("{\"token\":\"").append(token).append("\",\"logprob\":")
+				.append(-random.nextDouble() * 3).append(",\"bytes\":[");
+		for (int i = 0; i < token.length(); i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append((int) token.charAt(i));
+		}
+		sb.append("]}");
+	}
+
+	private static String word(Random random) {
+		int length = 2 + random.nextInt(7);
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			sb.append((char) ('a' + random.nextInt(26)));
+		}
+		return sb.toString();
+	}
+
+}
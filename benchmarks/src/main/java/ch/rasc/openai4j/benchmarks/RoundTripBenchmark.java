@@ -0,0 +1,125 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import ch.rasc.openai4j.OpenAIAsyncClient;
+import ch.rasc.openai4j.OpenAIClient;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse;
+import ch.rasc.openai4j.chatcompletions.SystemMessage;
+import ch.rasc.openai4j.chatcompletions.UserMessage;
+import ch.rasc.openai4j.embeddings.EmbeddingCreateResponse;
+
+/**
+ * Full round trips through {@link OpenAIClient} and {@link OpenAIAsyncClient} against a
+ * local server that returns canned responses: encoding, interceptors, HTTP/1.1 on the
+ * loopback interface and decoding. The difference to the server time is the client
+ * overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RoundTripBenchmark {
+
+	private static final byte[] CHAT_COMPLETION = Payloads.chatCompletion(200, false);
+
+	private static final byte[] EMBEDDINGS = Payloads.embeddings(16, 1536, false);
+
+	private HttpServer server;
+
+	private OpenAIClient client;
+
+	private OpenAIAsyncClient asyncClient;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		// without TCP_NODELAY every round trip waits for the delayed ACK of the client
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		this.server.setExecutor(Executors.newFixedThreadPool(4));
+		this.server.createContext("/v1/chat/completions",
+				exchange -> respond(exchange, CHAT_COMPLETION));
+		this.server.createContext("/v1/embeddings",
+				exchange -> respond(exchange, EMBEDDINGS));
+		this.server.start();
+
+		String baseUrl = "http://localhost:" + this.server.getAddress().getPort() + "/v1";
+		this.client = OpenAIClient.create(c -> c.apiKey("sk-benchmark").baseUrl(baseUrl));
+		this.asyncClient = OpenAIAsyncClient
+				.create(c -> c.apiKey("sk-benchmark").baseUrl(baseUrl));
+	}
+
+	private static void respond(HttpExchange exchange,
+			byte[] body) throws IOException {
+		exchange.getRequestBody().readAllBytes();
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.server.stop(0);
+	}
+
+	@Benchmark
+	public ChatCompletionResponse chatCompletion() {
+		return this.client.chatCompletions.create(r -> r.model("gpt-4o")
+				.addMessages(SystemMessage.of("You are a helpful assistant"),
+						UserMessage.of("What is the capital of Spain?")));
+	}
+
+	@Benchmark
+	public ChatCompletionResponse chatCompletionAsync() {
+		return this.asyncClient.chatCompletions.create(r -> r.model("gpt-4o")
+				.addMessages(SystemMessage.of("You are a helpful assistant"),
+						UserMessage.of("What is the capital of Spain?")))
+				.join();
+	}
+
+	@Benchmark
+	public EmbeddingCreateResponse embeddings() {
+		return this.client.embeddings
+				.create(r -> r.model("text-embedding-3-small").input("hello world"));
+	}
+
+}
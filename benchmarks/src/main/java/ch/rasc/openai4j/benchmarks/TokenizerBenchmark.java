@@ -0,0 +1,113 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.rasc.openai4j.tokenizer.Encoding;
+import ch.rasc.openai4j.tokenizer.Tokenizer;
+
+/**
+ * Token counting with {@link Tokenizer}. The tokens counter reports tokens per second.
+ * The rank files are not part of openai4j, pass the directory that contains
+ * cl100k_base.tiktoken and o200k_base.tiktoken to the forks with
+ * {@code -jvmArgsAppend -Dopenai4j.tokenizer.path=<directory>}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class TokenizerBenchmark {
+
+	private static final String PROSE = """
+			The quick brown fox jumps over the lazy dog. Interactive chat requests and \
+			background jobs share the same client, so a large backfill can starve the \
+			requests of the users. We count the tokens of every prompt before it is \
+			sent, trim the conversation to the context window of the model and check \
+			that the completion fits into the remaining budget. Numbers like 3.14159, \
+			2024-12-03 and 1,000,000 are split into groups of up to three digits.
+			""";
+
+	private static final String CODE = """
+			public Response execute(Request request, Options options) throws IOException {
+				Scheduler.Ticket ticket = acquire(request);
+				try {
+					ticket.granted().get();
+				}
+				catch (InterruptedException e) {
+					this.scheduler.release(ticket);
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("interrupted while waiting");
+				}
+				return this.delegate.execute(strip(request), options);
+			}
+			""";
+
+	/**
+	 * Counts the tokens, reported as an additional throughput metric.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Tokens {
+		public long tokens;
+	}
+
+	@Param({ "CL100K_BASE", "O200K_BASE" })
+	public Encoding encoding;
+
+	@Param({ "prose", "code" })
+	public String text;
+
+	private Tokenizer tokenizer;
+
+	private String input;
+
+	@Setup
+	public void setup() {
+		this.tokenizer = Tokenizer.of(this.encoding);
+		this.input = ("prose".equals(this.text) ? PROSE : CODE).repeat(20);
+	}
+
+	@Benchmark
+	public int countTokens(Tokens counter) {
+		int count = this.tokenizer.countTokens(this.input);
+		counter.tokens += count;
+		return count;
+	}
+
+	@Benchmark
+	public int[] encode(Tokens counter) {
+		int[] tokens = this.tokenizer.encode(this.input);
+		counter.tokens += tokens.length;
+		return tokens;
+	}
+
+}
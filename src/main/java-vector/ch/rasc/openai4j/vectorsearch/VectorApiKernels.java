@@ -0,0 +1,82 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.vectorsearch;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels based on the Vector API of the incubator module jdk.incubator.vector. This
+ * class is compiled separately (see the compile-vector-api execution in the pom) and
+ * only loaded by {@link SimilarityKernels} when the module is in the boot layer.
+ */
+final class VectorApiKernels implements FloatKernels {
+
+	private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+	private static final int LANES = SPECIES.length();
+
+	@Override
+	public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+		FloatVector acc0 = FloatVector.zero(SPECIES);
+		FloatVector acc1 = FloatVector.zero(SPECIES);
+		int i = 0;
+		for (int bound = length - 2 * LANES; i <= bound; i += 2 * LANES) {
+			acc0 = FloatVector.fromArray(SPECIES, a, aOffset + i)
+					.fma(FloatVector.fromArray(SPECIES, b, bOffset + i), acc0);
+			acc1 = FloatVector.fromArray(SPECIES, a, aOffset + i + LANES)
+					.fma(FloatVector.fromArray(SPECIES, b, bOffset + i + LANES), acc1);
+		}
+		for (int bound = SPECIES.loopBound(length); i < bound; i += LANES) {
+			acc0 = FloatVector.fromArray(SPECIES, a, aOffset + i)
+					.fma(FloatVector.fromArray(SPECIES, b, bOffset + i), acc0);
+		}
+		float sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+		for (; i < length; i++) {
+			sum += a[aOffset + i] * b[bOffset + i];
+		}
+		return sum;
+	}
+
+	@Override
+	public float squaredDistance(float[] a, int aOffset, float[] b, int bOffset,
+			int length) {
+		FloatVector acc0 = FloatVector.zero(SPECIES);
+		FloatVector acc1 = FloatVector.zero(SPECIES);
+		int i = 0;
+		for (int bound = length - 2 * LANES; i <= bound; i += 2 * LANES) {
+			FloatVector d0 = FloatVector.fromArray(SPECIES, a, aOffset + i)
+					.sub(FloatVector.fromArray(SPECIES, b, bOffset + i));
+			FloatVector d1 = FloatVector.fromArray(SPECIES, a, aOffset + i + LANES)
+					.sub(FloatVector.fromArray(SPECIES, b, bOffset + i + LANES));
+			acc0 = d0.fma(d0, acc0);
+			acc1 = d1.fma(d1, acc1);
+		}
+		for (int bound = SPECIES.loopBound(length); i < bound; i += LANES) {
+			FloatVector d = FloatVector.fromArray(SPECIES, a, aOffset + i)
+					.sub(FloatVector.fromArray(SPECIES, b, bOffset + i));
+			acc0 = d.fma(d, acc0);
+		}
+		float sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+		for (; i < length; i++) {
+			float d = a[aOffset + i] - b[bOffset + i];
+			sum += d * d;
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import feign.form.FormEncoder;
+
+/**
+ * Encoders and decoders shared by all clients. The {@link ObjectMapper} and the Feign
+ * codecs are thread-safe, sharing them avoids building and warming up a new
+ * serializer cache for every client.
+ */
+final class Codecs {
+
+	static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+			.setSerializationInclusion(JsonInclude.Include.NON_NULL)
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	static final JsonDecoder JSON_DECODER = new JsonDecoder(OBJECT_MAPPER);
+
+	static final JsonEncoder JSON_ENCODER = new JsonEncoder(OBJECT_MAPPER);
+
+	static final FormEncoder FORM_AND_JSON_ENCODER = new FormEncoder(JSON_ENCODER);
+
+	private Codecs() {
+		// constants only
+	}
+
+}
@@ -15,9 +15,35 @@
  */
 package ch.rasc.openai4j;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import ch.rasc.openai4j.cache.CachingClient;
+import ch.rasc.openai4j.cache.Coalescing;
+import ch.rasc.openai4j.cache.CoalescingClient;
+import ch.rasc.openai4j.cache.ResponseCache;
+import ch.rasc.openai4j.concurrent.VirtualThreads;
+import ch.rasc.openai4j.hedging.Hedging;
+import ch.rasc.openai4j.hedging.HedgingClient;
+import ch.rasc.openai4j.loadbalancing.Backend;
+import ch.rasc.openai4j.loadbalancing.LoadBalancer;
+import ch.rasc.openai4j.loadbalancing.LoadBalancingClient;
+import ch.rasc.openai4j.metrics.MetricsClient;
+import ch.rasc.openai4j.metrics.MetricsRecorder;
+import ch.rasc.openai4j.metrics.MetricsRetryer;
+import ch.rasc.openai4j.ratelimit.RateLimiter;
+import ch.rasc.openai4j.ratelimit.RateLimitingClient;
+import ch.rasc.openai4j.resilience.Resilience;
+import ch.rasc.openai4j.resilience.ResilientClient;
+import ch.rasc.openai4j.scheduling.Scheduler;
+import ch.rasc.openai4j.scheduling.SchedulingClient;
+import ch.rasc.openai4j.transport.Transport;
+import ch.rasc.openai4j.transport.TransportClient;
+
 import feign.Client;
 import feign.Logger;
 import feign.Logger.Level;
@@ -44,9 +70,19 @@ public class Configuration {
 	private final String azureEndpoint;
 	private final String apiVersion;
 	private final String azureDeployment;
+	private final ExecutorService executor;
+	private final RateLimiter rateLimiter;
+	private final Resilience resilience;
+	private final Hedging hedging;
+	private final MetricsRecorder metrics;
+	private final LoadBalancer loadBalancer;
+	private final Coalescing coalescing;
+	private final ResponseCache responseCache;
+	private final Transport transport;
+	private final Scheduler scheduler;
 
 	private Configuration(Builder builder) {
-		if (builder.apiKey == null) {
+		if (builder.apiKey == null && builder.loadBalancer == null) {
 			throw new IllegalArgumentException("apiKey must not be null");
 		}
 
@@ -55,19 +91,94 @@ public class Configuration {
 
 		this.baseUrl = Objects.requireNonNullElse(builder.baseUrl,
 				"https://api.openai.com/v1");
-		this.client = Objects.requireNonNullElse(builder.client, new Http2Client());
-		this.retryer = Objects.requireNonNullElse(builder.retryer, new Retryer.Default(
-				TimeUnit.SECONDS.toMillis(2), TimeUnit.SECONDS.toMillis(2), 3));
+		this.azureEndpoint = builder.azureEndpoint;
+		this.apiVersion = builder.apiVersion;
+		this.azureDeployment = builder.azureDeployment;
+		this.metrics = builder.metrics;
+		Retryer retryer = Objects.requireNonNullElse(builder.retryer,
+				OpenAIRetryer.create());
+		this.retryer = this.metrics != null ? new MetricsRetryer(retryer, this.metrics)
+				: retryer;
 		this.feignOptions = Objects.requireNonNullElse(builder.feignOptions,
 				new Request.Options(10, TimeUnit.SECONDS, 60, TimeUnit.SECONDS, true));
+		if (builder.executor != null) {
+			this.executor = builder.executor;
+		}
+		else if (builder.virtualThreads) {
+			this.executor = VirtualThreads.newExecutor();
+		}
+		else {
+			this.executor = null;
+		}
+		this.transport = builder.transport;
+		TransportClient transportClient = null;
+		Client client;
+		if (builder.client != null) {
+			client = builder.client;
+		}
+		else if (this.transport != null) {
+			transportClient = new TransportClient(this.transport, this.feignOptions,
+					this.executor);
+			client = transportClient;
+		}
+		else if (this.executor != null) {
+			client = new Http2Client(HttpClient.newBuilder()
+					.executor(this.executor)
+					.followRedirects(this.feignOptions.isFollowRedirects()
+							? HttpClient.Redirect.ALWAYS
+							: HttpClient.Redirect.NEVER)
+					.connectTimeout(
+							Duration.ofMillis(this.feignOptions.connectTimeoutMillis()))
+					.build());
+		}
+		else {
+			client = new Http2Client();
+		}
+		if (this.metrics != null) {
+			client = new MetricsClient(client, this.metrics, this.executor);
+		}
+		this.hedging = builder.hedging;
+		if (this.hedging != null) {
+			client = new HedgingClient(client, this.hedging, this.executor);
+		}
+		this.resilience = builder.resilience;
+		if (this.resilience != null) {
+			client = new ResilientClient(client, this.resilience, this.executor);
+		}
+		this.rateLimiter = builder.rateLimiter;
+		if (this.rateLimiter != null) {
+			client = new RateLimitingClient(client, this.rateLimiter, this.executor);
+		}
+		this.loadBalancer = builder.loadBalancer;
+		if (this.loadBalancer != null) {
+			client = new LoadBalancingClient(client, this.loadBalancer,
+					OpenAIClient.baseUrl(this), this.executor);
+		}
+		this.scheduler = builder.scheduler;
+		if (this.scheduler != null) {
+			client = new SchedulingClient(client, this.scheduler, this.metrics,
+					this.executor);
+		}
+		this.coalescing = builder.coalescing;
+		if (this.coalescing != null) {
+			client = new CoalescingClient(client, this.coalescing, this.executor);
+		}
+		this.responseCache = builder.responseCache;
+		if (this.responseCache != null) {
+			client = new CachingClient(client, this.responseCache, this.executor);
+		}
+		this.client = client;
+		if (transportClient != null && this.transport.warmUpConnections() > 0) {
+			List<String> urls = this.loadBalancer != null
+					? this.loadBalancer.backends().stream().map(Backend::baseUrl).toList()
+					: List.of(OpenAIClient.baseUrl(this));
+			transportClient.warmUp(urls, this.transport.warmUpConnections());
+		}
 		this.logger = Objects.requireNonNullElse(builder.logger, new Slf4jLogger());
 		this.errorDecoder = Objects.requireNonNullElse(builder.errorDecoder,
 				new OpenAIErrorDecoder());
 		this.additionalRequestInterceptor = builder.additionalRequestInterceptor;
 		this.logLevel = Objects.requireNonNullElse(builder.logLevel, Level.NONE);
-		this.azureEndpoint = builder.azureEndpoint;
-		this.apiVersion = builder.apiVersion;
-		this.azureDeployment = builder.azureDeployment;
 	}
 
 	public static Builder builder() {
@@ -88,6 +199,17 @@ public class Configuration {
 		private String azureEndpoint;
 		private String apiVersion;
 		private String azureDeployment;
+		private ExecutorService executor;
+		private boolean virtualThreads;
+		private RateLimiter rateLimiter;
+		private Resilience resilience;
+		private Hedging hedging;
+		private MetricsRecorder metrics;
+		private LoadBalancer loadBalancer;
+		private Coalescing coalescing;
+		private ResponseCache responseCache;
+		private Transport transport;
+		private Scheduler scheduler;
 
 		private Builder() {
 		}
@@ -164,6 +286,136 @@ public class Configuration {
 			return this;
 		}
 
+		/**
+		 * Executor that runs blocking work: the asynchronous callbacks of the default
+		 * HTTP client and requests of {@link OpenAIAsyncClient} when the configured
+		 * client does not support asynchronous execution. A
+		 * {@link ch.rasc.openai4j.chatcompletions.service.ChatCompletionsService} created
+		 * from an {@link OpenAIClient} calls Java functions on it and
+		 * {@link OpenAIClient#fanOut()} runs blocking calls, like waitForProcessing, on
+		 * it.
+		 * <p>
+		 * Optional. When not set, the JDK defaults are used.
+		 */
+		public Builder executor(ExecutorService executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * Use an executor that runs every task on a new virtual thread. Virtual threads
+		 * are only available on Java 21 and newer, on older runtimes a cached pool of
+		 * platform threads is used instead. Ignored when an {@link #executor} is set.
+		 *
+		 * @see VirtualThreads
+		 */
+		public Builder virtualThreads(boolean virtualThreads) {
+			this.virtualThreads = virtualThreads;
+			return this;
+		}
+
+		/**
+		 * Track the request and token budgets reported in the x-ratelimit-* response
+		 * headers and delay requests when a budget is exhausted, instead of sending
+		 * them and failing with 429 Too Many Requests. The configured (or default)
+		 * client is wrapped in a {@link RateLimitingClient}.
+		 * <p>
+		 * Share one instance between all configurations that use the same API key.
+		 */
+		public Builder rateLimiter(RateLimiter rateLimiter) {
+			this.rateLimiter = rateLimiter;
+			return this;
+		}
+
+		/**
+		 * Guard every endpoint with a circuit breaker and a bulkhead, so a slow or
+		 * failing endpoint does not block the threads that call healthy endpoints. The
+		 * configured (or default) client is wrapped in a {@link ResilientClient}.
+		 */
+		public Builder resilience(Resilience resilience) {
+			this.resilience = resilience;
+			return this;
+		}
+
+		/**
+		 * Send a second request to idempotent endpoints when the response is late and
+		 * use the first response. The configured (or default) client is wrapped in a
+		 * {@link HedgingClient}.
+		 */
+		public Builder hedging(Hedging hedging) {
+			this.hedging = hedging;
+			return this;
+		}
+
+		/**
+		 * Report latency, time to first byte, status, sizes, retries and token usage of
+		 * every call to the recorder, see
+		 * {@link ch.rasc.openai4j.metrics.InMemoryMetricsRecorder} and
+		 * {@link ch.rasc.openai4j.metrics.MicrometerMetricsRecorder}.
+		 */
+		public Builder metrics(MetricsRecorder metrics) {
+			this.metrics = metrics;
+			return this;
+		}
+
+		/**
+		 * Spread the requests over a pool of OpenAI base URLs or Azure OpenAI
+		 * deployments, each with its own API key. The backend of a request is chosen by
+		 * latency and error rate, failed requests are sent to another backend. The
+		 * configured (or default) client is wrapped in a {@link LoadBalancingClient}.
+		 * <p>
+		 * {@link #apiKey} is optional when a load balancer is set.
+		 */
+		public Builder loadBalancer(LoadBalancer loadBalancer) {
+			this.loadBalancer = loadBalancer;
+			return this;
+		}
+
+		/**
+		 * Send only one HTTP request for identical requests that are in flight at the
+		 * same time, by default embeddings and moderations. The configured (or default)
+		 * client is wrapped in a {@link CoalescingClient}.
+		 */
+		public Builder coalescing(Coalescing coalescing) {
+			this.coalescing = coalescing;
+			return this;
+		}
+
+		/**
+		 * Answer byte identical requests from a cache, by default deterministic chat
+		 * completions and embeddings. The configured (or default) client is wrapped in
+		 * a {@link CachingClient}.
+		 */
+		public Builder responseCache(ResponseCache responseCache) {
+			this.responseCache = responseCache;
+			return this;
+		}
+
+		/**
+		 * Settings of the default HTTP client: HTTP version, number of HttpClient
+		 * instances, concurrent streams and connections per instance, connect timeout,
+		 * executor and warm-up. Ignored when a {@link #client} is set.
+		 */
+		public Builder transport(Transport transport) {
+			this.transport = transport;
+			return this;
+		}
+
+		/**
+		 * Limit the number of concurrent requests and queue the other requests by
+		 * priority class and tenant, see
+		 * {@link ch.rasc.openai4j.scheduling.SchedulingScope}.
+		 * Requests answered by the response cache or coalesced with a request in flight
+		 * do not wait in the queue. The configured (or default) client is wrapped in a
+		 * {@link SchedulingClient}.
+		 * <p>
+		 * Share one instance between all configurations that use the same API key.
+		 */
+		public Builder scheduler(Scheduler scheduler) {
+			this.scheduler = scheduler;
+			return this;
+		}
+
 		public Configuration build() {
 			return new Configuration(this);
 		}
@@ -220,4 +472,44 @@ public class Configuration {
 	public String azureDeployment() {
 		return this.azureDeployment;
 	}
+
+	public ExecutorService executor() {
+		return this.executor;
+	}
+
+	public RateLimiter rateLimiter() {
+		return this.rateLimiter;
+	}
+
+	public Resilience resilience() {
+		return this.resilience;
+	}
+
+	public Hedging hedging() {
+		return this.hedging;
+	}
+
+	public MetricsRecorder metrics() {
+		return this.metrics;
+	}
+
+	public LoadBalancer loadBalancer() {
+		return this.loadBalancer;
+	}
+
+	public Coalescing coalescing() {
+		return this.coalescing;
+	}
+
+	public ResponseCache responseCache() {
+		return this.responseCache;
+	}
+
+	public Transport transport() {
+		return this.transport;
+	}
+
+	public Scheduler scheduler() {
+		return this.scheduler;
+	}
 }
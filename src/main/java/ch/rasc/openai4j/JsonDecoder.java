@@ -0,0 +1,84 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+
+import feign.Response;
+import feign.Util;
+import feign.codec.Decoder;
+
+/**
+ * JSON {@link Decoder} that parses the response body directly from the byte stream.
+ * Unlike {@link feign.jackson.JacksonDecoder} the body is not decoded to characters
+ * first, Jackson's UTF-8 parser reads the bytes and recycles its buffers. Floating
+ * point numbers are parsed with the fast double parser. The {@link ObjectReader} of
+ * every target type is created once and cached.
+ * <p>
+ * Handles 404, 204 and empty responses like {@link feign.jackson.JacksonDecoder}.
+ */
+public final class JsonDecoder implements Decoder {
+
+	private final ObjectMapper mapper;
+
+	private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+	public JsonDecoder(ObjectMapper mapper) {
+		this.mapper = mapper;
+	}
+
+	@Override
+	public Object decode(Response response, Type type) throws IOException {
+		if (response.status() == 404 || response.status() == 204) {
+			return Util.emptyValueOf(type);
+		}
+		if (response.body() == null) {
+			return null;
+		}
+
+		ObjectReader reader = this.readers.computeIfAbsent(type,
+				t -> this.mapper.readerFor(this.mapper.constructType(t)));
+		try (InputStream in = response.body().asInputStream();
+				JsonParser parser = this.mapper.createParser(in)) {
+			// parses the digits in place instead of creating a String for every number,
+			// an embedding has 1536 or more of them
+			parser.enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER.mappedFeature());
+			// an empty body is decoded to null instead of failing with "No content to
+			// map due to end-of-input"
+			if (parser.nextToken() == null) {
+				return null;
+			}
+			return reader.readValue(parser);
+		}
+		catch (RuntimeJsonMappingException e) {
+			if (e.getCause() instanceof IOException ioe) {
+				throw ioe;
+			}
+			throw e;
+		}
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+
+/**
+ * JSON {@link Encoder} that serializes the request body with Jackson's UTF-8 generator
+ * into a pooled buffer. Only the final body array is allocated per request, instead of
+ * the chain of growing segments {@link feign.jackson.JacksonEncoder} allocates for
+ * large bodies like long conversations or base64 encoded images. The
+ * {@link ObjectWriter} of every type is created once and cached.
+ */
+public final class JsonEncoder implements Encoder {
+
+	private static final int POOL_SIZE = 16;
+
+	private static final int INITIAL_CAPACITY = 8 * 1024;
+
+	/**
+	 * Upper bound of the memory retained by the pool. Buffers grow to the size of the
+	 * largest request they encoded, a few base64 encoded images fill the pool.
+	 */
+	private static final long MAX_POOLED_BYTES = 16L * 1024 * 1024;
+
+	private final ObjectMapper mapper;
+
+	private final Map<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+	private final ArrayBlockingQueue<Buffer> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+	private final AtomicLong pooledBytes = new AtomicLong();
+
+	public JsonEncoder(ObjectMapper mapper) {
+		this.mapper = mapper;
+	}
+
+	@Override
+	public void encode(Object object, Type bodyType, RequestTemplate template) {
+		ObjectWriter writer = this.writers.computeIfAbsent(bodyType,
+				t -> this.mapper.writerFor(
+						this.mapper.getTypeFactory().constructType(t)));
+		Buffer buffer = this.pool.poll();
+		if (buffer != null) {
+			this.pooledBytes.addAndGet(-buffer.capacity());
+		}
+		else {
+			buffer = new Buffer(INITIAL_CAPACITY);
+		}
+		try {
+			writer.writeValue(buffer, object);
+			template.body(buffer.toByteArray(), StandardCharsets.UTF_8);
+		}
+		catch (IOException e) {
+			// the buffer does not throw, only the serializers can
+			throw new EncodeException(e.getMessage(), e);
+		}
+		finally {
+			release(buffer);
+		}
+	}
+
+	private void release(Buffer buffer) {
+		int capacity = buffer.capacity();
+		if (this.pooledBytes.addAndGet(capacity) > MAX_POOLED_BYTES) {
+			this.pooledBytes.addAndGet(-capacity);
+			return;
+		}
+		buffer.reset();
+		if (!this.pool.offer(buffer)) {
+			this.pooledBytes.addAndGet(-capacity);
+		}
+	}
+
+	/**
+	 * Unsynchronized growable byte array, a buffer is only used by one thread at a
+	 * time.
+	 */
+	private static final class Buffer extends OutputStream {
+
+		private byte[] bytes;
+
+		private int length;
+
+		Buffer(int capacity) {
+			this.bytes = new byte[capacity];
+		}
+
+		@Override
+		public void write(int b) {
+			ensureCapacity(this.length + 1);
+			this.bytes[this.length++] = (byte) b;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			ensureCapacity(this.length + len);
+			System.arraycopy(b, off, this.bytes, this.length, len);
+			this.length += len;
+		}
+
+		@Override
+		public void close() {
+			// writeValue closes the stream, the buffer stays usable
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity > this.bytes.length) {
+				int newCapacity = Math.max(capacity, this.bytes.length * 2);
+				this.bytes = Arrays.copyOf(this.bytes, newCapacity);
+			}
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(this.bytes, this.length);
+		}
+
+		int capacity() {
+			return this.bytes.length;
+		}
+
+		void reset() {
+			this.length = 0;
+		}
+
+	}
+
+}
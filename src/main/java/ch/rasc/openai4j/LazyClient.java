@@ -0,0 +1,85 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Proxy that creates the Feign client on first use. Parsing the contract of a client
+ * interface with reflection is the most expensive part of creating an
+ * {@link OpenAIClient}, most applications only use a few of the clients.
+ */
+final class LazyClient<T> implements InvocationHandler {
+
+	private final Class<T> type;
+
+	private final Supplier<T> factory;
+
+	private volatile T delegate;
+
+	private LazyClient(Class<T> type, Supplier<T> factory) {
+		this.type = type;
+		this.factory = factory;
+	}
+
+	static <T> T create(Class<T> type, Supplier<T> factory) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(),
+				new Class<?>[] { type }, new LazyClient<>(type, factory)));
+	}
+
+	private T delegate() {
+		T result = this.delegate;
+		if (result == null) {
+			synchronized (this) {
+				result = this.delegate;
+				if (result == null) {
+					result = this.factory.get();
+					this.delegate = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		if (method.getDeclaringClass() == Object.class) {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "LazyClient(" + this.type.getSimpleName() + ", initialized="
+						+ (this.delegate != null) + ")";
+			default:
+				return method.invoke(this, args);
+			}
+		}
+
+		try {
+			return method.invoke(delegate(), args);
+		}
+		catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+}
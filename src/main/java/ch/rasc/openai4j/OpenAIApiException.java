@@ -22,19 +22,34 @@ public class OpenAIApiException extends IOException {
 	@Serial
 	private static final long serialVersionUID = 1L;
 
+	private final int status;
 	private final String message;
 	private final String type;
 	private final String param;
 	private final String code;
 
 	public OpenAIApiException(String message, String type, String param, String code) {
+		this(-1, message, type, param, code);
+	}
+
+	public OpenAIApiException(int status, String message, String type, String param,
+			String code) {
 		super(type + ": " + message);
+		this.status = status;
 		this.message = message;
 		this.type = type;
 		this.param = param;
 		this.code = code;
 	}
 
+	/**
+	 * HTTP status code of the response, -1 if the error was not sent with an HTTP error
+	 * status (for example an error event in a stream).
+	 */
+	public int status() {
+		return this.status;
+	}
+
 	public String message() {
 		return this.message;
 	}
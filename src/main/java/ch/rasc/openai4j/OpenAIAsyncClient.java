@@ -0,0 +1,164 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j;
+
+import java.util.List;
+import java.util.function.Function;
+
+import ch.rasc.openai4j.assistants.AssistantsAsyncClient;
+import ch.rasc.openai4j.audio.AudioAsyncClient;
+import ch.rasc.openai4j.batch.BatchesAsyncClient;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionsAsyncClient;
+import ch.rasc.openai4j.embeddings.EmbeddingsAsyncClient;
+import ch.rasc.openai4j.files.FilesAsyncClient;
+import ch.rasc.openai4j.finetuningjobs.FineTuningJobsAsyncClient;
+import ch.rasc.openai4j.images.ImagesAsyncClient;
+import ch.rasc.openai4j.models.ModelsAsyncClient;
+import ch.rasc.openai4j.moderations.ModerationsAsyncClient;
+import ch.rasc.openai4j.threads.ThreadsAsyncClient;
+import ch.rasc.openai4j.threads.messages.ThreadsMessagesAsyncClient;
+import ch.rasc.openai4j.threads.runs.ThreadsRunsAsyncClient;
+import ch.rasc.openai4j.threads.runs.steps.ThreadsRunsStepsAsyncClient;
+import ch.rasc.openai4j.uploads.UploadsAsyncClient;
+import ch.rasc.openai4j.vectorstores.VectorStoresAsyncClient;
+import ch.rasc.openai4j.vectorstores.filebatches.VectorStoresFileBatchesAsyncClient;
+import ch.rasc.openai4j.vectorstores.files.VectorStoresFilesAsyncClient;
+import feign.AsyncClient;
+import feign.AsyncFeign;
+import feign.Client;
+import feign.RequestInterceptor;
+import feign.codec.Encoder;
+
+/**
+ * Asynchronous counterpart of {@link OpenAIClient}. All methods return a
+ * {@link java.util.concurrent.CompletableFuture} and do not block the calling thread
+ * while the request is in flight. Cancelling a future completes it immediately, but
+ * does not abort a request that is already in flight: the default
+ * {@link feign.http2client.Http2Client} does not stop the exchange when its future is
+ * cancelled, and a blocking client on the executor cannot be interrupted.
+ * <p>
+ * When the configured {@link Configuration#client()} implements {@link AsyncClient},
+ * like the default {@link feign.http2client.Http2Client}, the same instance is used and
+ * the connection pool is shared with an {@link OpenAIClient} created from the same
+ * configuration. Other clients execute the request on the configured
+ * {@link Configuration#executor()}, or on the calling thread when no executor is
+ * configured.
+ */
+public class OpenAIAsyncClient {
+
+	public AudioAsyncClient audio;
+	public ChatCompletionsAsyncClient chatCompletions;
+	public EmbeddingsAsyncClient embeddings;
+	public FilesAsyncClient files;
+	public FineTuningJobsAsyncClient fineTuningJobs;
+	public ImagesAsyncClient images;
+	public ModelsAsyncClient models;
+	public ModerationsAsyncClient moderations;
+	public ThreadsAsyncClient threads;
+	public ThreadsRunsAsyncClient threadsRuns;
+	public ThreadsRunsStepsAsyncClient threadsRunsSteps;
+	public ThreadsMessagesAsyncClient threadsMessages;
+	public AssistantsAsyncClient assistants;
+	public BatchesAsyncClient batches;
+	public VectorStoresAsyncClient vectorStores;
+	public VectorStoresFilesAsyncClient vectorStoresFiles;
+	public VectorStoresFileBatchesAsyncClient vectorStoresFileBatches;
+	public UploadsAsyncClient uploads;
+
+	public static OpenAIAsyncClient create(
+			Function<Configuration.Builder, Configuration.Builder> fn) {
+		return create(fn.apply(Configuration.builder()).build());
+	}
+
+	public static OpenAIAsyncClient create(Configuration configuration) {
+
+		OpenAIAsyncClient client = new OpenAIAsyncClient();
+		AsyncClient<Object> asyncClient = asyncClient(configuration);
+		List<RequestInterceptor> interceptors = OpenAIClient
+				.requestInterceptors(configuration);
+		List<RequestInterceptor> betaInterceptors = OpenAIClient
+				.betaRequestInterceptors(interceptors);
+		String baseUrl = OpenAIClient.baseUrl(configuration);
+		Encoder json = Codecs.JSON_ENCODER;
+		Encoder form = Codecs.FORM_AND_JSON_ENCODER;
+
+		client.chatCompletions = lazyClient(ChatCompletionsAsyncClient.class,
+				configuration, asyncClient, json, interceptors, baseUrl);
+		client.embeddings = lazyClient(EmbeddingsAsyncClient.class, configuration,
+				asyncClient, json, interceptors, baseUrl);
+		client.files = lazyClient(FilesAsyncClient.class, configuration, asyncClient,
+				form, interceptors, baseUrl);
+		client.fineTuningJobs = lazyClient(FineTuningJobsAsyncClient.class, configuration,
+				asyncClient, form, interceptors, baseUrl);
+		client.audio = lazyClient(AudioAsyncClient.class, configuration, asyncClient,
+				form, interceptors, baseUrl);
+		client.images = lazyClient(ImagesAsyncClient.class, configuration, asyncClient,
+				form, interceptors, baseUrl);
+		client.moderations = lazyClient(ModerationsAsyncClient.class, configuration,
+				asyncClient, json, interceptors, baseUrl);
+		client.models = lazyClient(ModelsAsyncClient.class, configuration, asyncClient,
+				json, interceptors, baseUrl);
+		client.uploads = lazyClient(UploadsAsyncClient.class, configuration, asyncClient,
+				form, interceptors, baseUrl);
+
+		client.threads = lazyClient(ThreadsAsyncClient.class, configuration, asyncClient,
+				json, betaInterceptors, baseUrl);
+		client.threadsRuns = lazyClient(ThreadsRunsAsyncClient.class, configuration,
+				asyncClient, json, betaInterceptors, baseUrl);
+		client.threadsRunsSteps = lazyClient(ThreadsRunsStepsAsyncClient.class,
+				configuration, asyncClient, json, betaInterceptors, baseUrl);
+		client.threadsMessages = lazyClient(ThreadsMessagesAsyncClient.class,
+				configuration, asyncClient, json, betaInterceptors, baseUrl);
+		client.assistants = lazyClient(AssistantsAsyncClient.class, configuration,
+				asyncClient, json, betaInterceptors, baseUrl);
+		client.batches = lazyClient(BatchesAsyncClient.class, configuration, asyncClient,
+				json, betaInterceptors, baseUrl);
+		client.vectorStores = lazyClient(VectorStoresAsyncClient.class, configuration,
+				asyncClient, json, betaInterceptors, baseUrl);
+		client.vectorStoresFiles = lazyClient(VectorStoresFilesAsyncClient.class,
+				configuration, asyncClient, json, betaInterceptors, baseUrl);
+		client.vectorStoresFileBatches = lazyClient(
+				VectorStoresFileBatchesAsyncClient.class, configuration, asyncClient,
+				json, betaInterceptors, baseUrl);
+
+		return client;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static AsyncClient<Object> asyncClient(Configuration configuration) {
+		Client client = configuration.client();
+		if (client instanceof AsyncClient) {
+			return (AsyncClient<Object>) client;
+		}
+		if (configuration.executor() != null) {
+			return new AsyncClient.Default<>(client, configuration.executor());
+		}
+		return new AsyncClient.Pseudo<>(client);
+	}
+
+	private static <T> T lazyClient(Class<T> type, Configuration configuration,
+			AsyncClient<Object> asyncClient, Encoder encoder,
+			List<RequestInterceptor> interceptors, String baseUrl) {
+		return LazyClient.create(type,
+				() -> AsyncFeign.builder().client(asyncClient)
+						.errorDecoder(configuration.errorDecoder())
+						.retryer(configuration.retryer())
+						.options(configuration.feignOptions())
+						.logger(configuration.logger()).logLevel(configuration.logLevel())
+						.decoder(Codecs.JSON_DECODER).encoder(encoder)
+						.requestInterceptors(interceptors).target(type, baseUrl));
+	}
+}
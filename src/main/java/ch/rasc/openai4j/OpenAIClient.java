@@ -17,18 +17,21 @@ package ch.rasc.openai4j;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 
 import ch.rasc.openai4j.assistants.AssistantsClient;
 import ch.rasc.openai4j.audio.AudioClient;
 import ch.rasc.openai4j.batch.BatchesClient;
 import ch.rasc.openai4j.chatcompletions.ChatCompletionsClient;
+import ch.rasc.openai4j.concurrent.FanOut;
 import ch.rasc.openai4j.embeddings.EmbeddingsClient;
 import ch.rasc.openai4j.files.FilesClient;
 import ch.rasc.openai4j.finetuningjobs.FineTuningJobsClient;
 import ch.rasc.openai4j.images.ImagesClient;
 import ch.rasc.openai4j.models.ModelsClient;
 import ch.rasc.openai4j.moderations.ModerationsClient;
+import ch.rasc.openai4j.scheduling.SchedulingRequestInterceptor;
 import ch.rasc.openai4j.threads.ThreadsClient;
 import ch.rasc.openai4j.threads.messages.ThreadsMessagesClient;
 import ch.rasc.openai4j.threads.runs.ThreadsRunsClient;
@@ -38,11 +41,8 @@ import ch.rasc.openai4j.vectorstores.VectorStoresClient;
 import ch.rasc.openai4j.vectorstores.filebatches.VectorStoresFileBatchesClient;
 import ch.rasc.openai4j.vectorstores.files.VectorStoresFilesClient;
 import feign.Feign;
-import feign.Feign.Builder;
 import feign.RequestInterceptor;
-import feign.form.FormEncoder;
-import feign.jackson.JacksonDecoder;
-import feign.jackson.JacksonEncoder;
+import feign.codec.Encoder;
 
 public class OpenAIClient {
 
@@ -65,6 +65,10 @@ public class OpenAIClient {
 	public VectorStoresFileBatchesClient vectorStoresFileBatches;
 	public UploadsClient uploads;
 
+	private ExecutorService executor;
+
+	private FanOut fanOut;
+
 	public static OpenAIClient create(
 			Function<Configuration.Builder, Configuration.Builder> fn) {
 		return create(fn.apply(Configuration.builder()).build());
@@ -73,10 +77,89 @@ public class OpenAIClient {
 	public static OpenAIClient create(Configuration configuration) {
 
 		OpenAIClient client = new OpenAIClient();
-		JacksonDecoder jsonDecoder = new JacksonDecoder();
-		JacksonEncoder jsonEncoder = new JacksonEncoder();
-		FormEncoder formAndJsonEncoder = new FormEncoder(jsonEncoder);
+		List<RequestInterceptor> interceptors = requestInterceptors(configuration);
+		List<RequestInterceptor> betaInterceptors = betaRequestInterceptors(interceptors);
+		String baseUrl = baseUrl(configuration);
+		Encoder json = Codecs.JSON_ENCODER;
+		Encoder form = Codecs.FORM_AND_JSON_ENCODER;
+
+		client.chatCompletions = lazyClient(ChatCompletionsClient.class, configuration,
+				json, interceptors, baseUrl);
+		client.embeddings = lazyClient(EmbeddingsClient.class, configuration, json,
+				interceptors, baseUrl);
+		client.files = lazyClient(FilesClient.class, configuration, form, interceptors,
+				baseUrl);
+		client.fineTuningJobs = lazyClient(FineTuningJobsClient.class, configuration,
+				form, interceptors, baseUrl);
+		client.audio = lazyClient(AudioClient.class, configuration, form, interceptors,
+				baseUrl);
+		client.images = lazyClient(ImagesClient.class, configuration, form, interceptors,
+				baseUrl);
+		client.moderations = lazyClient(ModerationsClient.class, configuration, json,
+				interceptors, baseUrl);
+		client.models = lazyClient(ModelsClient.class, configuration, json, interceptors,
+				baseUrl);
+		client.uploads = lazyClient(UploadsClient.class, configuration, form,
+				interceptors, baseUrl);
+
+		client.threads = lazyClient(ThreadsClient.class, configuration, json,
+				betaInterceptors, baseUrl);
+		client.threadsRuns = lazyClient(ThreadsRunsClient.class, configuration, json,
+				betaInterceptors, baseUrl);
+		client.threadsRunsSteps = lazyClient(ThreadsRunsStepsClient.class, configuration,
+				json, betaInterceptors, baseUrl);
+		client.threadsMessages = lazyClient(ThreadsMessagesClient.class, configuration,
+				json, betaInterceptors, baseUrl);
+		client.assistants = lazyClient(AssistantsClient.class, configuration, json,
+				betaInterceptors, baseUrl);
+		client.batches = lazyClient(BatchesClient.class, configuration, json,
+				betaInterceptors, baseUrl);
+		client.vectorStores = lazyClient(VectorStoresClient.class, configuration, json,
+				betaInterceptors, baseUrl);
+		client.vectorStoresFiles = lazyClient(VectorStoresFilesClient.class,
+				configuration, json, betaInterceptors, baseUrl);
+		client.vectorStoresFileBatches = lazyClient(VectorStoresFileBatchesClient.class,
+				configuration, json, betaInterceptors, baseUrl);
+
+		client.executor = configuration.executor();
+		client.fanOut = client.executor != null ? new FanOut(client.executor)
+				: FanOut.virtualThreads();
+
+		return client;
+	}
+
+	/**
+	 * The executor of the configuration ({@link Configuration.Builder#executor} or
+	 * {@link Configuration.Builder#virtualThreads}), null if none is configured.
+	 */
+	public ExecutorService executor() {
+		return this.executor;
+	}
+
+	/**
+	 * Runs blocking calls of this client concurrently on the configured
+	 * {@link #executor()}, for example
+	 * {@code client.fanOut().submit(() -> client.files.waitForProcessing(fileId))}.
+	 * Without a configured executor the shared {@link FanOut#virtualThreads()} instance
+	 * is used.
+	 */
+	public FanOut fanOut() {
+		return this.fanOut;
+	}
+
+	private static <T> T lazyClient(Class<T> type, Configuration configuration,
+			Encoder encoder, List<RequestInterceptor> interceptors, String baseUrl) {
+		return LazyClient.create(type,
+				() -> Feign.builder().client(configuration.client())
+						.errorDecoder(configuration.errorDecoder())
+						.retryer(configuration.retryer())
+						.options(configuration.feignOptions())
+						.logger(configuration.logger()).logLevel(configuration.logLevel())
+						.decoder(Codecs.JSON_DECODER).encoder(encoder)
+						.requestInterceptors(interceptors).target(type, baseUrl));
+	}
 
+	static List<RequestInterceptor> requestInterceptors(Configuration configuration) {
 		List<RequestInterceptor> interceptors = new ArrayList<>();
 
 		if (configuration.additionalRequestInterceptor() != null) {
@@ -94,10 +177,33 @@ public class OpenAIClient {
 					.add(new ApiVersionRequestInterceptor(configuration.apiVersion()));
 		}
 
-		String baseUrl;
-		if (configuration.azureEndpoint() != null
-				&& !configuration.azureEndpoint().isBlank()) {
+		if (configuration.scheduler() != null) {
+			interceptors.add(new SchedulingRequestInterceptor());
+		}
+
+		// without an API key the load balancer sets the key of the chosen backend
+		if (configuration.apiKey() != null) {
+			if (isAzure(configuration)) {
+				interceptors
+						.add(new AzureApiKeyRequestInterceptor(configuration.apiKey()));
+			}
+			else {
+				interceptors.add(
+						new AuthorizationRequestInterceptor(configuration.apiKey()));
+			}
+		}
+		return List.copyOf(interceptors);
+	}
+
+	static List<RequestInterceptor> betaRequestInterceptors(
+			List<RequestInterceptor> interceptors) {
+		List<RequestInterceptor> betaInterceptors = new ArrayList<>(interceptors);
+		betaInterceptors.add(new OpenAIBetaRequestInterceptor());
+		return List.copyOf(betaInterceptors);
+	}
 
+	static String baseUrl(Configuration configuration) {
+		if (isAzure(configuration)) {
 			String azureEndpoint = configuration.azureEndpoint();
 			if (azureEndpoint.endsWith("/")) {
 				azureEndpoint = azureEndpoint.substring(0, azureEndpoint.length() - 1);
@@ -105,105 +211,16 @@ public class OpenAIClient {
 
 			if (configuration.azureDeployment() != null
 					&& !configuration.azureDeployment().isBlank()) {
-				baseUrl = azureEndpoint + "/openai/deployments/"
+				return azureEndpoint + "/openai/deployments/"
 						+ configuration.azureDeployment();
 			}
-			else {
-				baseUrl = azureEndpoint + "/openai";
-			}
-			interceptors.add(new AzureApiKeyRequestInterceptor(configuration.apiKey()));
-		}
-		else {
-			baseUrl = configuration.baseUrl();
-			interceptors.add(new AuthorizationRequestInterceptor(configuration.apiKey()));
+			return azureEndpoint + "/openai";
 		}
-
-		client.chatCompletions = jsonClientBuilder(configuration, jsonDecoder,
-				jsonEncoder, interceptors).target(ChatCompletionsClient.class, baseUrl);
-
-		client.embeddings = jsonClientBuilder(configuration, jsonDecoder, jsonEncoder,
-				interceptors).target(EmbeddingsClient.class, baseUrl);
-
-		client.files = formAndJsonClientBuilder(configuration, jsonDecoder,
-				formAndJsonEncoder, interceptors).target(FilesClient.class, baseUrl);
-
-		client.fineTuningJobs = formAndJsonClientBuilder(configuration, jsonDecoder,
-				formAndJsonEncoder, interceptors).target(FineTuningJobsClient.class,
-						baseUrl);
-
-		client.audio = formAndJsonClientBuilder(configuration, jsonDecoder,
-				formAndJsonEncoder, interceptors).target(AudioClient.class, baseUrl);
-
-		client.images = formAndJsonClientBuilder(configuration, jsonDecoder,
-				formAndJsonEncoder, interceptors).target(ImagesClient.class, baseUrl);
-
-		client.moderations = jsonClientBuilder(configuration, jsonDecoder, jsonEncoder,
-				interceptors).target(ModerationsClient.class, baseUrl);
-
-		client.models = jsonClientBuilder(configuration, jsonDecoder, jsonEncoder,
-				interceptors).target(ModelsClient.class, baseUrl);
-
-		client.uploads = formAndJsonClientBuilder(configuration, jsonDecoder,
-				formAndJsonEncoder, interceptors).target(UploadsClient.class, baseUrl);
-
-		var betaInterceptors = new ArrayList<>(interceptors);
-		betaInterceptors.add(new OpenAIBetaRequestInterceptor());
-		client.threads = betaClientBuilder(configuration, jsonDecoder, jsonEncoder,
-				betaInterceptors).target(ThreadsClient.class, baseUrl);
-		client.threadsRuns = betaClientBuilder(configuration, jsonDecoder, jsonEncoder,
-				betaInterceptors).target(ThreadsRunsClient.class, baseUrl);
-		client.threadsRunsSteps = betaClientBuilder(configuration, jsonDecoder,
-				jsonEncoder, betaInterceptors).target(ThreadsRunsStepsClient.class,
-						baseUrl);
-		client.threadsMessages = betaClientBuilder(configuration, jsonDecoder,
-				jsonEncoder, betaInterceptors).target(ThreadsMessagesClient.class,
-						baseUrl);
-		client.assistants = betaClientBuilder(configuration, jsonDecoder, jsonEncoder,
-				betaInterceptors).target(AssistantsClient.class, baseUrl);
-		client.batches = jsonClientBuilder(configuration, jsonDecoder, jsonEncoder,
-				betaInterceptors).target(BatchesClient.class, baseUrl);
-		client.vectorStores = jsonClientBuilder(configuration, jsonDecoder, jsonEncoder,
-				betaInterceptors).target(VectorStoresClient.class, baseUrl);
-		client.vectorStoresFiles = jsonClientBuilder(configuration, jsonDecoder,
-				jsonEncoder, betaInterceptors).target(VectorStoresFilesClient.class,
-						baseUrl);
-		client.vectorStoresFileBatches = jsonClientBuilder(configuration, jsonDecoder,
-				jsonEncoder, betaInterceptors).target(VectorStoresFileBatchesClient.class,
-						baseUrl);
-
-		return client;
-	}
-
-	private static Builder formAndJsonClientBuilder(Configuration configuration,
-			JacksonDecoder jsonDecoder, FormEncoder formAndJsonEncoder,
-			List<RequestInterceptor> interceptors) {
-		return Feign.builder().client(configuration.client())
-				.errorDecoder(configuration.errorDecoder())
-				.retryer(configuration.retryer()).options(configuration.feignOptions())
-				.logger(configuration.logger()).logLevel(configuration.logLevel())
-				.decoder(jsonDecoder).encoder(formAndJsonEncoder)
-				.requestInterceptors(interceptors);
-	}
-
-	private static Builder jsonClientBuilder(Configuration configuration,
-			JacksonDecoder jsonDecoder, JacksonEncoder jsonEncoder,
-			List<RequestInterceptor> interceptors) {
-		return Feign.builder().client(configuration.client())
-				.errorDecoder(configuration.errorDecoder())
-				.retryer(configuration.retryer()).options(configuration.feignOptions())
-				.logger(configuration.logger()).logLevel(configuration.logLevel())
-				.decoder(jsonDecoder).encoder(jsonEncoder)
-				.requestInterceptors(interceptors);
+		return configuration.baseUrl();
 	}
 
-	private static Builder betaClientBuilder(Configuration configuration,
-			JacksonDecoder jsonDecoder, JacksonEncoder jsonEncoder,
-			ArrayList<RequestInterceptor> betaInterceptors) {
-		return Feign.builder().client(configuration.client())
-				.errorDecoder(configuration.errorDecoder())
-				.retryer(configuration.retryer()).options(configuration.feignOptions())
-				.logger(configuration.logger()).logLevel(configuration.logLevel())
-				.decoder(jsonDecoder).encoder(jsonEncoder)
-				.requestInterceptors(betaInterceptors);
+	private static boolean isAzure(Configuration configuration) {
+		return configuration.azureEndpoint() != null
+				&& !configuration.azureEndpoint().isBlank();
 	}
 }
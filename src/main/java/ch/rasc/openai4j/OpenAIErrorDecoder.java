@@ -16,15 +16,31 @@
 package ch.rasc.openai4j;
 
 import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.Map;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import feign.Response;
+import feign.RetryableException;
+import feign.Util;
 import feign.codec.ErrorDecoder;
 
+/**
+ * Decodes the OpenAI error object into an {@link OpenAIApiException}.
+ * <p>
+ * Errors that are worth retrying (408, 409, 429 and 5xx) are wrapped in a
+ * {@link RetryableException} with the {@link OpenAIApiException} as cause. A 429 with
+ * the code insufficient_quota is not retryable. The retry-after-ms and Retry-After
+ * headers are copied to {@link RetryableException#retryAfter()}.
+ */
 public class OpenAIErrorDecoder implements ErrorDecoder {
 
+	private static final String INSUFFICIENT_QUOTA = "insufficient_quota";
+
 	private final ObjectMapper objectMapper;
 
 	private final ErrorDecoder.Default defaultErrorDecoder;
@@ -37,23 +53,102 @@ public class OpenAIErrorDecoder implements ErrorDecoder {
 	@Override
 	public Exception decode(String methodKey, Response response) {
 
-		try (var body = response.body(); var is = body.asInputStream()) {
-			Map<String, Object> error = this.objectMapper.readValue(is, Map.class);
-			if (error.containsKey("error") && error.get("error") instanceof Map) {
-				Map<String, Object> errorMap = (Map<String, Object>) error.get("error");
-				String message = (String) errorMap.get("message");
-				String type = (String) errorMap.get("type");
-				String param = (String) errorMap.get("param");
-				String code = (String) errorMap.get("code");
+		byte[] body = null;
+		try (var responseBody = response.body()) {
+			if (responseBody != null) {
+				body = Util.toByteArray(responseBody.asInputStream());
+				Map<String, Object> error = this.objectMapper.readValue(body, Map.class);
+				if (error.containsKey("error") && error.get("error") instanceof Map) {
+					Map<String, Object> errorMap = (Map<String,
+							Object>) error.get("error");
+					String message = (String) errorMap.get("message");
+					String type = (String) errorMap.get("type");
+					String param = (String) errorMap.get("param");
+					String code = (String) errorMap.get("code");
 
-				return new OpenAIApiException(message, type, param, code);
+					OpenAIApiException exception = new OpenAIApiException(
+							response.status(), message, type, param, code);
+					if (isRetryable(response.status(), code)) {
+						return new RetryableException(response.status(),
+								exception.getMessage(), response.request().httpMethod(),
+								exception, retryAfter(response),
+								response.request());
+					}
+					return exception;
+				}
 			}
 		}
-		catch (IOException e) {
+		catch (IOException | RuntimeException e) {
 			// do nothing fall back to default error decoder
 		}
 
-		return this.defaultErrorDecoder.decode(methodKey, response);
+		Response buffered = body != null ? response.toBuilder().body(body).build()
+				: response;
+		Exception exception = this.defaultErrorDecoder.decode(methodKey, buffered);
+		if (!(exception instanceof RetryableException)
+				&& isRetryable(response.status(), null)) {
+			return new RetryableException(response.status(), exception.getMessage(),
+					response.request().httpMethod(), exception,
+					retryAfter(response), response.request());
+		}
+		return exception;
+	}
+
+	/**
+	 * Returns true if a request that failed with the given status and OpenAI error code
+	 * can succeed when it is sent again.
+	 */
+	public static boolean isRetryable(int status, String code) {
+		if (status == 429) {
+			return !INSUFFICIENT_QUOTA.equals(code);
+		}
+		return status == 408 || status == 409 || status >= 500;
+	}
+
+	/**
+	 * Reads the retry-after-ms header (milliseconds, fractions allowed) and the
+	 * Retry-After header (seconds or an HTTP date).
+	 *
+	 * @return the earliest time to retry in epoch milliseconds or null
+	 */
+	public static Long retryAfter(Response response) {
+		String retryAfterMs = header(response, "retry-after-ms");
+		if (retryAfterMs != null) {
+			try {
+				return System.currentTimeMillis()
+						+ (long) Double.parseDouble(retryAfterMs);
+			}
+			catch (NumberFormatException e) {
+				// ignore, try Retry-After
+			}
+		}
+
+		String retryAfter = header(response, "Retry-After");
+		if (retryAfter != null) {
+			try {
+				return System.currentTimeMillis()
+						+ (long) (Double.parseDouble(retryAfter) * 1000);
+			}
+			catch (NumberFormatException e) {
+				try {
+					return ZonedDateTime
+							.parse(retryAfter, DateTimeFormatter.RFC_1123_DATE_TIME)
+							.toInstant().toEpochMilli();
+				}
+				catch (DateTimeParseException ex) {
+					// ignore invalid header
+				}
+			}
+		}
+		return null;
+	}
+
+	private static String header(Response response, String name) {
+		Collection<String> values = response.headers().get(name);
+		if (values == null || values.isEmpty()) {
+			return null;
+		}
+		return values.iterator().next().trim();
 	}
 
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import feign.RetryableException;
+import feign.Retryer;
+
+/**
+ * {@link Retryer} for the OpenAI API.
+ * <ul>
+ * <li>Only retries errors that can succeed on a second attempt: I/O errors and the
+ * status codes classified by {@link OpenAIErrorDecoder#isRetryable(int, String)}. A 429
+ * with the code insufficient_quota is never retried.</li>
+ * <li>Waits the time sent in the retry-after-ms or Retry-After header. A request is not
+ * retried when the server asks to wait longer than {@link Builder#maxDelay}.</li>
+ * <li>Otherwise waits with exponential backoff and decorrelated jitter, so clients that
+ * failed at the same time do not retry at the same time.</li>
+ * <li>A retry budget limits retries to a fraction of the requests. All copies of a
+ * retryer share the budget, when the service is down the retries do not multiply the
+ * load.</li>
+ * </ul>
+ */
+public class OpenAIRetryer implements Retryer {
+
+	private final int maxAttempts;
+
+	private final long baseDelayMillis;
+
+	private final long maxDelayMillis;
+
+	private final RetryBudget budget;
+
+	private int attempt;
+
+	private long previousDelayMillis;
+
+	private OpenAIRetryer(Builder builder) {
+		this(builder.maxAttempts, builder.baseDelay.toMillis(),
+				builder.maxDelay.toMillis(),
+				new RetryBudget(builder.budgetRatio, builder.minRetriesPerSecond));
+	}
+
+	private OpenAIRetryer(int maxAttempts, long baseDelayMillis, long maxDelayMillis,
+			RetryBudget budget) {
+		this.maxAttempts = maxAttempts;
+		this.baseDelayMillis = baseDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+		this.budget = budget;
+		this.attempt = 1;
+		this.previousDelayMillis = baseDelayMillis;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static OpenAIRetryer create() {
+		return builder().build();
+	}
+
+	public static final class Builder {
+		private int maxAttempts = 3;
+		private Duration baseDelay = Duration.ofMillis(500);
+		private Duration maxDelay = Duration.ofSeconds(30);
+		private double budgetRatio = 0.2;
+		private int minRetriesPerSecond = 1;
+
+		private Builder() {
+		}
+
+		/**
+		 * Maximum number of attempts including the first request. Default: 3
+		 */
+		public Builder maxAttempts(int maxAttempts) {
+			this.maxAttempts = maxAttempts;
+			return this;
+		}
+
+		/**
+		 * Minimum delay between two attempts. Default: 500 ms
+		 */
+		public Builder baseDelay(Duration baseDelay) {
+			this.baseDelay = baseDelay;
+			return this;
+		}
+
+		/**
+		 * Maximum delay between two attempts. Also the maximum Retry-After value that
+		 * is honored. Default: 30 seconds
+		 */
+		public Builder maxDelay(Duration maxDelay) {
+			this.maxDelay = maxDelay;
+			return this;
+		}
+
+		/**
+		 * Retry budget. Retries are allowed as long as they do not exceed the given
+		 * fraction of the requests of the last 10 seconds plus a minimum number of
+		 * retries per second. Default: 0.2 and 1
+		 */
+		public Builder retryBudget(double ratio, int minRetriesPerSecond) {
+			this.budgetRatio = ratio;
+			this.minRetriesPerSecond = minRetriesPerSecond;
+			return this;
+		}
+
+		public OpenAIRetryer build() {
+			if (this.maxAttempts < 1) {
+				throw new IllegalArgumentException("maxAttempts must be at least 1");
+			}
+			if (this.baseDelay == null || this.baseDelay.isNegative()) {
+				throw new IllegalArgumentException("baseDelay must not be negative");
+			}
+			if (this.maxDelay == null || this.maxDelay.compareTo(this.baseDelay) < 0) {
+				throw new IllegalArgumentException(
+						"maxDelay must not be less than baseDelay");
+			}
+			if (this.budgetRatio < 0 || this.minRetriesPerSecond < 0) {
+				throw new IllegalArgumentException("retryBudget must not be negative");
+			}
+			return new OpenAIRetryer(this);
+		}
+	}
+
+	@Override
+	public void continueOrPropagate(RetryableException e) {
+		if (this.attempt++ >= this.maxAttempts || !isRetryable(e)) {
+			throw e;
+		}
+
+		long delay;
+		Long retryAfter = e.retryAfter();
+		if (retryAfter != null) {
+			delay = Math.max(0, retryAfter - System.currentTimeMillis());
+			if (delay > this.maxDelayMillis) {
+				throw e;
+			}
+		}
+		else {
+			delay = nextDelay();
+		}
+
+		if (!this.budget.tryRetry()) {
+			throw e;
+		}
+
+		try {
+			Thread.sleep(delay);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw e;
+		}
+	}
+
+	/**
+	 * Decorrelated jitter: a random delay between the base delay and three times the
+	 * previous delay, capped at the maximum delay.
+	 */
+	private long nextDelay() {
+		long upper = Math.min(this.maxDelayMillis,
+				Math.max(this.baseDelayMillis + 1, this.previousDelayMillis * 3));
+		long delay = ThreadLocalRandom.current().nextLong(this.baseDelayMillis,
+				upper + 1);
+		this.previousDelayMillis = delay;
+		return delay;
+	}
+
+	private static boolean isRetryable(RetryableException e) {
+		if (e.getCause() instanceof OpenAIApiException apiException) {
+			return OpenAIErrorDecoder.isRetryable(e.status(), apiException.code());
+		}
+		// I/O errors have no status, other statuses come from a custom error decoder
+		return true;
+	}
+
+	/**
+	 * Returns a retryer for a new request. The copy shares the retry budget with this
+	 * instance.
+	 */
+	@Override
+	public Retryer clone() {
+		this.budget.recordRequest();
+		return new OpenAIRetryer(this.maxAttempts, this.baseDelayMillis,
+				this.maxDelayMillis, this.budget);
+	}
+
+	/**
+	 * Counts requests and retries in a sliding window of ten one-second buckets.
+	 */
+	static final class RetryBudget {
+		private static final int BUCKETS = 10;
+
+		private final double ratio;
+		private final int minRetriesPerSecond;
+		private final long[] requests = new long[BUCKETS];
+		private final long[] retries = new long[BUCKETS];
+		private final long[] bucketSeconds = new long[BUCKETS];
+
+		RetryBudget(double ratio, int minRetriesPerSecond) {
+			this.ratio = ratio;
+			this.minRetriesPerSecond = minRetriesPerSecond;
+		}
+
+		synchronized void recordRequest() {
+			this.requests[bucket(currentSecond())]++;
+		}
+
+		synchronized boolean tryRetry() {
+			long second = currentSecond();
+			int current = bucket(second);
+			long requestCount = 0;
+			long retryCount = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				if (second - this.bucketSeconds[i] < BUCKETS) {
+					requestCount += this.requests[i];
+					retryCount += this.retries[i];
+				}
+			}
+			if (retryCount >= this.minRetriesPerSecond * BUCKETS
+					+ this.ratio * requestCount) {
+				return false;
+			}
+			this.retries[current]++;
+			return true;
+		}
+
+		private static long currentSecond() {
+			return System.nanoTime() / 1_000_000_000L;
+		}
+
+		private int bucket(long second) {
+			int index = Math.floorMod(second, BUCKETS);
+			if (this.bucketSeconds[index] != second) {
+				this.bucketSeconds[index] = second;
+				this.requests[index] = 0;
+				this.retries[index] = 0;
+			}
+			return index;
+		}
+	}
+
+}
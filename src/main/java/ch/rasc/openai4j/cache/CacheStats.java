@@ -0,0 +1,80 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.cache;
+
+/**
+ * Snapshot of the counters of a {@link ResponseCache}.
+ */
+public record CacheStats(long hits, long diskHits, long misses, long evictions,
+		long entries, long bytes) {
+
+	/**
+	 * Number of requests answered from the cache, including {@link #diskHits()}.
+	 */
+	@Override
+	public long hits() {
+		return this.hits;
+	}
+
+	/**
+	 * Number of requests answered from the disk tier.
+	 */
+	@Override
+	public long diskHits() {
+		return this.diskHits;
+	}
+
+	/**
+	 * Number of cacheable requests that were sent to the server.
+	 */
+	@Override
+	public long misses() {
+		return this.misses;
+	}
+
+	/**
+	 * Number of entries removed from the heap tier to stay below the size limit.
+	 */
+	@Override
+	public long evictions() {
+		return this.evictions;
+	}
+
+	/**
+	 * Number of entries in the heap tier.
+	 */
+	@Override
+	public long entries() {
+		return this.entries;
+	}
+
+	/**
+	 * Estimated size of the entries in the heap tier in bytes.
+	 */
+	@Override
+	public long bytes() {
+		return this.bytes;
+	}
+
+	/**
+	 * Fraction of the cacheable requests answered from the cache.
+	 */
+	public double hitRate() {
+		long total = this.hits + this.misses;
+		return total == 0 ? 0 : (double) this.hits / total;
+	}
+
+}
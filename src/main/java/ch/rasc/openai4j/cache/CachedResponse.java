@@ -0,0 +1,48 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+import feign.Request;
+import feign.Response;
+
+/**
+ * A buffered response stored in a {@link ResponseCache}.
+ */
+record CachedResponse(int status, String reason, Map<String, Collection<String>> headers,
+		byte[] body, long expiresAt) {
+
+	/**
+	 * Rough overhead of an entry on the heap, in addition to the body.
+	 */
+	private static final int OVERHEAD = 256;
+
+	boolean isExpired(long now) {
+		return now - this.expiresAt >= 0;
+	}
+
+	long weight() {
+		return this.body.length + OVERHEAD;
+	}
+
+	Response toResponse(Request request) {
+		return Response.builder().status(this.status).reason(this.reason)
+				.headers(this.headers).body(this.body).request(request).build();
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import ch.rasc.openai4j.concurrent.AsyncClients;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * {@link Client} decorator that answers cacheable requests from a
+ * {@link ResponseCache} and stores successful responses of cacheable requests in the
+ * cache.
+ * <p>
+ * Implements {@link AsyncClient} as well. When the delegate is not an
+ * {@link AsyncClient} the request is executed on the given executor, or on the calling
+ * thread when no executor is set.
+ */
+public class CachingClient implements Client, AsyncClient<Object> {
+
+	private final Client delegate;
+
+	private final ResponseCache cache;
+
+	private final Executor executor;
+
+	public CachingClient(Client delegate, ResponseCache cache) {
+		this(delegate, cache, null);
+	}
+
+	public CachingClient(Client delegate, ResponseCache cache, Executor executor) {
+		this.delegate = delegate;
+		this.cache = cache;
+		this.executor = executor;
+	}
+
+	public Client delegate() {
+		return this.delegate;
+	}
+
+	public ResponseCache cache() {
+		return this.cache;
+	}
+
+	@Override
+	public Response execute(Request request, Options options) throws IOException {
+		String key = this.cache.key(request);
+		if (key == null) {
+			return this.delegate.execute(request, options);
+		}
+		CachedResponse cached = this.cache.get(key);
+		if (cached != null) {
+			return cached.toResponse(request);
+		}
+		return store(key, this.delegate.execute(request, options));
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Options options,
+			Optional<Object> requestContext) {
+		String key = this.cache.key(request);
+		if (key != null) {
+			CachedResponse cached = this.cache.get(key);
+			if (cached != null) {
+				return CompletableFuture.completedFuture(cached.toResponse(request));
+			}
+		}
+
+		CompletableFuture<Response> source = AsyncClients.execute(this.delegate,
+				this.executor, request, options, requestContext);
+		if (key == null) {
+			return source;
+		}
+		CompletableFuture<Response> result = source.thenApply(response -> {
+			try {
+				return store(key, response);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		result.whenComplete((response, error) -> {
+			if (result.isCancelled()) {
+				source.cancel(true);
+			}
+		});
+		return result;
+	}
+
+	private Response store(String key, Response response) throws IOException {
+		if (response.status() != 200 || response.body() == null) {
+			return response;
+		}
+		Integer length = response.body().length();
+		if (length != null && !this.cache.isCacheableSize(length)) {
+			return response;
+		}
+
+		// read at most one byte more than an entry may hold, a larger body is passed
+		// through without caching
+		byte[] body;
+		PushbackInputStream in = new PushbackInputStream(
+				response.body().asInputStream());
+		try {
+			body = in.readNBytes(this.cache.maxEntryBytes());
+			int next = in.read();
+			if (next != -1) {
+				in.unread(next);
+				InputStream rest = new SequenceInputStream(
+						new ByteArrayInputStream(body), in);
+				return response.toBuilder().body(rest, length).build();
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			response.close();
+			throw e;
+		}
+		response.close();
+
+		Map<String, Collection<String>> headers = new TreeMap<>(
+				String.CASE_INSENSITIVE_ORDER);
+		headers.putAll(response.headers());
+		CachedResponse entry = this.cache.entry(response.status(), response.reason(),
+				headers, body);
+		if (entry != null) {
+			this.cache.put(key, entry);
+		}
+		return response.toBuilder().body(body).build();
+	}
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.cache;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.rasc.openai4j.concurrent.Endpoints;
+import feign.Request;
+
+/**
+ * Settings and in-flight registry of {@link CoalescingClient}. Identical requests
+ * (same endpoint, URL, credentials and body) that are sent while the first of them is
+ * still in flight do not send their own HTTP request, they receive a copy of the
+ * response of the first request.
+ * <p>
+ * Only enable coalescing for idempotent endpoints. By default these are
+ * "EmbeddingsClient#create" and "ModerationsClient#create".
+ * <p>
+ * An instance is thread-safe and can be shared by multiple clients, synchronous and
+ * asynchronous callers share the in-flight requests.
+ */
+public final class Coalescing {
+
+	private final Set<String> endpoints;
+
+	private final Map<String, CompletableFuture<CachedResponse>> inFlight =
+			new ConcurrentHashMap<>();
+
+	private final LongAdder requests = new LongAdder();
+
+	private final LongAdder coalesced = new LongAdder();
+
+	private Coalescing(Builder builder) {
+		this.endpoints = Set.copyOf(builder.endpoints);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static Coalescing create() {
+		return builder().build();
+	}
+
+	public static final class Builder {
+		private Set<String> endpoints = Set.of("EmbeddingsClient#create",
+				"ModerationsClient#create");
+
+		private Builder() {
+		}
+
+		/**
+		 * Endpoints to coalesce, client interface and method name, for example
+		 * "EmbeddingsClient#create". The synchronous and asynchronous variant of a client
+		 * share the endpoint. Default: "EmbeddingsClient#create",
+		 * "ModerationsClient#create"
+		 */
+		public Builder endpoints(Set<String> endpoints) {
+			this.endpoints = endpoints;
+			return this;
+		}
+
+		public Coalescing build() {
+			if (this.endpoints == null) {
+				throw new IllegalArgumentException("endpoints must not be null");
+			}
+			return new Coalescing(this);
+		}
+	}
+
+	/**
+	 * Returns the key of a request, or null if the endpoint is not coalesced.
+	 */
+	String key(Request request) {
+		String endpoint = Endpoints.name(request);
+		if (endpoint == null || !this.endpoints.contains(endpoint)) {
+			return null;
+		}
+		return RequestKeys.hash(request);
+	}
+
+	/**
+	 * Registers a request as in flight.
+	 *
+	 * @param call the future the caller completes with the response if it is the first
+	 * request with this key
+	 * @return null if the caller sends the request, otherwise the future of the request
+	 * in flight
+	 */
+	CompletableFuture<CachedResponse> join(String key,
+			CompletableFuture<CachedResponse> call) {
+		this.requests.increment();
+		CompletableFuture<CachedResponse> existing = this.inFlight.putIfAbsent(key, call);
+		if (existing != null) {
+			this.coalesced.increment();
+		}
+		return existing;
+	}
+
+	/**
+	 * Removes a request from the in-flight registry, requests that arrive later send
+	 * their own HTTP request.
+	 */
+	void leave(String key, CompletableFuture<CachedResponse> call) {
+		this.inFlight.remove(key, call);
+	}
+
+	/**
+	 * Number of distinct requests currently in flight.
+	 */
+	public int inFlight() {
+		return this.inFlight.size();
+	}
+
+	/**
+	 * The current counters.
+	 */
+	public CoalescingStats stats() {
+		return new CoalescingStats(this.requests.sum(), this.coalesced.sum());
+	}
+
+}
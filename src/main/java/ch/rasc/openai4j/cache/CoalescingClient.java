@@ -0,0 +1,180 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import ch.rasc.openai4j.concurrent.AsyncClients;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * {@link Client} decorator that shares one HTTP request between identical concurrent
+ * requests, see {@link Coalescing}. The response body is buffered, every caller
+ * decodes its own copy.
+ * <p>
+ * Implements {@link AsyncClient} as well. Cancelling the future of a coalesced request
+ * does not abort the shared HTTP exchange, the other callers still wait for it. When
+ * the delegate is not an {@link AsyncClient} the request is executed on the given
+ * executor, or on the calling thread when no executor is set.
+ */
+public class CoalescingClient implements Client, AsyncClient<Object> {
+
+	private final Client delegate;
+
+	private final Coalescing coalescing;
+
+	private final Executor executor;
+
+	public CoalescingClient(Client delegate, Coalescing coalescing) {
+		this(delegate, coalescing, null);
+	}
+
+	public CoalescingClient(Client delegate, Coalescing coalescing, Executor executor) {
+		this.delegate = delegate;
+		this.coalescing = coalescing;
+		this.executor = executor;
+	}
+
+	public Client delegate() {
+		return this.delegate;
+	}
+
+	public Coalescing coalescing() {
+		return this.coalescing;
+	}
+
+	@Override
+	public Response execute(Request request, Options options) throws IOException {
+		String key = this.coalescing.key(request);
+		if (key == null) {
+			return this.delegate.execute(request, options);
+		}
+
+		CompletableFuture<CachedResponse> call = new CompletableFuture<>();
+		CompletableFuture<CachedResponse> existing = this.coalescing.join(key, call);
+		if (existing != null) {
+			return await(existing).toResponse(request);
+		}
+
+		try {
+			CachedResponse response = buffer(this.delegate.execute(request, options));
+			this.coalescing.leave(key, call);
+			call.complete(response);
+			return response.toResponse(request);
+		}
+		catch (IOException | RuntimeException e) {
+			this.coalescing.leave(key, call);
+			call.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Options options,
+			Optional<Object> requestContext) {
+		String key = this.coalescing.key(request);
+		if (key == null) {
+			return AsyncClients.execute(this.delegate, this.executor, request, options,
+					requestContext);
+		}
+
+		CompletableFuture<CachedResponse> call = new CompletableFuture<>();
+		CompletableFuture<CachedResponse> existing = this.coalescing.join(key, call);
+		if (existing != null) {
+			return existing.thenApply(response -> response.toResponse(request));
+		}
+
+		AsyncClients.execute(this.delegate, this.executor, request, options,
+				requestContext).whenComplete((response, error) -> {
+					this.coalescing.leave(key, call);
+					if (error != null) {
+						call.completeExceptionally(error);
+						return;
+					}
+					try {
+						call.complete(buffer(response));
+					}
+					catch (IOException e) {
+						call.completeExceptionally(e);
+					}
+				});
+		return call.thenApply(response -> response.toResponse(request));
+	}
+
+	private static CachedResponse await(CompletableFuture<CachedResponse> call)
+			throws IOException {
+		try {
+			return call.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"interrupted while waiting for a coalesced request");
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CompletionException && cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+			if (cause instanceof IOException ioe) {
+				throw new IOException("coalesced request failed: " + ioe.getMessage(),
+						ioe);
+			}
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			if (cause instanceof Error error) {
+				throw error;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	private static CachedResponse buffer(Response response) throws IOException {
+		byte[] body;
+		if (response.body() == null) {
+			body = new byte[0];
+		}
+		else {
+			try (InputStream in = response.body().asInputStream()) {
+				body = in.readAllBytes();
+			}
+			finally {
+				response.close();
+			}
+		}
+		Map<String, Collection<String>> headers = new TreeMap<>(
+				String.CASE_INSENSITIVE_ORDER);
+		headers.putAll(response.headers());
+		return new CachedResponse(response.status(), response.reason(), headers, body,
+				0);
+	}
+
+}
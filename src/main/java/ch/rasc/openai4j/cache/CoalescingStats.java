@@ -0,0 +1,47 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.cache;
+
+/**
+ * Snapshot of the counters of a {@link Coalescing} instance.
+ */
+public record CoalescingStats(long requests, long coalesced) {
+
+	/**
+	 * Number of requests to a coalesced endpoint.
+	 */
+	@Override
+	public long requests() {
+		return this.requests;
+	}
+
+	/**
+	 * Number of requests that did not send an HTTP request because an identical
+	 * request was already in flight.
+	 */
+	@Override
+	public long coalesced() {
+		return this.coalesced;
+	}
+
+	/**
+	 * Fraction of the requests that were coalesced.
+	 */
+	public double coalescedRate() {
+		return this.requests == 0 ? 0 : (double) this.coalesced / this.requests;
+	}
+
+}
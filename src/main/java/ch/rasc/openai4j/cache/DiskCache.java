@@ -0,0 +1,226 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent tier of a {@link ResponseCache}. Every entry is stored in its own file
+ * named after the cache key. When the directory grows beyond the size limit the
+ * least recently used files are deleted.
+ */
+final class DiskCache {
+
+	private static final int MAGIC = 0x6f616331;
+
+	private static final String SUFFIX = ".entry";
+
+	private final Path directory;
+
+	private final long maxBytes;
+
+	private final AtomicLong bytes = new AtomicLong();
+
+	DiskCache(Path directory, long maxBytes) {
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		try {
+			Files.createDirectories(directory);
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+					"*" + SUFFIX)) {
+				for (Path file : files) {
+					this.bytes.addAndGet(Files.size(file));
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	CachedResponse get(String key, long now) {
+		Path file = file(key);
+		CachedResponse response;
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(file)))) {
+			response = read(in);
+		}
+		catch (NoSuchFileException e) {
+			return null;
+		}
+		catch (IOException e) {
+			// corrupt or partially written by an older version
+			delete(file);
+			return null;
+		}
+
+		if (response == null || response.isExpired(now)) {
+			delete(file);
+			return null;
+		}
+		try {
+			Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+		}
+		catch (IOException e) {
+			// only affects the eviction order
+		}
+		return response;
+	}
+
+	void put(String key, CachedResponse response) {
+		Path file = file(key);
+		try {
+			Path tmp = Files.createTempFile(this.directory, key, ".tmp");
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+				write(out, response);
+			}
+			long size = Files.size(tmp);
+			long previous = Files.exists(file) ? Files.size(file) : 0;
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			if (this.bytes.addAndGet(size - previous) > this.maxBytes) {
+				evict();
+			}
+		}
+		catch (IOException e) {
+			// the disk tier is best effort, the response is still cached on the heap
+		}
+	}
+
+	void clear() {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory,
+				"*" + SUFFIX)) {
+			for (Path file : files) {
+				delete(file);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	long bytes() {
+		return this.bytes.get();
+	}
+
+	private synchronized void evict() {
+		if (this.bytes.get() <= this.maxBytes) {
+			return;
+		}
+		record Entry(Path file, long lastModified) {
+		}
+		List<Entry> entries = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory,
+				"*" + SUFFIX)) {
+			for (Path file : files) {
+				entries.add(new Entry(file, Files.getLastModifiedTime(file).toMillis()));
+			}
+		}
+		catch (IOException e) {
+			return;
+		}
+		entries.sort(Comparator.comparingLong(Entry::lastModified));
+
+		// delete down to 90% of the limit, so not every put has to list the directory
+		long target = this.maxBytes - this.maxBytes / 10;
+		for (Entry entry : entries) {
+			if (this.bytes.get() <= target) {
+				break;
+			}
+			delete(entry.file());
+		}
+	}
+
+	private void delete(Path file) {
+		try {
+			long size = Files.size(file);
+			if (Files.deleteIfExists(file)) {
+				this.bytes.addAndGet(-size);
+			}
+		}
+		catch (IOException e) {
+			// deleted concurrently
+		}
+	}
+
+	private Path file(String key) {
+		return this.directory.resolve(key + SUFFIX);
+	}
+
+	private static void write(DataOutputStream out, CachedResponse response)
+			throws IOException {
+		out.writeInt(MAGIC);
+		out.writeLong(response.expiresAt());
+		out.writeInt(response.status());
+		out.writeUTF(response.reason() != null ? response.reason() : "");
+		out.writeInt(response.headers().size());
+		for (Map.Entry<String, Collection<String>> header : response.headers()
+				.entrySet()) {
+			out.writeUTF(header.getKey());
+			out.writeInt(header.getValue().size());
+			for (String value : header.getValue()) {
+				out.writeUTF(value);
+			}
+		}
+		out.writeInt(response.body().length);
+		out.write(response.body());
+	}
+
+	private static CachedResponse read(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			return null;
+		}
+		long expiresAt = in.readLong();
+		int status = in.readInt();
+		String reason = in.readUTF();
+		int headerCount = in.readInt();
+		Map<String, Collection<String>> headers = new TreeMap<>(
+				String.CASE_INSENSITIVE_ORDER);
+		for (int i = 0; i < headerCount; i++) {
+			String name = in.readUTF();
+			int valueCount = in.readInt();
+			List<String> values = new ArrayList<>(valueCount);
+			for (int j = 0; j < valueCount; j++) {
+				values.add(in.readUTF());
+			}
+			headers.put(name, values);
+		}
+		byte[] body = new byte[in.readInt()];
+		in.readFully(body);
+		return new CachedResponse(status, reason.isEmpty() ? null : reason, headers,
+				body, expiresAt);
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+
+import feign.Request;
+
+/**
+ * Identity of a request, shared by {@link ResponseCache} and {@link Coalescing}.
+ */
+final class RequestKeys {
+
+	private RequestKeys() {
+		// utility class
+	}
+
+	/**
+	 * SHA-256 hash of the HTTP method, the URL, the credentials and the body.
+	 */
+	static String hash(Request request) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		update(digest, request.httpMethod().name());
+		update(digest, request.url());
+		update(digest, header(request, "Authorization"));
+		update(digest, header(request, "api-key"));
+		update(digest, header(request, "OpenAI-Organization"));
+		if (request.body() != null) {
+			digest.update(request.body());
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static String header(Request request, String name) {
+		Collection<String> values = request.headers().get(name);
+		return values != null && !values.isEmpty() ? values.iterator().next() : "";
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+}
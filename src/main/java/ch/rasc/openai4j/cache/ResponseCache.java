@@ -0,0 +1,339 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import ch.rasc.openai4j.concurrent.Endpoints;
+import feign.Request;
+
+/**
+ * Exact match cache of responses. The key is the SHA-256 hash of the HTTP method, the
+ * URL, the API key and the serialized request body, so only byte identical requests
+ * share an entry.
+ * <p>
+ * Entries are kept on the heap in least recently used order until the size limit is
+ * reached, and optionally in a directory on disk that survives restarts. Every entry
+ * expires after {@link Builder#ttl}.
+ * <p>
+ * By default the create methods of the chat completions and the embeddings endpoint
+ * are cached. Chat completions are only cached when the temperature is set to 0. A
+ * seed alone does not make the sampling deterministic, with the default temperature
+ * the same request and seed can still return different completions, so those
+ * requests are sent to the server unless {@link Builder#deterministicOnly} is
+ * disabled. Streamed requests are never cached.
+ * <p>
+ * An instance is thread-safe and can be shared by multiple clients.
+ *
+ * @see CachingClient
+ */
+public final class ResponseCache {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final String CHAT_ENDPOINT = "ChatCompletionsClient#create";
+
+	private final Set<String> endpoints;
+	private final long ttlMillis;
+	private final long maxBytes;
+	private final int maxEntryBytes;
+	private final boolean deterministicOnly;
+	private final DiskCache disk;
+
+	private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(
+			16, 0.75f, true);
+	private long bytes;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder diskHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	private ResponseCache(Builder builder) {
+		this.endpoints = Set.copyOf(builder.endpoints);
+		this.ttlMillis = builder.ttl.toMillis();
+		this.maxBytes = builder.maxBytes;
+		this.maxEntryBytes = builder.maxEntryBytes;
+		this.deterministicOnly = builder.deterministicOnly;
+		this.disk = builder.diskDirectory != null
+				? new DiskCache(builder.diskDirectory, builder.maxDiskBytes)
+				: null;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static ResponseCache create() {
+		return builder().build();
+	}
+
+	public static final class Builder {
+		private Set<String> endpoints = Set.of(CHAT_ENDPOINT,
+				"EmbeddingsClient#create");
+		private Duration ttl = Duration.ofHours(1);
+		private long maxBytes = 64L * 1024 * 1024;
+		private int maxEntryBytes = 4 * 1024 * 1024;
+		private boolean deterministicOnly = true;
+		private Path diskDirectory;
+		private long maxDiskBytes = 1024L * 1024 * 1024;
+
+		private Builder() {
+		}
+
+		/**
+		 * Endpoints to cache, client interface and method name, for example
+		 * "EmbeddingsClient#create". The synchronous and asynchronous variant of a client
+		 * share the endpoint. Default: "ChatCompletionsClient#create",
+		 * "EmbeddingsClient#create"
+		 */
+		public Builder endpoints(Set<String> endpoints) {
+			this.endpoints = endpoints;
+			return this;
+		}
+
+		/**
+		 * Time after which an entry expires. Default: 1 hour
+		 */
+		public Builder ttl(Duration ttl) {
+			this.ttl = ttl;
+			return this;
+		}
+
+		/**
+		 * Maximum estimated size of the entries on the heap. Default: 64 MiB
+		 */
+		public Builder maxBytes(long maxBytes) {
+			this.maxBytes = maxBytes;
+			return this;
+		}
+
+		/**
+		 * Responses with a larger body are not cached. Default: 4 MiB
+		 */
+		public Builder maxEntryBytes(int maxEntryBytes) {
+			this.maxEntryBytes = maxEntryBytes;
+			return this;
+		}
+
+		/**
+		 * Only cache chat completions with temperature 0. A seed without temperature 0
+		 * is not enough. Set to false to cache every chat completion. Default: true
+		 */
+		public Builder deterministicOnly(boolean deterministicOnly) {
+			this.deterministicOnly = deterministicOnly;
+			return this;
+		}
+
+		/**
+		 * Directory of the disk tier. Entries are written to the disk when they are
+		 * stored on the heap and read from disk when they are not found on the heap.
+		 * Default: null (disabled)
+		 */
+		public Builder diskDirectory(Path diskDirectory) {
+			this.diskDirectory = diskDirectory;
+			return this;
+		}
+
+		/**
+		 * Maximum size of the disk tier. Default: 1 GiB
+		 */
+		public Builder maxDiskBytes(long maxDiskBytes) {
+			this.maxDiskBytes = maxDiskBytes;
+			return this;
+		}
+
+		public ResponseCache build() {
+			if (this.endpoints == null) {
+				throw new IllegalArgumentException("endpoints must not be null");
+			}
+			if (this.ttl == null || this.ttl.isNegative() || this.ttl.isZero()) {
+				throw new IllegalArgumentException("ttl must be positive");
+			}
+			if (this.maxBytes < 1 || this.maxEntryBytes < 1 || this.maxDiskBytes < 1) {
+				throw new IllegalArgumentException("size limits must be positive");
+			}
+			return new ResponseCache(this);
+		}
+	}
+
+	/**
+	 * Returns the cache key of a request, or null if the request is not cacheable.
+	 */
+	String key(Request request) {
+		String endpoint = Endpoints.name(request);
+		if (endpoint == null || !this.endpoints.contains(endpoint)
+				|| !isCacheable(endpoint, request.body())) {
+			return null;
+		}
+		return RequestKeys.hash(request);
+	}
+
+	private boolean isCacheable(String endpoint, byte[] body) {
+		if (body == null || body.length == 0) {
+			return true;
+		}
+		boolean stream = false;
+		boolean deterministic = false;
+		try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+			if (parser.nextToken() == JsonToken.START_OBJECT) {
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					JsonToken value = parser.nextToken();
+					if ("stream".equals(field)) {
+						stream = value == JsonToken.VALUE_TRUE;
+					}
+					else if ("temperature".equals(field) && value.isNumeric()) {
+						deterministic = parser.getDoubleValue() == 0;
+					}
+					else {
+						parser.skipChildren();
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			// not a JSON body, for example a multipart upload
+		}
+		if (stream) {
+			return false;
+		}
+		return deterministic || !this.deterministicOnly
+				|| !CHAT_ENDPOINT.equals(endpoint);
+	}
+
+	CachedResponse get(String key) {
+		long now = System.currentTimeMillis();
+		synchronized (this.entries) {
+			CachedResponse response = this.entries.get(key);
+			if (response != null) {
+				if (!response.isExpired(now)) {
+					this.hits.increment();
+					return response;
+				}
+				this.entries.remove(key);
+				this.bytes -= response.weight();
+			}
+		}
+
+		if (this.disk != null) {
+			CachedResponse response = this.disk.get(key, now);
+			if (response != null) {
+				putOnHeap(key, response);
+				this.hits.increment();
+				this.diskHits.increment();
+				return response;
+			}
+		}
+		this.misses.increment();
+		return null;
+	}
+
+	/**
+	 * Creates the entry of a response, or null if the response is not cacheable.
+	 */
+	CachedResponse entry(int status, String reason,
+			Map<String, Collection<String>> headers, byte[] body) {
+		if (status != 200 || body.length > this.maxEntryBytes) {
+			return null;
+		}
+		return new CachedResponse(status, reason, headers, body,
+				System.currentTimeMillis() + this.ttlMillis);
+	}
+
+	boolean isCacheableSize(int length) {
+		return length <= this.maxEntryBytes;
+	}
+
+	int maxEntryBytes() {
+		return this.maxEntryBytes;
+	}
+
+	void put(String key, CachedResponse response) {
+		putOnHeap(key, response);
+		if (this.disk != null) {
+			this.disk.put(key, response);
+		}
+	}
+
+	private void putOnHeap(String key, CachedResponse response) {
+		if (response.weight() > this.maxBytes) {
+			return;
+		}
+		synchronized (this.entries) {
+			CachedResponse previous = this.entries.put(key, response);
+			if (previous != null) {
+				this.bytes -= previous.weight();
+			}
+			this.bytes += response.weight();
+
+			Iterator<CachedResponse> it = this.entries.values().iterator();
+			while (this.bytes > this.maxBytes && it.hasNext()) {
+				CachedResponse eldest = it.next();
+				it.remove();
+				this.bytes -= eldest.weight();
+				this.evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries from the heap and the disk tier.
+	 */
+	public void invalidateAll() {
+		synchronized (this.entries) {
+			this.entries.clear();
+			this.bytes = 0;
+		}
+		if (this.disk != null) {
+			this.disk.clear();
+		}
+	}
+
+	/**
+	 * The current counters.
+	 */
+	public CacheStats stats() {
+		long entries;
+		long bytes;
+		synchronized (this.entries) {
+			entries = this.entries.size();
+			bytes = this.bytes;
+		}
+		return new CacheStats(this.hits.sum(), this.diskHits.sum(), this.misses.sum(),
+				this.evictions.sum(), entries, bytes);
+	}
+
+	/**
+	 * Size of the disk tier in bytes, 0 if the disk tier is disabled.
+	 */
+	public long diskBytes() {
+		return this.disk != null ? this.disk.bytes() : 0;
+	}
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.chatcompletions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse.Choice;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse.Choice.FinishReason;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse.Logprob;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse.Logprobs;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse.Message;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse.Usage;
+import ch.rasc.openai4j.common.FunctionArguments;
+import ch.rasc.openai4j.common.ToolCall;
+
+/**
+ * Rebuilds a {@link ChatCompletionResponse} from the chunks of a streamed chat
+ * completion. Content, refusal, log probabilities and tool call deltas are concatenated
+ * per choice.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class ChatCompletionAccumulator implements Consumer<ChatCompletionChunk> {
+
+	private final Map<Integer, ChoiceState> choices = new TreeMap<>();
+
+	private String id;
+	private int created;
+	private String model;
+	private String serviceTier;
+	private String systemFingerprint;
+	private Usage usage;
+
+	@Override
+	public void accept(ChatCompletionChunk chunk) {
+		if (this.id == null) {
+			this.id = chunk.id();
+			this.created = chunk.created();
+			this.model = chunk.model();
+		}
+		if (chunk.serviceTier() != null) {
+			this.serviceTier = chunk.serviceTier();
+		}
+		if (chunk.systemFingerprint() != null) {
+			this.systemFingerprint = chunk.systemFingerprint();
+		}
+		if (chunk.usage() != null) {
+			this.usage = chunk.usage();
+		}
+		if (chunk.choices() == null) {
+			return;
+		}
+
+		for (ChatCompletionChunk.Choice choice : chunk.choices()) {
+			ChoiceState state = this.choices.computeIfAbsent(choice.index(),
+					ChoiceState::new);
+			state.accept(choice);
+		}
+	}
+
+	/**
+	 * Returns the chat completion response built from all chunks received so far.
+	 */
+	public ChatCompletionResponse response() {
+		List<Choice> result = new ArrayList<>(this.choices.size());
+		for (ChoiceState state : this.choices.values()) {
+			result.add(state.toChoice());
+		}
+		return new ChatCompletionResponse(this.id, result, this.created, this.model,
+				this.serviceTier, this.systemFingerprint, "chat.completion", this.usage);
+	}
+
+	private static class ChoiceState {
+		private final int index;
+		private String role;
+		private StringBuilder content;
+		private StringBuilder refusal;
+		private FinishReason finishReason;
+		private List<Logprob> logprobs;
+		private final Map<Integer, ToolCallState> toolCalls = new TreeMap<>();
+
+		ChoiceState(int index) {
+			this.index = index;
+		}
+
+		void accept(ChatCompletionChunk.Choice choice) {
+			if (choice.finishReason() != null) {
+				this.finishReason = choice.finishReason();
+			}
+			if (choice.logprobs() != null && choice.logprobs().content() != null) {
+				if (this.logprobs == null) {
+					this.logprobs = new ArrayList<>();
+				}
+				this.logprobs.addAll(choice.logprobs().content());
+			}
+
+			ChatCompletionChunk.Delta delta = choice.delta();
+			if (delta == null) {
+				return;
+			}
+			if (delta.role() != null) {
+				this.role = delta.role();
+			}
+			if (delta.content() != null) {
+				if (this.content == null) {
+					this.content = new StringBuilder();
+				}
+				this.content.append(delta.content());
+			}
+			if (delta.refusal() != null) {
+				if (this.refusal == null) {
+					this.refusal = new StringBuilder();
+				}
+				this.refusal.append(delta.refusal());
+			}
+			if (delta.toolCalls() != null) {
+				for (ChatCompletionChunk.ToolCallDelta toolCallDelta : delta
+						.toolCalls()) {
+					this.toolCalls
+							.computeIfAbsent(toolCallDelta.index(), i -> new ToolCallState())
+							.accept(toolCallDelta);
+				}
+			}
+		}
+
+		Choice toChoice() {
+			List<ToolCall> calls = null;
+			if (!this.toolCalls.isEmpty()) {
+				calls = new ArrayList<>(this.toolCalls.size());
+				for (ToolCallState toolCall : this.toolCalls.values()) {
+					calls.add(toolCall.toToolCall());
+				}
+			}
+			Message message = new Message(
+					this.content != null ? this.content.toString() : null,
+					this.refusal != null ? this.refusal.toString() : null, calls,
+					this.role, null);
+			Logprobs lp = this.logprobs != null ? new Logprobs(this.logprobs) : null;
+			return new Choice(this.index, this.finishReason, message, lp);
+		}
+	}
+
+	private static class ToolCallState {
+		private String id;
+		private String type;
+		private final StringBuilder name = new StringBuilder();
+		private final StringBuilder arguments = new StringBuilder();
+
+		void accept(ChatCompletionChunk.ToolCallDelta delta) {
+			if (delta.id() != null) {
+				this.id = delta.id();
+			}
+			if (delta.type() != null) {
+				this.type = delta.type();
+			}
+			if (delta.function() != null) {
+				if (delta.function().name() != null) {
+					this.name.append(delta.function().name());
+				}
+				if (delta.function().arguments() != null) {
+					this.arguments.append(delta.function().arguments());
+				}
+			}
+		}
+
+		ToolCall toToolCall() {
+			return new ToolCall(this.id, this.type != null ? this.type : "function",
+					new FunctionArguments(this.name.toString(),
+							this.arguments.toString()));
+		}
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.chatcompletions;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse.Choice.FinishReason;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse.Logprobs;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionResponse.Usage;
+
+/**
+ * Represents a streamed chunk of a chat completion response returned by model, based
+ * on the provided input.
+ */
+public record ChatCompletionChunk(String id, List<Choice> choices, int created,
+		String model, @JsonProperty("service_tier") String serviceTier,
+		@JsonProperty("system_fingerprint") String systemFingerprint, String object,
+		Usage usage) {
+
+	/**
+	 * A unique identifier for the chat completion. Each chunk has the same ID.
+	 */
+	@Override
+	public String id() {
+		return this.id;
+	}
+
+	/**
+	 * A list of chat completion choices. Can contain more than one elements if n is
+	 * greater than 1. Can also be empty for the last chunk if stream_options:
+	 * {"include_usage": true} is set.
+	 */
+	@Override
+	public List<Choice> choices() {
+		return this.choices;
+	}
+
+	/**
+	 * The Unix timestamp (in seconds) of when the chat completion was created. Each
+	 * chunk has the same timestamp.
+	 */
+	@Override
+	public int created() {
+		return this.created;
+	}
+
+	/**
+	 * The model to generate the completion.
+	 */
+	@Override
+	public String model() {
+		return this.model;
+	}
+
+	/**
+	 * The service tier used for processing the request. This field is only included if
+	 * the service_tier parameter is specified in the request.
+	 */
+	@Override
+	public String serviceTier() {
+		return this.serviceTier;
+	}
+
+	/**
+	 * This fingerprint represents the backend configuration that the model runs with.
+	 */
+	@Override
+	public String systemFingerprint() {
+		return this.systemFingerprint;
+	}
+
+	/**
+	 * The object type, which is always chat.completion.chunk.
+	 */
+	@Override
+	public String object() {
+		return this.object;
+	}
+
+	/**
+	 * An optional field that will only be present when you set stream_options:
+	 * {"include_usage": true} in your request. When present, it contains a null value
+	 * except for the last chunk which contains the token usage statistics for the entire
+	 * request.
+	 */
+	@Override
+	public Usage usage() {
+		return this.usage;
+	}
+
+	public record Choice(int index, Delta delta,
+			@JsonProperty("finish_reason") FinishReason finishReason,
+			Logprobs logprobs) {
+
+		/**
+		 * The index of the choice in the list of choices.
+		 */
+		@Override
+		public int index() {
+			return this.index;
+		}
+
+		/**
+		 * A chat completion delta generated by streamed model responses.
+		 */
+		@Override
+		public Delta delta() {
+			return this.delta;
+		}
+
+		/**
+		 * The reason the model stopped generating tokens. Null until the last chunk of
+		 * the choice.
+		 */
+		@Override
+		public FinishReason finishReason() {
+			return this.finishReason;
+		}
+
+		/**
+		 * Log probability information for the choice.
+		 */
+		@Override
+		public Logprobs logprobs() {
+			return this.logprobs;
+		}
+	}
+
+	public record Delta(String content, String refusal,
+			@JsonProperty("tool_calls") List<ToolCallDelta> toolCalls, String role) {
+
+		/**
+		 * The contents of the chunk message.
+		 */
+		@Override
+		public String content() {
+			return this.content;
+		}
+
+		/**
+		 * The refusal message generated by the model.
+		 */
+		@Override
+		public String refusal() {
+			return this.refusal;
+		}
+
+		/**
+		 * Partial tool calls generated by the model.
+		 */
+		@Override
+		public List<ToolCallDelta> toolCalls() {
+			return this.toolCalls;
+		}
+
+		/**
+		 * The role of the author of this message. Only present in the first chunk.
+		 */
+		@Override
+		public String role() {
+			return this.role;
+		}
+	}
+
+	public record ToolCallDelta(int index, String id, String type,
+			FunctionDelta function) {
+
+		/**
+		 * The index of the tool call. Deltas with the same index belong to the same tool
+		 * call.
+		 */
+		@Override
+		public int index() {
+			return this.index;
+		}
+
+		/**
+		 * The ID of the tool call. Only present in the first delta of a tool call.
+		 */
+		@Override
+		public String id() {
+			return this.id;
+		}
+
+		/**
+		 * The type of the tool. Currently, only function is supported.
+		 */
+		@Override
+		public String type() {
+			return this.type;
+		}
+
+		/**
+		 * The partial function that the model called.
+		 */
+		@Override
+		public FunctionDelta function() {
+			return this.function;
+		}
+	}
+
+	public record FunctionDelta(String name, String arguments) {
+
+		/**
+		 * The name of the function. Only present in the first delta of a tool call.
+		 */
+		@Override
+		public String name() {
+			return this.name;
+		}
+
+		/**
+		 * A fragment of the arguments to call the function with, in JSON format.
+		 */
+		@Override
+		public String arguments() {
+			return this.arguments;
+		}
+	}
+}
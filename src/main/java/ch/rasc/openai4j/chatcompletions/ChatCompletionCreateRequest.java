@@ -83,6 +83,9 @@ public class ChatCompletionCreateRequest {
 	@JsonProperty("service_tier")
 	private final ServiceTier serviceTier;
 	private final Object stop;
+	private final Boolean stream;
+	@JsonProperty("stream_options")
+	private final StreamOptions streamOptions;
 	private final Double temperature;
 	@JsonProperty("top_p")
 	private final Double topP;
@@ -105,6 +108,10 @@ public class ChatCompletionCreateRequest {
 			throw new IllegalArgumentException(
 					"topLogprobs must be between 0 and 5 (inclusive)");
 		}
+		if (builder.streamOptions != null && !Boolean.TRUE.equals(builder.stream)) {
+			throw new IllegalArgumentException(
+					"streamOptions must only be set when stream is true");
+		}
 
 		this.messages = builder.messages;
 		this.model = builder.model;
@@ -124,6 +131,8 @@ public class ChatCompletionCreateRequest {
 		this.seed = builder.seed;
 		this.serviceTier = builder.serviceTier;
 		this.stop = builder.stop;
+		this.stream = builder.stream;
+		this.streamOptions = builder.streamOptions;
 		this.temperature = builder.temperature;
 		this.topP = builder.topP;
 		this.tools = builder.tools;
@@ -178,6 +187,20 @@ public class ChatCompletionCreateRequest {
 		}
 	}
 
+	public record StreamOptions(@JsonProperty("include_usage") Boolean includeUsage) {
+
+		/**
+		 * If set, an additional chunk will be streamed before the data: [DONE] message.
+		 * The usage field on this chunk shows the token usage statistics for the entire
+		 * request, and the choices field will always be an empty array. All other chunks
+		 * will also include a usage field, but with a null value.
+		 */
+		@Override
+		public Boolean includeUsage() {
+			return this.includeUsage;
+		}
+	}
+
 	public static Builder builder() {
 		return new Builder();
 	}
@@ -201,6 +224,8 @@ public class ChatCompletionCreateRequest {
 		private Integer seed;
 		private ServiceTier serviceTier;
 		private Object stop;
+		private Boolean stream;
+		private StreamOptions streamOptions;
 		private Double temperature;
 		private Double topP;
 		private List<ChatCompletionTool> tools;
@@ -507,6 +532,30 @@ public class ChatCompletionCreateRequest {
 			return this;
 		}
 
+		/**
+		 * If set, partial message deltas will be sent, like in ChatGPT. Tokens will be
+		 * sent as data-only server-sent events as they become available, with the stream
+		 * terminated by a data: [DONE] message.
+		 * <p>
+		 * Use {@link ChatCompletionsClient#createStream(ChatCompletionCreateRequest)} to
+		 * consume a streamed response.
+		 */
+		public Builder stream(Boolean stream) {
+			this.stream = stream;
+			return this;
+		}
+
+		/**
+		 * Options for streaming response. Only set this when you set stream: true.
+		 *
+		 * @param includeUsage If true, an additional chunk with the token usage
+		 * statistics for the entire request is streamed before the data: [DONE] message.
+		 */
+		public Builder streamOptions(boolean includeUsage) {
+			this.streamOptions = new StreamOptions(includeUsage);
+			return this;
+		}
+
 		/**
 		 * What sampling temperature to use, between 0 and 2. Higher values like 0.8 will
 		 * make the output more random, while lower values like 0.2 will make it more
@@ -598,4 +647,20 @@ public class ChatCompletionCreateRequest {
 		return this.messages;
 	}
 
+	public String model() {
+		return this.model;
+	}
+
+	public Integer maxTokens() {
+		return this.maxTokens;
+	}
+
+	public List<ChatCompletionTool> tools() {
+		return this.tools;
+	}
+
+	public Boolean stream() {
+		return this.stream;
+	}
+
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.chatcompletions;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.rasc.openai4j.OpenAIApiException;
+import ch.rasc.openai4j.OpenAIErrorDecoder;
+import feign.Response;
+import feign.RetryableException;
+
+/**
+ * Iterates over the chunks of a streamed chat completion. The server-sent events are
+ * parsed incrementally from the response body, a chunk is available as soon as the
+ * server has sent it.
+ * <p>
+ * Instances are not thread safe and must be closed after use, either by consuming all
+ * chunks or by calling {@link #close()}.
+ */
+public class ChatCompletionStream
+		implements Iterator<ChatCompletionChunk>, AutoCloseable {
+
+	private static final String DONE = "[DONE]";
+
+	private static final ObjectMapper objectMapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private final Response response;
+
+	private final BufferedReader reader;
+
+	private ChatCompletionChunk next;
+
+	private boolean finished;
+
+	public ChatCompletionStream(Response response) {
+		this.response = response;
+
+		if (response.status() < 200 || response.status() >= 300) {
+			Exception error = new OpenAIErrorDecoder()
+					.decode("ChatCompletionsClient#createStream", response);
+			response.close();
+			// streams are not retried, throw the API error itself
+			if (error instanceof RetryableException
+					&& error.getCause() instanceof OpenAIApiException apiException) {
+				error = apiException;
+			}
+			if (error instanceof RuntimeException re) {
+				throw re;
+			}
+			if (error instanceof IOException ioe) {
+				throw new UncheckedIOException(ioe);
+			}
+			throw new IllegalStateException(error);
+		}
+
+		if (response.body() == null) {
+			this.reader = null;
+			this.finished = true;
+		}
+		else {
+			try {
+				this.reader = new BufferedReader(new InputStreamReader(
+						response.body().asInputStream(), StandardCharsets.UTF_8));
+			}
+			catch (IOException e) {
+				response.close();
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.next != null) {
+			return true;
+		}
+		if (this.finished) {
+			return false;
+		}
+		try {
+			this.next = readChunk();
+		}
+		catch (IOException e) {
+			close();
+			throw new UncheckedIOException(e);
+		}
+		if (this.next == null) {
+			close();
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public ChatCompletionChunk next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		ChatCompletionChunk chunk = this.next;
+		this.next = null;
+		return chunk;
+	}
+
+	/**
+	 * Consumes the remaining chunks of the stream and returns the accumulated chat
+	 * completion response.
+	 */
+	public ChatCompletionResponse accumulate() {
+		ChatCompletionAccumulator accumulator = new ChatCompletionAccumulator();
+		while (hasNext()) {
+			accumulator.accept(next());
+		}
+		return accumulator.response();
+	}
+
+	/**
+	 * Closes the underlying HTTP response. Chunks that have not been read yet are
+	 * discarded.
+	 */
+	@Override
+	public void close() {
+		this.finished = true;
+		this.next = null;
+		this.response.close();
+	}
+
+	/**
+	 * Reads lines until a complete event has been received. Returns null at the end of
+	 * the stream or when the [DONE] message has been received.
+	 */
+	private ChatCompletionChunk readChunk() throws IOException {
+		StringBuilder data = null;
+		String line;
+		while ((line = this.reader.readLine()) != null) {
+			if (line.isEmpty()) {
+				if (data != null) {
+					return parse(data.toString());
+				}
+				continue;
+			}
+			if (line.startsWith(":")) {
+				// comment
+				continue;
+			}
+			if (line.startsWith("data:")) {
+				int start = line.length() > 5 && line.charAt(5) == ' ' ? 6 : 5;
+				if (data == null) {
+					data = new StringBuilder(line.length() - start);
+				}
+				else {
+					data.append('\n');
+				}
+				data.append(line, start, line.length());
+			}
+		}
+
+		if (data != null) {
+			return parse(data.toString());
+		}
+		return null;
+	}
+
+	private ChatCompletionChunk parse(String data) throws IOException {
+		if (DONE.equals(data)) {
+			this.finished = true;
+			return null;
+		}
+		JsonNode node = objectMapper.readTree(data);
+		JsonNode error = node.get("error");
+		if (error != null && error.isObject()) {
+			throw new OpenAIApiException(error.path("message").asText(null),
+					error.path("type").asText(null), error.path("param").asText(null),
+					error.path("code").asText(null));
+		}
+		return objectMapper.treeToValue(node, ChatCompletionChunk.class);
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.chatcompletions;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * A {@link Flow.Publisher} of streamed chat completion chunks. Every subscriber opens
+ * its own stream when it requests the first item. The response body is read on a
+ * thread provided by the executor and items are only read from the network while the
+ * subscriber has outstanding demand.
+ */
+public class ChatCompletionStreamPublisher implements Flow.Publisher<ChatCompletionChunk> {
+
+	private final Supplier<ChatCompletionStream> streamSupplier;
+
+	private final Executor executor;
+
+	/**
+	 * @param streamSupplier opens a new chat completion stream
+	 * @param executor runs the blocking read loop, one task per subscription
+	 */
+	public ChatCompletionStreamPublisher(Supplier<ChatCompletionStream> streamSupplier,
+			Executor executor) {
+		this.streamSupplier = Objects.requireNonNull(streamSupplier);
+		this.executor = Objects.requireNonNull(executor);
+	}
+
+	/**
+	 * Creates a publisher that starts a new daemon thread for every subscription.
+	 */
+	public ChatCompletionStreamPublisher(Supplier<ChatCompletionStream> streamSupplier) {
+		this(streamSupplier, r -> {
+			Thread thread = new Thread(r, "openai4j-chat-completion-stream");
+			thread.setDaemon(true);
+			thread.start();
+		});
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super ChatCompletionChunk> subscriber) {
+		Objects.requireNonNull(subscriber);
+		subscriber.onSubscribe(new StreamSubscription(subscriber));
+	}
+
+	private class StreamSubscription implements Flow.Subscription, Runnable {
+
+		private final Flow.Subscriber<? super ChatCompletionChunk> subscriber;
+
+		private final AtomicLong demand = new AtomicLong();
+
+		private final AtomicBoolean started = new AtomicBoolean();
+
+		private volatile boolean cancelled;
+
+		private volatile Thread worker;
+
+		StreamSubscription(Flow.Subscriber<? super ChatCompletionChunk> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (this.cancelled) {
+				return;
+			}
+			if (n <= 0) {
+				cancel();
+				this.subscriber.onError(new IllegalArgumentException(
+						"non-positive subscription request: " + n));
+				return;
+			}
+			this.demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+			if (this.started.compareAndSet(false, true)) {
+				try {
+					ChatCompletionStreamPublisher.this.executor.execute(this);
+				}
+				catch (RuntimeException e) {
+					this.cancelled = true;
+					this.subscriber.onError(e);
+				}
+			}
+			else {
+				LockSupport.unpark(this.worker);
+			}
+		}
+
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+			LockSupport.unpark(this.worker);
+		}
+
+		@Override
+		public void run() {
+			this.worker = Thread.currentThread();
+			try (ChatCompletionStream stream = ChatCompletionStreamPublisher.this.streamSupplier
+					.get()) {
+				while (!this.cancelled) {
+					if (this.demand.get() == 0) {
+						LockSupport.park(this);
+						continue;
+					}
+					if (!stream.hasNext()) {
+						this.subscriber.onComplete();
+						return;
+					}
+					this.subscriber.onNext(stream.next());
+					this.demand.decrementAndGet();
+				}
+			}
+			catch (Throwable t) {
+				if (!this.cancelled) {
+					this.cancelled = true;
+					this.subscriber.onError(t);
+				}
+			}
+			finally {
+				this.worker = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.chatcompletions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+import feign.Headers;
+import feign.RequestLine;
+import feign.Response;
+
+/**
+ * Asynchronous variant of {@link ChatCompletionsClient}. Every method returns
+ * immediately with a {@link CompletableFuture} that is completed when the response has
+ * been received and decoded.
+ */
+public interface ChatCompletionsAsyncClient {
+
+	/**
+	 * Creates a completion for the provided prompt and parameters.
+	 *
+	 * @return Returns a completion object
+	 */
+	@RequestLine("POST /chat/completions")
+	@Headers("Content-Type: application/json")
+	CompletableFuture<ChatCompletionResponse> create(ChatCompletionCreateRequest request);
+
+	/**
+	 * Creates a completion for the provided prompt and parameters.
+	 *
+	 * @return Returns a completion object
+	 */
+	default CompletableFuture<ChatCompletionResponse> create(
+			Function<ChatCompletionCreateRequest.Builder, ChatCompletionCreateRequest.Builder> fn) {
+		return this.create(fn.apply(ChatCompletionCreateRequest.builder()).build());
+	}
+
+	/**
+	 * Creates a streamed completion for the provided prompt and parameters and returns
+	 * the raw HTTP response. The body contains the server-sent events. The caller is
+	 * responsible for closing the response.
+	 */
+	@RequestLine("POST /chat/completions")
+	@Headers({ "Content-Type: application/json", "Accept: text/event-stream" })
+	CompletableFuture<Response> createStreamResponse(ChatCompletionCreateRequest request);
+
+	/**
+	 * Creates a streamed completion for the provided prompt and parameters. The request
+	 * must have stream set to true. The returned future is completed as soon as the
+	 * response headers have been received.
+	 *
+	 * @return Returns an iterator over the chunks of the completion. The stream must be
+	 * closed after use.
+	 */
+	default CompletableFuture<ChatCompletionStream> createStream(
+			ChatCompletionCreateRequest request) {
+		if (!Boolean.TRUE.equals(request.stream())) {
+			throw new IllegalArgumentException("stream must be true");
+		}
+		return this.createStreamResponse(request).thenApply(ChatCompletionStream::new);
+	}
+
+	/**
+	 * Creates a streamed completion for the provided prompt and parameters. The returned
+	 * future is completed as soon as the response headers have been received.
+	 *
+	 * @return Returns an iterator over the chunks of the completion. The stream must be
+	 * closed after use.
+	 */
+	default CompletableFuture<ChatCompletionStream> createStream(
+			Function<ChatCompletionCreateRequest.Builder, ChatCompletionCreateRequest.Builder> fn) {
+		return this.createStream(
+				fn.apply(ChatCompletionCreateRequest.builder().stream(true)).build());
+	}
+
+	/**
+	 * Creates a publisher of a streamed completion. The request must have stream set to
+	 * true. The request is sent for every subscriber, when it requests the first chunk.
+	 */
+	default Flow.Publisher<ChatCompletionChunk> createStreamPublisher(
+			ChatCompletionCreateRequest request) {
+		if (!Boolean.TRUE.equals(request.stream())) {
+			throw new IllegalArgumentException("stream must be true");
+		}
+		return new ChatCompletionStreamPublisher(
+				() -> this.createStream(request).join());
+	}
+
+	/**
+	 * Creates a publisher of a streamed completion. The request is sent for every
+	 * subscriber, when it requests the first chunk.
+	 */
+	default Flow.Publisher<ChatCompletionChunk> createStreamPublisher(
+			Function<ChatCompletionCreateRequest.Builder, ChatCompletionCreateRequest.Builder> fn) {
+		return this.createStreamPublisher(
+				fn.apply(ChatCompletionCreateRequest.builder().stream(true)).build());
+	}
+
+}
@@ -15,10 +15,13 @@
  */
 package ch.rasc.openai4j.chatcompletions;
 
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import feign.Headers;
 import feign.RequestLine;
+import feign.Response;
 
 public interface ChatCompletionsClient {
 
@@ -41,4 +44,97 @@ public interface ChatCompletionsClient {
 		return this.create(fn.apply(ChatCompletionCreateRequest.builder()).build());
 	}
 
+	/**
+	 * Creates a streamed completion for the provided prompt and parameters and returns
+	 * the raw HTTP response. The body contains the server-sent events. The caller is
+	 * responsible for closing the response.
+	 * <p>
+	 * Most applications should use one of the createStream methods instead.
+	 */
+	@RequestLine("POST /chat/completions")
+	@Headers({ "Content-Type: application/json", "Accept: text/event-stream" })
+	Response createStreamResponse(ChatCompletionCreateRequest request);
+
+	/**
+	 * Creates a streamed completion for the provided prompt and parameters. The request
+	 * must have stream set to true.
+	 *
+	 * @return Returns an iterator over the chunks of the completion. The stream must be
+	 * closed after use.
+	 */
+	default ChatCompletionStream createStream(ChatCompletionCreateRequest request) {
+		if (!Boolean.TRUE.equals(request.stream())) {
+			throw new IllegalArgumentException("stream must be true");
+		}
+		return new ChatCompletionStream(this.createStreamResponse(request));
+	}
+
+	/**
+	 * Creates a streamed completion for the provided prompt and parameters.
+	 *
+	 * @return Returns an iterator over the chunks of the completion. The stream must be
+	 * closed after use.
+	 */
+	default ChatCompletionStream createStream(
+			Function<ChatCompletionCreateRequest.Builder, ChatCompletionCreateRequest.Builder> fn) {
+		return this.createStream(
+				fn.apply(ChatCompletionCreateRequest.builder().stream(true)).build());
+	}
+
+	/**
+	 * Creates a streamed completion for the provided prompt and parameters. The request
+	 * must have stream set to true. Every chunk is passed to the consumer as soon as it
+	 * has been received.
+	 *
+	 * @return Returns the completion object accumulated from all chunks
+	 */
+	default ChatCompletionResponse createStream(ChatCompletionCreateRequest request,
+			Consumer<ChatCompletionChunk> consumer) {
+		ChatCompletionAccumulator accumulator = new ChatCompletionAccumulator();
+		try (ChatCompletionStream stream = this.createStream(request)) {
+			while (stream.hasNext()) {
+				ChatCompletionChunk chunk = stream.next();
+				accumulator.accept(chunk);
+				consumer.accept(chunk);
+			}
+		}
+		return accumulator.response();
+	}
+
+	/**
+	 * Creates a streamed completion for the provided prompt and parameters. Every chunk
+	 * is passed to the consumer as soon as it has been received.
+	 *
+	 * @return Returns the completion object accumulated from all chunks
+	 */
+	default ChatCompletionResponse createStream(
+			Function<ChatCompletionCreateRequest.Builder, ChatCompletionCreateRequest.Builder> fn,
+			Consumer<ChatCompletionChunk> consumer) {
+		return this.createStream(
+				fn.apply(ChatCompletionCreateRequest.builder().stream(true)).build(),
+				consumer);
+	}
+
+	/**
+	 * Creates a publisher of a streamed completion. The request must have stream set to
+	 * true. The request is sent for every subscriber, when it requests the first chunk.
+	 */
+	default Flow.Publisher<ChatCompletionChunk> createStreamPublisher(
+			ChatCompletionCreateRequest request) {
+		if (!Boolean.TRUE.equals(request.stream())) {
+			throw new IllegalArgumentException("stream must be true");
+		}
+		return new ChatCompletionStreamPublisher(() -> this.createStream(request));
+	}
+
+	/**
+	 * Creates a publisher of a streamed completion. The request is sent for every
+	 * subscriber, when it requests the first chunk.
+	 */
+	default Flow.Publisher<ChatCompletionChunk> createStreamPublisher(
+			Function<ChatCompletionCreateRequest.Builder, ChatCompletionCreateRequest.Builder> fn) {
+		return this.createStreamPublisher(
+				fn.apply(ChatCompletionCreateRequest.builder().stream(true)).build());
+	}
+
 }
@@ -39,6 +39,7 @@ public class ChatCompletionsJavaFunctionRequest {
 
 	private final List<JavaFunction<?, ?>> javaFunctions;
 	private final Integer maxIterations;
+	private final ContextWindow contextWindow;
 
 	private ChatCompletionsJavaFunctionRequest(Builder builder) {
 		if (builder.maxIterations == null) {
@@ -70,6 +71,7 @@ public class ChatCompletionsJavaFunctionRequest {
 		this.user = builder.user;
 		this.javaFunctions = builder.javaFunctions;
 		this.maxIterations = builder.maxIterations;
+		this.contextWindow = builder.contextWindow;
 	}
 
 	public ChatCompletionCreateRequest.Builder convertToChatCompletionsCreateRequestBuilder() {
@@ -84,10 +86,18 @@ public class ChatCompletionsJavaFunctionRequest {
 		return List.copyOf(this.messages);
 	}
 
+	public String model() {
+		return this.model;
+	}
+
 	public Integer maxIterations() {
 		return this.maxIterations;
 	}
 
+	public ContextWindow contextWindow() {
+		return this.contextWindow;
+	}
+
 	public List<JavaFunction<?, ?>> javaFunctions() {
 		return List.copyOf(this.javaFunctions);
 	}
@@ -110,6 +120,7 @@ public class ChatCompletionsJavaFunctionRequest {
 		private String user;
 		private List<JavaFunction<?, ?>> javaFunctions;
 		private Integer maxIterations;
+		private ContextWindow contextWindow;
 
 		private Builder() {
 		}
@@ -251,6 +262,15 @@ public class ChatCompletionsJavaFunctionRequest {
 			return this;
 		}
 
+		/**
+		 * Limits the conversation that is sent on every iteration: sliding window, old
+		 * tool results and a token budget. Default: the whole conversation is sent
+		 */
+		public Builder contextWindow(ContextWindow contextWindow) {
+			this.contextWindow = contextWindow;
+			return this;
+		}
+
 		/**
 		 * A list of java functions that can be called from the chat completion
 		 */
@@ -20,6 +20,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 
 import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
@@ -31,6 +34,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import ch.rasc.openai4j.OpenAIClient;
 import ch.rasc.openai4j.chatcompletions.AssistantMessage;
 import ch.rasc.openai4j.chatcompletions.ChatCompletionCreateRequest.ToolChoice;
 import ch.rasc.openai4j.chatcompletions.ChatCompletionMessage;
@@ -46,6 +50,7 @@ import ch.rasc.openai4j.common.FunctionParameters;
 import ch.rasc.openai4j.common.JsonSchemaService;
 import ch.rasc.openai4j.common.ResponseFormat;
 import ch.rasc.openai4j.common.ToolCall;
+import ch.rasc.openai4j.concurrent.FanOut;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
@@ -65,11 +70,20 @@ public class ChatCompletionsService {
 
 	private final Validator validator;
 
+	private final FanOut fanOut;
+
+	/**
+	 * @param executor When not null and the model requests more than one tool call in
+	 * one response, the Java functions are called concurrently on this executor. Use
+	 * {@link ch.rasc.openai4j.concurrent.VirtualThreads#newExecutor()} to run them on
+	 * virtual threads.
+	 */
 	public ChatCompletionsService(ChatCompletionsClient chatCompletionsClient,
-			ObjectMapper objectMapper) {
+			ObjectMapper objectMapper, ExecutorService executor) {
 		this.jsonSchemaService = new JsonSchemaService();
 		this.chatCompletionsClient = chatCompletionsClient;
 		this.objectMapper = objectMapper;
+		this.fanOut = executor != null ? new FanOut(executor) : null;
 
 		try (ValidatorFactory validatorFactory = Validation.byDefaultProvider()
 				.configure().messageInterpolator(new ParameterMessageInterpolator())
@@ -78,10 +92,30 @@ public class ChatCompletionsService {
 		}
 	}
 
+	public ChatCompletionsService(ChatCompletionsClient chatCompletionsClient,
+			ObjectMapper objectMapper) {
+		this(chatCompletionsClient, objectMapper, null);
+	}
+
 	public ChatCompletionsService(ChatCompletionsClient chatCompletionsClient) {
 		this(chatCompletionsClient, new ObjectMapper());
 	}
 
+	/**
+	 * Uses the chat completions client of the given client. The Java functions of a
+	 * response with more than one tool call are called concurrently on the executor of
+	 * the client configuration, when one is configured.
+	 *
+	 * @see OpenAIClient#executor()
+	 */
+	public ChatCompletionsService(OpenAIClient client, ObjectMapper objectMapper) {
+		this(client.chatCompletions, objectMapper, client.executor());
+	}
+
+	public ChatCompletionsService(OpenAIClient client) {
+		this(client, new ObjectMapper());
+	}
+
 	/**
 	 * Creates and calls a chat completion for the provided prompt and parameters. When
 	 * the response of the completion contains a tool call, the tool call is executed and
@@ -109,11 +143,16 @@ public class ChatCompletionsService {
 		}
 
 		var requestBuilder = javaFunctionsRequest
-				.convertToChatCompletionsCreateRequestBuilder();
-		var request = requestBuilder.tools(tools).build();
+				.convertToChatCompletionsCreateRequestBuilder().tools(tools);
+		ContextWindow contextWindow = javaFunctionsRequest.contextWindow();
+		List<ChatCompletionMessage> thread = new ArrayList<>(
+				javaFunctionsRequest.messages());
+		if (contextWindow != null) {
+			thread = contextWindow.apply(javaFunctionsRequest.model(), thread, tools);
+		}
+		var request = requestBuilder.messages(thread).build();
 		ChatCompletionResponse response = this.chatCompletionsClient.create(request);
 
-		var thread = new ArrayList<>(request.messages());
 		var choice = response.choices().get(0);
 
 		int iterationCount = 1;
@@ -127,32 +166,14 @@ public class ChatCompletionsService {
 			var message = choice.message();
 			thread.add(AssistantMessage.of(choice.message()));
 
-			for (var toolCall : message.toolCalls()) {
-				JavaFunction<?, ?> javaFunction = javaFunctionRegistry
-						.get(toolCall.function().name());
-				if (javaFunction == null) {
-					throw new IllegalStateException(
-							"Unknown function " + toolCall.function().name());
-				}
-				var argument = this.objectMapper.readValue(
-						toolCall.function().arguments(), javaFunction.parameterClass());
-
-				log.debug("Calling function {}", javaFunction.name());
-				log.debug("with argument {}", argument);
-
-				Object result = javaFunction.call(argument);
-
-				if (result != null) {
-					String resultJson = this.objectMapper.writeValueAsString(result);
-					thread.add(ToolMessage.of(toolCall.id(), resultJson));
-				}
-				else {
-					thread.add(ToolMessage.of(toolCall.id(), null));
-				}
+			thread.addAll(callJavaFunctions(javaFunctionRegistry, message.toolCalls()));
+			if (contextWindow != null) {
+				thread = contextWindow.apply(javaFunctionsRequest.model(), thread, tools);
 			}
 
 			request = requestBuilder.messages(thread).build();
 			response = this.chatCompletionsClient.create(request);
+			choice = response.choices().get(0);
 
 			iterationCount += 1;
 		}
@@ -160,6 +181,63 @@ public class ChatCompletionsService {
 		return response;
 	}
 
+	private List<ToolMessage> callJavaFunctions(
+			Map<String, JavaFunction<?, ?>> javaFunctionRegistry, List<ToolCall> toolCalls)
+			throws JsonProcessingException {
+		if (this.fanOut == null || toolCalls.size() < 2) {
+			List<ToolMessage> toolMessages = new ArrayList<>(toolCalls.size());
+			for (ToolCall toolCall : toolCalls) {
+				toolMessages.add(callJavaFunction(javaFunctionRegistry, toolCall));
+			}
+			return toolMessages;
+		}
+
+		List<Callable<ToolMessage>> tasks = new ArrayList<>(toolCalls.size());
+		for (ToolCall toolCall : toolCalls) {
+			tasks.add(() -> callJavaFunction(javaFunctionRegistry, toolCall));
+		}
+		try {
+			return this.fanOut.invokeAllFailFast(tasks);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof JsonProcessingException jpe) {
+				throw jpe;
+			}
+			if (e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	private ToolMessage callJavaFunction(
+			Map<String, JavaFunction<?, ?>> javaFunctionRegistry, ToolCall toolCall)
+			throws JsonProcessingException {
+		JavaFunction<?, ?> javaFunction = javaFunctionRegistry
+				.get(toolCall.function().name());
+		if (javaFunction == null) {
+			throw new IllegalStateException(
+					"Unknown function " + toolCall.function().name());
+		}
+		var argument = this.objectMapper.readValue(toolCall.function().arguments(),
+				javaFunction.parameterClass());
+
+		log.debug("Calling function {}", javaFunction.name());
+		log.debug("with argument {}", argument);
+
+		Object result = javaFunction.call(argument);
+
+		if (result != null) {
+			String resultJson = this.objectMapper.writeValueAsString(result);
+			return ToolMessage.of(toolCall.id(), resultJson);
+		}
+		return ToolMessage.of(toolCall.id(), null);
+	}
+
 	public record ChatCompletionsModelResponse<T>(ChatCompletionResponse response,
 			T responseModel, String error) {
 
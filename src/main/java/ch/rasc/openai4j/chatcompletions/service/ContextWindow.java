@@ -0,0 +1,308 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.chatcompletions.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ch.rasc.openai4j.chatcompletions.ChatCompletionMessage;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionTool;
+import ch.rasc.openai4j.chatcompletions.SystemMessage;
+import ch.rasc.openai4j.chatcompletions.ToolMessage;
+import ch.rasc.openai4j.chatcompletions.UserMessage;
+import ch.rasc.openai4j.tokenizer.ChatTokenCounter;
+
+/**
+ * Policy that limits the size of the conversation that is sent to the model. Used by
+ * {@link ChatCompletionsService#createJavaFunctions} before every request, or directly
+ * with {@link #apply(String, List, List)}.
+ * <p>
+ * The conversation is split into turns: a message together with the tool messages
+ * that follow it. Turns are dropped or kept as a whole, so an assistant message with
+ * tool calls never loses its tool results. The policy is applied in three steps:
+ * <ol>
+ * <li>Sliding window: the oldest turns are dropped until at most
+ * {@link Builder#maxMessages} messages remain.</li>
+ * <li>Tool results: the content of all but the newest
+ * {@link Builder#keepToolResults} tool messages before the newest turn is replaced
+ * with {@link #ELIDED_TOOL_RESULT}. The results of the newest turn are the answers to
+ * the pending tool calls and are always kept.</li>
+ * <li>Token budget: while the prompt is larger than {@link Builder#maxPromptTokens},
+ * the oldest remaining tool results are elided and then the oldest turns are dropped.
+ * Tokens are counted locally with a {@link ChatTokenCounter}.</li>
+ * </ol>
+ * System messages and the first user message are never dropped, unless disabled with
+ * {@link Builder#keepSystemMessages} and {@link Builder#keepFirstUserMessage}. The
+ * newest turn is always kept, so the result can be larger than the budget.
+ * <p>
+ * An instance is immutable and thread-safe.
+ */
+public final class ContextWindow {
+
+	/**
+	 * Content of a tool message whose result was removed.
+	 */
+	public static final String ELIDED_TOOL_RESULT = "[result removed]";
+
+	private final int maxMessages;
+
+	private final int maxPromptTokens;
+
+	private final int keepToolResults;
+
+	private final boolean keepSystemMessages;
+
+	private final boolean keepFirstUserMessage;
+
+	private final ChatTokenCounter tokenCounter;
+
+	private ContextWindow(Builder builder) {
+		this.maxMessages = builder.maxMessages;
+		this.maxPromptTokens = builder.maxPromptTokens;
+		this.keepToolResults = builder.keepToolResults;
+		this.keepSystemMessages = builder.keepSystemMessages;
+		this.keepFirstUserMessage = builder.keepFirstUserMessage;
+		this.tokenCounter = builder.tokenCounter;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+		private int maxMessages = Integer.MAX_VALUE;
+		private int maxPromptTokens = Integer.MAX_VALUE;
+		private int keepToolResults = Integer.MAX_VALUE;
+		private boolean keepSystemMessages = true;
+		private boolean keepFirstUserMessage = true;
+		private ChatTokenCounter tokenCounter;
+
+		private Builder() {
+		}
+
+		/**
+		 * Maximum number of messages, including the messages that are always kept.
+		 * Default: unlimited
+		 */
+		public Builder maxMessages(int maxMessages) {
+			this.maxMessages = maxMessages;
+			return this;
+		}
+
+		/**
+		 * Maximum number of prompt tokens: messages, message overhead and tool
+		 * definitions. Leave room for the completion, the context window of a model
+		 * holds the prompt and the completion. Default: unlimited
+		 */
+		public Builder maxPromptTokens(int maxPromptTokens) {
+			this.maxPromptTokens = maxPromptTokens;
+			return this;
+		}
+
+		/**
+		 * Number of the newest tool messages before the newest turn whose content is
+		 * kept, the content of older tool messages is replaced with
+		 * {@link ContextWindow#ELIDED_TOOL_RESULT}. The tool messages of the newest turn
+		 * are not counted and always kept. Default: all
+		 */
+		public Builder keepToolResults(int keepToolResults) {
+			this.keepToolResults = keepToolResults;
+			return this;
+		}
+
+		/**
+		 * Never drop system messages. Default: true
+		 */
+		public Builder keepSystemMessages(boolean keepSystemMessages) {
+			this.keepSystemMessages = keepSystemMessages;
+			return this;
+		}
+
+		/**
+		 * Never drop the first user message, usually the task of a tool loop. Default:
+		 * true
+		 */
+		public Builder keepFirstUserMessage(boolean keepFirstUserMessage) {
+			this.keepFirstUserMessage = keepFirstUserMessage;
+			return this;
+		}
+
+		/**
+		 * Counter for the token budget. Default: {@link ChatTokenCounter#forModel} of
+		 * the model of the request
+		 */
+		public Builder tokenCounter(ChatTokenCounter tokenCounter) {
+			this.tokenCounter = tokenCounter;
+			return this;
+		}
+
+		public ContextWindow build() {
+			if (this.maxMessages < 1) {
+				throw new IllegalArgumentException("maxMessages must be positive");
+			}
+			if (this.maxPromptTokens < 1) {
+				throw new IllegalArgumentException("maxPromptTokens must be positive");
+			}
+			if (this.keepToolResults < 0) {
+				throw new IllegalArgumentException(
+						"keepToolResults must not be negative");
+			}
+			return new ContextWindow(this);
+		}
+	}
+
+	/**
+	 * Applies the policy to a conversation.
+	 *
+	 * @param model the model, selects the tokenizer when no token counter is set
+	 * @param messages the conversation, not modified
+	 * @param tools the tool definitions of the request, count towards the token budget
+	 * @return a new mutable list with the messages to send
+	 */
+	public List<ChatCompletionMessage> apply(String model,
+			List<ChatCompletionMessage> messages, List<ChatCompletionTool> tools) {
+		List<Turn> turns = turns(messages);
+
+		// sliding window
+		int messageCount = messages.size();
+		for (int i = 0; i < turns.size() - 1 && messageCount > this.maxMessages; i++) {
+			Turn turn = turns.get(i);
+			if (!turn.pinned && !turn.dropped) {
+				turn.dropped = true;
+				messageCount -= turn.messages.size();
+			}
+		}
+
+		// older tool results, the newest turn keeps its results
+		int toolResults = 0;
+		for (int i = turns.size() - 2; i >= 0; i--) {
+			Turn turn = turns.get(i);
+			if (turn.dropped) {
+				continue;
+			}
+			for (int j = turn.messages.size() - 1; j >= 0; j--) {
+				if (turn.messages.get(j) instanceof ToolMessage
+						&& ++toolResults > this.keepToolResults) {
+					elide(turn, j);
+				}
+			}
+		}
+
+		if (this.maxPromptTokens != Integer.MAX_VALUE) {
+			applyTokenBudget(model, turns, tools);
+		}
+
+		List<ChatCompletionMessage> result = new ArrayList<>(messageCount);
+		for (Turn turn : turns) {
+			if (!turn.dropped) {
+				result.addAll(turn.messages);
+			}
+		}
+		return result;
+	}
+
+	private void applyTokenBudget(String model, List<Turn> turns,
+			List<ChatCompletionTool> tools) {
+		ChatTokenCounter counter = this.tokenCounter != null ? this.tokenCounter
+				: ChatTokenCounter.forModel(model);
+		int[][] tokens = new int[turns.size()][];
+		// reply priming, see ChatTokenCounter.countMessages
+		int total = counter.countTools(tools) + 3;
+		for (int i = 0; i < turns.size(); i++) {
+			Turn turn = turns.get(i);
+			tokens[i] = new int[turn.messages.size()];
+			if (!turn.dropped) {
+				for (int j = 0; j < turn.messages.size(); j++) {
+					tokens[i][j] = counter.countMessage(turn.messages.get(j));
+					total += tokens[i][j];
+				}
+			}
+		}
+
+		// elide the oldest tool results, the newest turn keeps its results
+		for (int i = 0; i < turns.size() - 1 && total > this.maxPromptTokens; i++) {
+			Turn turn = turns.get(i);
+			if (turn.dropped) {
+				continue;
+			}
+			for (int j = 0; j < turn.messages.size()
+					&& total > this.maxPromptTokens; j++) {
+				if (turn.messages.get(j) instanceof ToolMessage tool
+						&& !ELIDED_TOOL_RESULT.equals(tool.content())) {
+					elide(turn, j);
+					int elided = counter.countMessage(turn.messages.get(j));
+					total -= tokens[i][j] - elided;
+					tokens[i][j] = elided;
+				}
+			}
+		}
+
+		// drop the oldest turns
+		for (int i = 0; i < turns.size() - 1 && total > this.maxPromptTokens; i++) {
+			Turn turn = turns.get(i);
+			if (!turn.pinned && !turn.dropped) {
+				turn.dropped = true;
+				for (int t : tokens[i]) {
+					total -= t;
+				}
+			}
+		}
+	}
+
+	private static void elide(Turn turn, int index) {
+		ToolMessage tool = (ToolMessage) turn.messages.get(index);
+		if (tool.content() != null
+				&& tool.content().length() > ELIDED_TOOL_RESULT.length()) {
+			turn.messages.set(index,
+					ToolMessage.of(tool.toolCallId(), ELIDED_TOOL_RESULT));
+		}
+	}
+
+	private List<Turn> turns(List<ChatCompletionMessage> messages) {
+		List<Turn> turns = new ArrayList<>();
+		boolean firstUserMessage = true;
+		Turn current = null;
+		for (ChatCompletionMessage message : messages) {
+			if (message instanceof ToolMessage && current != null) {
+				current.messages.add(message);
+				continue;
+			}
+			boolean pinned = false;
+			if (message instanceof SystemMessage) {
+				pinned = this.keepSystemMessages;
+			}
+			else if (message instanceof UserMessage && firstUserMessage) {
+				pinned = this.keepFirstUserMessage;
+				firstUserMessage = false;
+			}
+			current = new Turn(pinned);
+			current.messages.add(message);
+			turns.add(current);
+		}
+		return turns;
+	}
+
+	private static final class Turn {
+		final List<ChatCompletionMessage> messages = new ArrayList<>();
+		final boolean pinned;
+		boolean dropped;
+
+		Turn(boolean pinned) {
+			this.pinned = pinned;
+		}
+	}
+
+}
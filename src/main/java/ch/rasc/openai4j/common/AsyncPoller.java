@@ -0,0 +1,73 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.common;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Polls an asynchronous resource until it reaches a final state. The wait between two
+ * polls does not block a thread.
+ */
+public final class AsyncPoller {
+
+	private AsyncPoller() {
+		// utility class
+	}
+
+	/**
+	 * Retrieves the resource every pollInterval until done returns true or maxWait has
+	 * passed.
+	 *
+	 * @param retrieve sends a request that fetches the current state of the resource
+	 * @param done returns true when the resource reached a final state
+	 * @param pollConfig the poll interval and the maximum time to wait
+	 * @param description used in the error message, for example "file file-abc123"
+	 * @return A future that is completed with the latest state of the resource or
+	 * completed exceptionally when maxWait has passed
+	 */
+	public static <T> CompletableFuture<T> poll(Supplier<CompletableFuture<T>> retrieve,
+			Predicate<T> done, PollConfig pollConfig, String description) {
+		long waitUntil = System.currentTimeMillis()
+				+ pollConfig.maxWaitTimeUnit().toMillis(pollConfig.maxWait());
+		Executor delay = CompletableFuture.delayedExecutor(pollConfig.pollInterval(),
+				pollConfig.pollIntervalTimeUnit());
+		return retrieve.get().thenCompose(current -> next(current, retrieve, done,
+				pollConfig, description, waitUntil, delay));
+	}
+
+	private static <T> CompletableFuture<T> next(T current,
+			Supplier<CompletableFuture<T>> retrieve, Predicate<T> done,
+			PollConfig pollConfig, String description, long waitUntil, Executor delay) {
+		if (done.test(current)) {
+			return CompletableFuture.completedFuture(current);
+		}
+		return CompletableFuture.runAsync(() -> {
+			// wait for the next poll
+		}, delay).thenCompose(v -> {
+			if (System.currentTimeMillis() > waitUntil) {
+				return CompletableFuture.failedFuture(new RuntimeException(
+						"Giving up on waiting for " + description
+								+ " to finish processing after " + pollConfig.maxWait()
+								+ " " + pollConfig.maxWaitTimeUnit()));
+			}
+			return retrieve.get().thenCompose(latest -> next(latest, retrieve, done,
+					pollConfig, description, waitUntil, delay));
+		});
+	}
+}
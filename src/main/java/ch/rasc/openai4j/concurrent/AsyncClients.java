@@ -0,0 +1,108 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.concurrent;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * Helper for {@link Client} decorators that implement {@link AsyncClient} as well.
+ */
+public final class AsyncClients {
+
+	private AsyncClients() {
+		// utility class
+	}
+
+	/**
+	 * Executes a request asynchronously. When the delegate implements
+	 * {@link AsyncClient} its asynchronous method is called. Otherwise the blocking
+	 * method runs on the executor, or on the calling thread when the executor is null.
+	 * <p>
+	 * Cancelling the returned future does not interrupt a blocking call that runs on the
+	 * executor, the request is still sent. A response that arrives after the
+	 * cancellation is closed.
+	 */
+	@SuppressWarnings("unchecked")
+	public static CompletableFuture<Response> execute(Client delegate, Executor executor,
+			Request request, Options options, Optional<Object> requestContext) {
+		if (delegate instanceof AsyncClient) {
+			return ((AsyncClient<Object>) delegate).execute(request, options,
+					requestContext);
+		}
+		if (executor != null) {
+			CompletableFuture<Response> result = new CompletableFuture<>();
+			CompletableFuture
+					.supplyAsync(() -> executeBlocking(delegate, request, options),
+							executor)
+					.whenComplete((response, error) -> {
+						if (response == null) {
+							result.completeExceptionally(error);
+						}
+						else if (!result.complete(response)) {
+							// the caller cancelled the request
+							response.close();
+						}
+					});
+			return result;
+		}
+		try {
+			return CompletableFuture.completedFuture(delegate.execute(request, options));
+		}
+		catch (IOException | RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	/**
+	 * Like {@link CompletableFuture#whenComplete}, but cancelling the returned future
+	 * cancels the source future too, so the cancellation reaches the decorators below.
+	 * It does not abort the HTTP exchange: neither the default
+	 * {@link feign.http2client.Http2Client} nor a blocking call on an executor stop
+	 * when their future is cancelled.
+	 */
+	public static <T> CompletableFuture<T> whenComplete(CompletableFuture<T> source,
+			BiConsumer<? super T, ? super Throwable> action) {
+		CompletableFuture<T> result = source.whenComplete(action);
+		result.whenComplete((value, error) -> {
+			if (result.isCancelled()) {
+				source.cancel(true);
+			}
+		});
+		return result;
+	}
+
+	private static Response executeBlocking(Client delegate, Request request,
+			Options options) {
+		try {
+			return delegate.execute(request, options);
+		}
+		catch (IOException e) {
+			throw new CompletionException(e);
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.concurrent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import feign.Request;
+
+/**
+ * Helper for {@link feign.Client} decorators that keep settings or state per endpoint.
+ */
+public final class Endpoints {
+
+	private static final Map<String, String> NAMES = new ConcurrentHashMap<>();
+
+	private Endpoints() {
+		// utility class
+	}
+
+	/**
+	 * Name of the endpoint of a request: the client interface and method name, for
+	 * example "EmbeddingsClient#create". The synchronous and asynchronous variant of a
+	 * client share the name. Returns null if the request was not created by a Feign
+	 * client.
+	 */
+	public static String name(Request request) {
+		if (request == null || request.requestTemplate() == null
+				|| request.requestTemplate().methodMetadata() == null) {
+			return null;
+		}
+		return NAMES.computeIfAbsent(
+				request.requestTemplate().methodMetadata().configKey(), Endpoints::name);
+	}
+
+	private static String name(String configKey) {
+		int paren = configKey.indexOf('(');
+		String name = paren != -1 ? configKey.substring(0, paren) : configKey;
+		return name.replace("AsyncClient#", "Client#");
+	}
+
+}
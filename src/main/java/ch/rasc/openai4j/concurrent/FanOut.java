@@ -0,0 +1,190 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs blocking calls, like requests sent with {@link ch.rasc.openai4j.OpenAIClient},
+ * concurrently on an executor. Combined with {@link VirtualThreads#newExecutor()} every
+ * call runs on its own virtual thread.
+ *
+ * <pre>
+ * FanOut fanOut = FanOut.virtualThreads();
+ * List&lt;ChatCompletionResponse&gt; responses = fanOut.invokeAllFailFast(prompts.stream()
+ * 		.map(p -&gt; (Callable&lt;ChatCompletionResponse&gt;) () -&gt; client.chatCompletions
+ * 				.create(r -&gt; r.model("gpt-4o").addMessages(UserMessage.of(p))))
+ * 		.toList());
+ * </pre>
+ */
+public class FanOut {
+
+	private final ExecutorService executor;
+
+	public FanOut(ExecutorService executor) {
+		this.executor = Objects.requireNonNull(executor);
+	}
+
+	/**
+	 * Returns the shared fan out helper that runs every task on a new virtual thread, or
+	 * on a platform daemon thread when the runtime does not support virtual threads.
+	 * The executor is created once and lives as long as the application, do not shut it
+	 * down.
+	 */
+	public static FanOut virtualThreads() {
+		return Shared.INSTANCE;
+	}
+
+	/**
+	 * The executor that runs the tasks.
+	 */
+	public ExecutorService executor() {
+		return this.executor;
+	}
+
+	/**
+	 * Runs a single task asynchronously, for example a waitForProcessing call.
+	 */
+	public <T> CompletableFuture<T> submit(Callable<T> task) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return task.call();
+			}
+			catch (RuntimeException e) {
+				throw e;
+			}
+			catch (Exception e) {
+				throw new CompletionException(e);
+			}
+		}, this.executor);
+	}
+
+	/**
+	 * Runs all tasks concurrently and waits until all have completed. When one task
+	 * fails, the remaining tasks are cancelled and the failure is thrown.
+	 *
+	 * @return the results in the order of the tasks
+	 * @throws ExecutionException wraps the exception of the first failed task
+	 * @throws InterruptedException if the calling thread was interrupted while waiting,
+	 * the remaining tasks are cancelled
+	 */
+	public <T> List<T> invokeAllFailFast(Collection<? extends Callable<T>> tasks)
+			throws InterruptedException, ExecutionException {
+		ExecutorCompletionService<T> completionService = new ExecutorCompletionService<>(
+				this.executor);
+		Map<Future<T>, Integer> indexes = new HashMap<>();
+		int index = 0;
+		for (Callable<T> task : tasks) {
+			indexes.put(completionService.submit(task), index++);
+		}
+
+		List<T> results = new ArrayList<>(tasks.size());
+		for (int i = 0; i < tasks.size(); i++) {
+			results.add(null);
+		}
+
+		try {
+			for (int i = 0; i < indexes.size(); i++) {
+				Future<T> future = completionService.take();
+				results.set(indexes.get(future), future.get());
+			}
+		}
+		catch (InterruptedException | ExecutionException e) {
+			for (Future<T> future : indexes.keySet()) {
+				future.cancel(true);
+			}
+			throw e;
+		}
+		return results;
+	}
+
+	/**
+	 * Runs all tasks concurrently and waits until all have completed, regardless of
+	 * failures.
+	 *
+	 * @return the outcome of every task in the order of the tasks
+	 * @throws InterruptedException if the calling thread was interrupted while waiting,
+	 * the remaining tasks are cancelled
+	 */
+	public <T> List<Outcome<T>> invokeAll(Collection<? extends Callable<T>> tasks)
+			throws InterruptedException {
+		List<Future<T>> futures = new ArrayList<>(tasks.size());
+		for (Callable<T> task : tasks) {
+			futures.add(this.executor.submit(task));
+		}
+
+		List<Outcome<T>> outcomes = new ArrayList<>(futures.size());
+		try {
+			for (Future<T> future : futures) {
+				try {
+					outcomes.add(new Outcome<>(future.get(), null));
+				}
+				catch (ExecutionException e) {
+					outcomes.add(new Outcome<>(null, e.getCause()));
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			for (Future<T> future : futures) {
+				future.cancel(true);
+			}
+			throw e;
+		}
+		return outcomes;
+	}
+
+	private static final class Shared {
+		static final FanOut INSTANCE = new FanOut(VirtualThreads.newExecutor());
+	}
+
+	/**
+	 * The result of a task, either a value or the exception the task has thrown.
+	 */
+	public record Outcome<T>(T value, Throwable error) {
+
+		/**
+		 * The value returned by the task. Null if the task failed.
+		 */
+		@Override
+		public T value() {
+			return this.value;
+		}
+
+		/**
+		 * The exception thrown by the task. Null if the task succeeded.
+		 */
+		@Override
+		public Throwable error() {
+			return this.error;
+		}
+
+		public boolean isSuccess() {
+			return this.error == null;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.concurrent;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import feign.Client;
+import feign.Response;
+
+/**
+ * Helper for {@link Client} decorators that hold a resource until the response body
+ * has been consumed.
+ */
+public final class Responses {
+
+	private Responses() {
+		// utility class
+	}
+
+	/**
+	 * Returns a response that runs the action once, when the body has been read to the
+	 * end or closed. The action runs immediately when the response has no body or the
+	 * body cannot be opened.
+	 */
+	public static Response onBodyClosed(Response response, Runnable action) {
+		AtomicBoolean done = new AtomicBoolean();
+		Runnable once = () -> {
+			if (done.compareAndSet(false, true)) {
+				action.run();
+			}
+		};
+		if (response.body() == null) {
+			once.run();
+			return response;
+		}
+		InputStream body;
+		try {
+			body = response.body().asInputStream();
+		}
+		catch (IOException e) {
+			once.run();
+			return response;
+		}
+		return response.toBuilder()
+				.body(new ClosingInputStream(body, once), response.body().length())
+				.build();
+	}
+
+	private static final class ClosingInputStream extends FilterInputStream {
+
+		private final Runnable action;
+
+		ClosingInputStream(InputStream in, Runnable action) {
+			super(in);
+			this.action = action;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b == -1) {
+				this.action.run();
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n == -1) {
+				this.action.run();
+			}
+			return n;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			finally {
+				this.action.run();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.concurrent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates executors that run every task on a new virtual thread when the library runs on
+ * Java 21 or newer. The library is compiled for Java 17, therefore the virtual thread
+ * API is looked up reflectively. On older runtimes the executors fall back to a cached
+ * pool of platform daemon threads.
+ */
+public final class VirtualThreads {
+
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreads.class);
+
+	private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookup();
+
+	private VirtualThreads() {
+		// utility class
+	}
+
+	private static MethodHandle lookup() {
+		try {
+			MethodHandle handle = MethodHandles.publicLookup().findStatic(
+					Executors.class, "newVirtualThreadPerTaskExecutor",
+					MethodType.methodType(ExecutorService.class));
+			// Java 19 and 20 throw UnsupportedOperationException without
+			// --enable-preview
+			((ExecutorService) handle.invokeExact()).shutdown();
+			return handle;
+		}
+		catch (Throwable e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns true if the runtime supports virtual threads.
+	 */
+	public static boolean isSupported() {
+		return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+	}
+
+	/**
+	 * Creates an executor that starts a new virtual thread for each task. Falls back to
+	 * a cached thread pool of platform daemon threads when the runtime does not support
+	 * virtual threads.
+	 */
+	public static ExecutorService newExecutor() {
+		if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null) {
+			try {
+				return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR
+						.invokeExact();
+			}
+			catch (Throwable e) {
+				log.warn("Creating a virtual thread executor failed", e);
+			}
+		}
+		else {
+			log.debug("Virtual threads are not supported, using platform threads");
+		}
+		return Executors.newCachedThreadPool(new DaemonThreadFactory());
+	}
+
+	private static final class DaemonThreadFactory implements ThreadFactory {
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "openai4j-" + this.counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
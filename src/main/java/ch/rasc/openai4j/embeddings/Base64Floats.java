@@ -0,0 +1,207 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.embeddings;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Decodes and encodes base64 strings of little-endian float32 values, the format the
+ * embeddings endpoint returns with {@code encoding_format=base64}. The decoder works
+ * directly on the characters, without an intermediate {@code byte[]}.
+ */
+public final class Base64Floats {
+
+	private static final char[] ALPHABET = ("ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+			+ "abcdefghijklmnopqrstuvwxyz0123456789+/").toCharArray();
+
+	private static final byte[] DECODE = new byte[128];
+
+	static {
+		Arrays.fill(DECODE, (byte) -1);
+		for (int i = 0; i < ALPHABET.length; i++) {
+			DECODE[ALPHABET[i]] = (byte) i;
+		}
+	}
+
+	private Base64Floats() {
+	}
+
+	/**
+	 * Returns the number of floats encoded in the base64 string, with or without
+	 * padding.
+	 */
+	public static int floatCount(CharSequence base64) {
+		int length = base64.length();
+		while (length > 0 && base64.charAt(length - 1) == '=') {
+			length--;
+		}
+		return floatCount(length);
+	}
+
+	private static int floatCount(int unpaddedLength) {
+		return (int) ((long) unpaddedLength * 6 / 8 / 4);
+	}
+
+	/**
+	 * Decodes a base64 string of little-endian float32 values into a new array.
+	 */
+	public static float[] decode(CharSequence base64) {
+		float[] values = new float[floatCount(base64)];
+		Sink sink = (i, v) -> values[i] = v;
+		decode(base64, 0, base64.length(), sink);
+		return values;
+	}
+
+	/**
+	 * Decodes a base64 string of little-endian float32 values into the buffer, starting
+	 * at its current position. The position is advanced by the number of decoded
+	 * values. Works with heap and direct buffers.
+	 *
+	 * @return the number of decoded values
+	 */
+	public static int decode(CharSequence base64, FloatBuffer destination) {
+		int count = floatCount(base64);
+		if (destination.remaining() < count) {
+			throw new IllegalArgumentException("destination has "
+					+ destination.remaining() + " floats remaining, " + count + " required");
+		}
+		int start = destination.position();
+		decode(base64, 0, base64.length(), (i, v) -> destination.put(start + i, v));
+		destination.position(start + count);
+		return count;
+	}
+
+	/**
+	 * Decodes the characters of a JSON string token directly into an array.
+	 */
+	static float[] decode(char[] chars, int offset, int length) {
+		int unpadded = length;
+		while (unpadded > 0 && chars[offset + unpadded - 1] == '=') {
+			unpadded--;
+		}
+		float[] values = new float[floatCount(unpadded)];
+		int bits = 0;
+		int bitCount = 0;
+		int word = 0;
+		int byteIndex = 0;
+		int index = 0;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			char c = chars[i];
+			if (c == '=') {
+				break;
+			}
+			bits = bits << 6 | sextet(c);
+			bitCount += 6;
+			if (bitCount >= 8) {
+				bitCount -= 8;
+				word |= (bits >>> bitCount & 0xff) << (byteIndex << 3);
+				if (++byteIndex == 4) {
+					values[index++] = Float.intBitsToFloat(word);
+					word = 0;
+					byteIndex = 0;
+				}
+			}
+		}
+		checkComplete(byteIndex);
+		return values;
+	}
+
+	private static void decode(CharSequence chars, int offset, int length, Sink sink) {
+		int bits = 0;
+		int bitCount = 0;
+		int word = 0;
+		int byteIndex = 0;
+		int index = 0;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			char c = chars.charAt(i);
+			if (c == '=') {
+				break;
+			}
+			bits = bits << 6 | sextet(c);
+			bitCount += 6;
+			if (bitCount >= 8) {
+				bitCount -= 8;
+				word |= (bits >>> bitCount & 0xff) << (byteIndex << 3);
+				if (++byteIndex == 4) {
+					sink.accept(index++, Float.intBitsToFloat(word));
+					word = 0;
+					byteIndex = 0;
+				}
+			}
+		}
+		checkComplete(byteIndex);
+	}
+
+	/**
+	 * Encodes the values as a base64 string of little-endian float32 values.
+	 */
+	public static String encode(float[] values) {
+		int byteLength = values.length * 4;
+		char[] out = new char[(byteLength + 2) / 3 * 4];
+		int o = 0;
+		int buffer = 0;
+		int buffered = 0;
+		for (float value : values) {
+			int word = Float.floatToRawIntBits(value);
+			for (int b = 0; b < 4; b++) {
+				buffer = buffer << 8 | word >>> (b << 3) & 0xff;
+				if (++buffered == 3) {
+					out[o++] = ALPHABET[buffer >>> 18 & 0x3f];
+					out[o++] = ALPHABET[buffer >>> 12 & 0x3f];
+					out[o++] = ALPHABET[buffer >>> 6 & 0x3f];
+					out[o++] = ALPHABET[buffer & 0x3f];
+					buffer = 0;
+					buffered = 0;
+				}
+			}
+		}
+		if (buffered == 1) {
+			out[o++] = ALPHABET[buffer >>> 2 & 0x3f];
+			out[o++] = ALPHABET[buffer << 4 & 0x3f];
+			out[o++] = '=';
+			out[o++] = '=';
+		}
+		else if (buffered == 2) {
+			out[o++] = ALPHABET[buffer >>> 10 & 0x3f];
+			out[o++] = ALPHABET[buffer >>> 4 & 0x3f];
+			out[o++] = ALPHABET[buffer << 2 & 0x3f];
+			out[o++] = '=';
+		}
+		return new String(out);
+	}
+
+	private static int sextet(char c) {
+		int value = c < 128 ? DECODE[c] : -1;
+		if (value < 0) {
+			throw new IllegalArgumentException("Illegal base64 character: " + c);
+		}
+		return value;
+	}
+
+	private static void checkComplete(int byteIndex) {
+		if (byteIndex != 0) {
+			throw new IllegalArgumentException(
+					"base64 length is not a multiple of 4 bytes (float32)");
+		}
+	}
+
+	@FunctionalInterface
+	private interface Sink {
+		void accept(int index, float value);
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package ch.rasc.openai4j.embeddings;
 
+import java.nio.FloatBuffer;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 
 /**
@@ -30,7 +32,7 @@ public record Embedding(int index, EmbeddingVector embedding, String object) {
 	}
 
 	/**
-	 * The embedding vector, which is either a list of doubles or a base64-encoded string.
+	 * The embedding vector.
 	 */
 	public EmbeddingVector embedding() {
 		return this.embedding;
@@ -43,34 +45,134 @@ public record Embedding(int index, EmbeddingVector embedding, String object) {
 		return this.object;
 	}
 
+	/**
+	 * An embedding vector stored as float32 values, the precision the API returns.
+	 * Responses requested with {@code encoding_format=base64} (the default of
+	 * {@link EmbeddingsClient}) are decoded directly into the float array. A vector can
+	 * also be a view of a {@link FloatBuffer}, for example of a memory mapped file, then
+	 * the array is only created when {@link #floatArray()} is called.
+	 */
 	public static class EmbeddingVector {
-		private final String base64;
-		private final double[] doubleArray;
+		private final FloatBuffer buffer;
+
+		private final int dimensions;
+
+		private volatile float[] values;
+
+		private volatile String base64;
+
+		EmbeddingVector(float[] values) {
+			this.buffer = null;
+			this.dimensions = values.length;
+			this.values = values;
+		}
+
+		private EmbeddingVector(FloatBuffer buffer) {
+			this.buffer = buffer;
+			this.dimensions = buffer.remaining();
+		}
 
 		@JsonCreator
 		EmbeddingVector(double[] doubleArray) {
-			this.doubleArray = doubleArray;
-			this.base64 = null;
+			float[] floats = new float[doubleArray.length];
+			for (int i = 0; i < doubleArray.length; i++) {
+				floats[i] = (float) doubleArray[i];
+			}
+			this.buffer = null;
+			this.dimensions = floats.length;
+			this.values = floats;
 		}
 
 		@JsonCreator
 		EmbeddingVector(String base64) {
-			this.doubleArray = null;
+			this(Base64Floats.decode(base64));
 			this.base64 = base64;
 		}
 
 		/**
-		 * The embedding vector as a list of doubles.
+		 * Creates a vector that wraps the array, the array is not copied.
+		 */
+		public static EmbeddingVector of(float[] values) {
+			return new EmbeddingVector(values);
+		}
+
+		/**
+		 * Creates a vector that is a read-only view of the remaining floats of the
+		 * buffer, the floats are not copied.
+		 */
+		public static EmbeddingVector of(FloatBuffer buffer) {
+			return new EmbeddingVector(buffer.slice().asReadOnlyBuffer());
+		}
+
+		/**
+		 * The number of dimensions of the vector.
+		 */
+		public int dimensions() {
+			return this.dimensions;
+		}
+
+		/**
+		 * The embedding vector as an array of floats. Returns the internal array, callers
+		 * must not modify it. A vector that is a view of a buffer copies the floats into
+		 * an array on the first call.
+		 */
+		public float[] floatArray() {
+			float[] result = this.values;
+			if (result == null) {
+				result = new float[this.dimensions];
+				this.buffer.get(0, result);
+				this.values = result;
+			}
+			return result;
+		}
+
+		/**
+		 * A read-only buffer view of the vector, without copying.
+		 */
+		public FloatBuffer floatBuffer() {
+			if (this.buffer != null) {
+				return this.buffer.duplicate();
+			}
+			return FloatBuffer.wrap(this.values).asReadOnlyBuffer();
+		}
+
+		/**
+		 * Copies the vector into the buffer, starting at its current position, for
+		 * example into a direct (off-heap) buffer.
+		 */
+		public void copyTo(FloatBuffer destination) {
+			if (this.buffer != null) {
+				destination.put(this.buffer.duplicate());
+			}
+			else {
+				destination.put(this.values);
+			}
+		}
+
+		/**
+		 * The embedding vector as an array of doubles. Creates a new array on every call,
+		 * prefer {@link #floatArray()}.
 		 */
 		public double[] doubleArray() {
-			return this.doubleArray;
+			FloatBuffer view = floatBuffer();
+			double[] result = new double[this.dimensions];
+			for (int i = 0; i < this.dimensions; i++) {
+				result[i] = view.get(i);
+			}
+			return result;
 		}
 
 		/**
-		 * The embedding vector as a base64-encoded string.
+		 * The embedding vector as a base64 string of little-endian float32 values. The
+		 * string is encoded on first access when the vector was not received as base64.
 		 */
 		public String base64() {
-			return this.base64;
+			String result = this.base64;
+			if (result == null) {
+				result = Base64Floats.encode(floatArray());
+				this.base64 = result;
+			}
+			return result;
 		}
 
 	}
@@ -45,7 +45,8 @@ public class EmbeddingCreateRequest {
 		}
 		this.input = builder.input;
 		this.model = builder.model;
-		this.encodingFormat = builder.encodingFormat;
+		this.encodingFormat = builder.encodingFormat != null ? builder.encodingFormat
+				: EncodingFormat.BASE64;
 		this.dimensions = builder.dimensions;
 		this.user = builder.user;
 	}
@@ -131,8 +132,9 @@ public class EmbeddingCreateRequest {
 		}
 
 		/**
-		 * The format to return the embeddings in. Can be either float or base64. Defaults
-		 * to float. In this client the floats are mapped into doubles.
+		 * The format to return the embeddings in. Can be either float or base64. Both are
+		 * decoded into float32 vectors, base64 is about half the size on the wire.
+		 * Default: base64
 		 */
 		public Builder encodingFormat(EncodingFormat encodingFormat) {
 			this.encodingFormat = encodingFormat;
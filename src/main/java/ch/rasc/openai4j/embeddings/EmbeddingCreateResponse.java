@@ -18,7 +18,9 @@ package ch.rasc.openai4j.embeddings;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
+@JsonDeserialize(using = EmbeddingCreateResponseDeserializer.class)
 public record EmbeddingCreateResponse(String object, List<Embedding> data, String model,
 		Usage usage) {
 
@@ -0,0 +1,154 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.embeddings;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import ch.rasc.openai4j.embeddings.Embedding.EmbeddingVector;
+
+/**
+ * Reads an {@link EmbeddingCreateResponse} with the streaming API. The vectors are
+ * parsed into arrays sized by the dimension of the previous vector, so only the first
+ * vector of a response has to be grown and trimmed. Base64 vectors are decoded from the
+ * parser's character buffer straight into a {@code float[]}.
+ */
+final class EmbeddingCreateResponseDeserializer
+		extends StdDeserializer<EmbeddingCreateResponse> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int INITIAL_CAPACITY = 1536;
+
+	EmbeddingCreateResponseDeserializer() {
+		super(EmbeddingCreateResponse.class);
+	}
+
+	@Override
+	public EmbeddingCreateResponse deserialize(JsonParser p, DeserializationContext ctxt)
+			throws IOException {
+		if (!p.isExpectedStartObjectToken()) {
+			return (EmbeddingCreateResponse) ctxt
+					.handleUnexpectedToken(EmbeddingCreateResponse.class, p);
+		}
+
+		String object = null;
+		List<Embedding> data = null;
+		String model = null;
+		EmbeddingCreateResponse.Usage usage = null;
+		for (String field = p.nextFieldName(); field != null; field = p
+				.nextFieldName()) {
+			JsonToken token = p.nextToken();
+			if (token == JsonToken.VALUE_NULL) {
+				continue;
+			}
+			switch (field) {
+			case "object" -> object = p.getText();
+			case "model" -> model = p.getText();
+			case "data" -> data = readData(p, ctxt);
+			case "usage" -> usage = ctxt.readValue(p,
+					EmbeddingCreateResponse.Usage.class);
+			default -> p.skipChildren();
+			}
+		}
+		return new EmbeddingCreateResponse(object, data, model, usage);
+	}
+
+	private static List<Embedding> readData(JsonParser p, DeserializationContext ctxt)
+			throws IOException {
+		if (!p.isExpectedStartArrayToken()) {
+			return castList(ctxt.handleUnexpectedToken(List.class, p));
+		}
+		List<Embedding> data = new ArrayList<>();
+		int dimension = INITIAL_CAPACITY;
+		while (p.nextToken() != JsonToken.END_ARRAY) {
+			if (!p.isExpectedStartObjectToken()) {
+				ctxt.handleUnexpectedToken(Embedding.class, p);
+			}
+			int index = 0;
+			EmbeddingVector vector = null;
+			String object = null;
+			for (String field = p.nextFieldName(); field != null; field = p
+					.nextFieldName()) {
+				JsonToken token = p.nextToken();
+				if (token == JsonToken.VALUE_NULL) {
+					continue;
+				}
+				switch (field) {
+				case "index" -> index = p.getIntValue();
+				case "object" -> object = p.getText();
+				case "embedding" -> {
+					if (token == JsonToken.VALUE_STRING) {
+						vector = new EmbeddingVector(readBase64(p));
+					}
+					else {
+						float[] values = readFloats(p, ctxt, dimension);
+						dimension = values.length;
+						vector = new EmbeddingVector(values);
+					}
+				}
+				default -> p.skipChildren();
+				}
+			}
+			data.add(new Embedding(index, vector, object));
+		}
+		return data;
+	}
+
+	private static float[] readBase64(JsonParser p) throws IOException {
+		try {
+			return Base64Floats.decode(p.getTextCharacters(), p.getTextOffset(),
+					p.getTextLength());
+		}
+		catch (IllegalArgumentException e) {
+			throw new JsonParseException(p, e.getMessage(), e);
+		}
+	}
+
+	private static float[] readFloats(JsonParser p, DeserializationContext ctxt,
+			int capacity) throws IOException {
+		if (!p.isExpectedStartArrayToken()) {
+			return (float[]) ctxt.handleUnexpectedToken(float[].class, p);
+		}
+		float[] values = new float[Math.max(capacity, 1)];
+		int length = 0;
+		JsonToken token;
+		while ((token = p.nextToken()) != JsonToken.END_ARRAY) {
+			if (!token.isNumeric()) {
+				ctxt.handleUnexpectedToken(float.class, p);
+			}
+			if (length == values.length) {
+				values = Arrays.copyOf(values, values.length * 2);
+			}
+			values[length++] = p.getFloatValue();
+		}
+		return length == values.length ? values : Arrays.copyOf(values, length);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Embedding> castList(Object value) {
+		return (List<Embedding>) value;
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.embeddings;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import feign.Headers;
+import feign.RequestLine;
+
+/**
+ * Asynchronous variant of {@link EmbeddingsClient}. Every method returns immediately with
+ * a {@link CompletableFuture} that is completed when the response has been received and
+ * decoded.
+ */
+public interface EmbeddingsAsyncClient {
+
+	/**
+	 * Creates an embedding vector representing the input text.
+	 *
+	 * @return A list of embedding objects.
+	 */
+	@RequestLine("POST /embeddings")
+	@Headers("Content-Type: application/json")
+	CompletableFuture<EmbeddingCreateResponse> create(EmbeddingCreateRequest request);
+
+	/**
+	 * Creates an embedding vector representing the input text.
+	 *
+	 * @return A list of embedding objects.
+	 */
+	default CompletableFuture<EmbeddingCreateResponse> create(
+			Function<EmbeddingCreateRequest.Builder, EmbeddingCreateRequest.Builder> fn) {
+		return this.create(fn.apply(EmbeddingCreateRequest.builder()).build());
+	}
+
+}
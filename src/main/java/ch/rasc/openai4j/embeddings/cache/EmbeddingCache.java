@@ -0,0 +1,381 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.embeddings.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import ch.rasc.openai4j.embeddings.Embedding.EmbeddingVector;
+
+/**
+ * Persistent embedding cache keyed by model, dimensions and the SHA-256 hash of the
+ * text. The vectors are appended to memory mapped files in the cache directory, so
+ * millions of vectors do not occupy the Java heap. An open addressing index of the
+ * 128-bit keys is kept on the heap (24 bytes per slot) and rebuilt from the files
+ * when the cache is opened.
+ * <p>
+ * {@link #get(String, Integer, String)} returns a vector that is a read-only view of
+ * the mapped file, the floats are not copied. Entries are never removed, delete the
+ * directory to clear the cache.
+ * <p>
+ * An instance is thread-safe. A directory can only be opened by one cache at a time,
+ * it is locked until {@link #close()}.
+ */
+public final class EmbeddingCache implements AutoCloseable {
+
+	private static final String LOCK_FILE = "embeddings.lock";
+
+	private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal
+			.withInitial(() -> {
+				try {
+					return MessageDigest.getInstance("SHA-256");
+				}
+				catch (NoSuchAlgorithmException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+
+	private final Path directory;
+
+	private final int segmentSize;
+
+	private final FileChannel lockChannel;
+
+	private final FileLock lock;
+
+	private final List<VectorSegment> segments = new ArrayList<>();
+
+	private final VectorIndex index;
+
+	private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private boolean closed;
+
+	private EmbeddingCache(Builder builder) throws IOException {
+		this.directory = builder.directory;
+		this.segmentSize = builder.segmentSize;
+		this.index = new VectorIndex(builder.initialCapacity);
+
+		Files.createDirectories(this.directory);
+		this.lockChannel = FileChannel.open(this.directory.resolve(LOCK_FILE),
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			FileLock fileLock;
+			try {
+				fileLock = this.lockChannel.tryLock();
+			}
+			catch (OverlappingFileLockException e) {
+				fileLock = null;
+			}
+			if (fileLock == null) {
+				throw new IllegalStateException(
+						this.directory + " is used by another embedding cache");
+			}
+			this.lock = fileLock;
+
+			for (int i = 0;; i++) {
+				Path file = segmentFile(i);
+				if (!Files.exists(file)) {
+					break;
+				}
+				openSegment(file);
+			}
+		}
+		catch (IOException | RuntimeException e) {
+			closeFiles();
+			throw e;
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+		private Path directory;
+		private int segmentSize = 256 * 1024 * 1024;
+		private int initialCapacity = 1024;
+
+		private Builder() {
+		}
+
+		/**
+		 * Directory of the vector files. Created if it does not exist.
+		 */
+		public Builder directory(Path directory) {
+			this.directory = directory;
+			return this;
+		}
+
+		/**
+		 * Size of one vector file in bytes. A file is mapped in full when it is created,
+		 * on file systems with sparse files only the written part occupies disk space.
+		 * A vector of 3072 dimensions needs 12312 bytes. Default: 256 MiB
+		 */
+		public Builder segmentSize(int segmentSize) {
+			this.segmentSize = segmentSize;
+			return this;
+		}
+
+		/**
+		 * Number of entries the index holds before it grows. Default: 1024
+		 */
+		public Builder initialCapacity(int initialCapacity) {
+			this.initialCapacity = initialCapacity;
+			return this;
+		}
+
+		/**
+		 * Opens the cache and indexes the existing vector files.
+		 *
+		 * @throws UncheckedIOException if the files cannot be opened
+		 * @throws IllegalStateException if the directory is used by another cache
+		 */
+		public EmbeddingCache build() {
+			if (this.directory == null) {
+				throw new IllegalArgumentException("directory must not be null");
+			}
+			if (this.segmentSize < 64 * 1024) {
+				throw new IllegalArgumentException("segmentSize must be at least 64 KiB");
+			}
+			if (this.initialCapacity < 1) {
+				throw new IllegalArgumentException("initialCapacity must be positive");
+			}
+			try {
+				return new EmbeddingCache(this);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the cached vector or null. The vector is a view of the mapped file and is
+	 * valid as long as the JVM runs, also after {@link #close()}.
+	 *
+	 * @param dimensions the dimensions parameter of the request, null for the default
+	 * of the model
+	 */
+	public EmbeddingVector get(String model, Integer dimensions, String text) {
+		long[] key = key(model, dimensions, text);
+		this.rwLock.readLock().lock();
+		try {
+			long location = this.index.get(key[0], key[1]);
+			if (location == 0) {
+				this.misses.increment();
+				return null;
+			}
+			this.hits.increment();
+			VectorSegment segment = this.segments.get((int) (location >>> 32));
+			return EmbeddingVector.of(segment.vector((int) location));
+		}
+		finally {
+			this.rwLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns true if a vector for the text is cached. Does not update the counters.
+	 */
+	public boolean contains(String model, Integer dimensions, String text) {
+		long[] key = key(model, dimensions, text);
+		this.rwLock.readLock().lock();
+		try {
+			return this.index.get(key[0], key[1]) != 0;
+		}
+		finally {
+			this.rwLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Appends the vector to the cache. Does nothing if the text is already cached.
+	 *
+	 * @param dimensions the dimensions parameter of the request, null for the default
+	 * of the model
+	 * @throws UncheckedIOException if a new vector file cannot be created
+	 */
+	public void put(String model, Integer dimensions, String text,
+			EmbeddingVector vector) {
+		long recordSize = VectorSegment.recordSize(vector.dimensions());
+		if (recordSize > this.segmentSize - VectorSegment.HEADER_SIZE) {
+			throw new IllegalArgumentException("vector does not fit into a segment");
+		}
+		long[] key = key(model, dimensions, text);
+		this.rwLock.writeLock().lock();
+		try {
+			if (this.closed) {
+				throw new IllegalStateException("EmbeddingCache is closed");
+			}
+			if (this.index.get(key[0], key[1]) != 0) {
+				return;
+			}
+			int segmentIndex = this.segments.size() - 1;
+			if (segmentIndex < 0
+					|| this.segments.get(segmentIndex).remaining() < recordSize) {
+				openSegment(segmentFile(this.segments.size()));
+				segmentIndex++;
+			}
+			int offset = this.segments.get(segmentIndex).append(key[0], key[1], vector);
+			this.index.put(key[0], key[1], location(segmentIndex, offset));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		finally {
+			this.rwLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Number of cached vectors.
+	 */
+	public int size() {
+		this.rwLock.readLock().lock();
+		try {
+			return this.index.size();
+		}
+		finally {
+			this.rwLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * The current counters.
+	 */
+	public EmbeddingCacheStats stats() {
+		this.rwLock.readLock().lock();
+		try {
+			long mapped = 0;
+			for (VectorSegment segment : this.segments) {
+				mapped += segment.capacity();
+			}
+			return new EmbeddingCacheStats(this.hits.sum(), this.misses.sum(),
+					this.index.size(), mapped);
+		}
+		finally {
+			this.rwLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes the changes of the mapped files to the storage device. Without a flush
+	 * the operating system writes them eventually, they survive a crash of the JVM
+	 * but not of the operating system.
+	 */
+	public void flush() {
+		this.rwLock.readLock().lock();
+		try {
+			for (VectorSegment segment : this.segments) {
+				segment.force();
+			}
+		}
+		finally {
+			this.rwLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Flushes the files and releases the directory lock. The mappings are released by
+	 * the garbage collector when no vector references them anymore.
+	 */
+	@Override
+	public void close() {
+		this.rwLock.writeLock().lock();
+		try {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			for (VectorSegment segment : this.segments) {
+				segment.force();
+			}
+			closeFiles();
+		}
+		finally {
+			this.rwLock.writeLock().unlock();
+		}
+	}
+
+	private void openSegment(Path file) throws IOException {
+		int segmentIndex = this.segments.size();
+		VectorSegment segment = VectorSegment.open(file, this.segmentSize,
+				(keyHigh, keyLow, offset) -> this.index.put(keyHigh, keyLow,
+						location(segmentIndex, offset)));
+		this.segments.add(segment);
+	}
+
+	private void closeFiles() {
+		for (VectorSegment segment : this.segments) {
+			try {
+				segment.close();
+			}
+			catch (IOException e) {
+				// ignore, the data is in the mapping
+			}
+		}
+		try {
+			if (this.lock != null) {
+				this.lock.release();
+			}
+			this.lockChannel.close();
+		}
+		catch (IOException e) {
+			// ignore
+		}
+	}
+
+	private Path segmentFile(int segmentIndex) {
+		return this.directory.resolve(String.format("vectors-%05d.bin", segmentIndex));
+	}
+
+	private static long location(int segmentIndex, int offset) {
+		return (long) segmentIndex << 32 | offset;
+	}
+
+	private static long[] key(String model, Integer dimensions, String text) {
+		MessageDigest digest = SHA256.get();
+		digest.update(model.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		digest.update(dimensions != null ? dimensions.toString().getBytes(
+				StandardCharsets.US_ASCII) : new byte[0]);
+		digest.update((byte) 0);
+		digest.update(text.getBytes(StandardCharsets.UTF_8));
+		ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+		return new long[] { hash.getLong(), hash.getLong() };
+	}
+
+}
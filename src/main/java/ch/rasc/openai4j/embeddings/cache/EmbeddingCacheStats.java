@@ -0,0 +1,64 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.embeddings.cache;
+
+/**
+ * Snapshot of the counters of an {@link EmbeddingCache}.
+ */
+public record EmbeddingCacheStats(long hits, long misses, long entries,
+		long bytesMapped) {
+
+	/**
+	 * Number of lookups that found a vector.
+	 */
+	@Override
+	public long hits() {
+		return this.hits;
+	}
+
+	/**
+	 * Number of lookups that did not find a vector.
+	 */
+	@Override
+	public long misses() {
+		return this.misses;
+	}
+
+	/**
+	 * Number of cached vectors.
+	 */
+	@Override
+	public long entries() {
+		return this.entries;
+	}
+
+	/**
+	 * Total size of the memory mapped vector files in bytes.
+	 */
+	@Override
+	public long bytesMapped() {
+		return this.bytesMapped;
+	}
+
+	/**
+	 * Fraction of the lookups that found a vector.
+	 */
+	public double hitRate() {
+		long total = this.hits + this.misses;
+		return total == 0 ? 0 : (double) this.hits / total;
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.embeddings.cache;
+
+/**
+ * Open addressing hash table from a 128-bit key to the location of a vector in the
+ * segment files. Keys and locations are stored in primitive arrays, 24 bytes per slot,
+ * the vectors themselves stay in the memory mapped files. Not thread-safe, guarded by
+ * the lock of {@link EmbeddingCache}.
+ */
+final class VectorIndex {
+
+	private long[] high;
+
+	private long[] low;
+
+	// 0 marks an empty slot, a location is never 0 because every segment starts with a
+	// header
+	private long[] locations;
+
+	private int size;
+
+	private int mask;
+
+	VectorIndex(int initialCapacity) {
+		int capacity = Integer.highestOneBit(Math.max(16, initialCapacity * 2 - 1)) << 1;
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		this.high = new long[capacity];
+		this.low = new long[capacity];
+		this.locations = new long[capacity];
+		this.mask = capacity - 1;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the location of the key or 0 if the key is not in the index.
+	 */
+	long get(long keyHigh, long keyLow) {
+		int slot = slot(keyHigh);
+		while (true) {
+			long location = this.locations[slot];
+			if (location == 0) {
+				return 0;
+			}
+			if (this.high[slot] == keyHigh && this.low[slot] == keyLow) {
+				return location;
+			}
+			slot = slot + 1 & this.mask;
+		}
+	}
+
+	/**
+	 * Adds the key if it is not in the index yet.
+	 *
+	 * @return false if the key was already in the index
+	 */
+	boolean put(long keyHigh, long keyLow, long location) {
+		if (this.size * 2 >= this.locations.length) {
+			grow();
+		}
+		int slot = slot(keyHigh);
+		while (this.locations[slot] != 0) {
+			if (this.high[slot] == keyHigh && this.low[slot] == keyLow) {
+				return false;
+			}
+			slot = slot + 1 & this.mask;
+		}
+		this.high[slot] = keyHigh;
+		this.low[slot] = keyLow;
+		this.locations[slot] = location;
+		this.size++;
+		return true;
+	}
+
+	private void grow() {
+		long[] oldHigh = this.high;
+		long[] oldLow = this.low;
+		long[] oldLocations = this.locations;
+		allocate(oldLocations.length * 2);
+		for (int i = 0; i < oldLocations.length; i++) {
+			if (oldLocations[i] != 0) {
+				int slot = slot(oldHigh[i]);
+				while (this.locations[slot] != 0) {
+					slot = slot + 1 & this.mask;
+				}
+				this.high[slot] = oldHigh[i];
+				this.low[slot] = oldLow[i];
+				this.locations[slot] = oldLocations[i];
+			}
+		}
+	}
+
+	private int slot(long keyHigh) {
+		// the key is a cryptographic hash, the bits are already uniformly distributed
+		return (int) (keyHigh ^ keyHigh >>> 32) & this.mask;
+	}
+
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.embeddings.cache;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import ch.rasc.openai4j.embeddings.Embedding.EmbeddingVector;
+
+/**
+ * One append-only vector file, mapped into memory in full. The file starts with an
+ * 8 byte header (magic, version) followed by the records:
+ *
+ * <pre>
+ * int magic, int dimensions, long keyHigh, long keyLow, float[dimensions] (little-endian)
+ * </pre>
+ *
+ * The magic of a record is written last, a record that was not completely written
+ * before the process stopped is ignored and overwritten.
+ */
+final class VectorSegment {
+
+	static final int HEADER_SIZE = 8;
+
+	static final int RECORD_HEADER_SIZE = 24;
+
+	private static final int FILE_MAGIC = 0x6f617631;
+
+	private static final int VERSION = 1;
+
+	private static final int RECORD_MAGIC = 0x76656331;
+
+	private final FileChannel channel;
+
+	private final MappedByteBuffer buffer;
+
+	private int position;
+
+	private VectorSegment(FileChannel channel, MappedByteBuffer buffer) {
+		this.channel = channel;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Maps the file, creates it if it does not exist, and reports the offset of every
+	 * complete record to the consumer.
+	 */
+	static VectorSegment open(Path file, int size, RecordConsumer records)
+			throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			long mappedSize = Math.max(size, channel.size());
+			if (mappedSize > Integer.MAX_VALUE) {
+				throw new IOException(file + " is larger than 2 GiB");
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+					mappedSize);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			VectorSegment segment = new VectorSegment(channel, buffer);
+			int magic = buffer.getInt(0);
+			if (magic == 0) {
+				buffer.putInt(4, VERSION);
+				buffer.putInt(0, FILE_MAGIC);
+			}
+			else if (magic != FILE_MAGIC || buffer.getInt(4) != VERSION) {
+				throw new IOException(file + " is not an embedding cache file");
+			}
+			segment.position = segment.scan(records);
+			return segment;
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private int scan(RecordConsumer records) {
+		int offset = HEADER_SIZE;
+		int capacity = this.buffer.capacity();
+		while (offset + RECORD_HEADER_SIZE <= capacity
+				&& this.buffer.getInt(offset) == RECORD_MAGIC) {
+			int dimensions = this.buffer.getInt(offset + 4);
+			long length = RECORD_HEADER_SIZE + 4L * dimensions;
+			if (dimensions < 0 || offset + length > capacity) {
+				break;
+			}
+			records.accept(this.buffer.getLong(offset + 8),
+					this.buffer.getLong(offset + 16), offset);
+			offset += (int) length;
+		}
+		return offset;
+	}
+
+	static long recordSize(int dimensions) {
+		return RECORD_HEADER_SIZE + 4L * dimensions;
+	}
+
+	/**
+	 * Free bytes at the end of the file.
+	 */
+	long remaining() {
+		return this.buffer.capacity() - (long) this.position;
+	}
+
+	int capacity() {
+		return this.buffer.capacity();
+	}
+
+	/**
+	 * Appends a record, the caller checks {@link #remaining()} first.
+	 *
+	 * @return the offset of the record
+	 */
+	int append(long keyHigh, long keyLow, EmbeddingVector vector) {
+		int offset = this.position;
+		int dimensions = vector.dimensions();
+		this.buffer.putInt(offset + 4, dimensions);
+		this.buffer.putLong(offset + 8, keyHigh);
+		this.buffer.putLong(offset + 16, keyLow);
+		vector.copyTo(floats(offset, dimensions));
+		this.buffer.putInt(offset, RECORD_MAGIC);
+		this.position = offset + (int) recordSize(dimensions);
+		return offset;
+	}
+
+	/**
+	 * A read-only view of the vector of the record at the offset.
+	 */
+	FloatBuffer vector(int offset) {
+		int dimensions = this.buffer.getInt(offset + 4);
+		return floats(offset, dimensions).asReadOnlyBuffer();
+	}
+
+	private FloatBuffer floats(int offset, int dimensions) {
+		return this.buffer.slice(offset + RECORD_HEADER_SIZE, dimensions * 4)
+				.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+	}
+
+	void force() {
+		this.buffer.force();
+	}
+
+	void close() throws IOException {
+		this.channel.close();
+	}
+
+	@FunctionalInterface
+	interface RecordConsumer {
+		void accept(long keyHigh, long keyLow, int offset);
+	}
+
+}
@@ -0,0 +1,515 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.embeddings.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.rasc.openai4j.concurrent.VirtualThreads;
+import ch.rasc.openai4j.embeddings.Embedding;
+import ch.rasc.openai4j.embeddings.Embedding.EmbeddingVector;
+import ch.rasc.openai4j.embeddings.EmbeddingCreateRequest;
+import ch.rasc.openai4j.embeddings.EmbeddingCreateResponse;
+import ch.rasc.openai4j.embeddings.EmbeddingsAsyncClient;
+import ch.rasc.openai4j.embeddings.EmbeddingsClient;
+import ch.rasc.openai4j.embeddings.cache.EmbeddingCache;
+
+/**
+ * Embeds single texts by collecting concurrent calls into batches. A batch is sent as
+ * one {@link EmbeddingsClient#create(EmbeddingCreateRequest)} request with a list input
+ * when it reaches {@link Builder#maxBatchSize(int)} texts,
+ * {@link Builder#maxBatchTokens(int)} tokens, or when the first text of the batch has
+ * waited {@link Builder#maxDelay(Duration)}. The embeddings of the response are
+ * assigned to the callers by {@link Embedding#index()}.
+ * <p>
+ * Identical texts in the same batch are sent once. Fewer, larger requests use far less
+ * of the requests per minute limit than one request per text. With an
+ * {@link EmbeddingCache} texts that were embedded before are answered from the cache
+ * and new embeddings are added to it.
+ * <p>
+ * An instance is thread-safe. {@link #close()} sends the pending batch.
+ */
+public final class EmbeddingsService implements AutoCloseable {
+
+	private static final Logger log = LoggerFactory.getLogger(EmbeddingsService.class);
+
+	private final Sender client;
+
+	private final ExecutorService ownedExecutor;
+
+	private final String model;
+
+	private final Integer dimensions;
+
+	private final String user;
+
+	private final int maxBatchSize;
+
+	private final int maxBatchTokens;
+
+	private final long maxDelayNanos;
+
+	private final ToIntFunction<String> tokenCounter;
+
+	private final EmbeddingCache cache;
+
+	private final Object lock = new Object();
+
+	private Batch batch;
+
+	private boolean closed;
+
+	private final LongAdder texts = new LongAdder();
+
+	private final LongAdder cached = new LongAdder();
+
+	private final LongAdder inputs = new LongAdder();
+
+	private final LongAdder batches = new LongAdder();
+
+	private EmbeddingsService(Builder builder) {
+		this.model = builder.model;
+		this.dimensions = builder.dimensions;
+		this.user = builder.user;
+		this.maxBatchSize = builder.maxBatchSize;
+		this.maxBatchTokens = builder.maxBatchTokens;
+		this.maxDelayNanos = builder.maxDelay.toNanos();
+		this.tokenCounter = builder.tokenCounter;
+		this.cache = builder.cache;
+
+		if (builder.asyncClient != null) {
+			this.ownedExecutor = null;
+			this.client = builder.asyncClient::create;
+		}
+		else {
+			Executor executor = builder.executor;
+			if (executor == null) {
+				this.ownedExecutor = VirtualThreads.newExecutor();
+				executor = this.ownedExecutor;
+			}
+			else {
+				this.ownedExecutor = null;
+			}
+			EmbeddingsClient syncClient = builder.syncClient;
+			Executor callExecutor = executor;
+			this.client = request -> CompletableFuture
+					.supplyAsync(() -> syncClient.create(request), callExecutor);
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+		private EmbeddingsClient syncClient;
+		private EmbeddingsAsyncClient asyncClient;
+		private Executor executor;
+		private String model;
+		private Integer dimensions;
+		private String user;
+		private int maxBatchSize = 256;
+		private int maxBatchTokens = 100_000;
+		private Duration maxDelay = Duration.ofMillis(10);
+		private ToIntFunction<String> tokenCounter = text -> text.length() / 4 + 1;
+		private EmbeddingCache cache;
+
+		private Builder() {
+		}
+
+		/**
+		 * The client that sends the batches. The requests are sent on
+		 * {@link #executor(Executor)}.
+		 */
+		public Builder client(EmbeddingsClient client) {
+			this.syncClient = client;
+			this.asyncClient = null;
+			return this;
+		}
+
+		/**
+		 * The asynchronous client that sends the batches.
+		 */
+		public Builder asyncClient(EmbeddingsAsyncClient client) {
+			this.asyncClient = client;
+			this.syncClient = null;
+			return this;
+		}
+
+		/**
+		 * Executor that calls a synchronous {@link EmbeddingsClient}. Not used with an
+		 * {@link EmbeddingsAsyncClient}. Default: a virtual thread per batch (platform
+		 * threads on Java 17), shut down by {@link EmbeddingsService#close()}
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * ID of the embedding model.
+		 */
+		public Builder model(String model) {
+			this.model = model;
+			return this;
+		}
+
+		/**
+		 * The number of dimensions the resulting output embeddings should have. Only
+		 * supported in text-embedding-3 and later models.
+		 */
+		public Builder dimensions(Integer dimensions) {
+			this.dimensions = dimensions;
+			return this;
+		}
+
+		/**
+		 * A unique identifier representing your end-user.
+		 */
+		public Builder user(String user) {
+			this.user = user;
+			return this;
+		}
+
+		/**
+		 * Maximum number of texts in one request. The API accepts up to 2048 inputs.
+		 * Default: 256
+		 */
+		public Builder maxBatchSize(int maxBatchSize) {
+			this.maxBatchSize = maxBatchSize;
+			return this;
+		}
+
+		/**
+		 * Maximum number of tokens of all texts in one request, counted with
+		 * {@link #tokenCounter(ToIntFunction)}. A single text that exceeds the limit is
+		 * sent in a batch of its own. Default: 100000
+		 */
+		public Builder maxBatchTokens(int maxBatchTokens) {
+			this.maxBatchTokens = maxBatchTokens;
+			return this;
+		}
+
+		/**
+		 * Maximum time the first text of a batch waits for more texts before the batch is
+		 * sent. Default: 10 milliseconds
+		 */
+		public Builder maxDelay(Duration maxDelay) {
+			this.maxDelay = maxDelay;
+			return this;
+		}
+
+		/**
+		 * Counts the tokens of a text for {@link #maxBatchTokens(int)}, for example
+		 * {@code Tokenizer.forModel(model)::countTokens}. Default: an estimate of one
+		 * token per four characters
+		 */
+		public Builder tokenCounter(ToIntFunction<String> tokenCounter) {
+			this.tokenCounter = tokenCounter;
+			return this;
+		}
+
+		/**
+		 * Persistent cache of the embeddings. The cache is not closed by
+		 * {@link EmbeddingsService#close()}. Default: null (no cache)
+		 */
+		public Builder cache(EmbeddingCache cache) {
+			this.cache = cache;
+			return this;
+		}
+
+		public EmbeddingsService build() {
+			if (this.syncClient == null && this.asyncClient == null) {
+				throw new IllegalArgumentException("client or asyncClient must be set");
+			}
+			if (this.model == null || this.model.isBlank()) {
+				throw new IllegalArgumentException("model must not be null or empty");
+			}
+			if (this.maxBatchSize < 1 || this.maxBatchSize > 2048) {
+				throw new IllegalArgumentException(
+						"maxBatchSize must be between 1 and 2048");
+			}
+			if (this.maxBatchTokens < 1) {
+				throw new IllegalArgumentException("maxBatchTokens must be positive");
+			}
+			if (this.maxDelay == null || this.maxDelay.isNegative()) {
+				throw new IllegalArgumentException(
+						"maxDelay must not be null or negative");
+			}
+			if (this.tokenCounter == null) {
+				throw new IllegalArgumentException("tokenCounter must not be null");
+			}
+			return new EmbeddingsService(this);
+		}
+	}
+
+	/**
+	 * Embeds the text. The returned future completes when the batch that contains the
+	 * text has been answered.
+	 */
+	public CompletableFuture<EmbeddingVector> embed(String text) {
+		if (text == null) {
+			throw new IllegalArgumentException("text must not be null");
+		}
+		this.texts.increment();
+		if (this.cache != null) {
+			EmbeddingVector vector = this.cache.get(this.model, this.dimensions, text);
+			if (vector != null) {
+				this.cached.increment();
+				return CompletableFuture.completedFuture(vector);
+			}
+		}
+		int tokens = this.tokenCounter.applyAsInt(text);
+
+		CompletableFuture<EmbeddingVector> result;
+		Batch previous = null;
+		Batch full = null;
+		Batch scheduled = null;
+		synchronized (this.lock) {
+			if (this.closed) {
+				throw new IllegalStateException("EmbeddingsService is closed");
+			}
+			Batch current = this.batch;
+			if (current != null && !current.contains(text)
+					&& current.tokens + tokens > this.maxBatchTokens) {
+				previous = current;
+				current = null;
+			}
+			if (current == null) {
+				current = new Batch();
+				this.batch = current;
+				scheduled = current;
+			}
+			result = current.add(text, tokens);
+			if (current.size() >= this.maxBatchSize
+					|| current.tokens >= this.maxBatchTokens) {
+				this.batch = null;
+				full = current;
+				scheduled = null;
+			}
+		}
+		if (previous != null) {
+			send(previous);
+		}
+		if (full != null) {
+			send(full);
+		}
+		if (scheduled != null) {
+			Batch timed = scheduled;
+			CompletableFuture.delayedExecutor(this.maxDelayNanos, TimeUnit.NANOSECONDS)
+					.execute(() -> flush(timed));
+		}
+		return result;
+	}
+
+	/**
+	 * Embeds the texts. The texts can end up in different batches, the list of the
+	 * returned future is in the order of the texts.
+	 */
+	public CompletableFuture<List<EmbeddingVector>> embed(List<String> texts) {
+		List<CompletableFuture<EmbeddingVector>> futures = new ArrayList<>(texts.size());
+		for (String text : texts) {
+			futures.add(embed(text));
+		}
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+				.thenApply(v -> {
+					List<EmbeddingVector> vectors = new ArrayList<>(futures.size());
+					for (CompletableFuture<EmbeddingVector> future : futures) {
+						vectors.add(future.join());
+					}
+					return vectors;
+				});
+	}
+
+	/**
+	 * Sends the pending batch without waiting for {@link Builder#maxDelay(Duration)}.
+	 */
+	public void flush() {
+		Batch pending;
+		synchronized (this.lock) {
+			pending = this.batch;
+			this.batch = null;
+		}
+		if (pending != null) {
+			send(pending);
+		}
+	}
+
+	private void flush(Batch expected) {
+		synchronized (this.lock) {
+			if (this.batch != expected) {
+				// already sent because it was full
+				return;
+			}
+			this.batch = null;
+		}
+		send(expected);
+	}
+
+	/**
+	 * Sends the pending batch and rejects new texts. An executor created by the service
+	 * is shut down after the batches in flight have been sent.
+	 */
+	@Override
+	public void close() {
+		synchronized (this.lock) {
+			this.closed = true;
+		}
+		flush();
+		if (this.ownedExecutor != null) {
+			this.ownedExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * The current counters.
+	 */
+	public EmbeddingsServiceStats stats() {
+		return new EmbeddingsServiceStats(this.texts.sum(), this.cached.sum(),
+				this.inputs.sum(), this.batches.sum());
+	}
+
+	private void send(Batch batch) {
+		this.batches.increment();
+		this.inputs.add(batch.size());
+		EmbeddingCreateRequest.Builder builder = EmbeddingCreateRequest.builder()
+				.input(batch.texts).model(this.model)
+				.encodingFormat(EmbeddingCreateRequest.EncodingFormat.BASE64);
+		if (this.dimensions != null) {
+			builder.dimensions(this.dimensions);
+		}
+		if (this.user != null) {
+			builder.user(this.user);
+		}
+
+		CompletableFuture<EmbeddingCreateResponse> response;
+		try {
+			response = this.client.send(builder.build());
+		}
+		catch (RuntimeException e) {
+			batch.fail(e);
+			return;
+		}
+		response.whenComplete((r, e) -> {
+			if (e != null) {
+				batch.fail(e instanceof CompletionException && e.getCause() != null
+						? e.getCause()
+						: e);
+			}
+			else {
+				if (this.cache != null) {
+					store(batch, r);
+				}
+				batch.complete(r);
+			}
+		});
+	}
+
+	private void store(Batch batch, EmbeddingCreateResponse response) {
+		if (response == null || response.data() == null) {
+			return;
+		}
+		try {
+			for (Embedding embedding : response.data()) {
+				int index = embedding.index();
+				if (index >= 0 && index < batch.size() && embedding.embedding() != null) {
+					this.cache.put(this.model, this.dimensions, batch.texts.get(index),
+							embedding.embedding());
+				}
+			}
+		}
+		catch (RuntimeException e) {
+			log.warn("Adding embeddings to the cache failed", e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Sender {
+		CompletableFuture<EmbeddingCreateResponse> send(EmbeddingCreateRequest request);
+	}
+
+	private static final class Batch {
+		private final List<String> texts = new ArrayList<>();
+		private final List<CompletableFuture<EmbeddingVector>> futures =
+				new ArrayList<>();
+		private final Map<String, Integer> indexes = new HashMap<>();
+		int tokens;
+
+		boolean contains(String text) {
+			return this.indexes.containsKey(text);
+		}
+
+		/**
+		 * Adds the text if it is not already in the batch. Every caller gets its own
+		 * dependent future, completing or cancelling it does not affect the other
+		 * callers of the same text.
+		 */
+		CompletableFuture<EmbeddingVector> add(String text, int textTokens) {
+			Integer index = this.indexes.get(text);
+			if (index != null) {
+				return this.futures.get(index).thenApply(Function.identity());
+			}
+			this.indexes.put(text, this.texts.size());
+			this.texts.add(text);
+			CompletableFuture<EmbeddingVector> future = new CompletableFuture<>();
+			this.futures.add(future);
+			this.tokens += textTokens;
+			return future.thenApply(Function.identity());
+		}
+
+		int size() {
+			return this.texts.size();
+		}
+
+		void complete(EmbeddingCreateResponse response) {
+			if (response != null && response.data() != null) {
+				for (Embedding embedding : response.data()) {
+					int index = embedding.index();
+					if (index >= 0 && index < this.futures.size()) {
+						this.futures.get(index).complete(embedding.embedding());
+					}
+				}
+			}
+			for (CompletableFuture<EmbeddingVector> future : this.futures) {
+				if (!future.isDone()) {
+					future.completeExceptionally(new IllegalStateException(
+							"Response does not contain an embedding for the input"));
+				}
+			}
+		}
+
+		void fail(Throwable error) {
+			for (CompletableFuture<EmbeddingVector> future : this.futures) {
+				future.completeExceptionally(error);
+			}
+		}
+	}
+
+}
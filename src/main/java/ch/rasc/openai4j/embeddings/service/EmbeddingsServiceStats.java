@@ -0,0 +1,65 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.embeddings.service;
+
+/**
+ * Snapshot of the counters of an {@link EmbeddingsService}.
+ */
+public record EmbeddingsServiceStats(long texts, long cached, long inputs,
+		long batches) {
+
+	/**
+	 * Number of texts passed to {@link EmbeddingsService#embed(String)}.
+	 */
+	@Override
+	public long texts() {
+		return this.texts;
+	}
+
+	/**
+	 * Number of texts answered from the {@link EmbeddingsService.Builder#cache
+	 * EmbeddingCache}.
+	 */
+	@Override
+	public long cached() {
+		return this.cached;
+	}
+
+	/**
+	 * Number of inputs sent to the API. Lower than {@link #texts()} when identical
+	 * texts were in the same batch.
+	 */
+	@Override
+	public long inputs() {
+		return this.inputs;
+	}
+
+	/**
+	 * Number of requests sent to the API.
+	 */
+	@Override
+	public long batches() {
+		return this.batches;
+	}
+
+	/**
+	 * Average number of inputs per request.
+	 */
+	public double averageBatchSize() {
+		return this.batches == 0 ? 0 : (double) this.inputs / this.batches;
+	}
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.hedging;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.rasc.openai4j.concurrent.Endpoints;
+import feign.Request;
+
+/**
+ * Settings and state of request hedging. When the response of a request to a hedged
+ * endpoint has not arrived after the configured percentile of the recent latencies, a
+ * second identical request is sent. The first successful response is used, the
+ * response of the other request is closed when it arrives.
+ * <p>
+ * Only enable hedging for idempotent endpoints. By default these are
+ * {@code EmbeddingsClient#create} and {@code ModerationsClient#create}. Every hedge is
+ * billed by OpenAI, the hedge budget limits the hedges to a fraction of the requests.
+ *
+ * @see HedgingClient
+ */
+public final class Hedging {
+
+	private final Set<String> endpoints;
+
+	private final double percentile;
+
+	private final Duration minDelay;
+
+	private final Duration initialDelay;
+
+	private final double budgetRatio;
+
+	private final Map<String, Endpoint> state = new ConcurrentHashMap<>();
+
+	private final Object budgetLock = new Object();
+
+	private double budget;
+
+	private Hedging(Builder builder) {
+		this.endpoints = Set.copyOf(builder.endpoints);
+		this.percentile = builder.percentile;
+		this.minDelay = builder.minDelay;
+		this.initialDelay = builder.initialDelay;
+		this.budgetRatio = builder.budgetRatio;
+		this.budget = 1;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static Hedging create() {
+		return builder().build();
+	}
+
+	public static final class Builder {
+		private Set<String> endpoints = Set.of("EmbeddingsClient#create",
+				"ModerationsClient#create");
+		private double percentile = 95;
+		private Duration minDelay = Duration.ofMillis(50);
+		private Duration initialDelay = Duration.ofSeconds(2);
+		private double budgetRatio = 0.1;
+
+		private Builder() {
+		}
+
+		/**
+		 * Endpoints that are hedged, in the form "ClientInterface#method", for example
+		 * "EmbeddingsClient#create". Default: EmbeddingsClient#create and
+		 * ModerationsClient#create
+		 */
+		public Builder endpoints(Set<String> endpoints) {
+			this.endpoints = endpoints;
+			return this;
+		}
+
+		/**
+		 * Percentile of the recent latencies after which a hedge is sent. Default: 95
+		 */
+		public Builder percentile(double percentile) {
+			this.percentile = percentile;
+			return this;
+		}
+
+		/**
+		 * Lower bound of the hedge delay. Default: 50 ms
+		 */
+		public Builder minDelay(Duration minDelay) {
+			this.minDelay = minDelay;
+			return this;
+		}
+
+		/**
+		 * Hedge delay until enough latencies have been recorded. Default: 2 seconds
+		 */
+		public Builder initialDelay(Duration initialDelay) {
+			this.initialDelay = initialDelay;
+			return this;
+		}
+
+		/**
+		 * Maximum fraction of the requests that can be hedged. Default: 0.1
+		 */
+		public Builder budgetRatio(double budgetRatio) {
+			this.budgetRatio = budgetRatio;
+			return this;
+		}
+
+		public Hedging build() {
+			if (this.endpoints == null) {
+				throw new IllegalArgumentException("endpoints must not be null");
+			}
+			if (this.percentile <= 0 || this.percentile >= 100) {
+				throw new IllegalArgumentException(
+						"percentile must be greater than 0 and less than 100");
+			}
+			if (this.minDelay == null || this.minDelay.isNegative()
+					|| this.initialDelay == null || this.initialDelay.isNegative()) {
+				throw new IllegalArgumentException("delays must not be negative");
+			}
+			if (this.budgetRatio < 0 || this.budgetRatio > 1) {
+				throw new IllegalArgumentException("budgetRatio must be between 0 and 1");
+			}
+			return new Hedging(this);
+		}
+	}
+
+	/**
+	 * Returns the hedged endpoint of a request, or null if the request is not hedged.
+	 */
+	public String endpoint(Request request) {
+		String endpoint = Endpoints.name(request);
+		return endpoint != null && this.endpoints.contains(endpoint) ? endpoint : null;
+	}
+
+	/**
+	 * Metrics of one endpoint.
+	 */
+	public HedgingMetrics metrics(String endpoint) {
+		Endpoint e = this.state.get(endpoint);
+		return e != null ? e.metrics() : new HedgingMetrics(0, 0, 0, 0);
+	}
+
+	/**
+	 * Metrics of all endpoints.
+	 */
+	public HedgingMetrics metrics() {
+		long requests = 0;
+		long hedges = 0;
+		long wins = 0;
+		long exhausted = 0;
+		for (Endpoint e : this.state.values()) {
+			HedgingMetrics m = e.metrics();
+			requests += m.requests();
+			hedges += m.hedges();
+			wins += m.hedgeWins();
+			exhausted += m.budgetExhausted();
+		}
+		return new HedgingMetrics(requests, hedges, wins, exhausted);
+	}
+
+	Endpoint state(String endpoint) {
+		return this.state.computeIfAbsent(endpoint, k -> new Endpoint());
+	}
+
+	/**
+	 * Delay after which a hedge is sent.
+	 */
+	long hedgeDelayNanos(Endpoint endpoint) {
+		long delay = endpoint.latencies.percentile(this.percentile);
+		if (delay < 0) {
+			delay = this.initialDelay.toNanos();
+		}
+		return Math.max(delay, this.minDelay.toNanos());
+	}
+
+	void recordRequest(Endpoint endpoint) {
+		endpoint.requests.increment();
+		synchronized (this.budgetLock) {
+			// allow a small burst of hedges after an idle period
+			this.budget = Math.min(10, this.budget + this.budgetRatio);
+		}
+	}
+
+	boolean tryHedge(Endpoint endpoint) {
+		synchronized (this.budgetLock) {
+			if (this.budget < 1) {
+				endpoint.budgetExhausted.increment();
+				return false;
+			}
+			this.budget -= 1;
+		}
+		endpoint.hedges.increment();
+		return true;
+	}
+
+	static final class Endpoint {
+		final LongAdder requests = new LongAdder();
+		final LongAdder hedges = new LongAdder();
+		final LongAdder hedgeWins = new LongAdder();
+		final LongAdder budgetExhausted = new LongAdder();
+		final LatencyWindow latencies = new LatencyWindow(256);
+
+		HedgingMetrics metrics() {
+			return new HedgingMetrics(this.requests.sum(), this.hedges.sum(),
+					this.hedgeWins.sum(), this.budgetExhausted.sum());
+		}
+	}
+
+	/**
+	 * Latencies of the most recent requests. The percentile is recalculated after
+	 * every 16 new samples.
+	 */
+	static final class LatencyWindow {
+		private static final int MIN_SAMPLES = 20;
+
+		private final long[] samples;
+		private final long[] sorted;
+		private int position;
+		private int count;
+		private int sinceSort;
+		private boolean sortedValid;
+
+		LatencyWindow(int size) {
+			this.samples = new long[size];
+			this.sorted = new long[size];
+		}
+
+		synchronized void add(long nanos) {
+			this.samples[this.position] = nanos;
+			this.position = (this.position + 1) % this.samples.length;
+			if (this.count < this.samples.length) {
+				this.count++;
+			}
+			if (++this.sinceSort >= 16) {
+				this.sortedValid = false;
+			}
+		}
+
+		/**
+		 * @return the percentile in nanoseconds or -1 if there are not enough samples
+		 */
+		synchronized long percentile(double percentile) {
+			if (this.count < MIN_SAMPLES) {
+				return -1;
+			}
+			if (!this.sortedValid) {
+				System.arraycopy(this.samples, 0, this.sorted, 0, this.count);
+				Arrays.sort(this.sorted, 0, this.count);
+				this.sortedValid = true;
+				this.sinceSort = 0;
+			}
+			int index = (int) Math.ceil(percentile / 100 * this.count) - 1;
+			return this.sorted[Math.max(0, Math.min(index, this.count - 1))];
+		}
+	}
+
+}
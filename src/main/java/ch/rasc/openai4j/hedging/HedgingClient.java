@@ -0,0 +1,244 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.hedging;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import ch.rasc.openai4j.concurrent.AsyncClients;
+import ch.rasc.openai4j.hedging.Hedging.Endpoint;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * {@link Client} decorator that sends a second request to a hedged endpoint when the
+ * first response is late, and returns the first successful response. The other request
+ * is not cancelled, cancelling a future of the default HTTP client does not stop the
+ * exchange, its response is closed when it arrives. The same happens to both requests
+ * when the caller cancels the returned future.
+ * <p>
+ * Both requests run concurrently, this requires a delegate that implements
+ * {@link AsyncClient} (like the default {@link feign.http2client.Http2Client}) or an
+ * executor. Without either, requests are sent without hedging.
+ */
+public class HedgingClient implements Client, AsyncClient<Object> {
+
+	private final Client delegate;
+
+	private final Hedging hedging;
+
+	private final Executor executor;
+
+	public HedgingClient(Client delegate, Hedging hedging) {
+		this(delegate, hedging, null);
+	}
+
+	public HedgingClient(Client delegate, Hedging hedging, Executor executor) {
+		this.delegate = delegate;
+		this.hedging = hedging;
+		this.executor = executor;
+	}
+
+	public Client delegate() {
+		return this.delegate;
+	}
+
+	public Hedging hedging() {
+		return this.hedging;
+	}
+
+	@Override
+	public Response execute(Request request, Options options) throws IOException {
+		String endpoint = this.hedging.endpoint(request);
+		if (endpoint == null || !canRunConcurrently()) {
+			return this.delegate.execute(request, options);
+		}
+
+		CompletableFuture<Response> future = hedge(endpoint, request, options,
+				Optional.empty());
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"interrupted while waiting for the response");
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException ioe) {
+				throw ioe;
+			}
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Options options,
+			Optional<Object> requestContext) {
+		String endpoint = this.hedging.endpoint(request);
+		if (endpoint == null || !canRunConcurrently()) {
+			return AsyncClients.execute(this.delegate, this.executor, request, options,
+					requestContext);
+		}
+		return hedge(endpoint, request, options, requestContext);
+	}
+
+	private boolean canRunConcurrently() {
+		return this.delegate instanceof AsyncClient || this.executor != null;
+	}
+
+	private CompletableFuture<Response> hedge(String endpoint, Request request,
+			Options options, Optional<Object> requestContext) {
+		Endpoint state = this.hedging.state(endpoint);
+		this.hedging.recordRequest(state);
+		Race race = new Race(state);
+
+		send(race, false, request, options, requestContext);
+
+		long delay = this.hedging.hedgeDelayNanos(state);
+		CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+			if (race.isPending() && this.hedging.tryHedge(state)) {
+				send(race, true, request, options, requestContext);
+			}
+		});
+
+		race.result.whenComplete((response, error) -> {
+			if (race.result.isCancelled()) {
+				race.abandon();
+			}
+		});
+		return race.result;
+	}
+
+	private void send(Race race, boolean hedge, Request request, Options options,
+			Optional<Object> requestContext) {
+		race.started();
+		long start = System.nanoTime();
+		AsyncClients.execute(this.delegate, this.executor, request, options,
+				requestContext).whenComplete((response, error) -> race.completed(hedge,
+						response, error, System.nanoTime() - start));
+	}
+
+	/**
+	 * The original request and the hedge, the first successful response wins.
+	 */
+	private static final class Race {
+		final CompletableFuture<Response> result = new CompletableFuture<>();
+		final Endpoint state;
+		private int outstanding;
+		private boolean decided;
+		private Response failedResponse;
+
+		Race(Endpoint state) {
+			this.state = state;
+		}
+
+		synchronized boolean isPending() {
+			return !this.decided && !this.result.isDone();
+		}
+
+		synchronized void started() {
+			this.outstanding++;
+		}
+
+		void completed(boolean isHedge, Response response, Throwable error,
+				long latency) {
+			boolean success = response != null && response.status() < 500;
+			boolean decide;
+			Response discarded;
+			synchronized (this) {
+				this.outstanding--;
+				if (this.decided) {
+					decide = false;
+					discarded = response;
+				}
+				else if (!success && this.outstanding > 0) {
+					// keep the failure in case the other request fails too
+					decide = false;
+					discarded = this.failedResponse;
+					this.failedResponse = response;
+				}
+				else {
+					decide = true;
+					this.decided = true;
+					discarded = this.failedResponse;
+					this.failedResponse = null;
+				}
+			}
+			closeQuietly(discarded);
+			if (!decide) {
+				return;
+			}
+
+			if (success) {
+				this.state.latencies.add(latency);
+				if (isHedge) {
+					this.state.hedgeWins.increment();
+				}
+			}
+			if (response != null) {
+				if (!this.result.complete(response)) {
+					// the caller cancelled the request
+					closeQuietly(response);
+				}
+			}
+			else {
+				this.result.completeExceptionally(unwrap(error));
+			}
+		}
+
+		/**
+		 * The caller cancelled the request. Responses that arrive later are closed.
+		 */
+		void abandon() {
+			Response discarded;
+			synchronized (this) {
+				this.decided = true;
+				discarded = this.failedResponse;
+				this.failedResponse = null;
+			}
+			closeQuietly(discarded);
+		}
+
+		private static Throwable unwrap(Throwable error) {
+			if (error instanceof CompletionException && error.getCause() != null) {
+				return error.getCause();
+			}
+			return error;
+		}
+
+		private static void closeQuietly(Response response) {
+			if (response != null) {
+				response.close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.hedging;
+
+/**
+ * Snapshot of the hedging counters of one endpoint or of all endpoints.
+ */
+public record HedgingMetrics(long requests, long hedges, long hedgeWins,
+		long budgetExhausted) {
+
+	/**
+	 * Number of requests sent to a hedged endpoint, without the hedges.
+	 */
+	@Override
+	public long requests() {
+		return this.requests;
+	}
+
+	/**
+	 * Number of duplicate requests sent because the first response was late.
+	 */
+	@Override
+	public long hedges() {
+		return this.hedges;
+	}
+
+	/**
+	 * Number of hedges that returned before the original request.
+	 */
+	@Override
+	public long hedgeWins() {
+		return this.hedgeWins;
+	}
+
+	/**
+	 * Number of hedges that were not sent because the hedge budget was exhausted.
+	 */
+	@Override
+	public long budgetExhausted() {
+		return this.budgetExhausted;
+	}
+
+	/**
+	 * Fraction of the requests that were hedged.
+	 */
+	public double hedgeRate() {
+		return this.requests == 0 ? 0 : (double) this.hedges / this.requests;
+	}
+
+	/**
+	 * Fraction of the hedges that won.
+	 */
+	public double winRate() {
+		return this.hedges == 0 ? 0 : (double) this.hedgeWins / this.hedges;
+	}
+
+}
@@ -17,8 +17,11 @@ package ch.rasc.openai4j.images;
 
 import java.util.List;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
 /**
  * Represents a list of Image objects
  */
+@JsonDeserialize(using = ImageResponseDeserializer.class)
 public record ImageResponse(long created, List<Image> data) {
 }
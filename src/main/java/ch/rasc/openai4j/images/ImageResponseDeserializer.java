@@ -0,0 +1,94 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.images;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Reads an {@link ImageResponse} with the streaming API. The base64 encoded images are
+ * copied from the parser buffer into the string once.
+ */
+final class ImageResponseDeserializer extends StdDeserializer<ImageResponse> {
+
+	private static final long serialVersionUID = 1L;
+
+	ImageResponseDeserializer() {
+		super(ImageResponse.class);
+	}
+
+	@Override
+	public ImageResponse deserialize(JsonParser p, DeserializationContext ctxt)
+			throws IOException {
+		if (!p.isExpectedStartObjectToken()) {
+			return (ImageResponse) ctxt.handleUnexpectedToken(ImageResponse.class, p);
+		}
+
+		long created = 0;
+		List<Image> data = null;
+		for (String field = p.nextFieldName(); field != null; field = p
+				.nextFieldName()) {
+			JsonToken token = p.nextToken();
+			if (token == JsonToken.VALUE_NULL) {
+				continue;
+			}
+			switch (field) {
+			case "created" -> created = p.getLongValue();
+			case "data" -> data = readData(p, ctxt);
+			default -> p.skipChildren();
+			}
+		}
+		return new ImageResponse(created, data);
+	}
+
+	private static List<Image> readData(JsonParser p, DeserializationContext ctxt)
+			throws IOException {
+		List<Image> data = new ArrayList<>();
+		if (!p.isExpectedStartArrayToken()) {
+			ctxt.handleUnexpectedToken(List.class, p);
+		}
+		while (p.nextToken() != JsonToken.END_ARRAY) {
+			if (!p.isExpectedStartObjectToken()) {
+				ctxt.handleUnexpectedToken(Image.class, p);
+			}
+			String b64Json = null;
+			String url = null;
+			String revisedPrompt = null;
+			for (String field = p.nextFieldName(); field != null; field = p
+					.nextFieldName()) {
+				JsonToken token = p.nextToken();
+				if (token == JsonToken.VALUE_NULL) {
+					continue;
+				}
+				switch (field) {
+				case "b64_json" -> b64Json = p.getText();
+				case "url" -> url = p.getText();
+				case "revised_prompt" -> revisedPrompt = p.getText();
+				default -> p.skipChildren();
+				}
+			}
+			data.add(new Image(b64Json, url, revisedPrompt));
+		}
+		return data;
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.loadbalancing;
+
+/**
+ * One member of a {@link LoadBalancer} pool: an OpenAI base URL or an Azure OpenAI
+ * deployment together with the API key to use.
+ *
+ * @param baseUrl URL the request path is appended to, for example
+ * "https://api.openai.com/v1" or
+ * "https://myresource.openai.azure.com/openai/deployments/gpt-4o"
+ * @param apiKey API key sent with every request to this backend
+ * @param azure true if the key is sent in the api-key header, false if it is sent as
+ * bearer token
+ * @param apiVersion value of the api-version query parameter, replaces the configured
+ * value, null to keep the configured value
+ * @param weight relative share of the requests, at least 1
+ */
+public record Backend(String baseUrl, String apiKey, boolean azure, String apiVersion,
+		int weight) {
+
+	public Backend {
+		if (baseUrl == null || baseUrl.isBlank()) {
+			throw new IllegalArgumentException("baseUrl must not be blank");
+		}
+		if (apiKey == null) {
+			throw new IllegalArgumentException("apiKey must not be null");
+		}
+		if (weight < 1) {
+			throw new IllegalArgumentException("weight must be at least 1");
+		}
+		if (baseUrl.endsWith("/")) {
+			baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+		}
+	}
+
+	/**
+	 * A backend that sends requests to https://api.openai.com/v1
+	 */
+	public static Backend openAI(String apiKey) {
+		return openAI("https://api.openai.com/v1", apiKey);
+	}
+
+	/**
+	 * A backend that sends requests to an OpenAI compatible API.
+	 */
+	public static Backend openAI(String baseUrl, String apiKey) {
+		return new Backend(baseUrl, apiKey, false, null, 1);
+	}
+
+	/**
+	 * A backend that sends requests to an Azure OpenAI deployment.
+	 *
+	 * @param azureEndpoint the URL of the Azure OpenAI Resource, for example
+	 * "https://myresource.openai.azure.com/"
+	 * @param azureDeployment the deployment name you chose when you deployed the model
+	 * @param apiVersion the api version, for example "2024-10-21"
+	 */
+	public static Backend azure(String azureEndpoint, String azureDeployment,
+			String apiKey, String apiVersion) {
+		if (azureEndpoint == null || azureDeployment == null) {
+			throw new IllegalArgumentException(
+					"azureEndpoint and azureDeployment must not be null");
+		}
+		if (azureEndpoint.endsWith("/")) {
+			azureEndpoint = azureEndpoint.substring(0, azureEndpoint.length() - 1);
+		}
+		return new Backend(azureEndpoint + "/openai/deployments/" + azureDeployment,
+				apiKey, true, apiVersion, 1);
+	}
+
+	/**
+	 * Returns a copy of this backend with a different weight. A backend with weight 2
+	 * receives about twice as many requests as a backend with weight 1 when both
+	 * respond equally fast.
+	 */
+	public Backend withWeight(int weight) {
+		return new Backend(this.baseUrl, this.apiKey, this.azure, this.apiVersion,
+				weight);
+	}
+
+	/**
+	 * URL the request path is appended to.
+	 */
+	@Override
+	public String baseUrl() {
+		return this.baseUrl;
+	}
+
+	/**
+	 * API key sent with every request to this backend.
+	 */
+	@Override
+	public String apiKey() {
+		return this.apiKey;
+	}
+
+	/**
+	 * True if the key is sent in the api-key header (Azure), false if it is sent as
+	 * bearer token.
+	 */
+	@Override
+	public boolean azure() {
+		return this.azure;
+	}
+
+	/**
+	 * Value of the api-version query parameter. Null keeps the configured value.
+	 */
+	@Override
+	public String apiVersion() {
+		return this.apiVersion;
+	}
+
+	/**
+	 * Relative share of the requests.
+	 */
+	@Override
+	public int weight() {
+		return this.weight;
+	}
+
+	@Override
+	public String toString() {
+		return "Backend[baseUrl=" + this.baseUrl + ", azure=" + this.azure
+				+ ", apiVersion=" + this.apiVersion + ", weight=" + this.weight + "]";
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.loadbalancing;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the state of one {@link Backend} of a {@link LoadBalancer}.
+ */
+public record BackendStatus(Backend backend, Duration latency, double errorRate,
+		int inFlight, long calls, long failures, boolean ejected) {
+
+	/**
+	 * The backend.
+	 */
+	@Override
+	public Backend backend() {
+		return this.backend;
+	}
+
+	/**
+	 * Exponentially weighted moving average of the time until the response headers
+	 * are received. Recent peaks are taken over immediately and decay over time.
+	 */
+	@Override
+	public Duration latency() {
+		return this.latency;
+	}
+
+	/**
+	 * Exponentially weighted moving average of the failures, between 0 and 1.
+	 */
+	@Override
+	public double errorRate() {
+		return this.errorRate;
+	}
+
+	/**
+	 * Number of requests currently in flight.
+	 */
+	@Override
+	public int inFlight() {
+		return this.inFlight;
+	}
+
+	/**
+	 * Total number of requests sent to the backend.
+	 */
+	@Override
+	public long calls() {
+		return this.calls;
+	}
+
+	/**
+	 * Total number of requests that failed with an I/O error, 408, 429 or 5xx.
+	 */
+	@Override
+	public long failures() {
+		return this.failures;
+	}
+
+	/**
+	 * True if the backend is ejected from the pool because of consecutive failures.
+	 */
+	@Override
+	public boolean ejected() {
+		return this.ejected;
+	}
+
+}
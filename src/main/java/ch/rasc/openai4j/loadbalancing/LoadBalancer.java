@@ -0,0 +1,355 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.loadbalancing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pool of {@link Backend}s, for example Azure OpenAI deployments in different regions,
+ * and the policy that picks the backend of a request.
+ * <p>
+ * Every request picks two backends at random, proportional to their weight, and uses
+ * the one with the lower cost ("power of two choices"). The cost of a backend is the
+ * moving average of its latency multiplied by the number of requests in flight,
+ * divided by its weight and its success rate. A backend that fails several times in a
+ * row is ejected from the pool for a while. The ejection time doubles with every
+ * ejection in a row, up to {@link Builder#maxEjectionTime}. When all backends are
+ * ejected the one that is ejected the shortest is used.
+ * <p>
+ * An instance is thread-safe and can be shared by multiple clients.
+ *
+ * @see LoadBalancingClient
+ */
+public final class LoadBalancer {
+
+	private static final long NO_LATENCY_PENALTY_NANOS = 1_000_000L;
+
+	private final List<BackendState> states;
+	private final long decayNanos;
+	private final int maxFailovers;
+	private final int ejectionThreshold;
+	private final long baseEjectionNanos;
+	private final long maxEjectionNanos;
+
+	private LoadBalancer(Builder builder) {
+		List<BackendState> states = new ArrayList<>(builder.backends.size());
+		for (Backend backend : builder.backends) {
+			states.add(new BackendState(backend));
+		}
+		this.states = List.copyOf(states);
+		this.decayNanos = builder.decayTime.toNanos();
+		this.maxFailovers = builder.maxFailovers;
+		this.ejectionThreshold = builder.ejectionThreshold;
+		this.baseEjectionNanos = builder.baseEjectionTime.toNanos();
+		this.maxEjectionNanos = builder.maxEjectionTime.toNanos();
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static LoadBalancer of(Backend... backends) {
+		return builder().addBackends(backends).build();
+	}
+
+	public static final class Builder {
+		private final List<Backend> backends = new ArrayList<>();
+		private Duration decayTime = Duration.ofSeconds(10);
+		private int maxFailovers = 2;
+		private int ejectionThreshold = 5;
+		private Duration baseEjectionTime = Duration.ofSeconds(30);
+		private Duration maxEjectionTime = Duration.ofMinutes(5);
+
+		private Builder() {
+		}
+
+		public Builder addBackends(Backend... backends) {
+			this.backends.addAll(List.of(backends));
+			return this;
+		}
+
+		public Builder backends(List<Backend> backends) {
+			this.backends.clear();
+			this.backends.addAll(backends);
+			return this;
+		}
+
+		/**
+		 * Time after which a latency or failure sample has lost about two thirds of its
+		 * weight in the moving averages. Default: 10 seconds
+		 */
+		public Builder decayTime(Duration decayTime) {
+			this.decayTime = decayTime;
+			return this;
+		}
+
+		/**
+		 * Maximum number of other backends a request is sent to when a backend fails
+		 * with an I/O error, 408, 429 or 5xx. 0 disables failover. Default: 2
+		 */
+		public Builder maxFailovers(int maxFailovers) {
+			this.maxFailovers = maxFailovers;
+			return this;
+		}
+
+		/**
+		 * Number of failures in a row after which a backend is ejected. Default: 5
+		 */
+		public Builder ejectionThreshold(int ejectionThreshold) {
+			this.ejectionThreshold = ejectionThreshold;
+			return this;
+		}
+
+		/**
+		 * Time a backend is ejected the first time. Default: 30 seconds
+		 */
+		public Builder baseEjectionTime(Duration baseEjectionTime) {
+			this.baseEjectionTime = baseEjectionTime;
+			return this;
+		}
+
+		/**
+		 * Upper bound of the ejection time. Default: 5 minutes
+		 */
+		public Builder maxEjectionTime(Duration maxEjectionTime) {
+			this.maxEjectionTime = maxEjectionTime;
+			return this;
+		}
+
+		public LoadBalancer build() {
+			if (this.backends.isEmpty()) {
+				throw new IllegalArgumentException("at least one backend is required");
+			}
+			if (new HashSet<>(this.backends).size() != this.backends.size()) {
+				throw new IllegalArgumentException("backends must be unique");
+			}
+			if (this.decayTime == null || this.baseEjectionTime == null
+					|| this.maxEjectionTime == null) {
+				throw new IllegalArgumentException("durations must not be null");
+			}
+			if (this.decayTime.isNegative() || this.decayTime.isZero()) {
+				throw new IllegalArgumentException("decayTime must be positive");
+			}
+			if (this.maxFailovers < 0) {
+				throw new IllegalArgumentException("maxFailovers must not be negative");
+			}
+			if (this.ejectionThreshold < 1) {
+				throw new IllegalArgumentException(
+						"ejectionThreshold must be at least 1");
+			}
+			return new LoadBalancer(this);
+		}
+	}
+
+	/**
+	 * The backends of the pool.
+	 */
+	public List<Backend> backends() {
+		return this.states.stream().map(BackendState::backend).toList();
+	}
+
+	/**
+	 * The current state of all backends.
+	 */
+	public List<BackendStatus> status() {
+		long now = System.nanoTime();
+		return this.states.stream().map(state -> state.status(now)).toList();
+	}
+
+	/**
+	 * Maximum number of backends a request is sent to.
+	 */
+	int maxAttempts() {
+		return Math.min(this.maxFailovers + 1, this.states.size());
+	}
+
+	/**
+	 * Picks the backend of the next attempt of a request.
+	 *
+	 * @param tried the backends the request has already been sent to
+	 * @return null if all backends have been tried
+	 */
+	BackendState choose(Set<BackendState> tried) {
+		long now = System.nanoTime();
+		List<BackendState> candidates = new ArrayList<>(this.states.size());
+		int weight = 0;
+		BackendState leastEjected = null;
+		for (BackendState state : this.states) {
+			if (tried.contains(state)) {
+				continue;
+			}
+			if (state.isEjected(now)) {
+				if (leastEjected == null
+						|| state.ejectedUntil() - leastEjected.ejectedUntil() < 0) {
+					leastEjected = state;
+				}
+				continue;
+			}
+			candidates.add(state);
+			weight += state.backend().weight();
+		}
+
+		if (candidates.isEmpty()) {
+			return leastEjected;
+		}
+		if (candidates.size() == 1) {
+			return candidates.get(0);
+		}
+
+		BackendState first = pick(candidates, weight, null);
+		BackendState second = pick(candidates,
+				weight - first.backend().weight(), first);
+		return first.cost(now) <= second.cost(now) ? first : second;
+	}
+
+	private static BackendState pick(List<BackendState> candidates, int weight,
+			BackendState exclude) {
+		int r = ThreadLocalRandom.current().nextInt(weight);
+		BackendState last = null;
+		for (BackendState candidate : candidates) {
+			if (candidate == exclude) {
+				continue;
+			}
+			last = candidate;
+			r -= candidate.backend().weight();
+			if (r < 0) {
+				break;
+			}
+		}
+		return last;
+	}
+
+	/**
+	 * Mutable state of one backend.
+	 */
+	final class BackendState {
+
+		private final Backend backend;
+
+		private int inFlight;
+		private double latencyNanos;
+		private double errorRate;
+		private boolean sampled;
+		private long lastSample;
+		private long calls;
+		private long failures;
+		private int consecutiveFailures;
+		private int ejections;
+		private long ejectedUntil;
+		private boolean ejected;
+
+		BackendState(Backend backend) {
+			this.backend = backend;
+		}
+
+		Backend backend() {
+			return this.backend;
+		}
+
+		synchronized long begin() {
+			this.inFlight++;
+			this.calls++;
+			return System.nanoTime();
+		}
+
+		/**
+		 * Releases a request without recording a sample, for example when a decorator
+		 * rejected it before it was sent.
+		 */
+		synchronized void cancel() {
+			this.inFlight--;
+			this.calls--;
+		}
+
+		synchronized void end(long start, boolean success) {
+			long now = System.nanoTime();
+			this.inFlight--;
+
+			long rtt = now - start;
+			if (!this.sampled) {
+				this.latencyNanos = rtt;
+				this.errorRate = success ? 0 : 1;
+				this.sampled = true;
+			}
+			else {
+				double w = Math.exp(-(double) (now - this.lastSample)
+						/ LoadBalancer.this.decayNanos);
+				// peak EWMA, a slower response is taken over immediately
+				this.latencyNanos = rtt > this.latencyNanos ? rtt
+						: this.latencyNanos * w + rtt * (1 - w);
+				this.errorRate = this.errorRate * w + (success ? 0 : 1 - w);
+			}
+			this.lastSample = now;
+
+			if (success) {
+				this.consecutiveFailures = 0;
+				this.ejections = 0;
+				this.ejected = false;
+				return;
+			}
+
+			this.failures++;
+			this.consecutiveFailures++;
+			if (this.consecutiveFailures >= LoadBalancer.this.ejectionThreshold
+					&& !isEjected(now)) {
+				long ejection = LoadBalancer.this.baseEjectionNanos << Math
+						.min(this.ejections, 20);
+				if (ejection <= 0 || ejection > LoadBalancer.this.maxEjectionNanos) {
+					ejection = LoadBalancer.this.maxEjectionNanos;
+				}
+				this.ejections++;
+				this.ejected = true;
+				this.ejectedUntil = now + ejection;
+			}
+		}
+
+		synchronized boolean isEjected(long now) {
+			return this.ejected && now - this.ejectedUntil < 0;
+		}
+
+		synchronized long ejectedUntil() {
+			return this.ejectedUntil;
+		}
+
+		synchronized double cost(long now) {
+			double latency = this.sampled ? this.latencyNanos : 0;
+			double errorRate = this.errorRate;
+			if (this.sampled && this.inFlight == 0) {
+				// without traffic the averages decay towards zero, so an idle backend
+				// gets probed again
+				double w = Math.exp(
+						-(double) (now - this.lastSample) / LoadBalancer.this.decayNanos);
+				latency *= w;
+				errorRate *= w;
+			}
+			return (latency + NO_LATENCY_PENALTY_NANOS) * (this.inFlight + 1)
+					/ (this.backend.weight() * Math.max(0.01, 1 - errorRate));
+		}
+
+		synchronized BackendStatus status(long now) {
+			return new BackendStatus(this.backend,
+					Duration.ofNanos((long) this.latencyNanos), this.errorRate,
+					this.inFlight, this.calls, this.failures, isEjected(now));
+		}
+
+	}
+
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.loadbalancing;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import ch.rasc.openai4j.concurrent.AsyncClients;
+import ch.rasc.openai4j.loadbalancing.LoadBalancer.BackendState;
+import ch.rasc.openai4j.resilience.BulkheadFullException;
+import ch.rasc.openai4j.resilience.CallNotPermittedException;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * {@link Client} decorator that sends every request to a {@link Backend} of a
+ * {@link LoadBalancer}. The base URL of the request is replaced with the base URL of
+ * the backend, and the API key and api-version of the backend are set. When a backend
+ * fails with an I/O error, 408, 429 or 5xx, or when the circuit breaker or bulkhead
+ * of the backend rejects the call, the request is sent to another backend.
+ * <p>
+ * Implements {@link AsyncClient} as well. When the delegate is not an
+ * {@link AsyncClient} the request is executed on the given executor, or on the calling
+ * thread when no executor is set.
+ */
+public class LoadBalancingClient implements Client, AsyncClient<Object> {
+
+	private final Client delegate;
+
+	private final LoadBalancer loadBalancer;
+
+	private final String baseUrl;
+
+	private final Executor executor;
+
+	/**
+	 * @param baseUrl the base URL of the Feign clients, it is replaced with the base URL
+	 * of the chosen backend
+	 */
+	public LoadBalancingClient(Client delegate, LoadBalancer loadBalancer,
+			String baseUrl) {
+		this(delegate, loadBalancer, baseUrl, null);
+	}
+
+	/**
+	 * @param baseUrl the base URL of the Feign clients, it is replaced with the base URL
+	 * of the chosen backend
+	 */
+	public LoadBalancingClient(Client delegate, LoadBalancer loadBalancer,
+			String baseUrl, Executor executor) {
+		this.delegate = delegate;
+		this.loadBalancer = loadBalancer;
+		this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1)
+				: baseUrl;
+		this.executor = executor;
+	}
+
+	public Client delegate() {
+		return this.delegate;
+	}
+
+	public LoadBalancer loadBalancer() {
+		return this.loadBalancer;
+	}
+
+	@Override
+	public Response execute(Request request, Options options) throws IOException {
+		Set<BackendState> tried = new HashSet<>();
+		int maxAttempts = this.loadBalancer.maxAttempts();
+		Response failed = null;
+		IOException lastError = null;
+		RuntimeException rejected = null;
+
+		while (tried.size() < maxAttempts) {
+			BackendState state = this.loadBalancer.choose(tried);
+			if (state == null) {
+				break;
+			}
+			tried.add(state);
+			if (failed != null) {
+				failed.close();
+				failed = null;
+			}
+
+			Request backendRequest = rewrite(request, state.backend());
+			long start = state.begin();
+			Response response;
+			try {
+				response = this.delegate.execute(backendRequest, options);
+			}
+			catch (IOException e) {
+				state.end(start, false);
+				lastError = e;
+				continue;
+			}
+			catch (CallNotPermittedException | BulkheadFullException e) {
+				// circuit breaker or bulkhead of this backend rejected the call, not a
+				// failure of the backend
+				state.cancel();
+				rejected = e;
+				continue;
+			}
+			catch (RuntimeException e) {
+				// rejected by a decorator, not a failure of the backend
+				state.cancel();
+				throw e;
+			}
+
+			if (!isFailure(response.status())) {
+				state.end(start, true);
+				return response;
+			}
+			state.end(start, false);
+			failed = response;
+		}
+
+		if (failed != null) {
+			return failed;
+		}
+		if (lastError != null) {
+			throw lastError;
+		}
+		throw rejected;
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Options options,
+			Optional<Object> requestContext) {
+		Failover failover = new Failover(request, options, requestContext);
+		failover.next();
+		return failover.result;
+	}
+
+	private final class Failover {
+
+		private final Request request;
+		private final Options options;
+		private final Optional<Object> requestContext;
+		private final Set<BackendState> tried = new HashSet<>();
+		private final CompletableFuture<Response> result = new CompletableFuture<>();
+
+		private volatile CompletableFuture<Response> current;
+		private Response failed;
+		private Throwable lastError;
+		private Throwable rejected;
+
+		Failover(Request request, Options options, Optional<Object> requestContext) {
+			this.request = request;
+			this.options = options;
+			this.requestContext = requestContext;
+			this.result.whenComplete((response, error) -> {
+				CompletableFuture<Response> future = this.current;
+				if (this.result.isCancelled() && future != null) {
+					future.cancel(true);
+				}
+			});
+		}
+
+		void next() {
+			BackendState state = null;
+			if (this.tried.size() < LoadBalancingClient.this.loadBalancer.maxAttempts()) {
+				state = LoadBalancingClient.this.loadBalancer.choose(this.tried);
+			}
+			if (state == null) {
+				finish();
+				return;
+			}
+			this.tried.add(state);
+			if (this.failed != null) {
+				this.failed.close();
+				this.failed = null;
+			}
+
+			BackendState backend = state;
+			Request backendRequest = rewrite(this.request, backend.backend());
+			long start = backend.begin();
+			CompletableFuture<Response> future = AsyncClients.execute(
+					LoadBalancingClient.this.delegate, LoadBalancingClient.this.executor,
+					backendRequest, this.options, this.requestContext);
+			this.current = future;
+			if (this.result.isCancelled()) {
+				future.cancel(true);
+			}
+
+			future.whenComplete((response, error) -> {
+				if (error != null) {
+					Throwable cause = error instanceof CompletionException
+							&& error.getCause() != null ? error.getCause() : error;
+					if (cause instanceof IOException) {
+						backend.end(start, false);
+						this.lastError = cause;
+						next();
+					}
+					else if (cause instanceof CallNotPermittedException
+							|| cause instanceof BulkheadFullException) {
+						// circuit breaker or bulkhead of this backend rejected the call
+						backend.cancel();
+						this.rejected = cause;
+						next();
+					}
+					else {
+						// cancelled or rejected by a decorator, not a failure of the
+						// backend
+						backend.cancel();
+						this.result.completeExceptionally(cause);
+					}
+				}
+				else if (isFailure(response.status())) {
+					backend.end(start, false);
+					this.failed = response;
+					next();
+				}
+				else {
+					backend.end(start, true);
+					if (!this.result.complete(response)) {
+						response.close();
+					}
+				}
+			});
+		}
+
+		private void finish() {
+			if (this.failed != null) {
+				if (!this.result.complete(this.failed)) {
+					this.failed.close();
+				}
+			}
+			else {
+				this.result.completeExceptionally(
+						this.lastError != null ? this.lastError : this.rejected);
+			}
+		}
+	}
+
+	private static boolean isFailure(int status) {
+		return status == 408 || status == 429 || status >= 500;
+	}
+
+	private Request rewrite(Request request, Backend backend) {
+		String url = request.url();
+		String path;
+		if (url.startsWith(this.baseUrl)) {
+			path = url.substring(this.baseUrl.length());
+		}
+		else {
+			URI uri = URI.create(url);
+			path = uri.getRawPath()
+					+ (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+		}
+		if (backend.apiVersion() != null) {
+			path = withApiVersion(path, backend.apiVersion());
+		}
+
+		Map<String, Collection<String>> headers = new TreeMap<>(
+				String.CASE_INSENSITIVE_ORDER);
+		headers.putAll(request.headers());
+		headers.remove("Authorization");
+		headers.remove("api-key");
+		if (backend.azure()) {
+			headers.put("api-key", List.of(backend.apiKey()));
+		}
+		else {
+			headers.put("Authorization", List.of("Bearer " + backend.apiKey()));
+		}
+
+		return Request.create(request.httpMethod(), backend.baseUrl() + path, headers,
+				request.body(), request.charset(), request.requestTemplate());
+	}
+
+	private static String withApiVersion(String path, String apiVersion) {
+		String parameter = "api-version="
+				+ URLEncoder.encode(apiVersion, StandardCharsets.UTF_8);
+		int question = path.indexOf('?');
+		if (question == -1) {
+			return path + "?" + parameter;
+		}
+
+		StringBuilder sb = new StringBuilder(path.length() + parameter.length() + 1);
+		sb.append(path, 0, question + 1);
+		boolean first = true;
+		for (String pair : path.substring(question + 1).split("&")) {
+			if (pair.isEmpty() || pair.startsWith("api-version=")
+					|| pair.equals("api-version")) {
+				continue;
+			}
+			if (!first) {
+				sb.append('&');
+			}
+			sb.append(pair);
+			first = false;
+		}
+		if (!first) {
+			sb.append('&');
+		}
+		return sb.append(parameter).toString();
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.metrics;
+
+import java.util.Map;
+
+/**
+ * Point in time copy of the metrics of one endpoint.
+ */
+public record EndpointMetrics(String endpoint, long calls, long ioErrors,
+		Map<Integer, Long> statusCounts, HistogramSnapshot latency,
+		HistogramSnapshot timeToFirstByte, long requestBytes, long responseBytes,
+		long retries, long promptTokens, long completionTokens, long totalTokens) {
+
+	/**
+	 * Name of the endpoint, for example "ChatCompletionsClient#create".
+	 */
+	@Override
+	public String endpoint() {
+		return this.endpoint;
+	}
+
+	/**
+	 * Number of finished exchanges, including I/O errors.
+	 */
+	@Override
+	public long calls() {
+		return this.calls;
+	}
+
+	/**
+	 * Number of exchanges that failed without a response.
+	 */
+	@Override
+	public long ioErrors() {
+		return this.ioErrors;
+	}
+
+	/**
+	 * Number of responses per HTTP status code.
+	 */
+	@Override
+	public Map<Integer, Long> statusCounts() {
+		return this.statusCounts;
+	}
+
+	/**
+	 * Time from sending the request until the response body was consumed.
+	 */
+	@Override
+	public HistogramSnapshot latency() {
+		return this.latency;
+	}
+
+	/**
+	 * Time from sending the request until the response headers were received.
+	 */
+	@Override
+	public HistogramSnapshot timeToFirstByte() {
+		return this.timeToFirstByte;
+	}
+
+	/**
+	 * Total size of the request bodies.
+	 */
+	@Override
+	public long requestBytes() {
+		return this.requestBytes;
+	}
+
+	/**
+	 * Total size of the response bodies.
+	 */
+	@Override
+	public long responseBytes() {
+		return this.responseBytes;
+	}
+
+	/**
+	 * Number of retries.
+	 */
+	@Override
+	public long retries() {
+		return this.retries;
+	}
+
+	/**
+	 * Sum of the prompt tokens reported in the usage of the responses.
+	 */
+	@Override
+	public long promptTokens() {
+		return this.promptTokens;
+	}
+
+	/**
+	 * Sum of the completion tokens reported in the usage of the responses.
+	 */
+	@Override
+	public long completionTokens() {
+		return this.completionTokens;
+	}
+
+	/**
+	 * Sum of the total tokens reported in the usage of the responses.
+	 */
+	@Override
+	public long totalTokens() {
+		return this.totalTokens;
+	}
+
+}
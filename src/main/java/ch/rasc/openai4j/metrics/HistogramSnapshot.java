@@ -0,0 +1,108 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.metrics;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Point in time copy of a latency histogram.
+ */
+public record HistogramSnapshot(long count, long sumNanos, long maxNanos,
+		long[] bucketCounts) {
+
+	/**
+	 * Number of recorded values.
+	 */
+	@Override
+	public long count() {
+		return this.count;
+	}
+
+	/**
+	 * Sum of all recorded values in nanoseconds.
+	 */
+	@Override
+	public long sumNanos() {
+		return this.sumNanos;
+	}
+
+	/**
+	 * Largest recorded value in nanoseconds.
+	 */
+	@Override
+	public long maxNanos() {
+		return this.maxNanos;
+	}
+
+	/**
+	 * Number of values per bucket. Bucket boundaries grow exponentially, four buckets
+	 * per power of two microseconds.
+	 */
+	@Override
+	public long[] bucketCounts() {
+		return this.bucketCounts.clone();
+	}
+
+	public Duration mean() {
+		return this.count == 0 ? Duration.ZERO
+				: Duration.ofNanos(this.sumNanos / this.count);
+	}
+
+	public Duration max() {
+		return Duration.ofNanos(this.maxNanos);
+	}
+
+	/**
+	 * Returns the upper bound of the bucket that contains the percentile.
+	 *
+	 * @param percentile value between 0 and 100
+	 */
+	public Duration percentile(double percentile) {
+		if (this.count == 0) {
+			return Duration.ZERO;
+		}
+		long rank = (long) Math.ceil(percentile / 100 * this.count);
+		long seen = 0;
+		for (int i = 0; i < this.bucketCounts.length; i++) {
+			seen += this.bucketCounts[i];
+			if (seen >= rank && this.bucketCounts[i] > 0) {
+				return Duration.ofNanos(
+						Math.min(LatencyHistogram.upperBound(i), this.maxNanos));
+			}
+		}
+		return Duration.ofNanos(this.maxNanos);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof HistogramSnapshot other && this.count == other.count
+				&& this.sumNanos == other.sumNanos && this.maxNanos == other.maxNanos
+				&& Arrays.equals(this.bucketCounts, other.bucketCounts);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(this.count) + Arrays.hashCode(this.bucketCounts);
+	}
+
+	@Override
+	public String toString() {
+		return "HistogramSnapshot[count=" + this.count + ", mean=" + mean() + ", p50="
+				+ percentile(50) + ", p99=" + percentile(99) + ", max=" + max() + "]";
+	}
+
+}
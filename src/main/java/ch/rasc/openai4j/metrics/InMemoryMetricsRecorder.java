@@ -0,0 +1,148 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link MetricsRecorder} that keeps the metrics in memory. All counters are
+ * {@link LongAdder}s, recording does not lock and does not allocate after the first
+ * call of an endpoint.
+ *
+ * <pre>
+ * var metrics = new InMemoryMetricsRecorder();
+ * var client = OpenAIClient.create(c -&gt; c.apiKey(apiKey).metrics(metrics));
+ * ...
+ * EndpointMetrics chat = metrics.snapshot("ChatCompletionsClient#create");
+ * System.out.println(chat.latency().percentile(99));
+ * </pre>
+ */
+public class InMemoryMetricsRecorder implements MetricsRecorder {
+
+	private static final int MAX_STATUS = 600;
+
+	private final Map<String, Counters> endpoints = new ConcurrentHashMap<>();
+
+	@Override
+	public void recordCall(String endpoint, int status, long latencyNanos,
+			long timeToFirstByteNanos, long requestBytes, long responseBytes) {
+		Counters counters = counters(endpoint);
+		counters.calls.increment();
+		if (status < 0) {
+			counters.ioErrors.increment();
+		}
+		else {
+			counters.status(status).increment();
+		}
+		counters.latency.record(latencyNanos);
+		counters.timeToFirstByte.record(timeToFirstByteNanos);
+		counters.requestBytes.add(requestBytes);
+		counters.responseBytes.add(responseBytes);
+	}
+
+	@Override
+	public void recordRetry(String endpoint) {
+		counters(endpoint).retries.increment();
+	}
+
+	@Override
+	public void recordTokens(String endpoint, long promptTokens, long completionTokens,
+			long totalTokens) {
+		Counters counters = counters(endpoint);
+		counters.promptTokens.add(promptTokens);
+		counters.completionTokens.add(completionTokens);
+		counters.totalTokens.add(totalTokens);
+	}
+
+	/**
+	 * Returns the metrics of one endpoint, or null if the endpoint has not been called.
+	 */
+	public EndpointMetrics snapshot(String endpoint) {
+		Counters counters = this.endpoints.get(endpoint);
+		return counters != null ? counters.snapshot(endpoint) : null;
+	}
+
+	/**
+	 * Returns the metrics of all endpoints that have been called, sorted by name.
+	 */
+	public Map<String, EndpointMetrics> snapshot() {
+		Map<String, EndpointMetrics> result = new TreeMap<>();
+		this.endpoints.forEach((name, counters) -> result.put(name,
+				counters.snapshot(name)));
+		return result;
+	}
+
+	/**
+	 * Removes all recorded values.
+	 */
+	public void reset() {
+		this.endpoints.clear();
+	}
+
+	private Counters counters(String endpoint) {
+		Counters counters = this.endpoints.get(endpoint);
+		if (counters == null) {
+			counters = this.endpoints.computeIfAbsent(endpoint, k -> new Counters());
+		}
+		return counters;
+	}
+
+	private static final class Counters {
+		final LongAdder calls = new LongAdder();
+		final LongAdder ioErrors = new LongAdder();
+		final AtomicReferenceArray<LongAdder> statuses = new AtomicReferenceArray<>(
+				MAX_STATUS);
+		final LatencyHistogram latency = new LatencyHistogram();
+		final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+		final LongAdder requestBytes = new LongAdder();
+		final LongAdder responseBytes = new LongAdder();
+		final LongAdder retries = new LongAdder();
+		final LongAdder promptTokens = new LongAdder();
+		final LongAdder completionTokens = new LongAdder();
+		final LongAdder totalTokens = new LongAdder();
+
+		LongAdder status(int status) {
+			int index = Math.min(status, MAX_STATUS - 1);
+			LongAdder adder = this.statuses.get(index);
+			if (adder == null) {
+				this.statuses.compareAndSet(index, null, new LongAdder());
+				adder = this.statuses.get(index);
+			}
+			return adder;
+		}
+
+		EndpointMetrics snapshot(String endpoint) {
+			Map<Integer, Long> statusCounts = new TreeMap<>();
+			for (int i = 0; i < MAX_STATUS; i++) {
+				LongAdder adder = this.statuses.get(i);
+				if (adder != null) {
+					statusCounts.put(i, adder.sum());
+				}
+			}
+			return new EndpointMetrics(endpoint, this.calls.sum(), this.ioErrors.sum(),
+					statusCounts, this.latency.snapshot(),
+							this.timeToFirstByte.snapshot(),
+					this.requestBytes.sum(), this.responseBytes.sum(), this.retries.sum(),
+					this.promptTokens.sum(), this.completionTokens.sum(),
+					this.totalTokens.sum());
+		}
+	}
+
+}
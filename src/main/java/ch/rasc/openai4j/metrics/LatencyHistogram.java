@@ -0,0 +1,91 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram with logarithmic buckets, four buckets per power of two from 1
+ * microsecond up to about two hours. The relative error of a percentile is at most
+ * 25%. Used by {@link InMemoryMetricsRecorder} and for the queue times of
+ * {@link ch.rasc.openai4j.scheduling.Scheduler}.
+ */
+public final class LatencyHistogram {
+
+	static final int BUCKETS = 128;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+	private final LongAdder sum = new LongAdder();
+
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			this.buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a value, negative values are ignored.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			return;
+		}
+		this.buckets[index(nanos)].increment();
+		this.sum.add(nanos);
+		this.max.accumulate(nanos);
+	}
+
+	/**
+	 * Copies the current counts.
+	 */
+	public HistogramSnapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = this.buckets[i].sum();
+			count += counts[i];
+		}
+		return new HistogramSnapshot(count, this.sum.sum(), this.max.get(), counts);
+	}
+
+	static int index(long nanos) {
+		long micros = nanos / 1000;
+		if (micros < 4) {
+			return (int) micros;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int subBucket = (int) (micros >>> (exponent - 2)) & 3;
+		return Math.min((exponent - 1) * 4 + subBucket, BUCKETS - 1);
+	}
+
+	/**
+	 * Exclusive upper bound of a bucket in nanoseconds.
+	 */
+	static long upperBound(int index) {
+		if (index < 3) {
+			return (index + 1) * 1000L;
+		}
+		int next = index + 1;
+		int exponent = next / 4 + 1;
+		long micros = (4L + next % 4) << (exponent - 2);
+		return micros * 1000L;
+	}
+
+}
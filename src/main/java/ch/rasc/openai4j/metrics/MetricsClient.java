@@ -0,0 +1,314 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import ch.rasc.openai4j.concurrent.AsyncClients;
+import ch.rasc.openai4j.concurrent.Endpoints;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * {@link Client} decorator that reports every HTTP exchange to a
+ * {@link MetricsRecorder}. The time to first byte is measured when the response
+ * headers are received. The latency and the response size are recorded when the body
+ * has been read to the end or is closed, this works for streamed responses too.
+ * <p>
+ * The token usage of chat completion and embedding responses is read from the body
+ * while it passes through. Only responses received from the server are counted,
+ * responses served by a {@link ch.rasc.openai4j.cache.CachingClient} or shared by a
+ * {@link ch.rasc.openai4j.cache.CoalescingClient} are not. Usage of streamed
+ * completions and runs is not recorded.
+ */
+public class MetricsClient implements Client, AsyncClient<Object> {
+
+	private static final Set<String> USAGE_ENDPOINTS = Set
+			.of("ChatCompletionsClient#create", "EmbeddingsClient#create");
+
+	private final Client delegate;
+
+	private final MetricsRecorder recorder;
+
+	private final Executor executor;
+
+	public MetricsClient(Client delegate, MetricsRecorder recorder) {
+		this(delegate, recorder, null);
+	}
+
+	public MetricsClient(Client delegate, MetricsRecorder recorder, Executor executor) {
+		this.delegate = delegate;
+		this.recorder = recorder;
+		this.executor = executor;
+	}
+
+	public Client delegate() {
+		return this.delegate;
+	}
+
+	public MetricsRecorder recorder() {
+		return this.recorder;
+	}
+
+	@Override
+	public Response execute(Request request, Options options) throws IOException {
+		long start = System.nanoTime();
+		Response response;
+		try {
+			response = this.delegate.execute(request, options);
+		}
+		catch (IOException | RuntimeException e) {
+			recordError(request, start);
+			throw e;
+		}
+		return instrument(request, response, start);
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Options options,
+			Optional<Object> requestContext) {
+		long start = System.nanoTime();
+		CompletableFuture<Response> future = AsyncClients.execute(this.delegate,
+				this.executor, request, options, requestContext);
+		CompletableFuture<Response> result = new CompletableFuture<>();
+		future.whenComplete((response, error) -> {
+			if (response == null) {
+				recordError(request, start);
+				result.completeExceptionally(error);
+			}
+			else {
+				Response instrumented = instrument(request, response, start);
+				if (!result.complete(instrumented)) {
+					instrumented.close();
+				}
+			}
+		});
+		result.whenComplete((value, error) -> {
+			if (result.isCancelled()) {
+				future.cancel(true);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Name of the endpoint of a request, "unknown" if the request was not created by a
+	 * Feign client.
+	 */
+	static String endpoint(Request request) {
+		return Objects.requireNonNullElse(Endpoints.name(request), "unknown");
+	}
+
+	private void recordError(Request request, long start) {
+		this.recorder.recordCall(endpoint(request), -1, System.nanoTime() - start,
+				-1, requestBytes(request), 0);
+	}
+
+	private Response instrument(Request request, Response response, long start) {
+		String endpoint = endpoint(request);
+		Exchange exchange = new Exchange(this.recorder, endpoint, response.status(),
+				start, System.nanoTime() - start, requestBytes(request),
+				usageParser(endpoint, response));
+		if (response.body() == null) {
+			exchange.finish();
+			return response;
+		}
+		return response.toBuilder().body(new CountingBody(response.body(), exchange))
+				.build();
+	}
+
+	private static UsageParser usageParser(String endpoint, Response response) {
+		if (response.status() / 100 != 2 || response.body() == null
+				|| !USAGE_ENDPOINTS.contains(endpoint)) {
+			return null;
+		}
+		Collection<String> contentType = response.headers().get("Content-Type");
+		if (contentType != null && !contentType.isEmpty()
+				&& !contentType.iterator().next().contains("json")) {
+			return null;
+		}
+		try {
+			return new UsageParser();
+		}
+		catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static long requestBytes(Request request) {
+		return request.body() != null ? request.body().length : 0;
+	}
+
+	/**
+	 * Collects the measurements of one exchange and reports them once.
+	 */
+	private static final class Exchange {
+		private final MetricsRecorder recorder;
+		private final String endpoint;
+		private final int status;
+		private final long start;
+		private final long timeToFirstByte;
+		private final long requestBytes;
+		private final UsageParser usage;
+		private final AtomicBoolean finished = new AtomicBoolean();
+		private volatile long responseBytes;
+
+		Exchange(MetricsRecorder recorder, String endpoint, int status, long start,
+				long timeToFirstByte, long requestBytes, UsageParser usage) {
+			this.recorder = recorder;
+			this.endpoint = endpoint;
+			this.status = status;
+			this.start = start;
+			this.timeToFirstByte = timeToFirstByte;
+			this.requestBytes = requestBytes;
+			this.usage = usage;
+		}
+
+		void addResponseBytes(byte[] bytes, int offset, int length) {
+			this.responseBytes += length;
+			if (this.usage != null) {
+				this.usage.feed(bytes, offset, length);
+			}
+		}
+
+		void skipResponseBytes(long bytes) {
+			this.responseBytes += bytes;
+			if (this.usage != null && bytes > 0) {
+				this.usage.abort();
+			}
+		}
+
+		void finish() {
+			if (this.finished.compareAndSet(false, true)) {
+				this.recorder.recordCall(this.endpoint, this.status,
+						System.nanoTime() - this.start, this.timeToFirstByte,
+						this.requestBytes, this.responseBytes);
+				if (this.usage != null && this.usage.finish()) {
+					this.recorder.recordTokens(this.endpoint, this.usage.promptTokens(),
+							this.usage.completionTokens(), this.usage.totalTokens());
+				}
+			}
+		}
+	}
+
+	private static final class CountingBody implements Response.Body {
+		private final Response.Body delegate;
+		private final Exchange exchange;
+
+		CountingBody(Response.Body delegate, Exchange exchange) {
+			this.delegate = delegate;
+			this.exchange = exchange;
+		}
+
+		@Override
+		public Integer length() {
+			return this.delegate.length();
+		}
+
+		@Override
+		public boolean isRepeatable() {
+			return this.delegate.isRepeatable();
+		}
+
+		@Override
+		public InputStream asInputStream() throws IOException {
+			return new CountingInputStream(this.delegate.asInputStream(), this.exchange);
+		}
+
+		@Override
+		public Reader asReader(Charset charset) throws IOException {
+			return new InputStreamReader(asInputStream(), charset);
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				this.delegate.close();
+			}
+			finally {
+				this.exchange.finish();
+			}
+		}
+	}
+
+	private static final class CountingInputStream extends FilterInputStream {
+		private final Exchange exchange;
+		private final byte[] single = new byte[1];
+
+		CountingInputStream(InputStream in, Exchange exchange) {
+			super(in);
+			this.exchange = exchange;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b == -1) {
+				this.exchange.finish();
+			}
+			else {
+				this.single[0] = (byte) b;
+				this.exchange.addResponseBytes(this.single, 0, 1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n == -1) {
+				this.exchange.finish();
+			}
+			else {
+				this.exchange.addResponseBytes(b, off, n);
+			}
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			this.exchange.skipResponseBytes(skipped);
+			return skipped;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			finally {
+				this.exchange.finish();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.metrics;
+
+import ch.rasc.openai4j.scheduling.Priority;
+
+/**
+ * Receives the measurements of every HTTP exchange with the OpenAI API. Implementations
+ * are called on the hot path from many threads concurrently and must be thread-safe,
+ * fast and should not allocate.
+ * <p>
+ * Endpoints are named "ClientInterface#method", for example
+ * "ChatCompletionsClient#create". The synchronous and asynchronous variant of a client
+ * share the name.
+ *
+ * @see InMemoryMetricsRecorder
+ * @see MicrometerMetricsRecorder
+ */
+public interface MetricsRecorder {
+
+	/**
+	 * Called when an exchange is finished, either when the response body has been
+	 * consumed or closed, or when the request failed with an I/O error.
+	 *
+	 * @param endpoint the endpoint
+	 * @param status the HTTP status code or -1 if the request failed with an I/O error
+	 * @param latencyNanos time from sending the request until the response body was
+	 * consumed
+	 * @param timeToFirstByteNanos time from sending the request until the response
+	 * headers were received, -1 if no response was received
+	 * @param requestBytes size of the request body
+	 * @param responseBytes number of response body bytes read
+	 */
+	void recordCall(String endpoint, int status, long latencyNanos,
+			long timeToFirstByteNanos, long requestBytes, long responseBytes);
+
+	/**
+	 * Called before a failed request is sent again.
+	 */
+	void recordRetry(String endpoint);
+
+	/**
+	 * Called with the token usage of a chat completion or embedding response received
+	 * from the server. Cached and coalesced responses are not reported again.
+	 */
+	void recordTokens(String endpoint, long promptTokens, long completionTokens,
+			long totalTokens);
+
+	/**
+	 * Called when a request leaves the queue of a
+	 * {@link ch.rasc.openai4j.scheduling.Scheduler}, either because it was dispatched
+	 * or because it was dropped. Requests that did not wait are reported with a queue
+	 * time of 0.
+	 *
+	 * @param endpoint the endpoint
+	 * @param priority the priority class of the request
+	 * @param queueNanos time the request waited for a permit
+	 * @param dropped true if the request was not sent because its deadline passed or
+	 * the queue was full
+	 */
+	default void recordQueueTime(String endpoint, Priority priority, long queueNanos,
+			boolean dropped) {
+		// optional
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.metrics;
+
+import feign.RetryableException;
+import feign.Retryer;
+
+/**
+ * {@link Retryer} decorator that counts the retries per endpoint.
+ */
+public class MetricsRetryer implements Retryer {
+
+	private final Retryer delegate;
+
+	private final MetricsRecorder recorder;
+
+	public MetricsRetryer(Retryer delegate, MetricsRecorder recorder) {
+		this.delegate = delegate;
+		this.recorder = recorder;
+	}
+
+	@Override
+	public void continueOrPropagate(RetryableException e) {
+		this.delegate.continueOrPropagate(e);
+		// the delegate did not throw, the request is sent again
+		this.recorder
+				.recordRetry(MetricsClient.endpoint(e.hasRequest() ? e.request() : null));
+	}
+
+	@Override
+	public Retryer clone() {
+		return new MetricsRetryer(this.delegate.clone(), this.recorder);
+	}
+
+}
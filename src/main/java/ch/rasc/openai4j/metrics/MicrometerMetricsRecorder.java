@@ -0,0 +1,173 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import ch.rasc.openai4j.scheduling.Priority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * {@link MetricsRecorder} that publishes to a Micrometer {@link MeterRegistry}.
+ * Micrometer is an optional dependency of openai4j, add micrometer-core to the
+ * application to use this class.
+ * <p>
+ * Meters (all tagged with endpoint):
+ * <ul>
+ * <li>openai4j.client.requests: timer of the latency, tagged with status</li>
+ * <li>openai4j.client.ttfb: timer of the time to first byte</li>
+ * <li>openai4j.client.request.size and openai4j.client.response.size: distribution
+ * summaries in bytes</li>
+ * <li>openai4j.client.retries: counter</li>
+ * <li>openai4j.client.tokens: counter, tagged with type (prompt, completion,
+ * total)</li>
+ * <li>openai4j.client.queue: timer of the time spent in the queue of a
+ * {@link ch.rasc.openai4j.scheduling.Scheduler}, tagged with priority and outcome
+ * (dispatched, dropped)</li>
+ * </ul>
+ * Meters are looked up once per endpoint and status and cached.
+ */
+public class MicrometerMetricsRecorder implements MetricsRecorder {
+
+	private final MeterRegistry registry;
+
+	private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+	public MicrometerMetricsRecorder(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public void recordCall(String endpoint, int status, long latencyNanos,
+			long timeToFirstByteNanos, long requestBytes, long responseBytes) {
+		Meters m = meters(endpoint);
+		m.requests(status).record(latencyNanos, TimeUnit.NANOSECONDS);
+		if (timeToFirstByteNanos >= 0) {
+			m.timeToFirstByte.record(timeToFirstByteNanos, TimeUnit.NANOSECONDS);
+		}
+		m.requestSize.record(requestBytes);
+		m.responseSize.record(responseBytes);
+	}
+
+	@Override
+	public void recordRetry(String endpoint) {
+		meters(endpoint).retries.increment();
+	}
+
+	@Override
+	public void recordTokens(String endpoint, long promptTokens, long completionTokens,
+			long totalTokens) {
+		Meters m = meters(endpoint);
+		m.promptTokens.increment(promptTokens);
+		m.completionTokens.increment(completionTokens);
+		m.totalTokens.increment(totalTokens);
+	}
+
+	@Override
+	public void recordQueueTime(String endpoint, Priority priority, long queueNanos,
+			boolean dropped) {
+		meters(endpoint).queue(priority, dropped).record(queueNanos,
+				TimeUnit.NANOSECONDS);
+	}
+
+	private Meters meters(String endpoint) {
+		Meters m = this.meters.get(endpoint);
+		if (m == null) {
+			m = this.meters.computeIfAbsent(endpoint, e -> new Meters(this.registry, e));
+		}
+		return m;
+	}
+
+	private static final class Meters {
+		private final MeterRegistry registry;
+		private final String endpoint;
+		// index 0 is used for I/O errors
+		private final AtomicReferenceArray<Timer> requests = new AtomicReferenceArray<>(
+				600);
+		// two timers per priority: dispatched and dropped
+		private final AtomicReferenceArray<Timer> queue = new AtomicReferenceArray<>(
+				Priority.values().length * 2);
+		final Timer timeToFirstByte;
+		final DistributionSummary requestSize;
+		final DistributionSummary responseSize;
+		final Counter retries;
+		final Counter promptTokens;
+		final Counter completionTokens;
+		final Counter totalTokens;
+
+		Meters(MeterRegistry registry, String endpoint) {
+			this.registry = registry;
+			this.endpoint = endpoint;
+			this.timeToFirstByte = Timer.builder("openai4j.client.ttfb")
+					.description("Time until the response headers are received")
+					.tag("endpoint", endpoint).register(registry);
+			this.requestSize = DistributionSummary.builder("openai4j.client.request.size")
+					.baseUnit("bytes").tag("endpoint", endpoint).register(registry);
+			this.responseSize = DistributionSummary
+					.builder("openai4j.client.response.size").baseUnit("bytes")
+					.tag("endpoint", endpoint).register(registry);
+			this.retries = Counter.builder("openai4j.client.retries")
+					.tag("endpoint", endpoint).register(registry);
+			this.promptTokens = tokens(registry, endpoint, "prompt");
+			this.completionTokens = tokens(registry, endpoint, "completion");
+			this.totalTokens = tokens(registry, endpoint, "total");
+		}
+
+		Timer requests(int status) {
+			int index = Math.max(0, Math.min(status, this.requests.length() - 1));
+			Timer timer = this.requests.get(index);
+			if (timer == null) {
+				// registering the same meter twice returns the existing instance
+				timer = Timer.builder("openai4j.client.requests")
+						.description("Latency of the OpenAI API requests")
+						.tag("endpoint", this.endpoint)
+						.tag("status", index == 0 ? "IO_ERROR" : String.valueOf(index))
+						.register(this.registry);
+				this.requests.set(index, timer);
+			}
+			return timer;
+		}
+
+		Timer queue(Priority priority, boolean dropped) {
+			int index = priority.ordinal() * 2 + (dropped ? 1 : 0);
+			Timer timer = this.queue.get(index);
+			if (timer == null) {
+				timer = Timer.builder("openai4j.client.queue")
+						.description("Time the requests waited for a scheduler permit")
+						.tag("endpoint", this.endpoint)
+						.tag("priority", priority.name().toLowerCase(Locale.ROOT))
+						.tag("outcome", dropped ? "dropped" : "dispatched")
+						.register(this.registry);
+				this.queue.set(index, timer);
+			}
+			return timer;
+		}
+
+		private static Counter tokens(MeterRegistry registry, String endpoint,
+				String type) {
+			return Counter.builder("openai4j.client.tokens").baseUnit("tokens")
+					.tag("endpoint", endpoint).tag("type", type).register(registry);
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.metrics;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+/**
+ * Finds the top level "usage" object of a JSON response while the body is read. The
+ * bytes are fed to a non-blocking parser as they pass through, the body is not
+ * buffered.
+ */
+final class UsageParser {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private final JsonParser parser;
+
+	private final ByteArrayFeeder feeder;
+
+	private int depth;
+
+	private boolean inUsage;
+
+	private boolean done;
+
+	private boolean found;
+
+	private long promptTokens;
+
+	private long completionTokens;
+
+	private long totalTokens;
+
+	UsageParser() throws IOException {
+		this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+		this.feeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
+	}
+
+	void feed(byte[] bytes, int offset, int length) {
+		if (this.done) {
+			return;
+		}
+		try {
+			this.feeder.feedInput(bytes, offset, offset + length);
+			parse();
+		}
+		catch (IOException e) {
+			// not a JSON body, ignore the rest
+			this.done = true;
+		}
+	}
+
+	/**
+	 * Stops parsing, for example because bytes were skipped.
+	 */
+	void abort() {
+		this.done = true;
+	}
+
+	/**
+	 * Signals the end of the body.
+	 *
+	 * @return true if a complete usage object has been found
+	 */
+	boolean finish() {
+		if (!this.done) {
+			this.done = true;
+			this.feeder.endOfInput();
+		}
+		return this.found;
+	}
+
+	long promptTokens() {
+		return this.promptTokens;
+	}
+
+	long completionTokens() {
+		return this.completionTokens;
+	}
+
+	long totalTokens() {
+		return this.totalTokens;
+	}
+
+	private void parse() throws IOException {
+		JsonToken token;
+		while (!this.done && (token = this.parser.nextToken()) != null
+				&& token != JsonToken.NOT_AVAILABLE) {
+			switch (token) {
+			case START_OBJECT, START_ARRAY -> {
+				if (this.depth == 1 && token == JsonToken.START_OBJECT
+						&& "usage".equals(this.parser.currentName())) {
+					this.inUsage = true;
+				}
+				this.depth++;
+			}
+			case END_OBJECT, END_ARRAY -> {
+				this.depth--;
+				if (this.inUsage && this.depth == 1) {
+					// the rest of the body is not needed
+					this.found = true;
+					this.done = true;
+				}
+			}
+			case VALUE_NUMBER_INT -> {
+				if (this.inUsage && this.depth == 2) {
+					readTokens(this.parser.currentName(), this.parser.getLongValue());
+				}
+			}
+			default -> {
+				// other values are not needed
+			}
+			}
+		}
+	}
+
+	private void readTokens(String field, long value) {
+		switch (field) {
+		case "prompt_tokens" -> this.promptTokens = value;
+		case "completion_tokens" -> this.completionTokens = value;
+		case "total_tokens" -> this.totalTokens = value;
+		default -> {
+			// details are not recorded
+		}
+		}
+	}
+
+}
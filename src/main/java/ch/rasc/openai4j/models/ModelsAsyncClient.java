@@ -0,0 +1,59 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.models;
+
+import java.util.concurrent.CompletableFuture;
+
+import ch.rasc.openai4j.common.DeletionStatus;
+import ch.rasc.openai4j.common.ListResponse;
+import feign.Param;
+import feign.RequestLine;
+
+/**
+ * Asynchronous variant of {@link ModelsClient}. Every method returns immediately with a
+ * {@link CompletableFuture} that is completed when the response has been received and
+ * decoded.
+ */
+public interface ModelsAsyncClient {
+
+	/**
+	 * Lists the currently available models, and provides basic information about each one
+	 * such as the owner and availability.
+	 *
+	 * @return Returns a list of model objects.
+	 */
+	@RequestLine("GET /models")
+	CompletableFuture<ListResponse<Model>> list();
+
+	/**
+	 * Retrieves a model instance, providing basic information about the model such as the
+	 * owner and permissioning.
+	 *
+	 * @return The model object matching the specified ID.
+	 */
+	@RequestLine("GET /models/{model}")
+	CompletableFuture<Model> retrieve(@Param("model") String model);
+
+	/**
+	 * Delete a fine-tuned model. You must have the Owner role in your organization to
+	 * delete a model.
+	 *
+	 * @return Deletion status.
+	 */
+	@RequestLine("DELETE /models/{model}")
+	CompletableFuture<DeletionStatus> delete(@Param("model") String model);
+
+}
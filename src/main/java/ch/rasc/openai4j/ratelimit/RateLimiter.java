@@ -0,0 +1,299 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+import feign.Request;
+
+/**
+ * Client side request and token budgets per host, API key and model. The budgets are
+ * initialized and corrected from the x-ratelimit-* headers of every response, and are
+ * decremented before a request is sent by the estimated token cost of the request.
+ * When a budget is exhausted, requests wait until the reset time reported by OpenAI
+ * instead of failing with 429 Too Many Requests.
+ * <p>
+ * An instance is thread-safe and can be shared by multiple clients that use the same
+ * API key, for example an {@link ch.rasc.openai4j.OpenAIClient} and an
+ * {@link ch.rasc.openai4j.OpenAIAsyncClient}.
+ *
+ * @see RateLimitingClient
+ */
+public final class RateLimiter {
+
+	private final Duration maxWait;
+
+	private final ToLongFunction<Request> tokenEstimator;
+
+	private final Map<Key, Budget> budgets = new ConcurrentHashMap<>();
+
+	private RateLimiter(Builder builder) {
+		this.maxWait = builder.maxWait;
+		this.tokenEstimator = builder.tokenEstimator;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static RateLimiter create() {
+		return builder().build();
+	}
+
+	public static final class Builder {
+		private Duration maxWait = Duration.ofMinutes(1);
+		private ToLongFunction<Request> tokenEstimator;
+
+		private Builder() {
+		}
+
+		/**
+		 * Maximum time a request waits for the budget. When the wait would be longer
+		 * the request is sent anyway and the server decides. Default: 1 minute
+		 */
+		public Builder maxWait(Duration maxWait) {
+			this.maxWait = maxWait;
+			return this;
+		}
+
+		/**
+		 * Function that estimates the number of tokens a request consumes. The default
+		 * estimation counts one token per four bytes of the JSON body plus max_tokens
+		 * (or max_completion_tokens) times n.
+		 */
+		public Builder tokenEstimator(ToLongFunction<Request> tokenEstimator) {
+			this.tokenEstimator = tokenEstimator;
+			return this;
+		}
+
+		public RateLimiter build() {
+			if (this.maxWait == null || this.maxWait.isNegative()) {
+				throw new IllegalArgumentException("maxWait must not be negative");
+			}
+			return new RateLimiter(this);
+		}
+	}
+
+	/**
+	 * Maximum time a request waits for the budget.
+	 */
+	public Duration maxWait() {
+		return this.maxWait;
+	}
+
+	/**
+	 * Returns the rate limits of the last response received from this host for this API
+	 * key and model.
+	 *
+	 * @param host the host (and port if not the default) of the API, for example
+	 * "api.openai.com"
+	 * @param apiKey the API key (without the "Bearer " prefix)
+	 * @param model the model, or an empty string for endpoints without a model
+	 * @return the last reported rate limits or null if no response with rate limit
+	 * headers has been received yet
+	 */
+	public RateLimits lastRateLimits(String host, String apiKey, String model) {
+		Budget budget = this.budgets.get(new Key(host, apiKey, model));
+		return budget != null ? budget.lastRateLimits() : null;
+	}
+
+	Reservation reserve(Request request) {
+		RequestInfo info = RequestInfo.of(request);
+		long tokens = this.tokenEstimator != null
+				? this.tokenEstimator.applyAsLong(request)
+				: info.estimatedTokens();
+		Budget budget = this.budgets.computeIfAbsent(
+				new Key(info.host(), info.apiKey(), info.model()), k -> new Budget());
+		return new Reservation(budget, Math.max(0, tokens),
+				System.nanoTime() + this.maxWait.toNanos());
+	}
+
+	private record Key(String host, String apiKey, String model) {
+	}
+
+	/**
+	 * A request waiting for or holding a part of the budget.
+	 */
+	static final class Reservation {
+		private final Budget budget;
+		private final long tokens;
+		private final long deadline;
+		private long reservedTokens = -1;
+
+		Reservation(Budget budget, long tokens, long deadline) {
+			this.budget = budget;
+			this.tokens = tokens;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Tries to take the cost of the request from the budget.
+		 *
+		 * @return 0 if the budget has been reserved, otherwise the number of
+		 * nanoseconds to wait before trying again
+		 */
+		long tryAcquire() {
+			long now = System.nanoTime();
+			long cost = this.budget.tryAcquire(this.tokens, now,
+					now - this.deadline >= 0);
+			if (cost >= 0) {
+				this.reservedTokens = cost;
+				return 0;
+			}
+			return Math.min(-cost, Math.max(1, this.deadline - now));
+		}
+
+		/**
+		 * Returns the reserved budget and updates it from the response headers.
+		 *
+		 * @param rateLimits rate limits of the response, may be null
+		 * @param tooManyRequests true if the server responded with 429
+		 * @param retryAfter value of the Retry-After header, may be null
+		 */
+		void release(RateLimits rateLimits, boolean tooManyRequests,
+				Duration retryAfter) {
+			if (this.reservedTokens >= 0) {
+				this.budget.release(this.reservedTokens, rateLimits, tooManyRequests,
+						retryAfter, System.nanoTime());
+				this.reservedTokens = -1;
+			}
+		}
+	}
+
+	/**
+	 * Budget of one host, API key and model. OpenAI replenishes the limits
+	 * continuously, the budget is modeled as two token buckets (requests and tokens)
+	 * whose size and refill rate are derived from the limit, remaining and reset
+	 * headers. A limit of -1 means unknown, requests are not delayed until a response
+	 * reports the limits.
+	 */
+	static final class Budget {
+		private static final double NANOS_PER_MINUTE = 60_000_000_000.0;
+
+		private final Bucket requests = new Bucket();
+		private final Bucket tokens = new Bucket();
+		private long blockedUntil;
+		private boolean blocked;
+		private RateLimits lastRateLimits;
+
+		/**
+		 * @return the reserved number of tokens (&gt;= 0) or the negated number of
+		 * nanoseconds to wait
+		 */
+		synchronized long tryAcquire(long tokenCount, long now, boolean force) {
+			this.requests.refill(now);
+			this.tokens.refill(now);
+			// a request larger than the limit can only be sent with a full bucket
+			long cost = this.tokens.limit > 0 ? Math.min(tokenCount, this.tokens.limit)
+					: tokenCount;
+
+			if (!force) {
+				long wait = Math.max(this.requests.waitFor(1), this.tokens.waitFor(cost));
+				if (this.blocked) {
+					wait = Math.max(wait, this.blockedUntil - now);
+				}
+				if (wait > 0) {
+					return -wait;
+				}
+			}
+
+			this.requests.take(1);
+			this.tokens.take(cost);
+			return cost;
+		}
+
+		synchronized void release(long tokenCount, RateLimits rateLimits,
+				boolean tooManyRequests, Duration retryAfter, long now) {
+			this.requests.inFlight--;
+			this.tokens.inFlight -= tokenCount;
+
+			if (rateLimits != null) {
+				this.lastRateLimits = rateLimits;
+				this.requests.update(rateLimits.limitRequests(),
+						rateLimits.remainingRequests(), rateLimits.resetRequests(), now);
+				this.tokens.update(rateLimits.limitTokens(), rateLimits.remainingTokens(),
+						rateLimits.resetTokens(), now);
+			}
+
+			if (tooManyRequests && retryAfter != null) {
+				long until = now + retryAfter.toNanos();
+				if (!this.blocked || until - this.blockedUntil > 0) {
+					this.blockedUntil = until;
+				}
+				this.blocked = true;
+			}
+			else if (this.blocked && now - this.blockedUntil >= 0) {
+				this.blocked = false;
+			}
+		}
+
+		synchronized RateLimits lastRateLimits() {
+			return this.lastRateLimits;
+		}
+
+		private static final class Bucket {
+			private long limit = -1;
+			private double available;
+			private double ratePerNano;
+			private long lastRefill;
+			private long inFlight;
+
+			void refill(long now) {
+				if (this.limit >= 0) {
+					this.available = Math.min(this.limit,
+							this.available + (now - this.lastRefill) * this.ratePerNano);
+				}
+				this.lastRefill = now;
+			}
+
+			long waitFor(long amount) {
+				if (this.limit < 0 || this.available >= amount) {
+					return 0;
+				}
+				return (long) Math.ceil((amount - this.available) / this.ratePerNano);
+			}
+
+			void take(long amount) {
+				if (this.limit >= 0) {
+					this.available -= amount;
+				}
+				this.inFlight += amount;
+			}
+
+			void update(Long limit, Long remaining, Duration reset, long now) {
+				if (limit == null || remaining == null || limit <= 0) {
+					return;
+				}
+				this.limit = limit;
+				// the server does not know about the requests that are still in flight
+				this.available = Math.min(limit, remaining - (double) this.inFlight);
+				long resetNanos = reset != null ? reset.toNanos() : 0;
+				if (resetNanos > 0 && limit > remaining) {
+					this.ratePerNano = (limit - remaining) / (double) resetNanos;
+				}
+				else {
+					// limits are per minute
+					this.ratePerNano = limit / NANOS_PER_MINUTE;
+				}
+				this.lastRefill = now;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.ratelimit;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import ch.rasc.openai4j.OpenAIErrorDecoder;
+import ch.rasc.openai4j.concurrent.AsyncClients;
+import ch.rasc.openai4j.ratelimit.RateLimiter.Reservation;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * {@link Client} decorator that delays requests when the {@link RateLimiter} budget of
+ * the host, API key and model is exhausted, and updates the budget from the response
+ * headers.
+ * <p>
+ * Implements {@link AsyncClient} as well. Asynchronous requests wait without blocking
+ * a thread. When the delegate is not an {@link AsyncClient} the request is executed
+ * on the given executor, or on the calling thread when no executor is set.
+ */
+public class RateLimitingClient implements Client, AsyncClient<Object> {
+
+	private final Client delegate;
+
+	private final RateLimiter rateLimiter;
+
+	private final Executor executor;
+
+	public RateLimitingClient(Client delegate, RateLimiter rateLimiter) {
+		this(delegate, rateLimiter, null);
+	}
+
+	public RateLimitingClient(Client delegate, RateLimiter rateLimiter,
+			Executor executor) {
+		this.delegate = delegate;
+		this.rateLimiter = rateLimiter;
+		this.executor = executor;
+	}
+
+	public Client delegate() {
+		return this.delegate;
+	}
+
+	public RateLimiter rateLimiter() {
+		return this.rateLimiter;
+	}
+
+	@Override
+	public Response execute(Request request, Options options) throws IOException {
+		Reservation reservation = this.rateLimiter.reserve(request);
+		long wait;
+		while ((wait = reservation.tryAcquire()) > 0) {
+			LockSupport.parkNanos(this, wait);
+			if (Thread.interrupted()) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException(
+						"interrupted while waiting for the rate limit");
+			}
+		}
+
+		try {
+			Response response = this.delegate.execute(request, options);
+			release(reservation, response);
+			return response;
+		}
+		catch (IOException | RuntimeException e) {
+			reservation.release(null, false, null);
+			throw e;
+		}
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Options options,
+			Optional<Object> requestContext) {
+		Reservation reservation = this.rateLimiter.reserve(request);
+		CompletableFuture<Response> result = new CompletableFuture<>();
+		acquire(reservation).whenComplete((ignored, acquireError) -> {
+			if (acquireError != null || result.isDone()) {
+				// cancelled while waiting for the rate limit
+				reservation.release(null, false, null);
+				if (acquireError != null) {
+					result.completeExceptionally(acquireError);
+				}
+				return;
+			}
+			CompletableFuture<Response> future = AsyncClients.execute(this.delegate,
+					this.executor, request, options, requestContext);
+			result.whenComplete((response, error) -> {
+				if (result.isCancelled()) {
+					future.cancel(true);
+				}
+			});
+			future.whenComplete((response, error) -> {
+				if (response == null) {
+					reservation.release(null, false, null);
+					result.completeExceptionally(error);
+					return;
+				}
+				release(reservation, response);
+				if (!result.complete(response)) {
+					// the caller cancelled the request
+					response.close();
+				}
+			});
+		});
+		return result;
+	}
+
+	private CompletableFuture<Void> acquire(Reservation reservation) {
+		long wait = reservation.tryAcquire();
+		if (wait <= 0) {
+			return CompletableFuture.completedFuture(null);
+		}
+		Executor delayed = CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS);
+		return CompletableFuture.runAsync(() -> {
+			// wait only
+		}, delayed).thenCompose(ignored -> acquire(reservation));
+	}
+
+	private static void release(Reservation reservation, Response response) {
+		reservation.release(RateLimits.of(response.headers()), response.status() == 429,
+				retryAfter(response));
+	}
+
+	private static Duration retryAfter(Response response) {
+		Long retryAt = OpenAIErrorDecoder.retryAfter(response);
+		if (retryAt == null) {
+			return null;
+		}
+		return Duration.ofMillis(Math.max(0, retryAt - System.currentTimeMillis()));
+	}
+
+}
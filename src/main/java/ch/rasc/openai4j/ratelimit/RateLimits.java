@@ -0,0 +1,173 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.ratelimit;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rate limit information sent by OpenAI in the x-ratelimit-* response headers. Values
+ * that are not present in the response are null.
+ *
+ * @see <a href=
+ * "https://platform.openai.com/docs/guides/rate-limits#rate-limits-in-headers">Rate
+ * limits in headers</a>
+ */
+public record RateLimits(Long limitRequests, Long limitTokens, Long remainingRequests,
+		Long remainingTokens, Duration resetRequests, Duration resetTokens) {
+
+	private static final Pattern DURATION_PART = Pattern
+			.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+	/**
+	 * The maximum number of requests that are permitted before exhausting the rate
+	 * limit.
+	 */
+	@Override
+	public Long limitRequests() {
+		return this.limitRequests;
+	}
+
+	/**
+	 * The maximum number of tokens that are permitted before exhausting the rate limit.
+	 */
+	@Override
+	public Long limitTokens() {
+		return this.limitTokens;
+	}
+
+	/**
+	 * The remaining number of requests that are permitted before exhausting the rate
+	 * limit.
+	 */
+	@Override
+	public Long remainingRequests() {
+		return this.remainingRequests;
+	}
+
+	/**
+	 * The remaining number of tokens that are permitted before exhausting the rate
+	 * limit.
+	 */
+	@Override
+	public Long remainingTokens() {
+		return this.remainingTokens;
+	}
+
+	/**
+	 * The time until the rate limit (based on requests) resets to its initial state.
+	 */
+	@Override
+	public Duration resetRequests() {
+		return this.resetRequests;
+	}
+
+	/**
+	 * The time until the rate limit (based on tokens) resets to its initial state.
+	 */
+	@Override
+	public Duration resetTokens() {
+		return this.resetTokens;
+	}
+
+	/**
+	 * Reads the x-ratelimit-* headers of a response.
+	 *
+	 * @param headers response headers, names are case-insensitive like in
+	 * {@link feign.Response#headers()}
+	 * @return the rate limits or null if the response does not contain any rate limit
+	 * header
+	 */
+	public static RateLimits of(Map<String, Collection<String>> headers) {
+		Long limitRequests = longHeader(headers, "x-ratelimit-limit-requests");
+		Long limitTokens = longHeader(headers, "x-ratelimit-limit-tokens");
+		Long remainingRequests = longHeader(headers, "x-ratelimit-remaining-requests");
+		Long remainingTokens = longHeader(headers, "x-ratelimit-remaining-tokens");
+		Duration resetRequests = durationHeader(headers, "x-ratelimit-reset-requests");
+		Duration resetTokens = durationHeader(headers, "x-ratelimit-reset-tokens");
+
+		if (limitRequests == null && limitTokens == null && remainingRequests == null
+				&& remainingTokens == null && resetRequests == null
+				&& resetTokens == null) {
+			return null;
+		}
+		return new RateLimits(limitRequests, limitTokens, remainingRequests,
+				remainingTokens, resetRequests, resetTokens);
+	}
+
+	/**
+	 * Parses the duration format used in the reset headers, for example "1s", "6m0s",
+	 * "20ms" or "1h2m3.5s".
+	 *
+	 * @return the duration or null if the value does not contain a duration
+	 */
+	public static Duration parseDuration(String value) {
+		if (value == null || value.isBlank()) {
+			return null;
+		}
+		Matcher matcher = DURATION_PART.matcher(value);
+		double millis = 0;
+		boolean found = false;
+		while (matcher.find()) {
+			found = true;
+			double amount = Double.parseDouble(matcher.group(1));
+			switch (matcher.group(2)) {
+			case "h":
+				millis += amount * 3_600_000;
+				break;
+			case "m":
+				millis += amount * 60_000;
+				break;
+			case "s":
+				millis += amount * 1_000;
+				break;
+			default:
+				millis += amount;
+			}
+		}
+		return found ? Duration.ofNanos((long) (millis * 1_000_000)) : null;
+	}
+
+	private static String header(Map<String, Collection<String>> headers, String name) {
+		Collection<String> values = headers.get(name);
+		if (values == null || values.isEmpty()) {
+			return null;
+		}
+		return values.iterator().next();
+	}
+
+	private static Long longHeader(Map<String, Collection<String>> headers,
+			String name) {
+		String value = header(headers, name);
+		if (value == null) {
+			return null;
+		}
+		try {
+			return Long.valueOf(value.trim());
+		}
+		catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static Duration durationHeader(Map<String, Collection<String>> headers,
+			String name) {
+		return parseDuration(header(headers, name));
+	}
+}
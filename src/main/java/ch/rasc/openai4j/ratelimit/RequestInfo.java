@@ -0,0 +1,109 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.ratelimit;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import feign.Request;
+
+/**
+ * Host, API key, model and estimated token cost of a request. Only the top level
+ * fields of a JSON body are read.
+ */
+record RequestInfo(String host, String apiKey, String model, long estimatedTokens) {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final String BEARER = "Bearer ";
+
+	static RequestInfo of(Request request) {
+		String host = host(request);
+		String apiKey = apiKey(request);
+		byte[] body = request.body();
+		if (body == null || body.length == 0 || !isJson(request)) {
+			return new RequestInfo(host, apiKey, "", 0);
+		}
+
+		String model = "";
+		long maxTokens = 0;
+		long n = 1;
+		try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+			if (parser.nextToken() == JsonToken.START_OBJECT) {
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					String field = parser.currentName();
+					JsonToken value = parser.nextToken();
+					if ("model".equals(field) && value == JsonToken.VALUE_STRING) {
+						model = parser.getText();
+					}
+					else if (("max_tokens".equals(field)
+							|| "max_completion_tokens".equals(field))
+							&& value == JsonToken.VALUE_NUMBER_INT) {
+						maxTokens = parser.getLongValue();
+					}
+					else if ("n".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+						n = Math.max(1, parser.getLongValue());
+					}
+					else {
+						parser.skipChildren();
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			// not a JSON object, estimate with the body length only
+		}
+
+		return new RequestInfo(host, apiKey, model, body.length / 4 + maxTokens * n);
+	}
+
+	private static boolean isJson(Request request) {
+		Collection<String> contentType = request.headers().get("Content-Type");
+		if (contentType == null || contentType.isEmpty()) {
+			return true;
+		}
+		return contentType.iterator().next().contains("json");
+	}
+
+	private static String host(Request request) {
+		try {
+			String host = URI.create(request.url()).getRawAuthority();
+			return host != null ? host : "";
+		}
+		catch (IllegalArgumentException e) {
+			return "";
+		}
+	}
+
+	private static String apiKey(Request request) {
+		Collection<String> authorization = request.headers().get("Authorization");
+		if (authorization != null && !authorization.isEmpty()) {
+			String value = authorization.iterator().next();
+			return value.startsWith(BEARER) ? value.substring(BEARER.length()) : value;
+		}
+		Collection<String> apiKey = request.headers().get("api-key");
+		if (apiKey != null && !apiKey.isEmpty()) {
+			return apiKey.iterator().next();
+		}
+		return "";
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.resilience;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of concurrent calls to one endpoint. A call that does not get a
+ * permit within {@link Resilience.Builder#maxWaitDuration} fails with a
+ * {@link BulkheadFullException}.
+ */
+public final class Bulkhead {
+
+	private final String name;
+
+	private final int maxConcurrentCalls;
+
+	private final long maxWaitNanos;
+
+	private final Semaphore semaphore;
+
+	Bulkhead(String name, Resilience settings) {
+		this.name = name;
+		this.maxConcurrentCalls = settings.maxConcurrentCalls();
+		this.maxWaitNanos = settings.maxWaitDuration().toNanos();
+		this.semaphore = new Semaphore(this.maxConcurrentCalls, true);
+	}
+
+	/**
+	 * Name of the endpoint, the client interface or method and the host.
+	 */
+	public String name() {
+		return this.name;
+	}
+
+	public int maxConcurrentCalls() {
+		return this.maxConcurrentCalls;
+	}
+
+	/**
+	 * Number of calls that can start without waiting.
+	 */
+	public int availableConcurrentCalls() {
+		return this.semaphore.availablePermits();
+	}
+
+	/**
+	 * Waits up to the maximum wait duration for a permit.
+	 */
+	boolean tryAcquire() throws InterruptedException {
+		if (this.maxWaitNanos <= 0) {
+			return this.semaphore.tryAcquire();
+		}
+		return this.semaphore.tryAcquire(this.maxWaitNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Takes a permit without waiting, used for asynchronous calls.
+	 */
+	boolean tryAcquireNow() {
+		return this.semaphore.tryAcquire();
+	}
+
+	void release() {
+		this.semaphore.release();
+	}
+
+	@Override
+	public String toString() {
+		return "Bulkhead[name=" + this.name + ", availableConcurrentCalls="
+				+ availableConcurrentCalls() + ", maxConcurrentCalls="
+				+ this.maxConcurrentCalls + "]";
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.resilience;
+
+import java.io.Serial;
+
+/**
+ * Thrown when the maximum number of concurrent calls to an endpoint is reached. The
+ * request was not sent. This is a {@link RuntimeException} so Feign does not retry it.
+ */
+public class BulkheadFullException extends RuntimeException {
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	private final transient Bulkhead bulkhead;
+
+	public BulkheadFullException(Bulkhead bulkhead) {
+		super("Bulkhead '" + bulkhead.name() + "' is full and does not permit further "
+				+ "calls (maxConcurrentCalls=" + bulkhead.maxConcurrentCalls() + ")");
+		this.bulkhead = bulkhead;
+	}
+
+	public Bulkhead bulkhead() {
+		return this.bulkhead;
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.resilience;
+
+import java.io.Serial;
+
+/**
+ * Thrown when the circuit breaker of an endpoint is open. The request was not sent.
+ * This is a {@link RuntimeException} so Feign does not retry it.
+ */
+public class CallNotPermittedException extends RuntimeException {
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	private final transient CircuitBreaker circuitBreaker;
+
+	public CallNotPermittedException(CircuitBreaker circuitBreaker) {
+		super("CircuitBreaker '" + circuitBreaker.name() + "' is "
+				+ circuitBreaker.state() + " and does not permit further calls");
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	public CircuitBreaker circuitBreaker() {
+		return this.circuitBreaker;
+	}
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.resilience;
+
+/**
+ * Count based circuit breaker of one endpoint. Records the outcome of the last
+ * {@link Resilience.Builder#slidingWindowSize} calls. When the failure rate or the
+ * slow call rate reaches the threshold the circuit opens and calls fail immediately
+ * with a {@link CallNotPermittedException}. After
+ * {@link Resilience.Builder#waitDurationInOpenState} a few trial calls are let through
+ * (half open), depending on their outcome the circuit closes or opens again.
+ */
+public final class CircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	private static final byte FAILURE = 1;
+
+	private static final byte SLOW = 2;
+
+	private final String name;
+
+	private final Resilience settings;
+
+	private final byte[] outcomes;
+
+	private State state = State.CLOSED;
+
+	private int position;
+
+	private int numberOfCalls;
+
+	private int numberOfFailures;
+
+	private int numberOfSlowCalls;
+
+	private long openedAt;
+
+	private int halfOpenPermits;
+
+	CircuitBreaker(String name, Resilience settings) {
+		this.name = name;
+		this.settings = settings;
+		this.outcomes = new byte[settings.slidingWindowSize()];
+	}
+
+	/**
+	 * Name of the endpoint, the client interface or method and the host.
+	 */
+	public String name() {
+		return this.name;
+	}
+
+	public synchronized State state() {
+		if (this.state == State.OPEN && openDurationElapsed(System.nanoTime())) {
+			return State.HALF_OPEN;
+		}
+		return this.state;
+	}
+
+	/**
+	 * Percentage of failed calls in the sliding window, -1 if fewer than the minimum
+	 * number of calls have been recorded.
+	 */
+	public synchronized float failureRate() {
+		return rate(this.numberOfFailures);
+	}
+
+	/**
+	 * Percentage of slow calls in the sliding window, -1 if fewer than the minimum
+	 * number of calls have been recorded.
+	 */
+	public synchronized float slowCallRate() {
+		return rate(this.numberOfSlowCalls);
+	}
+
+	/**
+	 * Number of calls recorded in the sliding window.
+	 */
+	public synchronized int numberOfCalls() {
+		return this.numberOfCalls;
+	}
+
+	synchronized boolean tryAcquirePermission() {
+		if (this.state == State.CLOSED) {
+			return true;
+		}
+		if (this.state == State.OPEN) {
+			if (!openDurationElapsed(System.nanoTime())) {
+				return false;
+			}
+			transitionTo(State.HALF_OPEN);
+		}
+		if (this.halfOpenPermits < this.settings.permittedCallsInHalfOpenState()) {
+			this.halfOpenPermits++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns a permission whose call has no result, because the caller cancelled or
+	 * interrupted it. The call is not recorded.
+	 */
+	synchronized void releasePermission() {
+		if (this.state == State.HALF_OPEN && this.halfOpenPermits > 0) {
+			this.halfOpenPermits--;
+		}
+	}
+
+	synchronized void onResult(boolean failure, boolean slow) {
+		if (this.state == State.OPEN) {
+			// late result of a call that started before the circuit opened
+			return;
+		}
+
+		record(failure, slow);
+
+		if (this.state == State.HALF_OPEN) {
+			if (this.numberOfCalls >= this.settings.permittedCallsInHalfOpenState()) {
+				transitionTo(thresholdsExceeded() ? State.OPEN : State.CLOSED);
+			}
+		}
+		else if (this.numberOfCalls >= this.settings.minimumNumberOfCalls()
+				&& thresholdsExceeded()) {
+			transitionTo(State.OPEN);
+		}
+	}
+
+	private void record(boolean failure, boolean slow) {
+		if (this.numberOfCalls == this.outcomes.length) {
+			byte evicted = this.outcomes[this.position];
+			if ((evicted & FAILURE) != 0) {
+				this.numberOfFailures--;
+			}
+			if ((evicted & SLOW) != 0) {
+				this.numberOfSlowCalls--;
+			}
+		}
+		else {
+			this.numberOfCalls++;
+		}
+
+		byte outcome = (byte) ((failure ? FAILURE : 0) | (slow ? SLOW : 0));
+		this.outcomes[this.position] = outcome;
+		this.position = (this.position + 1) % this.outcomes.length;
+		if (failure) {
+			this.numberOfFailures++;
+		}
+		if (slow) {
+			this.numberOfSlowCalls++;
+		}
+	}
+
+	private boolean thresholdsExceeded() {
+		float calls = this.numberOfCalls;
+		return this.numberOfFailures * 100f / calls >= this.settings
+				.failureRateThreshold()
+				|| this.numberOfSlowCalls * 100f / calls >= this.settings
+						.slowCallRateThreshold();
+	}
+
+	private float rate(int count) {
+		if (this.numberOfCalls == 0
+				|| this.numberOfCalls < this.settings.minimumNumberOfCalls()
+						&& this.state == State.CLOSED) {
+			return -1;
+		}
+		return count * 100f / this.numberOfCalls;
+	}
+
+	private boolean openDurationElapsed(long now) {
+		return now - this.openedAt >= this.settings.waitDurationInOpenState().toNanos();
+	}
+
+	private void transitionTo(State newState) {
+		this.state = newState;
+		this.position = 0;
+		this.numberOfCalls = 0;
+		this.numberOfFailures = 0;
+		this.numberOfSlowCalls = 0;
+		this.halfOpenPermits = 0;
+		if (newState == State.OPEN) {
+			this.openedAt = System.nanoTime();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "CircuitBreaker[name=" + this.name + ", state=" + state()
+				+ ", failureRate=" + failureRate() + ", slowCallRate=" + slowCallRate()
+				+ "]";
+	}
+
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.resilience;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ch.rasc.openai4j.concurrent.Endpoints;
+import feign.Request;
+
+/**
+ * Settings and registry of the {@link CircuitBreaker} and {@link Bulkhead} instances
+ * of every endpoint. An endpoint is either a client interface (for example
+ * "ChatCompletionsClient@api.openai.com") or a single method
+ * ("ChatCompletionsClient#create@api.openai.com") on one host, see
+ * {@link Builder#scope}. A slow or failing endpoint only affects its own calls, behind
+ * a {@link ch.rasc.openai4j.loadbalancing.LoadBalancingClient} every backend has its
+ * own circuit breakers and bulkheads.
+ * <p>
+ * An instance is thread-safe and can be shared by multiple clients, for example an
+ * {@link ch.rasc.openai4j.OpenAIClient} and an
+ * {@link ch.rasc.openai4j.OpenAIAsyncClient}.
+ *
+ * @see ResilientClient
+ */
+public final class Resilience {
+
+	public enum Scope {
+		/**
+		 * One circuit breaker and bulkhead per client interface and host.
+		 */
+		CLIENT,
+		/**
+		 * One circuit breaker and bulkhead per client method and host.
+		 */
+		METHOD
+	}
+
+	private final Scope scope;
+	private final float failureRateThreshold;
+	private final float slowCallRateThreshold;
+	private final Duration slowCallDurationThreshold;
+	private final int slidingWindowSize;
+	private final int minimumNumberOfCalls;
+	private final Duration waitDurationInOpenState;
+	private final int permittedCallsInHalfOpenState;
+	private final int maxConcurrentCalls;
+	private final Duration maxWaitDuration;
+
+	private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+	private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+	private Resilience(Builder builder) {
+		this.scope = builder.scope;
+		this.failureRateThreshold = builder.failureRateThreshold;
+		this.slowCallRateThreshold = builder.slowCallRateThreshold;
+		this.slowCallDurationThreshold = builder.slowCallDurationThreshold;
+		this.slidingWindowSize = builder.slidingWindowSize;
+		this.minimumNumberOfCalls = builder.minimumNumberOfCalls;
+		this.waitDurationInOpenState = builder.waitDurationInOpenState;
+		this.permittedCallsInHalfOpenState = builder.permittedCallsInHalfOpenState;
+		this.maxConcurrentCalls = builder.maxConcurrentCalls;
+		this.maxWaitDuration = builder.maxWaitDuration;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static Resilience create() {
+		return builder().build();
+	}
+
+	public static final class Builder {
+		private Scope scope = Scope.CLIENT;
+		private float failureRateThreshold = 50;
+		private float slowCallRateThreshold = 80;
+		private Duration slowCallDurationThreshold = Duration.ofSeconds(20);
+		private int slidingWindowSize = 20;
+		private int minimumNumberOfCalls = 10;
+		private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+		private int permittedCallsInHalfOpenState = 3;
+		private int maxConcurrentCalls = 25;
+		private Duration maxWaitDuration = Duration.ZERO;
+
+		private Builder() {
+		}
+
+		/**
+		 * Granularity of the circuit breakers and bulkheads. Default:
+		 * {@link Scope#CLIENT}
+		 */
+		public Builder scope(Scope scope) {
+			this.scope = scope;
+			return this;
+		}
+
+		/**
+		 * Failure rate in percent at which the circuit opens. I/O errors, 408 and 5xx
+		 * responses are failures. Default: 50
+		 */
+		public Builder failureRateThreshold(float failureRateThreshold) {
+			this.failureRateThreshold = failureRateThreshold;
+			return this;
+		}
+
+		/**
+		 * Slow call rate in percent at which the circuit opens. Default: 80
+		 */
+		public Builder slowCallRateThreshold(float slowCallRateThreshold) {
+			this.slowCallRateThreshold = slowCallRateThreshold;
+			return this;
+		}
+
+		/**
+		 * Calls that take longer until the response headers are received are slow.
+		 * Default: 20 seconds
+		 */
+		public Builder slowCallDurationThreshold(Duration slowCallDurationThreshold) {
+			this.slowCallDurationThreshold = slowCallDurationThreshold;
+			return this;
+		}
+
+		/**
+		 * Number of calls used to calculate the failure and slow call rate. Default: 20
+		 */
+		public Builder slidingWindowSize(int slidingWindowSize) {
+			this.slidingWindowSize = slidingWindowSize;
+			return this;
+		}
+
+		/**
+		 * Minimum number of calls before the rates are calculated. Default: 10
+		 */
+		public Builder minimumNumberOfCalls(int minimumNumberOfCalls) {
+			this.minimumNumberOfCalls = minimumNumberOfCalls;
+			return this;
+		}
+
+		/**
+		 * Time an open circuit rejects calls before it lets trial calls through.
+		 * Default: 30 seconds
+		 */
+		public Builder waitDurationInOpenState(Duration waitDurationInOpenState) {
+			this.waitDurationInOpenState = waitDurationInOpenState;
+			return this;
+		}
+
+		/**
+		 * Number of trial calls in the half open state. Default: 3
+		 */
+		public Builder permittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+			this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+			return this;
+		}
+
+		/**
+		 * Maximum number of concurrent calls per endpoint, 0 disables the bulkhead.
+		 * Default: 25
+		 */
+		public Builder maxConcurrentCalls(int maxConcurrentCalls) {
+			this.maxConcurrentCalls = maxConcurrentCalls;
+			return this;
+		}
+
+		/**
+		 * Maximum time a blocking call waits for a bulkhead permit. Asynchronous calls
+		 * never wait. Default: 0 (fail immediately)
+		 */
+		public Builder maxWaitDuration(Duration maxWaitDuration) {
+			this.maxWaitDuration = maxWaitDuration;
+			return this;
+		}
+
+		public Resilience build() {
+			if (this.scope == null) {
+				throw new IllegalArgumentException("scope must not be null");
+			}
+			if (this.failureRateThreshold <= 0 || this.failureRateThreshold > 100
+					|| this.slowCallRateThreshold <= 0
+					|| this.slowCallRateThreshold > 100) {
+				throw new IllegalArgumentException(
+						"rate thresholds must be greater than 0 and at most 100");
+			}
+			if (this.slidingWindowSize < 1 || this.minimumNumberOfCalls < 1
+					|| this.minimumNumberOfCalls > this.slidingWindowSize) {
+				throw new IllegalArgumentException(
+						"minimumNumberOfCalls must be between 1 and slidingWindowSize");
+			}
+			if (this.permittedCallsInHalfOpenState < 1
+					|| this.permittedCallsInHalfOpenState > this.slidingWindowSize) {
+				throw new IllegalArgumentException(
+						"permittedCallsInHalfOpenState must be between 1 and "
+								+ "slidingWindowSize");
+			}
+			if (this.maxConcurrentCalls < 0) {
+				throw new IllegalArgumentException(
+						"maxConcurrentCalls must not be negative");
+			}
+			if (this.slowCallDurationThreshold == null
+					|| this.waitDurationInOpenState == null
+					|| this.maxWaitDuration == null) {
+				throw new IllegalArgumentException("durations must not be null");
+			}
+			return new Resilience(this);
+		}
+	}
+
+	/**
+	 * Returns the circuit breaker of an endpoint, creates it if it does not exist.
+	 */
+	public CircuitBreaker circuitBreaker(String endpoint) {
+		return this.circuitBreakers.computeIfAbsent(endpoint,
+				name -> new CircuitBreaker(name, this));
+	}
+
+	/**
+	 * Returns the bulkhead of an endpoint, creates it if it does not exist. Returns null
+	 * if the bulkhead is disabled.
+	 */
+	public Bulkhead bulkhead(String endpoint) {
+		if (this.maxConcurrentCalls == 0) {
+			return null;
+		}
+		return this.bulkheads.computeIfAbsent(endpoint, name -> new Bulkhead(name, this));
+	}
+
+	/**
+	 * Circuit breakers of all endpoints that have been called so far.
+	 */
+	public Map<String, CircuitBreaker> circuitBreakers() {
+		return Map.copyOf(this.circuitBreakers);
+	}
+
+	/**
+	 * Bulkheads of all endpoints that have been called so far.
+	 */
+	public Map<String, Bulkhead> bulkheads() {
+		return Map.copyOf(this.bulkheads);
+	}
+
+	/**
+	 * Name of the endpoint a request belongs to: the client interface or method and the
+	 * host the request is sent to.
+	 */
+	public String endpoint(Request request) {
+		String name = Endpoints.name(request);
+		if (name == null) {
+			return request.httpMethod() + " " + request.url();
+		}
+		int hash = name.indexOf('#');
+		if (this.scope == Scope.CLIENT && hash != -1) {
+			name = name.substring(0, hash);
+		}
+		String host = host(request.url());
+		return host != null ? name + "@" + host : name;
+	}
+
+	private static String host(String url) {
+		try {
+			return URI.create(url).getRawAuthority();
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	public Scope scope() {
+		return this.scope;
+	}
+
+	float failureRateThreshold() {
+		return this.failureRateThreshold;
+	}
+
+	float slowCallRateThreshold() {
+		return this.slowCallRateThreshold;
+	}
+
+	Duration slowCallDurationThreshold() {
+		return this.slowCallDurationThreshold;
+	}
+
+	int slidingWindowSize() {
+		return this.slidingWindowSize;
+	}
+
+	int minimumNumberOfCalls() {
+		return this.minimumNumberOfCalls;
+	}
+
+	Duration waitDurationInOpenState() {
+		return this.waitDurationInOpenState;
+	}
+
+	int permittedCallsInHalfOpenState() {
+		return this.permittedCallsInHalfOpenState;
+	}
+
+	int maxConcurrentCalls() {
+		return this.maxConcurrentCalls;
+	}
+
+	Duration maxWaitDuration() {
+		return this.maxWaitDuration;
+	}
+
+}
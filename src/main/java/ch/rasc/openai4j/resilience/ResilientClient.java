@@ -0,0 +1,198 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.resilience;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import ch.rasc.openai4j.concurrent.AsyncClients;
+import ch.rasc.openai4j.concurrent.Responses;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * {@link Client} decorator that guards every endpoint with the {@link Bulkhead} and
+ * {@link CircuitBreaker} of a {@link Resilience} registry. Rejected calls fail
+ * immediately with a {@link BulkheadFullException} or a
+ * {@link CallNotPermittedException}, both are not retried.
+ * <p>
+ * The bulkhead permit is held until the response body has been read to the end or
+ * closed, so streamed responses count towards the concurrent calls. Calls cancelled
+ * or interrupted by the caller are not recorded by the circuit breaker.
+ * <p>
+ * Implements {@link AsyncClient} as well. When the delegate is not an
+ * {@link AsyncClient} the request is executed on the given executor, or on the calling
+ * thread when no executor is set.
+ */
+public class ResilientClient implements Client, AsyncClient<Object> {
+
+	private final Client delegate;
+
+	private final Resilience resilience;
+
+	private final Executor executor;
+
+	public ResilientClient(Client delegate, Resilience resilience) {
+		this(delegate, resilience, null);
+	}
+
+	public ResilientClient(Client delegate, Resilience resilience, Executor executor) {
+		this.delegate = delegate;
+		this.resilience = resilience;
+		this.executor = executor;
+	}
+
+	public Client delegate() {
+		return this.delegate;
+	}
+
+	public Resilience resilience() {
+		return this.resilience;
+	}
+
+	@Override
+	public Response execute(Request request, Options options) throws IOException {
+		String endpoint = this.resilience.endpoint(request);
+		Bulkhead bulkhead = this.resilience.bulkhead(endpoint);
+		if (bulkhead != null) {
+			try {
+				if (!bulkhead.tryAcquire()) {
+					throw new BulkheadFullException(bulkhead);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("interrupted while waiting for bulkhead "
+						+ bulkhead.name());
+			}
+		}
+
+		try {
+			CircuitBreaker circuitBreaker = acquireCircuitBreaker(endpoint);
+			long start = System.nanoTime();
+			Response response;
+			try {
+				response = this.delegate.execute(request, options);
+			}
+			catch (InterruptedIOException e) {
+				// abandoned by the caller, not a failure of the endpoint
+				circuitBreaker.releasePermission();
+				throw e;
+			}
+			catch (IOException | RuntimeException e) {
+				circuitBreaker.onResult(true, isSlow(start));
+				throw e;
+			}
+			circuitBreaker.onResult(isFailure(response.status()), isSlow(start));
+			// a streamed body holds the bulkhead permit until it is consumed
+			return bulkhead != null ? Responses.onBodyClosed(response, bulkhead::release)
+					: response;
+		}
+		catch (IOException | RuntimeException e) {
+			if (bulkhead != null) {
+				bulkhead.release();
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Options options,
+			Optional<Object> requestContext) {
+		String endpoint = this.resilience.endpoint(request);
+		Bulkhead bulkhead = this.resilience.bulkhead(endpoint);
+		if (bulkhead != null && !bulkhead.tryAcquireNow()) {
+			return CompletableFuture.failedFuture(new BulkheadFullException(bulkhead));
+		}
+
+		CircuitBreaker circuitBreaker;
+		try {
+			circuitBreaker = acquireCircuitBreaker(endpoint);
+		}
+		catch (CallNotPermittedException e) {
+			if (bulkhead != null) {
+				bulkhead.release();
+			}
+			return CompletableFuture.failedFuture(e);
+		}
+
+		long start = System.nanoTime();
+		CompletableFuture<Response> future = AsyncClients.execute(this.delegate,
+				this.executor, request, options, requestContext);
+		CompletableFuture<Response> result = new CompletableFuture<>();
+		result.whenComplete((response, error) -> {
+			if (result.isCancelled()) {
+				future.cancel(true);
+			}
+		});
+		future.whenComplete((response, error) -> {
+			if (response == null) {
+				if (bulkhead != null) {
+					bulkhead.release();
+				}
+				if (isCancellation(error)) {
+					// cancelled by the caller, not a failure of the endpoint
+					circuitBreaker.releasePermission();
+				}
+				else {
+					circuitBreaker.onResult(true, isSlow(start));
+				}
+				result.completeExceptionally(error);
+				return;
+			}
+			circuitBreaker.onResult(isFailure(response.status()), isSlow(start));
+			Response tracked = bulkhead != null
+					? Responses.onBodyClosed(response, bulkhead::release)
+					: response;
+			if (!result.complete(tracked)) {
+				tracked.close();
+			}
+		});
+		return result;
+	}
+
+	private CircuitBreaker acquireCircuitBreaker(String endpoint) {
+		CircuitBreaker circuitBreaker = this.resilience.circuitBreaker(endpoint);
+		if (!circuitBreaker.tryAcquirePermission()) {
+			throw new CallNotPermittedException(circuitBreaker);
+		}
+		return circuitBreaker;
+	}
+
+	private boolean isSlow(long start) {
+		return System.nanoTime() - start > this.resilience.slowCallDurationThreshold()
+				.toNanos();
+	}
+
+	private static boolean isCancellation(Throwable error) {
+		return error instanceof CancellationException
+				|| error instanceof CompletionException
+						&& error.getCause() instanceof CancellationException;
+	}
+
+	private static boolean isFailure(int status) {
+		return status == 408 || status >= 500;
+	}
+
+}
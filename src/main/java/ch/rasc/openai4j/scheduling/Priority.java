@@ -0,0 +1,40 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.scheduling;
+
+/**
+ * Priority class of a request. A {@link Scheduler} dispatches queued requests strictly
+ * in this order: a request of a lower class is only sent when no request of a higher
+ * class is waiting, or when the higher class has reached its concurrency limit.
+ */
+public enum Priority {
+
+	/**
+	 * User facing requests.
+	 */
+	INTERACTIVE,
+
+	/**
+	 * Requests without a priority.
+	 */
+	NORMAL,
+
+	/**
+	 * Background and bulk requests that use the capacity the other classes leave over.
+	 */
+	BATCH
+
+}
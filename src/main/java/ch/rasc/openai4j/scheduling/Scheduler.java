@@ -0,0 +1,571 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.scheduling;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import ch.rasc.openai4j.metrics.LatencyHistogram;
+
+/**
+ * Settings and queue of {@link SchedulingClient}. At most {@link #maxConcurrency()}
+ * requests are in flight, the other requests wait in a queue until a request finishes.
+ * A request is finished when its response body has been consumed or closed.
+ * <p>
+ * Queued requests are dispatched by {@link Priority} class first. Within a class the
+ * tenants share the capacity with weighted fair queuing: a tenant with weight 2 gets
+ * twice as many requests dispatched as a tenant with weight 1 while both have requests
+ * waiting, regardless of how many requests each of them queued. The priority class and
+ * tenant of a request are set with a {@link SchedulingScope}, requests without a scope
+ * belong to the {@link Builder#defaultPriority default class} and the default tenant.
+ * <p>
+ * Requests of a lower class can fill all permits and delay a request of a higher class
+ * until one of them finishes. Limit the lower classes with
+ * {@link Builder#maxConcurrency(Priority, int)} to keep permits free for interactive
+ * requests.
+ * <p>
+ * A request that waits longer than the maximum queue time of its class is dropped with
+ * a {@link QueueTimeoutException}. When {@link Builder#maxQueueSize} requests are
+ * queued new requests fail with a {@link QueueFullException}.
+ * <p>
+ * An instance is thread-safe and can be shared by multiple clients, for example a
+ * synchronous and an asynchronous client that use the same API key.
+ */
+public final class Scheduler {
+
+	private final int maxConcurrency;
+
+	private final int maxQueueSize;
+
+	private final Priority defaultPriority;
+
+	private final Map<String, Double> tenantWeights;
+
+	private final double defaultTenantWeight;
+
+	private final PriorityClass[] classes;
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private int inFlight;
+
+	private int queued;
+
+	private Scheduler(Builder builder) {
+		this.maxConcurrency = builder.maxConcurrency;
+		this.maxQueueSize = builder.maxQueueSize;
+		this.defaultPriority = builder.defaultPriority;
+		this.tenantWeights = Map.copyOf(builder.tenantWeights);
+		this.defaultTenantWeight = builder.defaultTenantWeight;
+		Priority[] priorities = Priority.values();
+		this.classes = new PriorityClass[priorities.length];
+		for (Priority priority : priorities) {
+			this.classes[priority.ordinal()] = new PriorityClass(priority,
+					builder.classMaxConcurrency.getOrDefault(priority,
+							builder.maxConcurrency),
+					builder.maxQueueTimes.getOrDefault(priority, builder.maxQueueTime));
+		}
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static Scheduler create() {
+		return builder().build();
+	}
+
+	public static final class Builder {
+		private int maxConcurrency = 64;
+		private final Map<Priority, Integer> classMaxConcurrency = new EnumMap<>(
+				Priority.class);
+		private Duration maxQueueTime = Duration.ofSeconds(60);
+		private final Map<Priority, Duration> maxQueueTimes = new EnumMap<>(
+				Priority.class);
+		private int maxQueueSize = 10_000;
+		private Priority defaultPriority = Priority.NORMAL;
+		private final Map<String, Double> tenantWeights = new HashMap<>();
+		private double defaultTenantWeight = 1;
+
+		private Builder() {
+		}
+
+		/**
+		 * Maximum number of requests in flight over all priority classes. Default: 64
+		 */
+		public Builder maxConcurrency(int maxConcurrency) {
+			this.maxConcurrency = maxConcurrency;
+			return this;
+		}
+
+		/**
+		 * Maximum number of requests of one priority class in flight. Default:
+		 * {@link #maxConcurrency(int)}
+		 */
+		public Builder maxConcurrency(Priority priority, int maxConcurrency) {
+			this.classMaxConcurrency.put(priority, maxConcurrency);
+			return this;
+		}
+
+		/**
+		 * Maximum time a request waits in the queue before it is dropped. Zero drops
+		 * requests that cannot be sent immediately. Default: 60 seconds
+		 */
+		public Builder maxQueueTime(Duration maxQueueTime) {
+			this.maxQueueTime = maxQueueTime;
+			return this;
+		}
+
+		/**
+		 * Maximum time a request of one priority class waits in the queue before it is
+		 * dropped. Default: {@link #maxQueueTime(Duration)}
+		 */
+		public Builder maxQueueTime(Priority priority, Duration maxQueueTime) {
+			this.maxQueueTimes.put(priority, maxQueueTime);
+			return this;
+		}
+
+		/**
+		 * Maximum number of queued requests over all priority classes. Default: 10000
+		 */
+		public Builder maxQueueSize(int maxQueueSize) {
+			this.maxQueueSize = maxQueueSize;
+			return this;
+		}
+
+		/**
+		 * Priority class of the requests that are sent without a
+		 * {@link SchedulingScope}. Default: {@link Priority#NORMAL}
+		 */
+		public Builder defaultPriority(Priority defaultPriority) {
+			this.defaultPriority = defaultPriority;
+			return this;
+		}
+
+		/**
+		 * Share of the capacity of a tenant relative to the other tenants of the same
+		 * priority class.
+		 */
+		public Builder tenantWeight(String tenant, double weight) {
+			this.tenantWeights.put(tenant, weight);
+			return this;
+		}
+
+		/**
+		 * Weight of the tenants without a {@link #tenantWeight(String, double)}.
+		 * Default: 1
+		 */
+		public Builder defaultTenantWeight(double defaultTenantWeight) {
+			this.defaultTenantWeight = defaultTenantWeight;
+			return this;
+		}
+
+		public Scheduler build() {
+			if (this.maxConcurrency < 1) {
+				throw new IllegalArgumentException("maxConcurrency must be positive");
+			}
+			for (Integer classMax : this.classMaxConcurrency.values()) {
+				if (classMax == null || classMax < 1) {
+					throw new IllegalArgumentException(
+							"maxConcurrency of a priority class must be positive");
+				}
+			}
+			if (this.maxQueueTime == null || this.maxQueueTime.isNegative()) {
+				throw new IllegalArgumentException(
+						"maxQueueTime must not be null or negative");
+			}
+			for (Duration time : this.maxQueueTimes.values()) {
+				if (time == null || time.isNegative()) {
+					throw new IllegalArgumentException(
+							"maxQueueTime must not be null or negative");
+				}
+			}
+			if (this.maxQueueSize < 0) {
+				throw new IllegalArgumentException("maxQueueSize must not be negative");
+			}
+			if (this.defaultPriority == null) {
+				throw new IllegalArgumentException("defaultPriority must not be null");
+			}
+			if (!(this.defaultTenantWeight > 0)) {
+				throw new IllegalArgumentException(
+						"defaultTenantWeight must be positive");
+			}
+			for (Map.Entry<String, Double> entry : this.tenantWeights.entrySet()) {
+				if (entry.getKey() == null || entry.getValue() == null
+						|| !(entry.getValue() > 0)) {
+					throw new IllegalArgumentException(
+							"tenant weights must be positive and tenants not null");
+				}
+			}
+			return new Scheduler(this);
+		}
+	}
+
+	public int maxConcurrency() {
+		return this.maxConcurrency;
+	}
+
+	public int maxConcurrency(Priority priority) {
+		return this.classes[priority.ordinal()].maxConcurrency;
+	}
+
+	public Duration maxQueueTime(Priority priority) {
+		return this.classes[priority.ordinal()].maxQueueTime;
+	}
+
+	public int maxQueueSize() {
+		return this.maxQueueSize;
+	}
+
+	public Priority defaultPriority() {
+		return this.defaultPriority;
+	}
+
+	/**
+	 * Queues a request. The returned ticket is granted when the request may be sent,
+	 * or fails with a {@link QueueTimeoutException} or {@link QueueFullException}. A
+	 * granted ticket must be {@link #release released} when the request finished.
+	 */
+	Ticket acquire(Priority priority, String tenant) {
+		PriorityClass priorityClass = this.classes[priority.ordinal()];
+		Ticket ticket = new Ticket(priorityClass, tenant == null ? "" : tenant,
+				System.nanoTime());
+		List<Ticket> granted;
+		boolean dropped = false;
+		this.lock.lock();
+		try {
+			if (this.queued >= this.maxQueueSize) {
+				ticket.state = State.DROPPED;
+				priorityClass.dropped++;
+				granted = List.of();
+			}
+			else {
+				priorityClass.add(ticket, weight(ticket.tenant));
+				this.queued++;
+				granted = dispatch();
+				if (ticket.state == State.QUEUED && priorityClass.maxQueueTime.isZero()) {
+					remove(ticket);
+					dropped = true;
+				}
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+
+		grant(granted);
+		if (ticket.state == State.DROPPED) {
+			if (dropped) {
+				ticket.granted.completeExceptionally(new QueueTimeoutException(priority,
+						tenant, priorityClass.maxQueueTime));
+			}
+			else {
+				ticket.granted.completeExceptionally(
+						new QueueFullException(priority, this.maxQueueSize));
+			}
+		}
+		else if (!ticket.granted.isDone()) {
+			CompletableFuture
+					.delayedExecutor(priorityClass.maxQueueTime.toNanos(),
+							TimeUnit.NANOSECONDS)
+					.execute(() -> expire(ticket));
+		}
+		return ticket;
+	}
+
+	/**
+	 * Returns the permit of a granted ticket, or removes a queued ticket from the
+	 * queue. Calling this method more than once has no effect.
+	 */
+	void release(Ticket ticket) {
+		List<Ticket> granted;
+		this.lock.lock();
+		try {
+			if (ticket.state == State.QUEUED) {
+				remove(ticket);
+				granted = List.of();
+			}
+			else if (ticket.state == State.GRANTED) {
+				ticket.state = State.RELEASED;
+				this.inFlight--;
+				ticket.priorityClass.inFlight--;
+				granted = dispatch();
+			}
+			else {
+				return;
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+		grant(granted);
+	}
+
+	private void expire(Ticket ticket) {
+		this.lock.lock();
+		try {
+			if (ticket.state != State.QUEUED) {
+				return;
+			}
+			remove(ticket);
+		}
+		finally {
+			this.lock.unlock();
+		}
+		PriorityClass priorityClass = ticket.priorityClass;
+		ticket.granted.completeExceptionally(new QueueTimeoutException(
+				priorityClass.priority, ticket.tenant.isEmpty() ? null : ticket.tenant,
+				priorityClass.maxQueueTime));
+	}
+
+	/**
+	 * Removes a queued ticket and counts it as dropped. Called with the lock held.
+	 */
+	private void remove(Ticket ticket) {
+		ticket.priorityClass.remove(ticket);
+		ticket.priorityClass.dropped++;
+		ticket.state = State.DROPPED;
+		ticket.queueNanos = System.nanoTime() - ticket.enqueued;
+		this.queued--;
+	}
+
+	/**
+	 * Hands out the free permits, higher priority classes first. Called with the lock
+	 * held, the returned tickets are completed after the lock is released.
+	 */
+	private List<Ticket> dispatch() {
+		List<Ticket> granted = null;
+		while (this.inFlight < this.maxConcurrency && this.queued > 0) {
+			Ticket next = null;
+			for (PriorityClass priorityClass : this.classes) {
+				if (priorityClass.size > 0
+						&& priorityClass.inFlight < priorityClass.maxConcurrency) {
+					next = priorityClass.poll();
+					break;
+				}
+			}
+			if (next == null) {
+				break;
+			}
+			PriorityClass priorityClass = next.priorityClass;
+			next.state = State.GRANTED;
+			next.queueNanos = System.nanoTime() - next.enqueued;
+			this.queued--;
+			this.inFlight++;
+			priorityClass.inFlight++;
+			priorityClass.dispatched++;
+			priorityClass.queueTime.record(next.queueNanos);
+			if (granted == null) {
+				granted = new ArrayList<>();
+			}
+			granted.add(next);
+		}
+		return granted != null ? granted : List.of();
+	}
+
+	private static void grant(List<Ticket> granted) {
+		for (Ticket ticket : granted) {
+			ticket.granted.complete(null);
+		}
+	}
+
+	private double weight(String tenant) {
+		return this.tenantWeights.getOrDefault(tenant, this.defaultTenantWeight);
+	}
+
+	/**
+	 * Number of requests in flight over all priority classes.
+	 */
+	public int inFlight() {
+		this.lock.lock();
+		try {
+			return this.inFlight;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Number of queued requests over all priority classes.
+	 */
+	public int queued() {
+		this.lock.lock();
+		try {
+			return this.queued;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * The current state and counters of every priority class.
+	 */
+	public Map<Priority, SchedulerStats> stats() {
+		Map<Priority, SchedulerStats> stats = new EnumMap<>(Priority.class);
+		this.lock.lock();
+		try {
+			for (PriorityClass c : this.classes) {
+				stats.put(c.priority, new SchedulerStats(c.priority, c.size, c.inFlight,
+						c.dispatched, c.dropped, c.queueTime.snapshot()));
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+		return Collections.unmodifiableMap(stats);
+	}
+
+	enum State {
+		QUEUED, GRANTED, RELEASED, DROPPED
+	}
+
+	static final class Ticket {
+		final PriorityClass priorityClass;
+		final String tenant;
+		final long enqueued;
+		final CompletableFuture<Void> granted = new CompletableFuture<>();
+		// guarded by the lock of the scheduler
+		State state = State.QUEUED;
+		long queueNanos;
+		TenantQueue tenantQueue;
+
+		Ticket(PriorityClass priorityClass, String tenant, long enqueued) {
+			this.priorityClass = priorityClass;
+			this.tenant = tenant;
+			this.enqueued = enqueued;
+		}
+
+		/**
+		 * Completes when the request may be sent.
+		 */
+		CompletableFuture<Void> granted() {
+			return this.granted;
+		}
+
+		Priority priority() {
+			return this.priorityClass.priority;
+		}
+
+		/**
+		 * Time the request waited for the permit, or until it was dropped.
+		 */
+		long queueNanos() {
+			return this.queueNanos;
+		}
+	}
+
+	/**
+	 * The queue of one priority class. Start-time fair queuing: every tenant with
+	 * queued requests has the virtual finish time of its first request, the tenant with
+	 * the smallest finish time is served next. A request advances the finish time of
+	 * its tenant by 1 / weight. A tenant whose queue was empty starts at the virtual
+	 * time of the class, so idle tenants do not build up credit.
+	 */
+	private static final class PriorityClass {
+		final Priority priority;
+		final int maxConcurrency;
+		final Duration maxQueueTime;
+		final Map<String, TenantQueue> tenants = new HashMap<>();
+		final PriorityQueue<TenantQueue> active = new PriorityQueue<>(
+				(a, b) -> a.finish != b.finish ? Double.compare(a.finish, b.finish)
+						: Long.compare(a.sequence, b.sequence));
+		final LatencyHistogram queueTime = new LatencyHistogram();
+		double virtualTime;
+		long sequence;
+		int size;
+		int inFlight;
+		long dispatched;
+		long dropped;
+
+		PriorityClass(Priority priority, int maxConcurrency, Duration maxQueueTime) {
+			this.priority = priority;
+			this.maxConcurrency = maxConcurrency;
+			this.maxQueueTime = maxQueueTime;
+		}
+
+		void add(Ticket ticket, double weight) {
+			TenantQueue queue = this.tenants.get(ticket.tenant);
+			if (queue == null) {
+				queue = new TenantQueue(ticket.tenant, weight);
+				this.tenants.put(ticket.tenant, queue);
+			}
+			queue.tickets.add(ticket);
+			ticket.tenantQueue = queue;
+			this.size++;
+			if (queue.tickets.size() == 1) {
+				activate(queue, Math.max(this.virtualTime, queue.lastFinish));
+			}
+		}
+
+		Ticket poll() {
+			TenantQueue queue = this.active.poll();
+			Ticket ticket = queue.tickets.poll();
+			this.size--;
+			this.virtualTime = Math.max(this.virtualTime, queue.finish - queue.cost);
+			queue.lastFinish = queue.finish;
+			if (queue.tickets.isEmpty()) {
+				this.tenants.remove(queue.tenant);
+			}
+			else {
+				activate(queue, queue.lastFinish);
+			}
+			return ticket;
+		}
+
+		void remove(Ticket ticket) {
+			TenantQueue queue = ticket.tenantQueue;
+			queue.tickets.remove(ticket);
+			this.size--;
+			if (queue.tickets.isEmpty()) {
+				this.active.remove(queue);
+				this.tenants.remove(queue.tenant);
+			}
+		}
+
+		private void activate(TenantQueue queue, double start) {
+			queue.finish = start + queue.cost;
+			queue.sequence = this.sequence++;
+			this.active.add(queue);
+		}
+	}
+
+	private static final class TenantQueue {
+		final String tenant;
+		final double cost;
+		final ArrayDeque<Ticket> tickets = new ArrayDeque<>();
+		double finish;
+		double lastFinish;
+		long sequence;
+
+		TenantQueue(String tenant, double weight) {
+			this.tenant = tenant;
+			this.cost = 1 / weight;
+		}
+	}
+
+}
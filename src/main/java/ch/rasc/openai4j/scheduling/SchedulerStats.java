@@ -0,0 +1,75 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.scheduling;
+
+import ch.rasc.openai4j.metrics.HistogramSnapshot;
+
+/**
+ * Snapshot of the state and counters of one priority class of a {@link Scheduler}.
+ */
+public record SchedulerStats(Priority priority, int queued, int inFlight,
+		long dispatched, long dropped, HistogramSnapshot queueTime) {
+
+	/**
+	 * The priority class.
+	 */
+	@Override
+	public Priority priority() {
+		return this.priority;
+	}
+
+	/**
+	 * Number of requests waiting for a permit.
+	 */
+	@Override
+	public int queued() {
+		return this.queued;
+	}
+
+	/**
+	 * Number of requests sent and not yet finished.
+	 */
+	@Override
+	public int inFlight() {
+		return this.inFlight;
+	}
+
+	/**
+	 * Number of requests that received a permit.
+	 */
+	@Override
+	public long dispatched() {
+		return this.dispatched;
+	}
+
+	/**
+	 * Number of requests that were not sent because the queue was full or the maximum
+	 * queue time passed.
+	 */
+	@Override
+	public long dropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * Time the dispatched requests waited for a permit.
+	 */
+	@Override
+	public HistogramSnapshot queueTime() {
+		return this.queueTime;
+	}
+
+}
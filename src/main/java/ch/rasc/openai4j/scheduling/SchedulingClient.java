@@ -0,0 +1,222 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.scheduling;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import ch.rasc.openai4j.concurrent.AsyncClients;
+import ch.rasc.openai4j.concurrent.Endpoints;
+import ch.rasc.openai4j.concurrent.Responses;
+import ch.rasc.openai4j.metrics.MetricsRecorder;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Response;
+
+/**
+ * {@link Client} decorator that sends a request only when the {@link Scheduler} grants
+ * a permit. The permit is returned when the response body has been consumed or closed,
+ * or when the request failed. Requests that are dropped from the queue fail with a
+ * {@link QueueTimeoutException} or a {@link QueueFullException}, both are not retried.
+ * <p>
+ * The priority class and tenant of a request are read from the headers that the
+ * {@link SchedulingRequestInterceptor} adds. The headers are removed before the request
+ * is passed to the delegate.
+ * <p>
+ * Implements {@link AsyncClient} as well. Asynchronous requests wait in the queue
+ * without blocking a thread. When the delegate is not an {@link AsyncClient} the
+ * request is executed on the given executor, or on the thread that released the permit
+ * when no executor is set.
+ */
+public class SchedulingClient implements Client, AsyncClient<Object> {
+
+	private final Client delegate;
+
+	private final Scheduler scheduler;
+
+	private final MetricsRecorder metrics;
+
+	private final Executor executor;
+
+	public SchedulingClient(Client delegate, Scheduler scheduler) {
+		this(delegate, scheduler, null, null);
+	}
+
+	public SchedulingClient(Client delegate, Scheduler scheduler, MetricsRecorder metrics,
+			Executor executor) {
+		this.delegate = delegate;
+		this.scheduler = scheduler;
+		this.metrics = metrics;
+		this.executor = executor;
+	}
+
+	public Client delegate() {
+		return this.delegate;
+	}
+
+	public Scheduler scheduler() {
+		return this.scheduler;
+	}
+
+	@Override
+	public Response execute(Request request, Options options) throws IOException {
+		Scheduler.Ticket ticket = acquire(request);
+		try {
+			ticket.granted().get();
+		}
+		catch (InterruptedException e) {
+			this.scheduler.release(ticket);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while waiting for a permit");
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new IOException(e.getCause());
+		}
+
+		Response response;
+		try {
+			response = this.delegate.execute(strip(request), options);
+		}
+		catch (IOException | RuntimeException e) {
+			this.scheduler.release(ticket);
+			throw e;
+		}
+		return Responses.onBodyClosed(response, () -> this.scheduler.release(ticket));
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Options options,
+			Optional<Object> requestContext) {
+		Scheduler.Ticket ticket = acquire(request);
+		CompletableFuture<Response> result = new CompletableFuture<>();
+		// removes the request from the queue, or returns the permit when the result
+		// was cancelled while the request is in flight
+		result.whenComplete((response, error) -> {
+			if (result.isCancelled()) {
+				this.scheduler.release(ticket);
+			}
+		});
+
+		ticket.granted().whenComplete((granted, grantError) -> {
+			if (grantError != null) {
+				result.completeExceptionally(grantError);
+				return;
+			}
+			if (result.isDone()) {
+				this.scheduler.release(ticket);
+				return;
+			}
+			CompletableFuture<Response> future;
+			try {
+				future = AsyncClients.execute(this.delegate, this.executor,
+						strip(request), options, requestContext);
+			}
+			catch (RuntimeException e) {
+				this.scheduler.release(ticket);
+				result.completeExceptionally(e);
+				return;
+			}
+			result.whenComplete((response, error) -> {
+				if (result.isCancelled()) {
+					future.cancel(true);
+				}
+			});
+			future.whenComplete((response, error) -> {
+				if (error != null) {
+					this.scheduler.release(ticket);
+					result.completeExceptionally(error);
+					return;
+				}
+				Response tracked = Responses.onBodyClosed(response,
+						() -> this.scheduler.release(ticket));
+				if (!result.complete(tracked)) {
+					tracked.close();
+				}
+			});
+		});
+		return result;
+	}
+
+	private Scheduler.Ticket acquire(Request request) {
+		Priority priority = priority(request);
+		String tenant = header(request, SchedulingRequestInterceptor.TENANT_HEADER);
+		Scheduler.Ticket ticket = this.scheduler.acquire(priority, tenant);
+		if (this.metrics != null) {
+			String endpoint = endpoint(request);
+			ticket.granted().whenComplete((granted, error) -> this.metrics
+					.recordQueueTime(endpoint, priority, ticket.queueNanos(),
+							error != null));
+		}
+		return ticket;
+	}
+
+	private Priority priority(Request request) {
+		String value = header(request, SchedulingRequestInterceptor.PRIORITY_HEADER);
+		if (value != null) {
+			try {
+				return Priority.valueOf(value);
+			}
+			catch (IllegalArgumentException e) {
+				// unknown priority, use the default
+			}
+		}
+		return this.scheduler.defaultPriority();
+	}
+
+	private static String header(Request request, String name) {
+		Collection<String> values = request.headers().get(name);
+		if (values == null || values.isEmpty()) {
+			return null;
+		}
+		return values.iterator().next();
+	}
+
+	/**
+	 * Removes the internal scheduling headers.
+	 */
+	private static Request strip(Request request) {
+		if (!request.headers().containsKey(SchedulingRequestInterceptor.PRIORITY_HEADER)
+				&& !request.headers()
+						.containsKey(SchedulingRequestInterceptor.TENANT_HEADER)) {
+			return request;
+		}
+		Map<String, Collection<String>> headers = new TreeMap<>(
+				String.CASE_INSENSITIVE_ORDER);
+		headers.putAll(request.headers());
+		headers.remove(SchedulingRequestInterceptor.PRIORITY_HEADER);
+		headers.remove(SchedulingRequestInterceptor.TENANT_HEADER);
+		return Request.create(request.httpMethod(), request.url(), headers,
+				request.body(), request.charset(), request.requestTemplate());
+	}
+
+	private static String endpoint(Request request) {
+		return Objects.requireNonNullElse(Endpoints.name(request), "unknown");
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.scheduling;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+/**
+ * Copies the {@link SchedulingScope} of the calling thread into internal headers of the
+ * request, so the priority class and tenant are known to the {@link SchedulingClient}
+ * even when a retry is sent from another thread. The {@link SchedulingClient} removes
+ * the headers before the request is sent.
+ */
+public final class SchedulingRequestInterceptor implements RequestInterceptor {
+
+	static final String PRIORITY_HEADER = "openai4j-priority";
+
+	static final String TENANT_HEADER = "openai4j-tenant";
+
+	@Override
+	public void apply(RequestTemplate template) {
+		SchedulingScope scope = SchedulingScope.current();
+		if (scope == null) {
+			// keep the headers of the first attempt when a retry runs on another thread
+			return;
+		}
+		template.removeHeader(PRIORITY_HEADER);
+		template.removeHeader(TENANT_HEADER);
+		template.headerLiteral(PRIORITY_HEADER, scope.priority().name());
+		if (scope.tenant() != null) {
+			template.headerLiteral(TENANT_HEADER, scope.tenant());
+		}
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.scheduling;
+
+/**
+ * Sets the priority class and the tenant of the requests that the current thread sends
+ * while the scope is open. Scopes can be nested, closing a scope restores the enclosing
+ * one.
+ *
+ * <pre>
+ * try (SchedulingScope scope = SchedulingScope.open(Priority.BATCH, "backfill")) {
+ * 	client.embeddings.create(request);
+ * }
+ * </pre>
+ *
+ * Asynchronous clients read the scope when the request is created, so a scope only has
+ * to be open while the method of the client is called, not until the returned future
+ * completes.
+ */
+public final class SchedulingScope implements AutoCloseable {
+
+	private static final ThreadLocal<SchedulingScope> CURRENT = new ThreadLocal<>();
+
+	private final Priority priority;
+
+	private final String tenant;
+
+	private final SchedulingScope previous;
+
+	private final Thread thread;
+
+	private SchedulingScope(Priority priority, String tenant, SchedulingScope previous) {
+		this.priority = priority;
+		this.tenant = tenant;
+		this.previous = previous;
+		this.thread = Thread.currentThread();
+	}
+
+	/**
+	 * Opens a scope with the given priority class and the tenant of the enclosing
+	 * scope, if any.
+	 */
+	public static SchedulingScope open(Priority priority) {
+		SchedulingScope current = CURRENT.get();
+		return open(priority, current != null ? current.tenant : null);
+	}
+
+	/**
+	 * Opens a scope with the given priority class and tenant. Requests of the same
+	 * priority class share the capacity fairly between tenants, weighted by
+	 * {@link Scheduler.Builder#tenantWeight(String, double)}. A null tenant is the
+	 * default tenant.
+	 */
+	public static SchedulingScope open(Priority priority, String tenant) {
+		if (priority == null) {
+			throw new IllegalArgumentException("priority must not be null");
+		}
+		SchedulingScope scope = new SchedulingScope(priority, tenant, CURRENT.get());
+		CURRENT.set(scope);
+		return scope;
+	}
+
+	/**
+	 * The innermost open scope of the current thread, or null.
+	 */
+	public static SchedulingScope current() {
+		return CURRENT.get();
+	}
+
+	public Priority priority() {
+		return this.priority;
+	}
+
+	public String tenant() {
+		return this.tenant;
+	}
+
+	@Override
+	public void close() {
+		if (Thread.currentThread() != this.thread) {
+			throw new IllegalStateException(
+					"a scheduling scope must be closed by the thread that opened it");
+		}
+		if (this.previous != null) {
+			CURRENT.set(this.previous);
+		}
+		else {
+			CURRENT.remove();
+		}
+	}
+
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.tokenizer;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.rasc.openai4j.chatcompletions.AssistantMessage;
+import ch.rasc.openai4j.chatcompletions.AssistantMessage.AssistantRefusalContent;
+import ch.rasc.openai4j.chatcompletions.AssistantMessage.AssistantTextContent;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionCreateRequest;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionMessage;
+import ch.rasc.openai4j.chatcompletions.ChatCompletionTool;
+import ch.rasc.openai4j.chatcompletions.SystemMessage;
+import ch.rasc.openai4j.chatcompletions.ToolMessage;
+import ch.rasc.openai4j.chatcompletions.UserMessage;
+import ch.rasc.openai4j.chatcompletions.UserMessage.ImageContent;
+import ch.rasc.openai4j.chatcompletions.UserMessage.TextContent;
+import ch.rasc.openai4j.common.FunctionParameters;
+import ch.rasc.openai4j.common.ImageDetail;
+import ch.rasc.openai4j.common.ToolCall;
+
+/**
+ * Counts the prompt tokens of chat completion requests, with the message and tool
+ * overhead that the API adds (see the OpenAI cookbook "How to count tokens with
+ * tiktoken"). The result is an estimate: the exact formatting of the messages and tool
+ * definitions is not documented and can differ between models by a few tokens.
+ * <p>
+ * Images count as 85 tokens for low detail and 765 tokens otherwise, the cost of a
+ * 1024x1024 image at high detail. Audio input is not counted.
+ * <p>
+ * An instance is thread-safe.
+ */
+public final class ChatTokenCounter {
+
+	private static final int TOKENS_PER_MESSAGE = 3;
+
+	private static final int TOKENS_PER_NAME = 1;
+
+	private static final int REPLY_PRIMING = 3;
+
+	private static final int LOW_DETAIL_IMAGE = 85;
+
+	private static final int HIGH_DETAIL_IMAGE = 765;
+
+	private static final int FUNCTION_INIT = 7;
+
+	private static final int PROPERTIES_INIT = 3;
+
+	private static final int PROPERTY_KEY = 3;
+
+	private static final int ENUM_INIT = -3;
+
+	private static final int ENUM_ITEM = 3;
+
+	private static final int FUNCTIONS_END = 12;
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final Tokenizer tokenizer;
+
+	public ChatTokenCounter(Tokenizer tokenizer) {
+		this.tokenizer = tokenizer;
+	}
+
+	/**
+	 * Returns a counter with the shared tokenizer of the encoding of a model.
+	 */
+	public static ChatTokenCounter forModel(String model) {
+		return new ChatTokenCounter(Tokenizer.forModel(model));
+	}
+
+	public Tokenizer tokenizer() {
+		return this.tokenizer;
+	}
+
+	/**
+	 * Number of prompt tokens of a request: the messages, the tool definitions and the
+	 * tokens that prime the reply.
+	 */
+	public int count(ChatCompletionCreateRequest request) {
+		return countMessages(request.messages()) + countTools(request.tools());
+	}
+
+	/**
+	 * Number of prompt tokens of a conversation, including the tokens that prime the
+	 * reply.
+	 */
+	public int countMessages(List<? extends ChatCompletionMessage> messages) {
+		if (messages == null || messages.isEmpty()) {
+			return 0;
+		}
+		int count = REPLY_PRIMING;
+		for (ChatCompletionMessage message : messages) {
+			count += countMessage(message);
+		}
+		return count;
+	}
+
+	/**
+	 * Number of tokens of one message, including the overhead of the message.
+	 */
+	public int countMessage(ChatCompletionMessage message) {
+		int count = TOKENS_PER_MESSAGE;
+		if (message instanceof SystemMessage system) {
+			count += text("system") + text(system.content()) + name(system.name());
+		}
+		else if (message instanceof UserMessage user) {
+			count += text("user") + userContent(user.content()) + name(user.name());
+		}
+		else if (message instanceof AssistantMessage assistant) {
+			count += text("assistant") + assistantContent(assistant.content())
+					+ text(assistant.refusal()) + name(assistant.name());
+			if (assistant.toolCalls() != null) {
+				for (ToolCall toolCall : assistant.toolCalls()) {
+					if (toolCall.function() != null) {
+						count += TOKENS_PER_MESSAGE + text(toolCall.function().name())
+								+ text(toolCall.function().arguments());
+					}
+				}
+			}
+		}
+		else if (message instanceof ToolMessage tool) {
+			count += text("tool") + text(tool.content()) + text(tool.toolCallId());
+		}
+		return count;
+	}
+
+	/**
+	 * Number of tokens of the tool definitions. Only function tools are counted.
+	 */
+	public int countTools(List<ChatCompletionTool> tools) {
+		if (tools == null || tools.isEmpty()) {
+			return 0;
+		}
+		int count = 0;
+		for (ChatCompletionTool tool : tools) {
+			FunctionParameters function = tool.function();
+			if (function == null) {
+				continue;
+			}
+			count += FUNCTION_INIT;
+			count += text(function.name() + ":" + withoutPeriod(function.description()));
+			JsonNode parameters = function.parameters() != null
+					? OBJECT_MAPPER.valueToTree(function.parameters())
+					: null;
+			JsonNode properties = parameters != null ? parameters.get("properties")
+					: null;
+			if (properties != null && properties.size() > 0) {
+				count += PROPERTIES_INIT;
+				Iterator<Map.Entry<String, JsonNode>> fields = properties.fields();
+				while (fields.hasNext()) {
+					Map.Entry<String, JsonNode> field = fields.next();
+					JsonNode property = field.getValue();
+					count += PROPERTY_KEY;
+					JsonNode values = property.get("enum");
+					if (values != null && values.isArray()) {
+						count += ENUM_INIT;
+						for (JsonNode value : values) {
+							count += ENUM_ITEM + text(value.asText());
+						}
+					}
+					count += text(field.getKey() + ":" + property.path("type").asText()
+							+ ":" + withoutPeriod(property.path("description").asText()));
+				}
+			}
+		}
+		return count + FUNCTIONS_END;
+	}
+
+	private int userContent(Object content) {
+		if (content instanceof String text) {
+			return text(text);
+		}
+		int count = 0;
+		if (content instanceof List<?> parts) {
+			for (Object part : parts) {
+				if (part instanceof TextContent text) {
+					count += text(text.text());
+				}
+				else if (part instanceof ImageContent image) {
+					count += image.imageUrl() != null
+							&& image.imageUrl().detail() == ImageDetail.LOW
+									? LOW_DETAIL_IMAGE
+									: HIGH_DETAIL_IMAGE;
+				}
+			}
+		}
+		return count;
+	}
+
+	private int assistantContent(Object content) {
+		if (content instanceof String text) {
+			return text(text);
+		}
+		int count = 0;
+		if (content instanceof List<?> parts) {
+			for (Object part : parts) {
+				if (part instanceof AssistantTextContent text) {
+					count += text(text.text());
+				}
+				else if (part instanceof AssistantRefusalContent refusal) {
+					count += text(refusal.refusal());
+				}
+			}
+		}
+		return count;
+	}
+
+	private int name(String name) {
+		return name != null ? TOKENS_PER_NAME + text(name) : 0;
+	}
+
+	private int text(String text) {
+		return text != null ? this.tokenizer.countTokens(text) : 0;
+	}
+
+	private static String withoutPeriod(String text) {
+		if (text == null) {
+			return "";
+		}
+		return text.endsWith(".") ? text.substring(0, text.length() - 1) : text;
+	}
+
+}
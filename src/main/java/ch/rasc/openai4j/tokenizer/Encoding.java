@@ -0,0 +1,113 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.tokenizer;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The byte pair encodings of the OpenAI models. Each encoding consists of a rank file
+ * (see {@link #fileName()}), the regular expression that splits the text into pieces
+ * before the byte pair merge, and the special tokens.
+ */
+public enum Encoding {
+
+	/**
+	 * Encoding of gpt-4, gpt-3.5-turbo and the text-embedding-3 and
+	 * text-embedding-ada-002 models.
+	 */
+	CL100K_BASE("cl100k_base",
+			"'(?i:[sdmt]|ll|ve|re)|[^\\r\\n\\p{L}\\p{N}]?+\\p{L}+|\\p{N}{1,3}"
+					+ "| ?[^\\s\\p{L}\\p{N}]++[\\r\\n]*|\\s*[\\r\\n]|\\s+(?!\\S)|\\s+",
+			Map.of("<|endoftext|>", 100257, "<|fim_prefix|>", 100258, "<|fim_middle|>",
+					100259, "<|fim_suffix|>", 100260, "<|endofprompt|>", 100276)),
+
+	/**
+	 * Encoding of gpt-4o, gpt-4.1 and the o-series models.
+	 */
+	O200K_BASE("o200k_base", String.join("|",
+			"[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]*"
+					+ "[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]+(?i:'s|'t|'re|'ve|'m|'ll|'d)?",
+			"[^\\r\\n\\p{L}\\p{N}]?[\\p{Lu}\\p{Lt}\\p{Lm}\\p{Lo}\\p{M}]+"
+					+ "[\\p{Ll}\\p{Lm}\\p{Lo}\\p{M}]*(?i:'s|'t|'re|'ve|'m|'ll|'d)?",
+			"\\p{N}{1,3}", " ?[^\\s\\p{L}\\p{N}]+[\\r\\n/]*", "\\s*[\\r\\n]+",
+			"\\s+(?!\\S)", "\\s+"),
+			Map.of("<|endoftext|>", 199999, "<|endofprompt|>", 200018));
+
+	private final String encodingName;
+
+	private final Pattern pattern;
+
+	private final Map<String, Integer> specialTokens;
+
+	Encoding(String encodingName, String pattern, Map<String, Integer> specialTokens) {
+		this.encodingName = encodingName;
+		this.pattern = Pattern.compile(pattern, Pattern.UNICODE_CHARACTER_CLASS);
+		this.specialTokens = specialTokens;
+	}
+
+	/**
+	 * Returns the encoding of a model. Unknown models use {@link #O200K_BASE}, the
+	 * encoding of the current models.
+	 */
+	public static Encoding forModel(String model) {
+		String m = model.toLowerCase(Locale.ROOT);
+		if (m.startsWith("gpt-4o") || m.startsWith("chatgpt-4o")
+				|| m.startsWith("gpt-4.") || m.startsWith("gpt-5") || m.startsWith("o1")
+				|| m.startsWith("o3") || m.startsWith("o4")) {
+			return O200K_BASE;
+		}
+		if (m.startsWith("gpt-4") || m.startsWith("gpt-3.5") || m.startsWith("gpt-35")
+				|| m.startsWith("text-embedding-3")
+				|| m.startsWith("text-embedding-ada-002")) {
+			return CL100K_BASE;
+		}
+		return O200K_BASE;
+	}
+
+	/**
+	 * Name of the encoding, for example "cl100k_base".
+	 */
+	public String encodingName() {
+		return this.encodingName;
+	}
+
+	/**
+	 * Name of the rank file, for example "cl100k_base.tiktoken". The files are
+	 * published at https://openaipublic.blob.core.windows.net/encodings/
+	 */
+	public String fileName() {
+		return this.encodingName + ".tiktoken";
+	}
+
+	/**
+	 * The regular expression that splits the text into pieces.
+	 */
+	public Pattern pattern() {
+		return this.pattern;
+	}
+
+	/**
+	 * The special tokens and their ids. Special tokens are not produced by
+	 * {@link Tokenizer#encode(CharSequence)}, text that contains them is encoded as
+	 * ordinary text.
+	 */
+	public Map<String, Integer> specialTokens() {
+		return this.specialTokens;
+	}
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.tokenizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Immutable map from byte sequences to ranks. The bytes of all tokens are stored in
+ * one array, a token is found with an open addressing hash table of ints. A lookup
+ * does not allocate, the whole table of o200k_base needs about 5 MB.
+ */
+final class RankTable {
+
+	private static final int EMPTY = -1;
+
+	/** bytes of all tokens, ordered by rank */
+	private final byte[] bytes;
+
+	/** start of the token with rank r in {@link #bytes} at r, end at r + 1 */
+	private final int[] offsets;
+
+	/** ranks, indexed by hash */
+	private final int[] slots;
+
+	private final int mask;
+
+	private final int size;
+
+	private RankTable(byte[] bytes, int[] offsets, int size) {
+		this.bytes = bytes;
+		this.offsets = offsets;
+		this.size = size;
+		int capacity = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1;
+		this.slots = new int[capacity];
+		this.mask = capacity - 1;
+		Arrays.fill(this.slots, EMPTY);
+		for (int rank = 0; rank < offsets.length - 1; rank++) {
+			int start = offsets[rank];
+			int end = offsets[rank + 1];
+			if (start == end) {
+				// gap in the ranks
+				continue;
+			}
+			int slot = hash(bytes, start, end) & this.mask;
+			while (this.slots[slot] != EMPTY) {
+				slot = (slot + 1) & this.mask;
+			}
+			this.slots[slot] = rank;
+		}
+	}
+
+	/**
+	 * Reads a rank file: one token per line, the base64 encoded bytes and the rank
+	 * separated by a space.
+	 */
+	static RankTable read(InputStream in) throws IOException {
+		Base64.Decoder base64 = Base64.getDecoder();
+		byte[][] tokens = new byte[1 << 17][];
+		int maxRank = -1;
+		int size = 0;
+		int totalBytes = 0;
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					continue;
+				}
+				int space = line.indexOf(' ');
+				if (space <= 0) {
+					throw new IOException("invalid line in rank file: " + line);
+				}
+				byte[] token = base64.decode(line.substring(0, space));
+				int rank;
+				try {
+					rank = Integer.parseInt(line, space + 1, line.length(), 10);
+				}
+				catch (NumberFormatException e) {
+					throw new IOException("invalid rank in rank file: " + line, e);
+				}
+				if (token.length == 0 || rank < 0) {
+					throw new IOException("invalid line in rank file: " + line);
+				}
+				if (rank >= tokens.length) {
+					tokens = Arrays.copyOf(tokens, Math.max(rank + 1, tokens.length * 2));
+				}
+				if (tokens[rank] == null) {
+					size++;
+					totalBytes += token.length;
+				}
+				else {
+					totalBytes += token.length - tokens[rank].length;
+				}
+				tokens[rank] = token;
+				maxRank = Math.max(maxRank, rank);
+			}
+		}
+		return of(tokens, maxRank + 1, size, totalBytes);
+	}
+
+	/**
+	 * Creates a table from the tokens in rank order, null entries are gaps.
+	 */
+	static RankTable of(byte[][] tokens, int count, int size, int totalBytes) {
+		byte[] bytes = new byte[totalBytes];
+		int[] offsets = new int[count + 1];
+		int position = 0;
+		for (int rank = 0; rank < count; rank++) {
+			offsets[rank] = position;
+			byte[] token = tokens[rank];
+			if (token != null) {
+				System.arraycopy(token, 0, bytes, position, token.length);
+				position += token.length;
+			}
+		}
+		offsets[count] = position;
+		return new RankTable(bytes, offsets, size);
+	}
+
+	/**
+	 * Returns the rank of the bytes from start (inclusive) to end (exclusive), or -1.
+	 */
+	int rank(byte[] piece, int start, int end) {
+		int length = end - start;
+		int slot = hash(piece, start, end) & this.mask;
+		int rank;
+		while ((rank = this.slots[slot]) != EMPTY) {
+			int tokenStart = this.offsets[rank];
+			if (this.offsets[rank + 1] - tokenStart == length && Arrays.equals(this.bytes,
+					tokenStart, tokenStart + length, piece, start, end)) {
+				return rank;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Number of ranks including gaps, all ranks are smaller than this value.
+	 */
+	int rankCount() {
+		return this.offsets.length - 1;
+	}
+
+	/**
+	 * Number of tokens.
+	 */
+	int size() {
+		return this.size;
+	}
+
+	/**
+	 * Length of the token with the given rank, 0 for a gap.
+	 */
+	int length(int rank) {
+		return this.offsets[rank + 1] - this.offsets[rank];
+	}
+
+	/**
+	 * Copies the bytes of the token with the given rank and returns the number of
+	 * bytes.
+	 */
+	int copy(int rank, byte[] target, int position) {
+		int start = this.offsets[rank];
+		int length = this.offsets[rank + 1] - start;
+		System.arraycopy(this.bytes, start, target, position, length);
+		return length;
+	}
+
+	private static int hash(byte[] bytes, int start, int end) {
+		// FNV-1a followed by a finalizer that spreads the bits over the low bits
+		int h = 0x811c9dc5;
+		for (int i = start; i < end; i++) {
+			h = (h ^ (bytes[i] & 0xff)) * 0x01000193;
+		}
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		return h;
+	}
+
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.tokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import java.util.regex.Matcher;
+
+/**
+ * Byte pair encoding tokenizer, compatible with the tiktoken encodings cl100k_base and
+ * o200k_base. Counts the tokens of a text locally, for example to budget the tokens
+ * per minute or to check maxTokens before a request is sent.
+ * <p>
+ * The rank file of an encoding is not part of openai4j. {@link #of(Encoding)} looks for
+ * it in the directory of the system property "openai4j.tokenizer.path" and then on the
+ * classpath under "ch/rasc/openai4j/tokenizer/". The files are published at
+ * https://openaipublic.blob.core.windows.net/encodings/cl100k_base.tiktoken and
+ * https://openaipublic.blob.core.windows.net/encodings/o200k_base.tiktoken
+ * <p>
+ * An instance is immutable and thread-safe. Every thread reuses its own buffers,
+ * {@link #countTokens(CharSequence)} and {@link #encode(CharSequence, IntConsumer)} do
+ * not allocate after the first call on a thread.
+ */
+public final class Tokenizer {
+
+	/**
+	 * Name of the system property with the directory of the rank files.
+	 */
+	public static final String PATH_PROPERTY = "openai4j.tokenizer.path";
+
+	private static final Map<Encoding, Tokenizer> INSTANCES = new ConcurrentHashMap<>();
+
+	private final Encoding encoding;
+
+	private final RankTable ranks;
+
+	private final Map<Integer, byte[]> specialTokens;
+
+	private final ThreadLocal<Buffers> buffers;
+
+	private Tokenizer(Encoding encoding, RankTable ranks) {
+		this.encoding = encoding;
+		this.ranks = ranks;
+		Map<Integer, byte[]> special = new HashMap<>();
+		encoding.specialTokens().forEach(
+				(token, id) -> special.put(id, token.getBytes(StandardCharsets.UTF_8)));
+		this.specialTokens = Map.copyOf(special);
+		this.buffers = ThreadLocal.withInitial(() -> new Buffers(encoding));
+	}
+
+	/**
+	 * Returns the shared tokenizer of an encoding. The rank file is read on the first
+	 * call.
+	 *
+	 * @throws UncheckedIOException if the rank file cannot be read
+	 * @throws IllegalStateException if the rank file is not found
+	 */
+	public static Tokenizer of(Encoding encoding) {
+		Tokenizer tokenizer = INSTANCES.get(encoding);
+		if (tokenizer == null) {
+			tokenizer = INSTANCES.computeIfAbsent(encoding, Tokenizer::find);
+		}
+		return tokenizer;
+	}
+
+	/**
+	 * Returns the shared tokenizer of the encoding of a model.
+	 *
+	 * @see Encoding#forModel(String)
+	 */
+	public static Tokenizer forModel(String model) {
+		return of(Encoding.forModel(model));
+	}
+
+	/**
+	 * Creates a tokenizer from a rank file. The stream is closed.
+	 */
+	public static Tokenizer load(Encoding encoding, InputStream ranks)
+			throws IOException {
+		return new Tokenizer(encoding, RankTable.read(ranks));
+	}
+
+	/**
+	 * Creates a tokenizer from a rank file.
+	 */
+	public static Tokenizer load(Encoding encoding, Path ranks) throws IOException {
+		return load(encoding, Files.newInputStream(ranks));
+	}
+
+	private static Tokenizer find(Encoding encoding) {
+		try {
+			String directory = System.getProperty(PATH_PROPERTY);
+			if (directory != null) {
+				Path file = Path.of(directory, encoding.fileName());
+				if (Files.exists(file)) {
+					return load(encoding, file);
+				}
+			}
+			InputStream in = Tokenizer.class.getResourceAsStream(encoding.fileName());
+			if (in != null) {
+				return load(encoding, in);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(
+					"reading the rank file " + encoding.fileName() + " failed", e);
+		}
+		throw new IllegalStateException("rank file " + encoding.fileName()
+				+ " not found, download it from "
+				+ "https://openaipublic.blob.core.windows.net/encodings/"
+				+ encoding.fileName() + " and put it in the directory of the system "
+				+ "property " + PATH_PROPERTY
+				+ " or on the classpath under ch/rasc/openai4j/tokenizer/");
+	}
+
+	public Encoding encoding() {
+		return this.encoding;
+	}
+
+	/**
+	 * Number of tokens in the vocabulary, without the special tokens.
+	 */
+	public int vocabularySize() {
+		return this.ranks.size();
+	}
+
+	/**
+	 * Returns the number of tokens of a text.
+	 */
+	public int countTokens(CharSequence text) {
+		return encode(text, null);
+	}
+
+	/**
+	 * Encodes a text. Special tokens in the text are encoded as ordinary text.
+	 */
+	public int[] encode(CharSequence text) {
+		Buffers b = this.buffers.get();
+		b.tokenCount = 0;
+		encode(text, b);
+		return Arrays.copyOf(b.tokens, b.tokenCount);
+	}
+
+	/**
+	 * Encodes a text and passes the tokens to the consumer, in order. Special tokens
+	 * in the text are encoded as ordinary text.
+	 *
+	 * @return the number of tokens
+	 */
+	public int encode(CharSequence text, IntConsumer consumer) {
+		if (text == null || text.length() == 0) {
+			return 0;
+		}
+		Buffers b = this.buffers.get();
+		Matcher matcher = b.matcher.reset(text);
+		int count = 0;
+		try {
+			while (matcher.find()) {
+				int length = b.utf8(text, matcher.start(), matcher.end());
+				count += bytePairEncode(b, length, consumer);
+			}
+		}
+		finally {
+			// do not keep a reference to the text
+			matcher.reset("");
+		}
+		return count;
+	}
+
+	/**
+	 * Decodes tokens into a string. Invalid UTF-8 sequences, for example when the
+	 * tokens end in the middle of a character, are replaced with U+FFFD.
+	 */
+	public String decode(int... tokens) {
+		return new String(decodeBytes(tokens), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Decodes tokens into the UTF-8 bytes of the text.
+	 *
+	 * @throws IllegalArgumentException if a token is not part of the encoding
+	 */
+	public byte[] decodeBytes(int... tokens) {
+		int length = 0;
+		for (int token : tokens) {
+			length += tokenLength(token);
+		}
+		byte[] bytes = new byte[length];
+		int position = 0;
+		for (int token : tokens) {
+			if (token >= 0 && token < this.ranks.rankCount()
+					&& this.ranks.length(token) > 0) {
+				position += this.ranks.copy(token, bytes, position);
+			}
+			else {
+				byte[] special = this.specialTokens.get(token);
+				System.arraycopy(special, 0, bytes, position, special.length);
+				position += special.length;
+			}
+		}
+		return bytes;
+	}
+
+	private int tokenLength(int token) {
+		if (token >= 0 && token < this.ranks.rankCount()) {
+			int length = this.ranks.length(token);
+			if (length > 0) {
+				return length;
+			}
+		}
+		byte[] special = this.specialTokens.get(token);
+		if (special == null) {
+			throw new IllegalArgumentException("unknown token " + token);
+		}
+		return special.length;
+	}
+
+	/**
+	 * Encodes the piece in b.bytes[0, length). Port of the byte pair merge of tiktoken:
+	 * starting with single bytes the adjacent parts with the lowest rank are merged
+	 * until no adjacent pair is a token.
+	 */
+	private int bytePairEncode(Buffers b, int length, IntConsumer consumer) {
+		byte[] piece = b.bytes;
+		int whole = this.ranks.rank(piece, 0, length);
+		if (whole != -1) {
+			b.emit(whole, consumer);
+			return 1;
+		}
+
+		b.ensurePartCapacity(length + 1);
+		int[] starts = b.starts;
+		int[] partRanks = b.partRanks;
+		int parts = length + 1;
+		int minRank = Integer.MAX_VALUE;
+		int minIndex = -1;
+		for (int i = 0; i < length - 1; i++) {
+			int rank = rankOrMax(piece, i, i + 2);
+			if (rank < minRank) {
+				minRank = rank;
+				minIndex = i;
+			}
+			starts[i] = i;
+			partRanks[i] = rank;
+		}
+		starts[length - 1] = length - 1;
+		partRanks[length - 1] = Integer.MAX_VALUE;
+		starts[length] = length;
+		partRanks[length] = Integer.MAX_VALUE;
+
+		while (minRank != Integer.MAX_VALUE) {
+			int i = minIndex;
+			if (i > 0) {
+				partRanks[i - 1] = mergedRank(piece, starts, parts, i - 1);
+			}
+			partRanks[i] = mergedRank(piece, starts, parts, i);
+			System.arraycopy(starts, i + 2, starts, i + 1, parts - i - 2);
+			System.arraycopy(partRanks, i + 2, partRanks, i + 1, parts - i - 2);
+			parts--;
+
+			minRank = Integer.MAX_VALUE;
+			for (int j = 0; j < parts - 1; j++) {
+				if (partRanks[j] < minRank) {
+					minRank = partRanks[j];
+					minIndex = j;
+				}
+			}
+		}
+
+		for (int i = 0; i < parts - 1; i++) {
+			b.emit(this.ranks.rank(piece, starts[i], starts[i + 1]), consumer);
+		}
+		return parts - 1;
+	}
+
+	/**
+	 * Rank of the part i merged with the part i + 1, before part i + 1 is removed.
+	 */
+	private int mergedRank(byte[] piece, int[] starts, int parts, int i) {
+		if (i + 3 < parts) {
+			return rankOrMax(piece, starts[i], starts[i + 3]);
+		}
+		return Integer.MAX_VALUE;
+	}
+
+	private int rankOrMax(byte[] piece, int start, int end) {
+		int rank = this.ranks.rank(piece, start, end);
+		return rank != -1 ? rank : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Per thread buffers.
+	 */
+	private static final class Buffers implements IntConsumer {
+		final Matcher matcher;
+		byte[] bytes = new byte[256];
+		int[] starts = new int[257];
+		int[] partRanks = new int[257];
+		int[] tokens = new int[256];
+		int tokenCount;
+
+		Buffers(Encoding encoding) {
+			this.matcher = encoding.pattern().matcher("");
+		}
+
+		/**
+		 * Encodes text[start, end) as UTF-8 into {@link #bytes}, unpaired surrogates
+		 * are replaced with U+FFFD.
+		 *
+		 * @return the number of bytes
+		 */
+		int utf8(CharSequence text, int start, int end) {
+			int maxLength = (end - start) * 3;
+			if (this.bytes.length < maxLength) {
+				this.bytes = new byte[Math.max(maxLength, this.bytes.length * 2)];
+			}
+			byte[] out = this.bytes;
+			int n = 0;
+			for (int i = start; i < end; i++) {
+				char c = text.charAt(i);
+				if (c < 0x80) {
+					out[n++] = (byte) c;
+				}
+				else if (c < 0x800) {
+					out[n++] = (byte) (0xc0 | c >> 6);
+					out[n++] = (byte) (0x80 | c & 0x3f);
+				}
+				else if (Character.isHighSurrogate(c) && i + 1 < end
+						&& Character.isLowSurrogate(text.charAt(i + 1))) {
+					int cp = Character.toCodePoint(c, text.charAt(++i));
+					out[n++] = (byte) (0xf0 | cp >> 18);
+					out[n++] = (byte) (0x80 | cp >> 12 & 0x3f);
+					out[n++] = (byte) (0x80 | cp >> 6 & 0x3f);
+					out[n++] = (byte) (0x80 | cp & 0x3f);
+				}
+				else {
+					if (Character.isSurrogate(c)) {
+						c = '\uFFFD';
+					}
+					out[n++] = (byte) (0xe0 | c >> 12);
+					out[n++] = (byte) (0x80 | c >> 6 & 0x3f);
+					out[n++] = (byte) (0x80 | c & 0x3f);
+				}
+			}
+			return n;
+		}
+
+		void ensurePartCapacity(int parts) {
+			if (this.starts.length < parts) {
+				int capacity = Math.max(parts, this.starts.length * 2);
+				this.starts = new int[capacity];
+				this.partRanks = new int[capacity];
+			}
+		}
+
+		void emit(int token, IntConsumer consumer) {
+			if (consumer != null) {
+				consumer.accept(token);
+			}
+		}
+
+		/**
+		 * Collects the tokens for {@link Tokenizer#encode(CharSequence)}.
+		 */
+		@Override
+		public void accept(int token) {
+			if (this.tokenCount == this.tokens.length) {
+				this.tokens = Arrays.copyOf(this.tokens, this.tokens.length * 2);
+			}
+			this.tokens[this.tokenCount++] = token;
+		}
+	}
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.transport;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Settings of the HTTP transport built on {@link java.net.http.HttpClient}.
+ * <p>
+ * An HttpClient sends all HTTP/2 requests to a host over one connection, the number
+ * of concurrent requests is limited by the MAX_CONCURRENT_STREAMS setting of the
+ * server. With {@link Builder#clients(int)} the requests are spread over several
+ * HttpClient instances, each with its own connection. Over HTTP/1.1 every concurrent
+ * request needs its own connection, {@link Builder#http1PoolSize(int)} limits the
+ * connections of each client. Requests that exceed the limits of all clients wait
+ * until a request completes.
+ * <p>
+ * The keep-alive time of idle connections is a JVM wide setting of the JDK client,
+ * see the system properties jdk.httpclient.keepalive.timeout and
+ * jdk.httpclient.keepalive.timeout.h2.
+ *
+ * @see TransportClient
+ */
+public final class Transport {
+
+	private final HttpClient.Version version;
+	private final int clients;
+	private final int maxConcurrentStreams;
+	private final int http1PoolSize;
+	private final Duration connectTimeout;
+	private final Executor executor;
+	private final int warmUpConnections;
+
+	private Transport(Builder builder) {
+		this.version = builder.version;
+		this.clients = builder.clients;
+		this.maxConcurrentStreams = builder.maxConcurrentStreams;
+		this.http1PoolSize = builder.http1PoolSize;
+		this.connectTimeout = builder.connectTimeout;
+		this.executor = builder.executor;
+		this.warmUpConnections = builder.warmUpConnections;
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static Transport create() {
+		return builder().build();
+	}
+
+	public static final class Builder {
+		private HttpClient.Version version = HttpClient.Version.HTTP_2;
+		private int clients = 1;
+		private int maxConcurrentStreams = 100;
+		private int http1PoolSize = 32;
+		private Duration connectTimeout;
+		private Executor executor;
+		private int warmUpConnections;
+
+		private Builder() {
+		}
+
+		/**
+		 * Preferred HTTP version. With HTTP_2 the client falls back to HTTP/1.1 when the
+		 * server does not support HTTP/2. Default: HTTP_2
+		 */
+		public Builder version(HttpClient.Version version) {
+			this.version = version;
+			return this;
+		}
+
+		/**
+		 * Number of HttpClient instances. Each instance has its own connection pool and
+		 * opens its own HTTP/2 connection to a host. Default: 1
+		 */
+		public Builder clients(int clients) {
+			this.clients = clients;
+			return this;
+		}
+
+		/**
+		 * Maximum number of concurrent requests per client over HTTP/2. Should not
+		 * exceed the MAX_CONCURRENT_STREAMS setting of the server. Default: 100
+		 */
+		public Builder maxConcurrentStreams(int maxConcurrentStreams) {
+			this.maxConcurrentStreams = maxConcurrentStreams;
+			return this;
+		}
+
+		/**
+		 * Maximum number of concurrent requests, and therefore connections, per client
+		 * over HTTP/1.1. Applies when HTTP_1_1 is configured and when the server does
+		 * not support HTTP/2. Default: 32
+		 */
+		public Builder http1PoolSize(int http1PoolSize) {
+			this.http1PoolSize = http1PoolSize;
+			return this;
+		}
+
+		/**
+		 * Timeout for establishing a connection, including the TLS handshake. The read
+		 * timeout of a request is still taken from the feign options.
+		 * <p>
+		 * Optional. Default: the connect timeout of
+		 * {@link ch.rasc.openai4j.Configuration#feignOptions()}
+		 */
+		public Builder connectTimeout(Duration connectTimeout) {
+			this.connectTimeout = connectTimeout;
+			return this;
+		}
+
+		/**
+		 * Executor of the HttpClient instances, runs the asynchronous callbacks and the
+		 * dependent tasks of the responses.
+		 * <p>
+		 * Optional. Default: {@link ch.rasc.openai4j.Configuration#executor()} or, when
+		 * that is not set either, a cached thread pool per client.
+		 */
+		public Builder executor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		/**
+		 * Number of connections per client that are opened to the base URL when the
+		 * configuration is created, so the first requests do not pay for the TCP and TLS
+		 * handshakes. HTTP/2 uses one connection per client, larger values only matter
+		 * for HTTP/1.1. Default: 0 (no warm-up)
+		 */
+		public Builder warmUpConnections(int warmUpConnections) {
+			this.warmUpConnections = warmUpConnections;
+			return this;
+		}
+
+		public Transport build() {
+			if (this.version == null) {
+				throw new IllegalArgumentException("version must not be null");
+			}
+			if (this.clients < 1) {
+				throw new IllegalArgumentException("clients must be positive");
+			}
+			if (this.maxConcurrentStreams < 1 || this.http1PoolSize < 1) {
+				throw new IllegalArgumentException(
+						"maxConcurrentStreams and http1PoolSize must be positive");
+			}
+			if (this.connectTimeout != null && (this.connectTimeout.isNegative()
+					|| this.connectTimeout.isZero())) {
+				throw new IllegalArgumentException("connectTimeout must be positive");
+			}
+			if (this.warmUpConnections < 0) {
+				throw new IllegalArgumentException(
+						"warmUpConnections must not be negative");
+			}
+			return new Transport(this);
+		}
+	}
+
+	public HttpClient.Version version() {
+		return this.version;
+	}
+
+	public int clients() {
+		return this.clients;
+	}
+
+	public int maxConcurrentStreams() {
+		return this.maxConcurrentStreams;
+	}
+
+	public int http1PoolSize() {
+		return this.http1PoolSize;
+	}
+
+	public Duration connectTimeout() {
+		return this.connectTimeout;
+	}
+
+	public Executor executor() {
+		return this.executor;
+	}
+
+	public int warmUpConnections() {
+		return this.warmUpConnections;
+	}
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.transport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import ch.rasc.openai4j.concurrent.Responses;
+import feign.AsyncClient;
+import feign.Client;
+import feign.Request;
+import feign.Request.Options;
+import feign.Request.ProtocolVersion;
+import feign.Response;
+import feign.http2client.Http2Client;
+
+/**
+ * {@link Client} that spreads the requests over several {@link HttpClient} instances
+ * according to a {@link Transport}. A request is sent with the client that has the
+ * fewest requests in flight. When every client has reached its limit, the request
+ * waits in a first in, first out queue.
+ * <p>
+ * A request counts as in flight until its response body is closed, so a streamed
+ * response occupies its HTTP/2 stream or HTTP/1.1 connection until it has been read.
+ */
+public class TransportClient implements Client, AsyncClient<Object> {
+
+	private final Transport transport;
+
+	private final List<Lane> lanes;
+
+	private final long connectTimeoutMillis;
+
+	private final boolean followRedirects;
+
+	private final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+
+	private int next;
+
+	/**
+	 * @param transport the settings
+	 * @param options connect timeout and redirect policy, unless the transport sets a
+	 * connect timeout
+	 * @param executor used when the transport does not set an executor, may be null
+	 */
+	public TransportClient(Transport transport, Options options, Executor executor) {
+		this.transport = transport;
+		this.connectTimeoutMillis = transport.connectTimeout() != null
+				? transport.connectTimeout().toMillis()
+				: options.connectTimeoutMillis();
+		this.followRedirects = options.isFollowRedirects();
+
+		Executor clientExecutor = transport.executor() != null ? transport.executor()
+				: executor;
+		List<Lane> lanes = new ArrayList<>(transport.clients());
+		for (int i = 0; i < transport.clients(); i++) {
+			HttpClient.Builder builder = HttpClient.newBuilder()
+					.version(transport.version())
+					.followRedirects(this.followRedirects ? HttpClient.Redirect.ALWAYS
+							: HttpClient.Redirect.NEVER)
+					.connectTimeout(Duration.ofMillis(this.connectTimeoutMillis));
+			if (clientExecutor != null) {
+				builder.executor(clientExecutor);
+			}
+			lanes.add(new Lane(builder.build(),
+					transport.version() == HttpClient.Version.HTTP_1_1));
+		}
+		this.lanes = List.copyOf(lanes);
+	}
+
+	public Transport transport() {
+		return this.transport;
+	}
+
+	/**
+	 * The HttpClient instances.
+	 */
+	public List<HttpClient> httpClients() {
+		return this.lanes.stream().map(lane -> lane.httpClient).toList();
+	}
+
+	/**
+	 * Number of requests sent and not yet completed.
+	 */
+	public synchronized int inFlight() {
+		int inFlight = 0;
+		for (Lane lane : this.lanes) {
+			inFlight += lane.inFlight;
+		}
+		return inFlight;
+	}
+
+	/**
+	 * Number of requests waiting for a free stream or connection.
+	 */
+	public synchronized int queued() {
+		return this.waiting.size();
+	}
+
+	@Override
+	public Response execute(Request request, Options options) throws IOException {
+		Lane lane;
+		synchronized (this) {
+			lane = this.waiting.isEmpty() ? acquire() : null;
+		}
+		if (lane != null) {
+			return send(lane, request, options);
+		}
+
+		CompletableFuture<Response> future = execute(request, options,
+				Optional.empty());
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException(
+					"interrupted while waiting for a connection");
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException ioe) {
+				throw ioe;
+			}
+			if (cause instanceof RuntimeException re) {
+				throw re;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	@Override
+	public CompletableFuture<Response> execute(Request request, Options options,
+			Optional<Object> requestContext) {
+		CompletableFuture<Response> result = new CompletableFuture<>();
+		Lane lane;
+		synchronized (this) {
+			lane = this.waiting.isEmpty() ? acquire() : null;
+			if (lane == null) {
+				this.waiting.add(new Waiter(request, options, requestContext, result));
+			}
+		}
+		if (lane != null) {
+			sendAsync(lane, request, options, requestContext, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Opens connections to the hosts of the URLs. The requests are sent without
+	 * credentials, the responses are discarded. The returned future completes when
+	 * all requests have completed, failures are ignored.
+	 */
+	public CompletableFuture<Void> warmUp(Collection<String> urls,
+			int connectionsPerClient) {
+		Set<URI> origins = new LinkedHashSet<>();
+		for (String url : urls) {
+			URI uri = URI.create(url);
+			origins.add(
+					URI.create(uri.getScheme() + "://" + uri.getRawAuthority() + "/"));
+		}
+		List<CompletableFuture<?>> futures = new ArrayList<>();
+		for (Lane lane : this.lanes) {
+			// HTTP/2 multiplexes all requests over one connection
+			int connections = lane.http1 ? connectionsPerClient
+					: Math.min(1, connectionsPerClient);
+			for (URI origin : origins) {
+				for (int i = 0; i < connections; i++) {
+					HttpRequest request = HttpRequest.newBuilder(origin)
+							.timeout(Duration.ofMillis(this.connectTimeoutMillis))
+							.GET()
+							.build();
+					futures.add(lane.httpClient
+							.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+							.handle((response, error) -> null));
+				}
+			}
+		}
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+	}
+
+	/**
+	 * Returns the lane with the fewest requests in flight that is below its limit and
+	 * counts the request, or null when all lanes are busy. Lanes with the same count
+	 * are used in turn.
+	 */
+	private Lane acquire() {
+		Lane best = null;
+		int size = this.lanes.size();
+		for (int i = 0; i < size; i++) {
+			Lane lane = this.lanes.get((this.next + i) % size);
+			if (lane.inFlight < lane.limit()
+					&& (best == null || lane.inFlight < best.inFlight)) {
+				best = lane;
+			}
+		}
+		if (best != null) {
+			best.inFlight++;
+			this.next = (this.next + 1) % size;
+		}
+		return best;
+	}
+
+	private void release(Lane lane) {
+		List<Waiter> ready = new ArrayList<>();
+		List<Lane> readyLanes = new ArrayList<>();
+		synchronized (this) {
+			lane.inFlight--;
+			while (!this.waiting.isEmpty()) {
+				Waiter waiter = this.waiting.peek();
+				if (waiter.result.isDone()) {
+					// cancelled while waiting
+					this.waiting.poll();
+					continue;
+				}
+				Lane free = acquire();
+				if (free == null) {
+					break;
+				}
+				ready.add(this.waiting.poll());
+				readyLanes.add(free);
+			}
+		}
+		for (int i = 0; i < ready.size(); i++) {
+			Waiter waiter = ready.get(i);
+			sendAsync(readyLanes.get(i), waiter.request, waiter.options,
+					waiter.requestContext, waiter.result);
+		}
+	}
+
+	private Response send(Lane lane, Request request, Options options)
+			throws IOException {
+		Response response;
+		try {
+			response = lane.client.execute(request, options(options));
+		}
+		catch (IOException | RuntimeException e) {
+			release(lane);
+			throw e;
+		}
+		return track(lane, response);
+	}
+
+	private void sendAsync(Lane lane, Request request, Options options,
+			Optional<Object> requestContext, CompletableFuture<Response> result) {
+		CompletableFuture<Response> future;
+		try {
+			future = lane.client.execute(request, options(options), requestContext);
+		}
+		catch (RuntimeException e) {
+			release(lane);
+			result.completeExceptionally(e);
+			return;
+		}
+		result.whenComplete((response, error) -> {
+			if (result.isCancelled()) {
+				future.cancel(true);
+			}
+		});
+		future.whenComplete((response, error) -> {
+			if (error != null) {
+				release(lane);
+				result.completeExceptionally(error);
+				return;
+			}
+			Response tracked = track(lane, response);
+			if (!result.complete(tracked)) {
+				tracked.close();
+			}
+		});
+	}
+
+	/**
+	 * Returns options with the connect timeout and redirect policy of the HttpClient
+	 * instances. {@link Http2Client} creates a new HttpClient, without the configured
+	 * version and executor, when they differ.
+	 */
+	private Options options(Options options) {
+		if (options.connectTimeoutMillis() == this.connectTimeoutMillis
+				&& options.isFollowRedirects() == this.followRedirects) {
+			return options;
+		}
+		return new Options(this.connectTimeoutMillis, TimeUnit.MILLISECONDS,
+				options.readTimeoutMillis(), TimeUnit.MILLISECONDS, this.followRedirects);
+	}
+
+	/**
+	 * Records the negotiated protocol and releases the lane when the body is closed.
+	 */
+	private Response track(Lane lane, Response response) {
+		if (response.protocolVersion() != null) {
+			lane.http1 = response.protocolVersion() != ProtocolVersion.HTTP_2;
+		}
+		return Responses.onBodyClosed(response, () -> release(lane));
+	}
+
+	private final class Lane {
+		private final HttpClient httpClient;
+		private final Http2Client client;
+		private int inFlight;
+		private volatile boolean http1;
+
+		Lane(HttpClient httpClient, boolean http1) {
+			this.httpClient = httpClient;
+			this.client = new Http2Client(httpClient);
+			this.http1 = http1;
+		}
+
+		int limit() {
+			return this.http1 ? TransportClient.this.transport.http1PoolSize()
+					: TransportClient.this.transport.maxConcurrentStreams();
+		}
+	}
+
+	private record Waiter(Request request, Options options,
+			Optional<Object> requestContext, CompletableFuture<Response> result) {
+	}
+
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.vectorsearch;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import ch.rasc.openai4j.embeddings.Embedding;
+import ch.rasc.openai4j.embeddings.Embedding.EmbeddingVector;
+import ch.rasc.openai4j.embeddings.EmbeddingCreateResponse;
+
+/**
+ * Exact (brute force) nearest neighbor search. The vectors are stored as rows of one
+ * contiguous float matrix and every search compares the query with all rows using
+ * {@link SimilarityKernels}. Large matrices are split into ranges of rows that are
+ * scanned in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * For small and medium corpora an exact search is simpler than an {@link HnswIndex}
+ * and has a recall of 1. Vectors are identified by the id returned by
+ * {@link #add(float[])}, ids are assigned sequentially starting at 0.
+ * <p>
+ * An instance is thread-safe, searches run concurrently with inserts.
+ */
+public final class FlatIndex {
+
+	private final int dimensions;
+
+	private final Similarity similarity;
+
+	private final ForkJoinPool pool;
+
+	private final int minRowsPerTask;
+
+	private final Object lock = new Object();
+
+	private volatile float[] matrix;
+
+	private volatile int size;
+
+	private FlatIndex(Builder builder) {
+		this.dimensions = builder.dimensions;
+		this.similarity = builder.similarity;
+		this.pool = builder.pool;
+		this.minRowsPerTask = builder.minRowsPerTask;
+		this.matrix = new float[Math.max(builder.initialCapacity, 1) * this.dimensions];
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+		private int dimensions;
+		private Similarity similarity = Similarity.COSINE;
+		private int initialCapacity = 1024;
+		private ForkJoinPool pool = ForkJoinPool.commonPool();
+		private int minRowsPerTask = 16384;
+
+		private Builder() {
+		}
+
+		/**
+		 * Number of dimensions of the vectors. Required.
+		 */
+		public Builder dimensions(int dimensions) {
+			this.dimensions = dimensions;
+			return this;
+		}
+
+		/**
+		 * How the similarity of two vectors is measured. Default: COSINE
+		 */
+		public Builder similarity(Similarity similarity) {
+			this.similarity = similarity;
+			return this;
+		}
+
+		/**
+		 * Number of vectors the matrix holds before it grows. Default: 1024
+		 */
+		public Builder initialCapacity(int initialCapacity) {
+			this.initialCapacity = initialCapacity;
+			return this;
+		}
+
+		/**
+		 * Pool that scans the row ranges in parallel, null scans on the calling thread.
+		 * Default: {@link ForkJoinPool#commonPool()}
+		 */
+		public Builder pool(ForkJoinPool pool) {
+			this.pool = pool;
+			return this;
+		}
+
+		/**
+		 * Minimum number of rows scanned by one task. A search over fewer rows runs on
+		 * the calling thread. Default: 16384
+		 */
+		public Builder minRowsPerTask(int minRowsPerTask) {
+			this.minRowsPerTask = minRowsPerTask;
+			return this;
+		}
+
+		public FlatIndex build() {
+			if (this.dimensions < 1) {
+				throw new IllegalArgumentException("dimensions must be positive");
+			}
+			if (this.similarity == null) {
+				throw new IllegalArgumentException("similarity must not be null");
+			}
+			if (this.initialCapacity < 0) {
+				throw new IllegalArgumentException(
+						"initialCapacity must not be negative");
+			}
+			if (this.minRowsPerTask < 1) {
+				throw new IllegalArgumentException("minRowsPerTask must be positive");
+			}
+			return new FlatIndex(this);
+		}
+	}
+
+	/**
+	 * Number of dimensions of the vectors.
+	 */
+	public int dimensions() {
+		return this.dimensions;
+	}
+
+	/**
+	 * How the similarity of two vectors is measured.
+	 */
+	public Similarity similarity() {
+		return this.similarity;
+	}
+
+	/**
+	 * Number of vectors in the index.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Adds the vector and returns its id.
+	 */
+	public int add(float[] vector) {
+		if (vector.length != this.dimensions) {
+			throw new IllegalArgumentException("vector has " + vector.length
+					+ " dimensions, the index " + this.dimensions);
+		}
+		float[] stored = this.similarity == Similarity.COSINE
+				? SimilarityKernels.normalize(vector)
+				: vector;
+		synchronized (this.lock) {
+			int id = this.size;
+			float[] current = this.matrix;
+			long required = (long) (id + 1) * this.dimensions;
+			if (required > current.length) {
+				long grown = Math.max(required, (long) current.length * 2);
+				if (grown > Integer.MAX_VALUE - 8) {
+					grown = required;
+				}
+				if (grown > Integer.MAX_VALUE - 8) {
+					throw new IllegalStateException("FlatIndex is full");
+				}
+				current = Arrays.copyOf(current, (int) grown);
+			}
+			System.arraycopy(stored, 0, current, id * this.dimensions, this.dimensions);
+			this.matrix = current;
+			this.size = id + 1;
+			return id;
+		}
+	}
+
+	/**
+	 * Adds the vector and returns its id.
+	 */
+	public int add(EmbeddingVector vector) {
+		return add(vector.floatArray());
+	}
+
+	/**
+	 * Adds the embeddings of the response.
+	 *
+	 * @return the ids of the vectors, the id of the embedding with
+	 * {@link Embedding#index()} i is at position i
+	 */
+	public int[] addAll(EmbeddingCreateResponse response) {
+		int[] ids = new int[response.data().size()];
+		for (Embedding embedding : response.data()) {
+			ids[embedding.index()] = add(embedding.embedding());
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns a copy of the stored vector. With {@link Similarity#COSINE} the vector is
+	 * normalized.
+	 */
+	public float[] vector(int id) {
+		if (id < 0 || id >= this.size) {
+			throw new IndexOutOfBoundsException(id);
+		}
+		int offset = id * this.dimensions;
+		return Arrays.copyOfRange(this.matrix, offset, offset + this.dimensions);
+	}
+
+	/**
+	 * Returns the k most similar vectors, the most similar first.
+	 */
+	public List<SearchResult> search(EmbeddingVector query, int k) {
+		return search(query.floatArray(), k);
+	}
+
+	/**
+	 * Returns the k most similar vectors, the most similar first.
+	 */
+	public List<SearchResult> search(float[] query, int k) {
+		if (query.length != this.dimensions) {
+			throw new IllegalArgumentException("query has " + query.length
+					+ " dimensions, the index " + this.dimensions);
+		}
+		if (k < 1) {
+			throw new IllegalArgumentException("k must be positive");
+		}
+		// read size before the matrix, a grown matrix contains all rows below size
+		int rows = this.size;
+		float[] data = this.matrix;
+		float[] q = this.similarity == Similarity.COSINE
+				? SimilarityKernels.normalize(query)
+				: query;
+
+		NodeQueue top;
+		if (this.pool != null && rows >= 2 * this.minRowsPerTask) {
+			top = this.pool.invoke(new ScanTask(q, data, 0, rows, k));
+		}
+		else {
+			top = scan(q, data, 0, rows, k);
+		}
+
+		int count = top.size();
+		SearchResult[] results = new SearchResult[count];
+		for (int i = count - 1; i >= 0; i--) {
+			float score = -top.topKey();
+			results[i] = new SearchResult(top.pop(), score);
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Scores the rows from start (inclusive) to end (exclusive) and returns the k best
+	 * with the negated score as key, the worst of them on top.
+	 */
+	private NodeQueue scan(float[] query, float[] data, int start, int end, int k) {
+		NodeQueue top = new NodeQueue(k + 1);
+		int dims = this.dimensions;
+		Similarity sim = this.similarity;
+		for (int row = start; row < end; row++) {
+			float score = SimilarityKernels.score(sim, query, data, row * dims, dims);
+			if (top.size() < k) {
+				top.push(row, -score);
+			}
+			else if (score > -top.topKey()) {
+				top.pop();
+				top.push(row, -score);
+			}
+		}
+		return top;
+	}
+
+	private static NodeQueue merge(NodeQueue left, NodeQueue right, int k) {
+		while (!right.isEmpty()) {
+			float key = right.topKey();
+			int id = right.pop();
+			if (left.size() < k) {
+				left.push(id, key);
+			}
+			else if (key < left.topKey()) {
+				left.pop();
+				left.push(id, key);
+			}
+		}
+		return left;
+	}
+
+	private final class ScanTask extends RecursiveTask<NodeQueue> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final float[] query;
+
+		private final float[] data;
+
+		private final int start;
+
+		private final int end;
+
+		private final int k;
+
+		ScanTask(float[] query, float[] data, int start, int end, int k) {
+			this.query = query;
+			this.data = data;
+			this.start = start;
+			this.end = end;
+			this.k = k;
+		}
+
+		@Override
+		protected NodeQueue compute() {
+			int rows = this.end - this.start;
+			if (rows < 2 * FlatIndex.this.minRowsPerTask) {
+				return scan(this.query, this.data, this.start, this.end, this.k);
+			}
+			int middle = this.start + rows / 2;
+			ScanTask left = new ScanTask(this.query, this.data, this.start, middle,
+					this.k);
+			left.fork();
+			NodeQueue right = new ScanTask(this.query, this.data, middle, this.end,
+					this.k).compute();
+			return merge(left.join(), right, this.k);
+		}
+	}
+
+}
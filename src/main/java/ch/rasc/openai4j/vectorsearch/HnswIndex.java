@@ -0,0 +1,779 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.vectorsearch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import ch.rasc.openai4j.embeddings.Embedding;
+import ch.rasc.openai4j.embeddings.Embedding.EmbeddingVector;
+import ch.rasc.openai4j.embeddings.EmbeddingCreateResponse;
+
+/**
+ * In-process approximate nearest neighbor index based on Hierarchical Navigable Small
+ * World graphs (Malkov and Yashunin, 2016). Vectors are added with
+ * {@link #add(float[])} or {@link #addAll(EmbeddingCreateResponse)} and identified by
+ * the returned int id, ids are assigned sequentially starting at 0. For small corpora
+ * the exact search of {@link FlatIndex} is an alternative.
+ * <p>
+ * The vectors are stored in pages of contiguous float arrays, the graph in int arrays
+ * (a neighbor count followed by the neighbor ids). Entries cannot be removed.
+ * <p>
+ * An instance is thread-safe. Vectors can be added from multiple threads concurrently
+ * and searches run concurrently with inserts. The index can be written to a file with
+ * {@link #save(Path)} and read with {@link #load(Path)}, both access the file through
+ * memory mapping.
+ */
+public final class HnswIndex {
+
+	private static final int FILE_MAGIC = 0x686e7377;
+
+	private static final int FILE_VERSION = 1;
+
+	private static final int HEADER_INTS = 10;
+
+	private static final int PAGE_SHIFT = 10;
+
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+	private static final int LOCK_STRIPES = 4096;
+
+	private static final int MAX_LEVEL = 16;
+
+	private final int dimensions;
+
+	private final Similarity similarity;
+
+	private final int m;
+
+	private final int maxM0;
+
+	private final int efConstruction;
+
+	private final int efSearch;
+
+	private final double levelMultiplier;
+
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	private final Object storageLock = new Object();
+
+	private final Object entryLock = new Object();
+
+	// inserts share the read lock, save takes the write lock to get a consistent copy
+	private final ReadWriteLock saveLock = new ReentrantReadWriteLock();
+
+	private final ThreadLocal<SearchContext> contexts;
+
+	private volatile float[][] vectorPages = new float[0][];
+
+	// node -> neighbor count followed by the neighbor ids on level 0
+	private volatile int[][] links0 = new int[0][];
+
+	// node -> level - 1 -> neighbor count followed by the neighbor ids, null for nodes
+	// that only exist on level 0
+	private volatile int[][][] upperLinks = new int[0][][];
+
+	private volatile int size;
+
+	// max level in the high 32 bits, entry point in the low 32 bits, -1 when empty
+	private volatile long entry = -1;
+
+	private HnswIndex(Builder builder) {
+		this.dimensions = builder.dimensions;
+		this.similarity = builder.similarity;
+		this.m = builder.m;
+		this.maxM0 = builder.m * 2;
+		this.efConstruction = builder.efConstruction;
+		this.efSearch = builder.efSearch;
+		this.levelMultiplier = 1 / Math.log(builder.m);
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			this.locks[i] = new Object();
+		}
+		this.contexts = ThreadLocal.withInitial(() -> new SearchContext(this.maxM0));
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+		private int dimensions;
+		private Similarity similarity = Similarity.COSINE;
+		private int m = 16;
+		private int efConstruction = 200;
+		private int efSearch = 64;
+
+		private Builder() {
+		}
+
+		/**
+		 * Number of dimensions of the vectors. Required.
+		 */
+		public Builder dimensions(int dimensions) {
+			this.dimensions = dimensions;
+			return this;
+		}
+
+		/**
+		 * How the similarity of two vectors is measured. Default: COSINE
+		 */
+		public Builder similarity(Similarity similarity) {
+			this.similarity = similarity;
+			return this;
+		}
+
+		/**
+		 * Maximum number of neighbors of a node on the upper levels, level 0 allows
+		 * twice as many. Higher values improve the recall of high dimensional data and
+		 * need more memory. Default: 16
+		 */
+		public Builder m(int m) {
+			this.m = m;
+			return this;
+		}
+
+		/**
+		 * Size of the candidate list while inserting. Higher values build a better graph
+		 * and slow down inserts. Default: 200
+		 */
+		public Builder efConstruction(int efConstruction) {
+			this.efConstruction = efConstruction;
+			return this;
+		}
+
+		/**
+		 * Size of the candidate list while searching, at least k is used. Higher values
+		 * improve the recall and slow down searches. Default: 64
+		 */
+		public Builder efSearch(int efSearch) {
+			this.efSearch = efSearch;
+			return this;
+		}
+
+		public HnswIndex build() {
+			if (this.dimensions < 1) {
+				throw new IllegalArgumentException("dimensions must be positive");
+			}
+			if (this.similarity == null) {
+				throw new IllegalArgumentException("similarity must not be null");
+			}
+			if (this.m < 2) {
+				throw new IllegalArgumentException("m must be at least 2");
+			}
+			if (this.efConstruction < 1 || this.efSearch < 1) {
+				throw new IllegalArgumentException(
+						"efConstruction and efSearch must be positive");
+			}
+			return new HnswIndex(this);
+		}
+	}
+
+	/**
+	 * Number of dimensions of the vectors.
+	 */
+	public int dimensions() {
+		return this.dimensions;
+	}
+
+	/**
+	 * How the similarity of two vectors is measured.
+	 */
+	public Similarity similarity() {
+		return this.similarity;
+	}
+
+	/**
+	 * Number of vectors in the index.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Adds the vector and returns its id.
+	 */
+	public int add(float[] vector) {
+		if (vector.length != this.dimensions) {
+			throw new IllegalArgumentException("vector has " + vector.length
+					+ " dimensions, the index " + this.dimensions);
+		}
+		float[] stored = this.similarity == Similarity.COSINE
+				? SimilarityKernels.normalize(vector)
+				: vector;
+		int level = randomLevel();
+		this.saveLock.readLock().lock();
+		try {
+			int id = allocate(stored, level);
+			insert(id, stored, level);
+			return id;
+		}
+		finally {
+			this.saveLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds the vector and returns its id.
+	 */
+	public int add(EmbeddingVector vector) {
+		return add(vector.floatArray());
+	}
+
+	/**
+	 * Adds the embeddings of the response.
+	 *
+	 * @return the ids of the vectors, the id of the embedding with
+	 * {@link Embedding#index()} i is at position i
+	 */
+	public int[] addAll(EmbeddingCreateResponse response) {
+		int[] ids = new int[response.data().size()];
+		for (Embedding embedding : response.data()) {
+			ids[embedding.index()] = add(embedding.embedding());
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns a copy of the stored vector. With {@link Similarity#COSINE} the vector is
+	 * normalized.
+	 */
+	public float[] vector(int id) {
+		if (id < 0 || id >= this.size) {
+			throw new IndexOutOfBoundsException(id);
+		}
+		float[] page = this.vectorPages[id >>> PAGE_SHIFT];
+		int offset = (id & PAGE_SIZE - 1) * this.dimensions;
+		return Arrays.copyOfRange(page, offset, offset + this.dimensions);
+	}
+
+	/**
+	 * Returns the approximate k most similar vectors, the most similar first.
+	 */
+	public List<SearchResult> search(float[] query, int k) {
+		return search(query, k, this.efSearch);
+	}
+
+	/**
+	 * Returns the approximate k most similar vectors, the most similar first.
+	 */
+	public List<SearchResult> search(EmbeddingVector query, int k) {
+		return search(query.floatArray(), k, this.efSearch);
+	}
+
+	/**
+	 * Returns the approximate k most similar vectors, the most similar first.
+	 *
+	 * @param ef size of the candidate list, overrides
+	 * {@link Builder#efSearch(int)}
+	 */
+	public List<SearchResult> search(float[] query, int k, int ef) {
+		if (query.length != this.dimensions) {
+			throw new IllegalArgumentException("query has " + query.length
+					+ " dimensions, the index " + this.dimensions);
+		}
+		if (k < 1) {
+			throw new IllegalArgumentException("k must be positive");
+		}
+		long currentEntry = this.entry;
+		if (currentEntry == -1) {
+			return List.of();
+		}
+		float[] q = this.similarity == Similarity.COSINE
+				? SimilarityKernels.normalize(query)
+				: query;
+		SearchContext context = context();
+		int node = entryPoint(currentEntry);
+		for (int level = maxLevel(currentEntry); level > 0; level--) {
+			node = greedy(q, node, level, context);
+		}
+		searchLevel(q, node, Math.max(ef, k), 0, context);
+
+		NodeQueue results = context.results;
+		int count = Math.min(k, results.size());
+		while (results.size() > count) {
+			results.pop();
+		}
+		SearchResult[] found = new SearchResult[count];
+		for (int i = count - 1; i >= 0; i--) {
+			float score = -results.topKey();
+			found[i] = new SearchResult(results.pop(), score);
+		}
+		return Arrays.asList(found);
+	}
+
+	/**
+	 * Writes the index to the file, an existing file is replaced. Inserts wait until
+	 * the file is written, searches continue.
+	 *
+	 * @throws UncheckedIOException if the file cannot be written
+	 */
+	public void save(Path file) {
+		this.saveLock.writeLock().lock();
+		try {
+			int count = this.size;
+			float[][] pages = this.vectorPages;
+			int[][] level0 = this.links0;
+			int[][][] upper = this.upperLinks;
+			long currentEntry = this.entry;
+
+			long ints = HEADER_INTS + (long) count * this.dimensions + count
+					+ (long) count * (1 + this.maxM0);
+			for (int i = 0; i < count; i++) {
+				if (upper[i] != null) {
+					ints += (long) upper[i].length * (1 + this.m);
+				}
+			}
+			try (MappedFile out = MappedFile.create(file, ints * 4)) {
+				out.putInt(FILE_MAGIC);
+				out.putInt(FILE_VERSION);
+				out.putInt(this.dimensions);
+				out.putInt(this.similarity.ordinal());
+				out.putInt(this.m);
+				out.putInt(this.efConstruction);
+				out.putInt(this.efSearch);
+				out.putInt(count);
+				out.putInt(entryPoint(currentEntry));
+				out.putInt(maxLevel(currentEntry));
+				for (int start = 0; start < count; start += PAGE_SIZE) {
+					int nodes = Math.min(PAGE_SIZE, count - start);
+					out.putFloats(pages[start >>> PAGE_SHIFT], 0,
+							nodes * this.dimensions);
+				}
+				for (int i = 0; i < count; i++) {
+					out.putInt(upper[i] == null ? 0 : upper[i].length);
+				}
+				for (int i = 0; i < count; i++) {
+					out.putInts(level0[i], 0, level0[i].length);
+				}
+				for (int i = 0; i < count; i++) {
+					if (upper[i] != null) {
+						for (int[] links : upper[i]) {
+							out.putInts(links, 0, links.length);
+						}
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		finally {
+			this.saveLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Reads an index that was written with {@link #save(Path)}. The index is copied
+	 * into memory, more vectors can be added.
+	 *
+	 * @throws UncheckedIOException if the file cannot be read or is not an index file
+	 */
+	public static HnswIndex load(Path file) {
+		try (MappedFile in = MappedFile.open(file)) {
+			if (in.size() < HEADER_INTS * 4 || in.getInt() != FILE_MAGIC) {
+				throw new IOException(file + " is not an HNSW index file");
+			}
+			int version = in.getInt();
+			if (version != FILE_VERSION) {
+				throw new IOException("unsupported HNSW index file version " + version);
+			}
+			HnswIndex index = builder().dimensions(in.getInt())
+					.similarity(Similarity.values()[in.getInt()]).m(in.getInt())
+					.efConstruction(in.getInt()).efSearch(in.getInt()).build();
+			int count = in.getInt();
+			int entryPoint = in.getInt();
+			int maxLevel = in.getInt();
+
+			int pageCount = (count + PAGE_SIZE - 1) >>> PAGE_SHIFT;
+			float[][] pages = new float[pageCount][];
+			for (int p = 0; p < pageCount; p++) {
+				pages[p] = new float[PAGE_SIZE * index.dimensions];
+				int nodes = Math.min(PAGE_SIZE, count - (p << PAGE_SHIFT));
+				in.getFloats(pages[p], 0, nodes * index.dimensions);
+			}
+			int[] levels = new int[count];
+			in.getInts(levels, 0, count);
+			int[][] level0 = new int[count][];
+			for (int i = 0; i < count; i++) {
+				level0[i] = new int[1 + index.maxM0];
+				in.getInts(level0[i], 0, level0[i].length);
+			}
+			int[][][] upper = new int[count][][];
+			for (int i = 0; i < count; i++) {
+				if (levels[i] > 0) {
+					upper[i] = new int[levels[i]][1 + index.m];
+					for (int[] links : upper[i]) {
+						in.getInts(links, 0, links.length);
+					}
+				}
+			}
+			index.vectorPages = pages;
+			index.links0 = level0;
+			index.upperLinks = upper;
+			index.size = count;
+			index.entry = count == 0 ? -1 : pack(maxLevel, entryPoint);
+			return index;
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private int randomLevel() {
+		double r = ThreadLocalRandom.current().nextDouble();
+		int level = (int) (-Math.log(1 - r) * this.levelMultiplier);
+		return Math.min(level, MAX_LEVEL);
+	}
+
+	private int allocate(float[] vector, int level) {
+		synchronized (this.storageLock) {
+			int id = this.size;
+			int page = id >>> PAGE_SHIFT;
+			float[][] pages = this.vectorPages;
+			if (page == pages.length) {
+				pages = Arrays.copyOf(pages, page + 1);
+				pages[page] = new float[PAGE_SIZE * this.dimensions];
+				this.vectorPages = pages;
+			}
+			System.arraycopy(vector, 0, pages[page],
+					(id & PAGE_SIZE - 1) * this.dimensions, this.dimensions);
+
+			int[][] level0 = this.links0;
+			int[][][] upper = this.upperLinks;
+			if (id == level0.length) {
+				int capacity = Math.max(PAGE_SIZE, id * 2);
+				level0 = Arrays.copyOf(level0, capacity);
+				upper = Arrays.copyOf(upper, capacity);
+			}
+			level0[id] = new int[1 + this.maxM0];
+			if (level > 0) {
+				upper[id] = new int[level][1 + this.m];
+			}
+			this.links0 = level0;
+			this.upperLinks = upper;
+			this.size = id + 1;
+			return id;
+		}
+	}
+
+	private void insert(int id, float[] vector, int level) {
+		long currentEntry;
+		synchronized (this.entryLock) {
+			currentEntry = this.entry;
+			if (currentEntry == -1) {
+				this.entry = pack(level, id);
+				return;
+			}
+		}
+
+		SearchContext context = context();
+		int node = entryPoint(currentEntry);
+		int maxLevel = maxLevel(currentEntry);
+		for (int l = maxLevel; l > level; l--) {
+			node = greedy(vector, node, l, context);
+		}
+		for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+			searchLevel(vector, node, this.efConstruction, l, context);
+			int[] candidates = sortedResults(context);
+			node = candidates[0];
+			int[] neighbors = selectNeighbors(vector, candidates, candidates.length,
+					this.m, context);
+			int[] own = links(id, l);
+			synchronized (lock(id)) {
+				own[0] = neighbors.length;
+				System.arraycopy(neighbors, 0, own, 1, neighbors.length);
+			}
+			for (int neighbor : neighbors) {
+				connect(neighbor, id, l, context);
+			}
+		}
+
+		if (level > maxLevel) {
+			synchronized (this.entryLock) {
+				if (level > maxLevel(this.entry)) {
+					this.entry = pack(level, id);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the new node to the neighbor list of the node. A full list is pruned with
+	 * the neighbor selection heuristic.
+	 */
+	private void connect(int node, int newNode, int level, SearchContext context) {
+		int max = level == 0 ? this.maxM0 : this.m;
+		int[] links = links(node, level);
+		synchronized (lock(node)) {
+			int count = links[0];
+			if (count < max) {
+				links[1 + count] = newNode;
+				links[0] = count + 1;
+				return;
+			}
+			float[] base = vectorOf(node, context.vector);
+			int[] candidates = new int[count + 1];
+			float[] scores = new float[count + 1];
+			System.arraycopy(links, 1, candidates, 0, count);
+			candidates[count] = newNode;
+			for (int i = 0; i <= count; i++) {
+				scores[i] = score(base, candidates[i]);
+			}
+			sortByScore(candidates, scores);
+			int[] selected = selectNeighbors(base, candidates, candidates.length, max,
+					context);
+			links[0] = selected.length;
+			System.arraycopy(selected, 0, links, 1, selected.length);
+		}
+	}
+
+	/**
+	 * Selects up to max neighbors from the candidates, which are sorted by descending
+	 * similarity to the base vector. A candidate is skipped when it is more similar to
+	 * an already selected neighbor than to the base vector, this keeps links to
+	 * different regions of the graph.
+	 */
+	private int[] selectNeighbors(float[] base, int[] candidates, int count, int max,
+			SearchContext context) {
+		if (count <= max) {
+			return Arrays.copyOf(candidates, count);
+		}
+		int[] selected = new int[max];
+		int selectedCount = 0;
+		float[] candidateVector = context.vector2;
+		for (int i = 0; i < count && selectedCount < max; i++) {
+			int candidate = candidates[i];
+			float candidateScore = score(base, candidate);
+			vectorOf(candidate, candidateVector);
+			boolean keep = true;
+			for (int j = 0; j < selectedCount; j++) {
+				if (score(candidateVector, selected[j]) > candidateScore) {
+					keep = false;
+					break;
+				}
+			}
+			if (keep) {
+				selected[selectedCount++] = candidate;
+			}
+		}
+		return selectedCount == max ? selected : Arrays.copyOf(selected, selectedCount);
+	}
+
+	/**
+	 * Moves from the node to the most similar neighbor on the level until no neighbor
+	 * is more similar.
+	 */
+	private int greedy(float[] query, int node, int level, SearchContext context) {
+		float best = score(query, node);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			int count = readLinks(node, level, context.neighbors);
+			for (int i = 0; i < count; i++) {
+				int candidate = context.neighbors[i];
+				float s = score(query, candidate);
+				if (s > best) {
+					best = s;
+					node = candidate;
+					changed = true;
+				}
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * Beam search on one level, leaves the ef most similar nodes in
+	 * {@link SearchContext#results} with the negated score as key.
+	 */
+	private void searchLevel(float[] query, int entryNode, int ef, int level,
+			SearchContext context) {
+		context.startSearch(this.size);
+		NodeQueue candidates = context.candidates;
+		NodeQueue results = context.results;
+		candidates.clear();
+		results.clear();
+
+		float entryScore = score(query, entryNode);
+		context.visit(entryNode);
+		candidates.push(entryNode, entryScore);
+		results.push(entryNode, -entryScore);
+
+		int[] neighbors = context.neighbors;
+		while (!candidates.isEmpty()) {
+			float candidateScore = candidates.topKey();
+			if (candidateScore < -results.topKey() && results.size() >= ef) {
+				break;
+			}
+			int node = candidates.pop();
+			int count = readLinks(node, level, neighbors);
+			for (int i = 0; i < count; i++) {
+				int neighbor = neighbors[i];
+				if (!context.visit(neighbor)) {
+					continue;
+				}
+				float s = score(query, neighbor);
+				if (results.size() < ef || s > -results.topKey()) {
+					candidates.push(neighbor, s);
+					results.push(neighbor, -s);
+					if (results.size() > ef) {
+						results.pop();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Empties the results of the last search into an array of node ids, most similar
+	 * first.
+	 */
+	private static int[] sortedResults(SearchContext context) {
+		NodeQueue results = context.results;
+		int[] nodes = new int[results.size()];
+		for (int i = nodes.length - 1; i >= 0; i--) {
+			nodes[i] = results.pop();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Copies the neighbor ids of the node into the buffer and returns their number.
+	 */
+	private int readLinks(int node, int level, int[] buffer) {
+		int[] links = links(node, level);
+		synchronized (lock(node)) {
+			int count = links[0];
+			System.arraycopy(links, 1, buffer, 0, count);
+			return count;
+		}
+	}
+
+	private int[] links(int node, int level) {
+		return level == 0 ? this.links0[node] : this.upperLinks[node][level - 1];
+	}
+
+	private float score(float[] query, int node) {
+		return SimilarityKernels.score(this.similarity, query,
+				this.vectorPages[node >>> PAGE_SHIFT],
+				(node & PAGE_SIZE - 1) * this.dimensions, this.dimensions);
+	}
+
+	private float[] vectorOf(int node, float[] buffer) {
+		System.arraycopy(this.vectorPages[node >>> PAGE_SHIFT],
+				(node & PAGE_SIZE - 1) * this.dimensions, buffer, 0, this.dimensions);
+		return buffer;
+	}
+
+	private Object lock(int node) {
+		return this.locks[node & LOCK_STRIPES - 1];
+	}
+
+	private SearchContext context() {
+		SearchContext context = this.contexts.get();
+		context.ensureDimensions(this.dimensions);
+		return context;
+	}
+
+	/**
+	 * Insertion sort by descending score, the lists are at most 2 * m + 1 long.
+	 */
+	private static void sortByScore(int[] nodes, float[] scores) {
+		for (int i = 1; i < nodes.length; i++) {
+			int node = nodes[i];
+			float score = scores[i];
+			int j = i - 1;
+			while (j >= 0 && scores[j] < score) {
+				nodes[j + 1] = nodes[j];
+				scores[j + 1] = scores[j];
+				j--;
+			}
+			nodes[j + 1] = node;
+			scores[j + 1] = score;
+		}
+	}
+
+	private static long pack(int level, int node) {
+		return (long) level << 32 | node & 0xffffffffL;
+	}
+
+	private static int entryPoint(long entry) {
+		return (int) entry;
+	}
+
+	private static int maxLevel(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	/**
+	 * Per thread scratch space of the searches.
+	 */
+	private static final class SearchContext {
+		final NodeQueue candidates = new NodeQueue(256);
+		final NodeQueue results = new NodeQueue(256);
+		final int[] neighbors;
+		float[] vector = new float[0];
+		float[] vector2 = new float[0];
+		private int[] visited = new int[0];
+		private int generation;
+
+		SearchContext(int maxNeighbors) {
+			this.neighbors = new int[maxNeighbors];
+		}
+
+		void ensureDimensions(int dimensions) {
+			if (this.vector.length != dimensions) {
+				this.vector = new float[dimensions];
+				this.vector2 = new float[dimensions];
+			}
+		}
+
+		void startSearch(int nodes) {
+			if (this.visited.length < nodes) {
+				// room for the nodes that are added while the search runs
+				this.visited = new int[Math.max(nodes * 2, 1024)];
+				this.generation = 0;
+			}
+			if (++this.generation == Integer.MAX_VALUE) {
+				Arrays.fill(this.visited, 0);
+				this.generation = 1;
+			}
+		}
+
+		/**
+		 * Marks the node as visited, returns false if it was already visited.
+		 */
+		boolean visit(int node) {
+			if (node >= this.visited.length) {
+				this.visited = Arrays.copyOf(this.visited, node * 2);
+			}
+			if (this.visited[node] == this.generation) {
+				return false;
+			}
+			this.visited[node] = this.generation;
+			return true;
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.vectorsearch;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential little-endian access to a file through memory mapped windows. A single
+ * mapping is limited to 2 GiB, the file is mapped in windows of 64 MiB that are
+ * replaced while the position advances, so files of any size can be written and read.
+ */
+final class MappedFile implements Closeable {
+
+	private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+	private final FileChannel channel;
+
+	private final FileChannel.MapMode mode;
+
+	private final long size;
+
+	private long windowStart;
+
+	private MappedByteBuffer window;
+
+	private MappedFile(FileChannel channel, FileChannel.MapMode mode, long size) {
+		this.channel = channel;
+		this.mode = mode;
+		this.size = size;
+	}
+
+	/**
+	 * Creates or truncates the file and maps it for writing.
+	 */
+	static MappedFile create(Path file, long size) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		return new MappedFile(channel, FileChannel.MapMode.READ_WRITE, size);
+	}
+
+	/**
+	 * Maps an existing file for reading.
+	 */
+	static MappedFile open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		return new MappedFile(channel, FileChannel.MapMode.READ_ONLY, channel.size());
+	}
+
+	long size() {
+		return this.size;
+	}
+
+	void putInt(int value) throws IOException {
+		window(4).putInt(value);
+	}
+
+	int getInt() throws IOException {
+		return window(4).getInt();
+	}
+
+	void putFloats(float[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			MappedByteBuffer buffer = window(4);
+			int count = Math.min(length, buffer.remaining() / 4);
+			buffer.asFloatBuffer().put(values, offset, count);
+			buffer.position(buffer.position() + count * 4);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	void getFloats(float[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			MappedByteBuffer buffer = window(4);
+			int count = Math.min(length, buffer.remaining() / 4);
+			buffer.asFloatBuffer().get(values, offset, count);
+			buffer.position(buffer.position() + count * 4);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	void putInts(int[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			MappedByteBuffer buffer = window(4);
+			int count = Math.min(length, buffer.remaining() / 4);
+			buffer.asIntBuffer().put(values, offset, count);
+			buffer.position(buffer.position() + count * 4);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	void getInts(int[] values, int offset, int length) throws IOException {
+		while (length > 0) {
+			MappedByteBuffer buffer = window(4);
+			int count = Math.min(length, buffer.remaining() / 4);
+			buffer.asIntBuffer().get(values, offset, count);
+			buffer.position(buffer.position() + count * 4);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Returns the current window with at least the requested number of bytes
+	 * remaining. All values are 4 bytes wide and the windows are a multiple of 4 bytes,
+	 * a value never spans two windows.
+	 */
+	private MappedByteBuffer window(int bytes) throws IOException {
+		MappedByteBuffer buffer = this.window;
+		if (buffer != null && buffer.remaining() >= bytes) {
+			return buffer;
+		}
+		long start = buffer == null ? 0 : this.windowStart + buffer.position();
+		long length = Math.min(WINDOW_SIZE, this.size - start);
+		if (length < bytes) {
+			throw new EOFException("unexpected end of the file at " + start);
+		}
+		if (buffer != null && this.mode == FileChannel.MapMode.READ_WRITE) {
+			buffer.force();
+		}
+		buffer = this.channel.map(this.mode, start, length);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		this.windowStart = start;
+		this.window = buffer;
+		return buffer;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (this.window != null && this.mode == FileChannel.MapMode.READ_WRITE) {
+				this.window.force();
+			}
+		}
+		finally {
+			this.channel.close();
+		}
+	}
+
+}
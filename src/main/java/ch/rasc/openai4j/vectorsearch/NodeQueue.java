@@ -0,0 +1,105 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.vectorsearch;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of node ids ordered by a float key, the node with the highest key is at
+ * the top. Push the negated score to get the node with the lowest score at the top.
+ */
+final class NodeQueue {
+
+	private int[] ids;
+
+	private float[] keys;
+
+	private int size;
+
+	NodeQueue(int capacity) {
+		this.ids = new int[Math.max(capacity, 16)];
+		this.keys = new float[this.ids.length];
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	void clear() {
+		this.size = 0;
+	}
+
+	int topId() {
+		return this.ids[0];
+	}
+
+	float topKey() {
+		return this.keys[0];
+	}
+
+	void push(int id, float key) {
+		if (this.size == this.ids.length) {
+			this.ids = Arrays.copyOf(this.ids, this.size * 2);
+			this.keys = Arrays.copyOf(this.keys, this.size * 2);
+		}
+		int i = this.size++;
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (this.keys[parent] >= key) {
+				break;
+			}
+			this.ids[i] = this.ids[parent];
+			this.keys[i] = this.keys[parent];
+			i = parent;
+		}
+		this.ids[i] = id;
+		this.keys[i] = key;
+	}
+
+	/**
+	 * Removes the top node and returns its id.
+	 */
+	int pop() {
+		int top = this.ids[0];
+		int last = --this.size;
+		if (last > 0) {
+			int id = this.ids[last];
+			float key = this.keys[last];
+			int i = 0;
+			int half = last >>> 1;
+			while (i < half) {
+				int child = 2 * i + 1;
+				if (child + 1 < last && this.keys[child + 1] > this.keys[child]) {
+					child++;
+				}
+				if (key >= this.keys[child]) {
+					break;
+				}
+				this.ids[i] = this.ids[child];
+				this.keys[i] = this.keys[child];
+				i = child;
+			}
+			this.ids[i] = id;
+			this.keys[i] = key;
+		}
+		return top;
+	}
+
+}
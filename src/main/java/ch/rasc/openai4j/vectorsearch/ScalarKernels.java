@@ -0,0 +1,61 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.vectorsearch;
+
+/**
+ * Scalar kernels. Four independent accumulators let the CPU overlap the additions.
+ */
+final class ScalarKernels implements FloatKernels {
+
+	@Override
+	public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+		float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (int bound = length & ~3; i < bound; i += 4) {
+			s0 += a[aOffset + i] * b[bOffset + i];
+			s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+			s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+			s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+		}
+		for (; i < length; i++) {
+			s0 += a[aOffset + i] * b[bOffset + i];
+		}
+		return s0 + s1 + s2 + s3;
+	}
+
+	@Override
+	public float squaredDistance(float[] a, int aOffset, float[] b, int bOffset,
+			int length) {
+		float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (int bound = length & ~3; i < bound; i += 4) {
+			float d0 = a[aOffset + i] - b[bOffset + i];
+			float d1 = a[aOffset + i + 1] - b[bOffset + i + 1];
+			float d2 = a[aOffset + i + 2] - b[bOffset + i + 2];
+			float d3 = a[aOffset + i + 3] - b[bOffset + i + 3];
+			s0 += d0 * d0;
+			s1 += d1 * d1;
+			s2 += d2 * d2;
+			s3 += d3 * d3;
+		}
+		for (; i < length; i++) {
+			float d = a[aOffset + i] - b[bOffset + i];
+			s0 += d * d;
+		}
+		return s0 + s1 + s2 + s3;
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.vectorsearch;
+
+/**
+ * A vector found by a search.
+ */
+public record SearchResult(int id, float score) {
+
+	/**
+	 * The id that was returned when the vector was added.
+	 */
+	@Override
+	public int id() {
+		return this.id;
+	}
+
+	/**
+	 * Similarity of the vector to the query, higher is more similar.
+	 */
+	@Override
+	public float score() {
+		return this.score;
+	}
+
+}
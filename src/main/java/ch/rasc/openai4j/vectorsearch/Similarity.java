@@ -0,0 +1,41 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.vectorsearch;
+
+/**
+ * How the similarity of two vectors is measured. A higher score means more similar.
+ */
+public enum Similarity {
+
+	/**
+	 * Cosine similarity. The vectors are normalized to unit length when they are added
+	 * and queries are normalized before the search, the score is then the dot product.
+	 */
+	COSINE,
+
+	/**
+	 * Dot product of the vectors as they are. OpenAI embeddings are normalized to unit
+	 * length, for them the dot product equals the cosine similarity.
+	 */
+	DOT_PRODUCT,
+
+	/**
+	 * Euclidean (L2) distance. The score is the negated squared distance, so that a
+	 * higher score still means more similar.
+	 */
+	EUCLIDEAN
+
+}
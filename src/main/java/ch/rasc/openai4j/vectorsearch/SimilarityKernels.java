@@ -0,0 +1,117 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.vectorsearch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Similarity kernels over float vectors stored in arrays, for example rows of a
+ * contiguous row-major matrix. When the {@code jdk.incubator.vector} module is
+ * available (start the JVM with {@code --add-modules jdk.incubator.vector}) the kernels
+ * use the Vector API and run on the SIMD units of the CPU. Otherwise scalar loops are
+ * used, which the JIT compiler does not vectorize for floating point reductions.
+ * <p>
+ * Set the system property {@code openai4j.vectorsearch.simd} to false to use the
+ * scalar kernels even when the module is available.
+ */
+public final class SimilarityKernels {
+
+	private static final Logger log = LoggerFactory.getLogger(SimilarityKernels.class);
+
+	private static final String VECTOR_API_KERNELS =
+			"ch.rasc.openai4j.vectorsearch.VectorApiKernels";
+
+	static final FloatKernels KERNELS = load();
+
+	private SimilarityKernels() {
+		// utility class
+	}
+
+	private static FloatKernels load() {
+		if (!Boolean.parseBoolean(
+				System.getProperty("openai4j.vectorsearch.simd", "true"))) {
+			return new ScalarKernels();
+		}
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+			log.debug("jdk.incubator.vector is not available, using scalar kernels");
+			return new ScalarKernels();
+		}
+		try {
+			FloatKernels kernels = (FloatKernels) Class.forName(VECTOR_API_KERNELS)
+					.getDeclaredConstructor().newInstance();
+			log.debug("Using Vector API kernels");
+			return kernels;
+		}
+		catch (ReflectiveOperationException | LinkageError e) {
+			log.warn("Loading the Vector API kernels failed, using scalar kernels", e);
+			return new ScalarKernels();
+		}
+	}
+
+	/**
+	 * Returns true if the kernels use the Vector API.
+	 */
+	public static boolean isVectorApiEnabled() {
+		return !(KERNELS instanceof ScalarKernels);
+	}
+
+	/**
+	 * Dot product of the {@code length} floats of {@code a} starting at
+	 * {@code aOffset} and of {@code b} starting at {@code bOffset}.
+	 */
+	public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+		return KERNELS.dot(a, aOffset, b, bOffset, length);
+	}
+
+	/**
+	 * Squared Euclidean distance of the {@code length} floats of {@code a} starting at
+	 * {@code aOffset} and of {@code b} starting at {@code bOffset}.
+	 */
+	public static float squaredDistance(float[] a, int aOffset, float[] b, int bOffset,
+			int length) {
+		return KERNELS.squaredDistance(a, aOffset, b, bOffset, length);
+	}
+
+	/**
+	 * Similarity score, higher is more similar. For {@link Similarity#COSINE} both
+	 * vectors must already be normalized.
+	 */
+	static float score(Similarity similarity, float[] a, float[] b, int bOffset,
+			int length) {
+		if (similarity == Similarity.EUCLIDEAN) {
+			return -KERNELS.squaredDistance(a, 0, b, bOffset, length);
+		}
+		return KERNELS.dot(a, 0, b, bOffset, length);
+	}
+
+	/**
+	 * Returns a copy of the vector scaled to unit length. A zero vector is returned
+	 * unchanged.
+	 */
+	static float[] normalize(float[] vector) {
+		float norm = (float) Math.sqrt(KERNELS.dot(vector, 0, vector, 0, vector.length));
+		float[] result = vector.clone();
+		if (norm > 0) {
+			float scale = 1 / norm;
+			for (int i = 0; i < result.length; i++) {
+				result[i] *= scale;
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.stub;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic fake content. The same seed always produces the same text and vectors,
+ * independent of the order in which concurrent requests arrive.
+ */
+final class FakeData {
+
+	private static final String[] WORDS = { "the", "model", "returns", "a", "short",
+			"answer", "about", "data", "and", "tokens", "with", "some", "latency", "for",
+			"each", "request", "in", "this", "local", "test", "server", "that",
+			"simulates", "responses", "from", "an", "API", "to", "measure", "throughput",
+			"under", "load", "while", "errors", "are", "injected", "at", "random", "so",
+			"clients", "can", "retry", "or", "fail", "over", "without", "network",
+			"access" };
+
+	private FakeData() {
+		// utility class
+	}
+
+	/**
+	 * 64-bit FNV-1a hash of the data, mixed with the seed.
+	 */
+	static long hash(long seed, byte[] data) {
+		long hash = 0xcbf29ce484222325L ^ seed;
+		for (byte b : data) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	static long hash(long seed, String text) {
+		return hash(seed, text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Rough token estimate used by the API for rate limiting: four characters per token.
+	 */
+	static int countTokens(String text) {
+		return Math.max(1, (text.length() + 3) / 4);
+	}
+
+	/**
+	 * Returns count tokens of a text, every token after the first one starts with a
+	 * space like the tokens of the real tokenizers. The last token ends with a period.
+	 */
+	static List<String> tokens(long seed, int count) {
+		Random random = new Random(seed);
+		List<String> tokens = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String word = WORDS[random.nextInt(WORDS.length)];
+			tokens.add(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1)
+					: " " + word);
+		}
+		if (count > 0) {
+			tokens.set(count - 1, tokens.get(count - 1) + ".");
+		}
+		return tokens;
+	}
+
+	/**
+	 * Returns a normalized vector, like the embeddings of the OpenAI models.
+	 */
+	static float[] embedding(long seed, int dimensions) {
+		Random random = new Random(seed);
+		float[] vector = new float[dimensions];
+		double norm = 0;
+		for (int i = 0; i < dimensions; i++) {
+			vector[i] = (float) random.nextGaussian();
+			norm += vector[i] * vector[i];
+		}
+		float scale = norm == 0 ? 0 : (float) (1 / Math.sqrt(norm));
+		for (int i = 0; i < dimensions; i++) {
+			vector[i] *= scale;
+		}
+		return vector;
+	}
+
+	/**
+	 * Little-endian float32 values in base64, the encoding_format=base64 representation.
+	 */
+	static String base64(float[] vector) {
+		ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES)
+				.order(ByteOrder.LITTLE_ENDIAN);
+		buffer.asFloatBuffer().put(vector);
+		return Base64.getEncoder().encodeToString(buffer.array());
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.stub;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Distribution of the simulated server latency. Implementations must be thread safe,
+ * the random generator is shared by all requests.
+ */
+@FunctionalInterface
+public interface Latency {
+
+	/**
+	 * Returns the next latency sample, never negative.
+	 */
+	Duration sample(Random random);
+
+	/**
+	 * No latency.
+	 */
+	static Latency none() {
+		return random -> Duration.ZERO;
+	}
+
+	/**
+	 * Always the same latency.
+	 */
+	static Latency fixed(Duration latency) {
+		Objects.requireNonNull(latency, "latency must not be null");
+		return random -> latency;
+	}
+
+	/**
+	 * Latency uniformly distributed between min and max.
+	 */
+	static Latency uniform(Duration min, Duration max) {
+		long minNanos = min.toNanos();
+		long range = max.toNanos() - minNanos;
+		if (minNanos < 0 || range < 0) {
+			throw new IllegalArgumentException("0 <= min <= max required");
+		}
+		return random -> Duration
+				.ofNanos(minNanos + (long) (random.nextDouble() * range));
+	}
+
+	/**
+	 * Normally distributed latency. Negative samples are cut off at zero.
+	 */
+	static Latency normal(Duration mean, Duration standardDeviation) {
+		long meanNanos = mean.toNanos();
+		long deviationNanos = standardDeviation.toNanos();
+		return random -> Duration.ofNanos(Math.max(0,
+				meanNanos + (long) (random.nextGaussian() * deviationNanos)));
+	}
+
+	/**
+	 * Log-normally distributed latency, the typical shape of API response times with a
+	 * long tail. The 99th percentile is about median * e^(2.33 * sigma), a sigma of 0.5
+	 * results in a p99 of roughly three times the median.
+	 *
+	 * @param median median latency
+	 * @param sigma standard deviation of the underlying normal distribution
+	 */
+	static Latency logNormal(Duration median, double sigma) {
+		if (sigma < 0) {
+			throw new IllegalArgumentException("sigma must not be negative");
+		}
+		long medianNanos = median.toNanos();
+		return random -> Duration.ofNanos(
+				(long) (medianNanos * Math.exp(sigma * random.nextGaussian())));
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.stub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal multipart/form-data parser for the file and upload part requests.
+ */
+final class Multipart {
+
+	private static final byte[] HEADER_END = "\r\n\r\n"
+			.getBytes(StandardCharsets.ISO_8859_1);
+
+	/**
+	 * A form field. filename is null for fields that are not files.
+	 */
+	record Part(String filename, byte[] data) {
+
+		String text() {
+			return new String(this.data, StandardCharsets.UTF_8);
+		}
+	}
+
+	private Multipart() {
+		// utility class
+	}
+
+	/**
+	 * Returns the parts by name.
+	 *
+	 * @throws IllegalArgumentException if the content type is not multipart or has no
+	 * boundary
+	 */
+	static Map<String, Part> parse(String contentType, byte[] body) {
+		String boundary = contentType != null ? parameter(contentType, "boundary")
+				: null;
+		if (boundary == null) {
+			throw new IllegalArgumentException(
+					"expected multipart/form-data with a boundary");
+		}
+		byte[] delimiter = ("--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+		Map<String, Part> parts = new LinkedHashMap<>();
+		int pos = indexOf(body, delimiter, 0);
+		while (pos != -1) {
+			int start = pos + delimiter.length;
+			if (start + 1 < body.length && body[start] == '-' && body[start + 1] == '-') {
+				break;
+			}
+			// CRLF after the delimiter
+			start += 2;
+			int next = indexOf(body, delimiter, start);
+			int headerEnd = indexOf(body, HEADER_END, start);
+			if (next == -1 || headerEnd == -1 || headerEnd > next) {
+				break;
+			}
+			String headers = new String(body, start, headerEnd - start,
+					StandardCharsets.UTF_8);
+			String name = null;
+			String filename = null;
+			for (String header : headers.split("\r\n")) {
+				if (header.toLowerCase(Locale.ROOT).startsWith("content-disposition:")) {
+					name = parameter(header, "name");
+					filename = parameter(header, "filename");
+				}
+			}
+			int dataStart = headerEnd + HEADER_END.length;
+			// the data is followed by CRLF and the next delimiter
+			int dataEnd = Math.max(dataStart, next - 2);
+			if (name != null) {
+				parts.put(name,
+						new Part(filename, Arrays.copyOfRange(body, dataStart, dataEnd)));
+			}
+			pos = next;
+		}
+		return parts;
+	}
+
+	private static String parameter(String header, String name) {
+		for (String element : header.split(";")) {
+			String trimmed = element.trim();
+			if (trimmed.startsWith(name + "=")) {
+				String value = trimmed.substring(name.length() + 1);
+				if (value.length() >= 2 && value.startsWith("\"")
+						&& value.endsWith("\"")) {
+					value = value.substring(1, value.length() - 1);
+				}
+				return value;
+			}
+		}
+		return null;
+	}
+
+	private static int indexOf(byte[] data, byte[] pattern, int from) {
+		outer: for (int i = from; i <= data.length - pattern.length; i++) {
+			for (int j = 0; j < pattern.length; j++) {
+				if (data[i + j] != pattern[j]) {
+					continue outer;
+				}
+			}
+			return i;
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.stub;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed one minute window that counts requests or tokens, like the per minute limits
+ * of the API.
+ */
+final class RateLimitWindow {
+
+	private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	private final long limit;
+
+	private long windowStart;
+
+	private long used;
+
+	/**
+	 * @param limit maximum per minute, 0 disables the limit
+	 */
+	RateLimitWindow(long limit, long now) {
+		this.limit = limit;
+		this.windowStart = now;
+	}
+
+	boolean enabled() {
+		return this.limit > 0;
+	}
+
+	long limit() {
+		return this.limit;
+	}
+
+	/**
+	 * Records the amount if it fits into the current window.
+	 *
+	 * @return false if the limit is exceeded
+	 */
+	synchronized boolean tryAcquire(long amount, long now) {
+		roll(now);
+		if (this.limit > 0 && this.used + amount > this.limit) {
+			return false;
+		}
+		this.used += amount;
+		return true;
+	}
+
+	synchronized long remaining(long now) {
+		roll(now);
+		return Math.max(0, this.limit - this.used);
+	}
+
+	/**
+	 * Nanoseconds until the window resets.
+	 */
+	synchronized long resetNanos(long now) {
+		roll(now);
+		return this.windowStart + WINDOW_NANOS - now;
+	}
+
+	private void roll(long now) {
+		if (now - this.windowStart >= WINDOW_NANOS) {
+			long windows = (now - this.windowStart) / WINDOW_NANOS;
+			this.windowStart += windows * WINDOW_NANOS;
+			this.used = 0;
+		}
+	}
+
+}
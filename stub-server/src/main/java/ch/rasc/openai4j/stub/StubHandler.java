@@ -0,0 +1,1329 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.stub;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Routes the requests of a {@link StubServer}, injects latency and failures and keeps
+ * the created objects in memory. The paths are matched with and without the /v1
+ * prefix.
+ */
+final class StubHandler implements HttpHandler {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+	private static final String DEFAULT_CHAT_MODEL = "gpt-4o-mini";
+
+	private static final String DEFAULT_EMBEDDING_MODEL = "text-embedding-3-small";
+
+	private final StubServer config;
+	private final Random random;
+	private final RateLimitWindow requestWindow;
+	private final RateLimitWindow tokenWindow;
+	private final List<Route> routes = new ArrayList<>();
+	private final AtomicLong ids = new AtomicLong();
+
+	// ids are zero padded sequence numbers, the sorted maps keep the creation order
+	private final Map<String, StoredFile> files = new ConcurrentSkipListMap<>();
+	private final Map<String, ObjectNode> uploads = new ConcurrentSkipListMap<>();
+	private final Map<String, byte[]> uploadParts = new ConcurrentHashMap<>();
+	private final Map<String, ObjectNode> batches = new ConcurrentSkipListMap<>();
+	private final Map<String, ObjectNode> vectorStores = new ConcurrentSkipListMap<>();
+	private final Map<String, Map<String, ObjectNode>> vectorStoreFiles;
+	private final Map<String, ObjectNode> threads = new ConcurrentSkipListMap<>();
+	private final Map<String, ObjectNode> runs = new ConcurrentSkipListMap<>();
+	private final Map<String, Long> readyAt = new ConcurrentHashMap<>();
+
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder serverErrors = new LongAdder();
+	private final LongAdder rateLimited = new LongAdder();
+	private final LongAdder streams = new LongAdder();
+
+	private record StoredFile(ObjectNode object, byte[] content) {
+	}
+
+	private record Route(String method, Pattern path, Action action) {
+	}
+
+	@FunctionalInterface
+	private interface Action {
+		void handle(Call call) throws IOException;
+	}
+
+	private record Call(HttpExchange exchange, Matcher path, byte[] body) {
+
+		String param(int group) {
+			return this.path.group(group);
+		}
+
+		JsonNode json() throws IOException {
+			if (this.body.length == 0) {
+				return NODES.objectNode();
+			}
+			return MAPPER.readTree(this.body);
+		}
+
+		String query(String name) {
+			String query = this.exchange.getRequestURI().getRawQuery();
+			if (query == null) {
+				return null;
+			}
+			for (String pair : query.split("&")) {
+				int eq = pair.indexOf('=');
+				String key = URLDecoder.decode(eq == -1 ? pair : pair.substring(0, eq),
+						StandardCharsets.UTF_8);
+				if (key.equals(name)) {
+					return eq == -1 ? ""
+							: URLDecoder.decode(pair.substring(eq + 1),
+									StandardCharsets.UTF_8);
+				}
+			}
+			return null;
+		}
+	}
+
+	private record Completion(String id, String model, long created, int promptTokens,
+			List<List<String>> choices) {
+
+		int completionTokens() {
+			return this.choices.stream().mapToInt(List::size).sum();
+		}
+	}
+
+	StubHandler(StubServer config) {
+		this.config = config;
+		this.random = new Random(config.seed);
+		long now = System.nanoTime();
+		this.requestWindow = new RateLimitWindow(config.requestsPerMinute, now);
+		this.tokenWindow = new RateLimitWindow(config.tokensPerMinute, now);
+		this.vectorStoreFiles = new ConcurrentHashMap<>();
+
+		route("POST", "/chat/completions", this::createChatCompletion);
+		route("POST", "/embeddings", this::createEmbeddings);
+
+		route("GET", "/files", this::listFiles);
+		route("POST", "/files", this::createFile);
+		route("GET", "/files/([^/]+)", this::retrieveFile);
+		route("DELETE", "/files/([^/]+)", this::deleteFile);
+		route("GET", "/files/([^/]+)/content", this::fileContent);
+
+		route("POST", "/uploads", this::createUpload);
+		route("POST", "/uploads/([^/]+)/parts", this::addUploadPart);
+		route("POST", "/uploads/([^/]+)/complete", this::completeUpload);
+		route("POST", "/uploads/([^/]+)/cancel", this::cancelUpload);
+
+		route("GET", "/batches", this::listBatches);
+		route("POST", "/batches", this::createBatch);
+		route("GET", "/batches/([^/]+)", this::retrieveBatch);
+		route("POST", "/batches/([^/]+)/cancel", this::cancelBatch);
+
+		route("GET", "/vector_stores", this::listVectorStores);
+		route("POST", "/vector_stores", this::createVectorStore);
+		route("GET", "/vector_stores/([^/]+)", this::retrieveVectorStore);
+		route("POST", "/vector_stores/([^/]+)", this::modifyVectorStore);
+		route("DELETE", "/vector_stores/([^/]+)", this::deleteVectorStore);
+		route("GET", "/vector_stores/([^/]+)/files", this::listVectorStoreFiles);
+		route("POST", "/vector_stores/([^/]+)/files", this::createVectorStoreFile);
+		route("GET", "/vector_stores/([^/]+)/files/([^/]+)",
+				this::retrieveVectorStoreFile);
+		route("DELETE", "/vector_stores/([^/]+)/files/([^/]+)",
+				this::deleteVectorStoreFile);
+
+		route("POST", "/threads", this::createThread);
+		route("POST", "/threads/runs", this::createThreadAndRun);
+		route("GET", "/threads/([^/]+)", this::retrieveThread);
+		route("POST", "/threads/([^/]+)", this::modifyThread);
+		route("DELETE", "/threads/([^/]+)", this::deleteThread);
+		route("GET", "/threads/([^/]+)/runs", this::listRuns);
+		route("POST", "/threads/([^/]+)/runs", this::createRun);
+		route("GET", "/threads/([^/]+)/runs/([^/]+)", this::retrieveRun);
+		route("POST", "/threads/([^/]+)/runs/([^/]+)", this::modifyRun);
+		route("POST", "/threads/([^/]+)/runs/([^/]+)/cancel", this::cancelRun);
+		route("POST", "/threads/([^/]+)/runs/([^/]+)/submit_tool_outputs",
+				this::submitToolOutputs);
+	}
+
+	private void route(String method, String path, Action action) {
+		this.routes.add(new Route(method, Pattern.compile(path), action));
+	}
+
+	StubStats stats() {
+		return new StubStats(this.requests.sum(), this.serverErrors.sum(),
+				this.rateLimited.sum(), this.streams.sum());
+	}
+
+	@Override
+	public void handle(HttpExchange exchange) throws IOException {
+		try {
+			byte[] body = exchange.getRequestBody().readAllBytes();
+			this.requests.increment();
+
+			String path = exchange.getRequestURI().getPath();
+			if (path.startsWith("/v1/")) {
+				path = path.substring(3);
+			}
+			Call call = null;
+			Action action = null;
+			for (Route route : this.routes) {
+				Matcher matcher = route.path().matcher(path);
+				if (route.method().equals(exchange.getRequestMethod())
+						&& matcher.matches()) {
+					call = new Call(exchange, matcher, body);
+					action = route.action();
+					break;
+				}
+			}
+
+			// one draw of each value per request, the sequence does not depend on the
+			// outcome of the previous requests
+			Duration latency;
+			double rateLimitDraw;
+			double errorDraw;
+			synchronized (this.random) {
+				latency = this.config.latency.sample(this.random);
+				rateLimitDraw = this.random.nextDouble();
+				errorDraw = this.random.nextDouble();
+			}
+
+			long now = System.nanoTime();
+			boolean requestAllowed = this.requestWindow.tryAcquire(1, now);
+			boolean tokensAllowed = this.tokenWindow
+					.tryAcquire(FakeData.countTokens(new String(body,
+							StandardCharsets.UTF_8)), now);
+			Headers headers = exchange.getResponseHeaders();
+			headers.set("x-request-id", "req_" + Long.toHexString(id()));
+			headers.set("openai-processing-ms", Long.toString(latency.toMillis()));
+			rateLimitHeaders(headers, now);
+
+			sleep(latency);
+
+			if (action == null) {
+				error(exchange, 404, "invalid_request_error", null, "Invalid URL ("
+						+ exchange.getRequestMethod() + " " + path + ")");
+			}
+			else if (!requestAllowed) {
+				rateLimit(exchange, "requests", this.requestWindow.resetNanos(now));
+			}
+			else if (!tokensAllowed) {
+				rateLimit(exchange, "tokens", this.tokenWindow.resetNanos(now));
+			}
+			else if (rateLimitDraw < this.config.rateLimitRate) {
+				rateLimit(exchange, "requests", this.config.retryAfter.toNanos());
+			}
+			else if (errorDraw < this.config.errorRate) {
+				this.serverErrors.increment();
+				error(exchange, this.config.errorStatus, "server_error", null,
+						"The server had an error while processing your request.");
+			}
+			else {
+				try {
+					action.handle(call);
+				}
+				catch (JsonProcessingException | IllegalArgumentException e) {
+					error(exchange, 400, "invalid_request_error", null, e.getMessage());
+				}
+			}
+		}
+		catch (IOException e) {
+			// client closed the connection
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+	private void rateLimitHeaders(Headers headers, long now) {
+		if (this.requestWindow.enabled()) {
+			headers.set("x-ratelimit-limit-requests",
+					Long.toString(this.requestWindow.limit()));
+			headers.set("x-ratelimit-remaining-requests",
+					Long.toString(this.requestWindow.remaining(now)));
+			headers.set("x-ratelimit-reset-requests",
+					formatDuration(this.requestWindow.resetNanos(now)));
+		}
+		if (this.tokenWindow.enabled()) {
+			headers.set("x-ratelimit-limit-tokens",
+					Long.toString(this.tokenWindow.limit()));
+			headers.set("x-ratelimit-remaining-tokens",
+					Long.toString(this.tokenWindow.remaining(now)));
+			headers.set("x-ratelimit-reset-tokens",
+					formatDuration(this.tokenWindow.resetNanos(now)));
+		}
+	}
+
+	/**
+	 * Formats a duration like the reset headers of the API, for example "20ms", "1.5s"
+	 * or "6m0s".
+	 */
+	static String formatDuration(long nanos) {
+		long millis = TimeUnit.NANOSECONDS.toMillis(Math.max(0, nanos));
+		if (millis < 1000) {
+			return millis + "ms";
+		}
+		String seconds = BigDecimal.valueOf(millis % 60_000, 3).stripTrailingZeros()
+				.toPlainString();
+		long minutes = millis / 60_000;
+		return minutes > 0 ? minutes + "m" + seconds + "s" : seconds + "s";
+	}
+
+	private void rateLimit(HttpExchange exchange, String type, long retryAfterNanos)
+			throws IOException {
+		this.rateLimited.increment();
+		long retryAfterMillis = TimeUnit.NANOSECONDS.toMillis(retryAfterNanos);
+		Headers headers = exchange.getResponseHeaders();
+		headers.set("retry-after-ms", Long.toString(retryAfterMillis));
+		headers.set("Retry-After", Long.toString((retryAfterMillis + 999) / 1000));
+		error(exchange, 429, type, "rate_limit_exceeded",
+				"Rate limit reached for " + type + ". Please try again in "
+						+ formatDuration(retryAfterNanos) + ".");
+	}
+
+	private static void error(HttpExchange exchange, int status, String type,
+			String code, String message) throws IOException {
+		ObjectNode body = NODES.objectNode();
+		ObjectNode error = body.putObject("error");
+		error.put("message", message);
+		error.put("type", type);
+		error.putNull("param");
+		error.put("code", code);
+		send(exchange, status, body);
+	}
+
+	private static void notFound(HttpExchange exchange, String object, String id)
+			throws IOException {
+		error(exchange, 404, "invalid_request_error", null,
+				"No such " + object + ": " + id);
+	}
+
+	private static void send(HttpExchange exchange, int status, JsonNode body)
+			throws IOException {
+		byte[] bytes;
+		synchronized (body) {
+			bytes = MAPPER.writeValueAsBytes(body);
+		}
+		send(exchange, status, "application/json", bytes);
+	}
+
+	private static void send(HttpExchange exchange, int status, String contentType,
+			byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+		if (body.length > 0) {
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(body);
+			}
+		}
+	}
+
+	private static void sleep(Duration duration) {
+		long nanos = duration.toNanos();
+		if (nanos <= 0) {
+			return;
+		}
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private long id() {
+		return this.ids.incrementAndGet();
+	}
+
+	private String id(String prefix) {
+		return prefix + String.format("%012d", id());
+	}
+
+	private static long now() {
+		return Instant.now().getEpochSecond();
+	}
+
+	/**
+	 * A page of a list in the format of the API, newest first unless order=asc.
+	 */
+	private static ObjectNode list(Collection<ObjectNode> items, Call call,
+			int defaultLimit) {
+		List<ObjectNode> sorted = new ArrayList<>(items);
+		if (!"asc".equals(call.query("order"))) {
+			Collections.reverse(sorted);
+		}
+		int from = 0;
+		String after = call.query("after");
+		if (after != null) {
+			for (int i = 0; i < sorted.size(); i++) {
+				if (after.equals(sorted.get(i).path("id").asText())) {
+					from = i + 1;
+					break;
+				}
+			}
+		}
+		String limitParam = call.query("limit");
+		int limit = limitParam != null ? Integer.parseInt(limitParam) : defaultLimit;
+		int to = Math.min(sorted.size(), from + limit);
+
+		ObjectNode page = NODES.objectNode();
+		page.put("object", "list");
+		ArrayNode data = page.putArray("data");
+		for (ObjectNode item : sorted.subList(from, to)) {
+			synchronized (item) {
+				data.add(item.deepCopy());
+			}
+		}
+		if (data.isEmpty()) {
+			page.putNull("first_id");
+			page.putNull("last_id");
+		}
+		else {
+			page.put("first_id", data.get(0).path("id").asText());
+			page.put("last_id", data.get(data.size() - 1).path("id").asText());
+		}
+		page.put("has_more", to < sorted.size());
+		return page;
+	}
+
+	// chat completions
+
+	private void createChatCompletion(Call call) throws IOException {
+		JsonNode request = call.json();
+		Completion completion = completion(request,
+				FakeData.hash(this.config.seed, call.body()));
+		if (request.path("stream").asBoolean()) {
+			streamChatCompletion(call.exchange(), completion,
+					request.path("stream_options").path("include_usage").asBoolean());
+			return;
+		}
+
+		long generationNanos = 0;
+		synchronized (this.random) {
+			for (int i = 0; i < completion.completionTokens(); i++) {
+				generationNanos += this.config.tokenLatency.sample(this.random)
+						.toNanos();
+			}
+		}
+		sleep(Duration.ofNanos(generationNanos));
+		send(call.exchange(), 200, chatCompletion(completion));
+	}
+
+	private Completion completion(JsonNode request, long hash) {
+		int maxTokens = this.config.completionTokens;
+		if (request.hasNonNull("max_completion_tokens")) {
+			maxTokens = Math.min(maxTokens, request.get("max_completion_tokens").asInt());
+		}
+		else if (request.hasNonNull("max_tokens")) {
+			maxTokens = Math.min(maxTokens, request.get("max_tokens").asInt());
+		}
+		maxTokens = Math.max(1, maxTokens);
+
+		int n = Math.max(1, request.path("n").asInt(1));
+		List<List<String>> choices = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			choices.add(FakeData.tokens(hash + i, maxTokens));
+		}
+
+		int promptTokens = 0;
+		for (JsonNode message : request.path("messages")) {
+			// a few tokens for the role and the message delimiters
+			promptTokens += 3;
+			JsonNode content = message.path("content");
+			if (content.isTextual()) {
+				promptTokens += FakeData.countTokens(content.asText());
+			}
+			else {
+				for (JsonNode part : content) {
+					promptTokens += FakeData.countTokens(part.path("text").asText(""));
+				}
+			}
+		}
+
+		return new Completion("chatcmpl-" + Long.toHexString(hash),
+				request.path("model").asText(DEFAULT_CHAT_MODEL), now(), promptTokens,
+				choices);
+	}
+
+	private static ObjectNode chatCompletion(Completion completion) {
+		ObjectNode response = NODES.objectNode();
+		response.put("id", completion.id());
+		response.put("object", "chat.completion");
+		response.put("created", completion.created());
+		response.put("model", completion.model());
+		ArrayNode choices = response.putArray("choices");
+		for (int i = 0; i < completion.choices().size(); i++) {
+			ObjectNode choice = choices.addObject();
+			choice.put("index", i);
+			ObjectNode message = choice.putObject("message");
+			message.put("role", "assistant");
+			message.put("content", String.join("", completion.choices().get(i)));
+			message.putNull("refusal");
+			choice.putNull("logprobs");
+			choice.put("finish_reason", "stop");
+		}
+		response.set("usage",
+				usage(completion.promptTokens(), completion.completionTokens()));
+		response.put("system_fingerprint", "fp_stub");
+		return response;
+	}
+
+	private void streamChatCompletion(HttpExchange exchange, Completion completion,
+			boolean includeUsage) throws IOException {
+		this.streams.increment();
+		exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+		exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+		exchange.sendResponseHeaders(200, 0);
+		try (OutputStream out = exchange.getResponseBody()) {
+			for (int i = 0; i < completion.choices().size(); i++) {
+				ObjectNode first = chunk(completion, i, null);
+				first.withObject("/choices/0/delta").put("role", "assistant")
+						.put("content", "");
+				event(out, first);
+				for (String token : completion.choices().get(i)) {
+					Duration tokenLatency;
+					synchronized (this.random) {
+						tokenLatency = this.config.tokenLatency.sample(this.random);
+					}
+					sleep(tokenLatency);
+					ObjectNode chunk = chunk(completion, i, null);
+					chunk.withObject("/choices/0/delta").put("content", token);
+					event(out, chunk);
+				}
+				event(out, chunk(completion, i, "stop"));
+			}
+			if (includeUsage) {
+				ObjectNode chunk = chunk(completion, 0, null);
+				chunk.putArray("choices");
+				chunk.set("usage",
+						usage(completion.promptTokens(), completion.completionTokens()));
+				event(out, chunk);
+			}
+			out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static ObjectNode chunk(Completion completion, int index,
+			String finishReason) {
+		ObjectNode chunk = NODES.objectNode();
+		chunk.put("id", completion.id());
+		chunk.put("object", "chat.completion.chunk");
+		chunk.put("created", completion.created());
+		chunk.put("model", completion.model());
+		chunk.put("system_fingerprint", "fp_stub");
+		ObjectNode choice = chunk.putArray("choices").addObject();
+		choice.put("index", index);
+		choice.putObject("delta");
+		choice.putNull("logprobs");
+		choice.put("finish_reason", finishReason);
+		return chunk;
+	}
+
+	private static void event(OutputStream out, JsonNode data) throws IOException {
+		out.write(("data: " + MAPPER.writeValueAsString(data) + "\n\n")
+				.getBytes(StandardCharsets.UTF_8));
+		out.flush();
+	}
+
+	private static ObjectNode usage(int promptTokens, int completionTokens) {
+		ObjectNode usage = NODES.objectNode();
+		usage.put("prompt_tokens", promptTokens);
+		usage.put("completion_tokens", completionTokens);
+		usage.put("total_tokens", promptTokens + completionTokens);
+		return usage;
+	}
+
+	// embeddings
+
+	private void createEmbeddings(Call call) throws IOException {
+		send(call.exchange(), 200, embeddings(call.json()));
+	}
+
+	private ObjectNode embeddings(JsonNode request) {
+		JsonNode input = request.path("input");
+		List<String> inputs = new ArrayList<>();
+		if (input.isTextual()) {
+			inputs.add(input.asText());
+		}
+		else if (input.isArray() && input.size() > 0 && input.get(0).isNumber()) {
+			// one input given as token array
+			inputs.add(input.toString());
+		}
+		else if (input.isArray()) {
+			for (JsonNode element : input) {
+				inputs.add(element.isTextual() ? element.asText() : element.toString());
+			}
+		}
+		else {
+			throw new IllegalArgumentException("'input' is a required property");
+		}
+
+		int dimensions = request.path("dimensions").asInt(0);
+		if (dimensions <= 0) {
+			dimensions = this.config.embeddingDimensions;
+		}
+		boolean base64 = "base64".equals(request.path("encoding_format").asText());
+
+		ObjectNode response = NODES.objectNode();
+		response.put("object", "list");
+		ArrayNode data = response.putArray("data");
+		int tokens = 0;
+		for (int i = 0; i < inputs.size(); i++) {
+			String text = inputs.get(i);
+			tokens += FakeData.countTokens(text);
+			float[] vector = FakeData.embedding(FakeData.hash(this.config.seed, text),
+					dimensions);
+			ObjectNode embedding = data.addObject();
+			embedding.put("object", "embedding");
+			embedding.put("index", i);
+			if (base64) {
+				embedding.put("embedding", FakeData.base64(vector));
+			}
+			else {
+				ArrayNode values = embedding.putArray("embedding");
+				for (float value : vector) {
+					values.add(value);
+				}
+			}
+		}
+		response.put("model", request.path("model").asText(DEFAULT_EMBEDDING_MODEL));
+		ObjectNode usage = response.putObject("usage");
+		usage.put("prompt_tokens", tokens);
+		usage.put("total_tokens", tokens);
+		return response;
+	}
+
+	// files
+
+	private StoredFile storeFile(String filename, String purpose, byte[] content) {
+		ObjectNode file = NODES.objectNode();
+		String id = id("file-");
+		file.put("id", id);
+		file.put("object", "file");
+		file.put("bytes", content.length);
+		file.put("created_at", now());
+		file.put("filename", filename);
+		file.put("purpose", purpose);
+		file.put("status", "processed");
+		StoredFile stored = new StoredFile(file, content);
+		this.files.put(id, stored);
+		return stored;
+	}
+
+	private void listFiles(Call call) throws IOException {
+		String purpose = call.query("purpose");
+		List<ObjectNode> items = new ArrayList<>();
+		for (StoredFile file : this.files.values()) {
+			if (purpose == null || purpose.equals(
+					file.object().path("purpose").asText())) {
+				items.add(file.object());
+			}
+		}
+		send(call.exchange(), 200, list(items, call, 10_000));
+	}
+
+	private void createFile(Call call) throws IOException {
+		Map<String, Multipart.Part> parts = Multipart.parse(
+				call.exchange().getRequestHeaders().getFirst("Content-Type"),
+				call.body());
+		Multipart.Part file = parts.get("file");
+		Multipart.Part purpose = parts.get("purpose");
+		if (file == null || purpose == null) {
+			throw new IllegalArgumentException("'file' and 'purpose' are required");
+		}
+		send(call.exchange(), 200,
+				storeFile(file.filename() != null ? file.filename() : "file",
+						purpose.text(), file.data()).object());
+	}
+
+	private void retrieveFile(Call call) throws IOException {
+		StoredFile file = this.files.get(call.param(1));
+		if (file == null) {
+			notFound(call.exchange(), "File", call.param(1));
+			return;
+		}
+		send(call.exchange(), 200, file.object());
+	}
+
+	private void deleteFile(Call call) throws IOException {
+		if (this.files.remove(call.param(1)) == null) {
+			notFound(call.exchange(), "File", call.param(1));
+			return;
+		}
+		send(call.exchange(), 200, deleted(call.param(1), "file"));
+	}
+
+	private void fileContent(Call call) throws IOException {
+		StoredFile file = this.files.get(call.param(1));
+		if (file == null) {
+			notFound(call.exchange(), "File", call.param(1));
+			return;
+		}
+		send(call.exchange(), 200, "application/octet-stream", file.content());
+	}
+
+	private static ObjectNode deleted(String id, String object) {
+		ObjectNode status = NODES.objectNode();
+		status.put("id", id);
+		status.put("object", object);
+		status.put("deleted", true);
+		return status;
+	}
+
+	// uploads
+
+	private void createUpload(Call call) throws IOException {
+		JsonNode request = call.json();
+		ObjectNode upload = NODES.objectNode();
+		String id = id("upload_");
+		long created = now();
+		upload.put("id", id);
+		upload.put("object", "upload");
+		upload.put("bytes", request.path("bytes").asLong());
+		upload.put("created_at", created);
+		upload.put("filename", request.path("filename").asText());
+		upload.put("purpose", request.path("purpose").asText());
+		upload.put("status", "pending");
+		upload.put("expires_at", created + 3600);
+		this.uploads.put(id, upload);
+		send(call.exchange(), 200, upload);
+	}
+
+	private void addUploadPart(Call call) throws IOException {
+		ObjectNode upload = this.uploads.get(call.param(1));
+		if (upload == null) {
+			notFound(call.exchange(), "Upload", call.param(1));
+			return;
+		}
+		Multipart.Part data = Multipart.parse(
+				call.exchange().getRequestHeaders().getFirst("Content-Type"),
+				call.body()).get("data");
+		if (data == null) {
+			throw new IllegalArgumentException("'data' is required");
+		}
+		String id = id("part_");
+		this.uploadParts.put(id, data.data());
+		ObjectNode part = NODES.objectNode();
+		part.put("id", id);
+		part.put("object", "upload.part");
+		part.put("created_at", now());
+		part.put("upload_id", call.param(1));
+		send(call.exchange(), 200, part);
+	}
+
+	private void completeUpload(Call call) throws IOException {
+		ObjectNode upload = this.uploads.get(call.param(1));
+		if (upload == null) {
+			notFound(call.exchange(), "Upload", call.param(1));
+			return;
+		}
+		JsonNode request = call.json();
+		synchronized (upload) {
+			if (!"pending".equals(upload.path("status").asText())) {
+				throw new IllegalArgumentException(
+						"Upload is " + upload.path("status").asText());
+			}
+			ByteArrayOutputStream content = new ByteArrayOutputStream();
+			for (JsonNode partId : request.path("part_ids")) {
+				byte[] part = this.uploadParts.remove(partId.asText());
+				if (part == null) {
+					throw new IllegalArgumentException(
+							"No such part: " + partId.asText());
+				}
+				content.writeBytes(part);
+			}
+			StoredFile file = storeFile(upload.path("filename").asText(),
+					upload.path("purpose").asText(), content.toByteArray());
+			upload.put("status", "completed");
+			upload.set("file", file.object().deepCopy());
+		}
+		send(call.exchange(), 200, upload);
+	}
+
+	private void cancelUpload(Call call) throws IOException {
+		ObjectNode upload = this.uploads.get(call.param(1));
+		if (upload == null) {
+			notFound(call.exchange(), "Upload", call.param(1));
+			return;
+		}
+		synchronized (upload) {
+			upload.put("status", "cancelled");
+		}
+		send(call.exchange(), 200, upload);
+	}
+
+	// batches
+
+	private void listBatches(Call call) throws IOException {
+		this.batches.values().forEach(this::advanceBatch);
+		send(call.exchange(), 200, list(this.batches.values(), call, 20));
+	}
+
+	private void createBatch(Call call) throws IOException {
+		JsonNode request = call.json();
+		String inputFileId = request.path("input_file_id").asText();
+		StoredFile input = this.files.get(inputFileId);
+		if (input == null) {
+			notFound(call.exchange(), "File", inputFileId);
+			return;
+		}
+		long lines = new String(input.content(), StandardCharsets.UTF_8).lines()
+				.filter(line -> !line.isBlank()).count();
+
+		ObjectNode batch = NODES.objectNode();
+		String id = id("batch_");
+		long created = now();
+		batch.put("id", id);
+		batch.put("object", "batch");
+		batch.put("endpoint", request.path("endpoint").asText());
+		batch.putNull("errors");
+		batch.put("input_file_id", inputFileId);
+		batch.put("completion_window", request.path("completion_window").asText("24h"));
+		batch.put("status", "in_progress");
+		batch.putNull("output_file_id");
+		batch.putNull("error_file_id");
+		batch.put("created_at", created);
+		batch.put("in_progress_at", created);
+		batch.put("expires_at", created + 86_400);
+		ObjectNode counts = batch.putObject("request_counts");
+		counts.put("total", lines);
+		counts.put("completed", 0);
+		counts.put("failed", 0);
+		if (request.has("metadata")) {
+			batch.set("metadata", request.get("metadata"));
+		}
+		this.batches.put(id, batch);
+		this.readyAt.put(id, System.nanoTime() + this.config.processingTime.toNanos());
+		advanceBatch(batch);
+		send(call.exchange(), 200, batch);
+	}
+
+	private void retrieveBatch(Call call) throws IOException {
+		ObjectNode batch = this.batches.get(call.param(1));
+		if (batch == null) {
+			notFound(call.exchange(), "Batch", call.param(1));
+			return;
+		}
+		advanceBatch(batch);
+		send(call.exchange(), 200, batch);
+	}
+
+	private void cancelBatch(Call call) throws IOException {
+		ObjectNode batch = this.batches.get(call.param(1));
+		if (batch == null) {
+			notFound(call.exchange(), "Batch", call.param(1));
+			return;
+		}
+		advanceBatch(batch);
+		synchronized (batch) {
+			if ("in_progress".equals(batch.path("status").asText())) {
+				long now = now();
+				batch.put("status", "cancelled");
+				batch.put("cancelling_at", now);
+				batch.put("cancelled_at", now);
+			}
+		}
+		send(call.exchange(), 200, batch);
+	}
+
+	/**
+	 * Completes the batch when the processing time is over: answers every line of the
+	 * input file and stores the answers in the output file.
+	 */
+	private void advanceBatch(ObjectNode batch) {
+		synchronized (batch) {
+			String id = batch.path("id").asText();
+			if (!"in_progress".equals(batch.path("status").asText())
+					|| System.nanoTime() < this.readyAt.getOrDefault(id, 0L)) {
+				return;
+			}
+			StoredFile input = this.files.get(batch.path("input_file_id").asText());
+			StringBuilder output = new StringBuilder();
+			int completed = 0;
+			int failed = 0;
+			if (input != null) {
+				for (String line : new String(input.content(), StandardCharsets.UTF_8)
+						.lines().toList()) {
+					if (line.isBlank()) {
+						continue;
+					}
+					try {
+						JsonNode request = MAPPER.readTree(line);
+						JsonNode body = request.path("body");
+						JsonNode responseBody = request.path("url").asText()
+								.endsWith("/embeddings") ? embeddings(body)
+										: chatCompletion(completion(body,
+												FakeData.hash(this.config.seed, line)));
+						ObjectNode result = NODES.objectNode();
+						result.put("id", id("batch_req_"));
+						result.put("custom_id", request.path("custom_id").asText());
+						ObjectNode response = result.putObject("response");
+						response.put("status_code", 200);
+						response.put("request_id", "req_" + Long.toHexString(id()));
+						response.set("body", responseBody);
+						result.putNull("error");
+						output.append(MAPPER.writeValueAsString(result)).append('\n');
+						completed++;
+					}
+					catch (JsonProcessingException | IllegalArgumentException e) {
+						failed++;
+					}
+				}
+			}
+			StoredFile outputFile = storeFile(id + "_output.jsonl", "batch_output",
+					output.toString().getBytes(StandardCharsets.UTF_8));
+			long now = now();
+			batch.put("status", "completed");
+			batch.put("output_file_id", outputFile.object().path("id").asText());
+			batch.put("finalizing_at", now);
+			batch.put("completed_at", now);
+			ObjectNode counts = batch.putObject("request_counts");
+			counts.put("total", completed + failed);
+			counts.put("completed", completed);
+			counts.put("failed", failed);
+		}
+	}
+
+	// vector stores
+
+	private void listVectorStores(Call call) throws IOException {
+		send(call.exchange(), 200, list(this.vectorStores.values(), call, 20));
+	}
+
+	private void createVectorStore(Call call) throws IOException {
+		JsonNode request = call.json();
+		ObjectNode store = NODES.objectNode();
+		String id = id("vs_");
+		long created = now();
+		store.put("id", id);
+		store.put("object", "vector_store");
+		store.put("created_at", created);
+		store.put("name", request.path("name").asText(null));
+		store.put("usage_bytes", 0);
+		store.put("status", "completed");
+		store.put("last_active_at", created);
+		applyVectorStoreRequest(store, request);
+		Map<String, ObjectNode> storeFiles = new ConcurrentSkipListMap<>();
+		for (JsonNode fileId : request.path("file_ids")) {
+			addVectorStoreFile(store, storeFiles, fileId.asText(),
+					request.path("chunking_strategy"));
+		}
+		updateFileCounts(store, storeFiles);
+		this.vectorStoreFiles.put(id, storeFiles);
+		this.vectorStores.put(id, store);
+		send(call.exchange(), 200, store);
+	}
+
+	private static void applyVectorStoreRequest(ObjectNode store, JsonNode request) {
+		if (request.hasNonNull("name")) {
+			store.put("name", request.get("name").asText());
+		}
+		if (request.hasNonNull("expires_after")) {
+			JsonNode expiresAfter = request.get("expires_after");
+			store.set("expires_after", expiresAfter);
+			store.put("expires_at", store.path("last_active_at").asLong()
+					+ expiresAfter.path("days").asLong() * 86_400);
+		}
+		if (request.hasNonNull("metadata")) {
+			store.set("metadata", request.get("metadata"));
+		}
+		else if (!store.has("metadata")) {
+			store.putObject("metadata");
+		}
+	}
+
+	private void retrieveVectorStore(Call call) throws IOException {
+		ObjectNode store = this.vectorStores.get(call.param(1));
+		if (store == null) {
+			notFound(call.exchange(), "vector store", call.param(1));
+			return;
+		}
+		send(call.exchange(), 200, store);
+	}
+
+	private void modifyVectorStore(Call call) throws IOException {
+		ObjectNode store = this.vectorStores.get(call.param(1));
+		if (store == null) {
+			notFound(call.exchange(), "vector store", call.param(1));
+			return;
+		}
+		JsonNode request = call.json();
+		synchronized (store) {
+			applyVectorStoreRequest(store, request);
+		}
+		send(call.exchange(), 200, store);
+	}
+
+	private void deleteVectorStore(Call call) throws IOException {
+		if (this.vectorStores.remove(call.param(1)) == null) {
+			notFound(call.exchange(), "vector store", call.param(1));
+			return;
+		}
+		this.vectorStoreFiles.remove(call.param(1));
+		send(call.exchange(), 200, deleted(call.param(1), "vector_store.deleted"));
+	}
+
+	private void listVectorStoreFiles(Call call) throws IOException {
+		Map<String, ObjectNode> storeFiles = this.vectorStoreFiles
+				.get(call.param(1));
+		if (storeFiles == null) {
+			notFound(call.exchange(), "vector store", call.param(1));
+			return;
+		}
+		String filter = call.query("filter");
+		List<ObjectNode> items = new ArrayList<>();
+		for (ObjectNode file : storeFiles.values()) {
+			if (filter == null || filter.equals(file.path("status").asText())) {
+				items.add(file);
+			}
+		}
+		send(call.exchange(), 200, list(items, call, 20));
+	}
+
+	private void createVectorStoreFile(Call call) throws IOException {
+		ObjectNode store = this.vectorStores.get(call.param(1));
+		Map<String, ObjectNode> storeFiles = this.vectorStoreFiles
+				.get(call.param(1));
+		if (store == null || storeFiles == null) {
+			notFound(call.exchange(), "vector store", call.param(1));
+			return;
+		}
+		JsonNode request = call.json();
+		String fileId = request.path("file_id").asText();
+		if (!this.files.containsKey(fileId)) {
+			notFound(call.exchange(), "File", fileId);
+			return;
+		}
+		ObjectNode file;
+		synchronized (store) {
+			file = addVectorStoreFile(store, storeFiles, fileId,
+					request.path("chunking_strategy"));
+			updateFileCounts(store, storeFiles);
+		}
+		send(call.exchange(), 200, file);
+	}
+
+	private ObjectNode addVectorStoreFile(ObjectNode store,
+			Map<String, ObjectNode> storeFiles, String fileId,
+			JsonNode chunkingStrategy) {
+		StoredFile stored = this.files.get(fileId);
+		ObjectNode file = NODES.objectNode();
+		file.put("id", fileId);
+		file.put("object", "vector_store.file");
+		file.put("usage_bytes", stored != null ? stored.content().length : 0);
+		file.put("created_at", now());
+		file.put("vector_store_id", store.path("id").asText());
+		file.put("status", stored != null ? "completed" : "failed");
+		if (stored != null) {
+			file.putNull("last_error");
+		}
+		else {
+			ObjectNode error = file.putObject("last_error");
+			error.put("code", "invalid_file");
+			error.put("message", "No such File object: " + fileId);
+		}
+		if (chunkingStrategy.isObject()
+				&& "static".equals(chunkingStrategy.path("type").asText())) {
+			file.set("chunking_strategy", chunkingStrategy);
+		}
+		else {
+			ObjectNode strategy = file.putObject("chunking_strategy");
+			strategy.put("type", "static");
+			ObjectNode staticStrategy = strategy.putObject("static");
+			staticStrategy.put("max_chunk_size_tokens", 800);
+			staticStrategy.put("chunk_overlap_tokens", 400);
+		}
+		storeFiles.put(fileId, file);
+		return file;
+	}
+
+	private static void updateFileCounts(ObjectNode store,
+			Map<String, ObjectNode> storeFiles) {
+		long usageBytes = 0;
+		int completed = 0;
+		int failed = 0;
+		for (ObjectNode file : storeFiles.values()) {
+			usageBytes += file.path("usage_bytes").asLong();
+			if ("completed".equals(file.path("status").asText())) {
+				completed++;
+			}
+			else {
+				failed++;
+			}
+		}
+		store.put("usage_bytes", usageBytes);
+		ObjectNode counts = store.putObject("file_counts");
+		counts.put("in_progress", 0);
+		counts.put("completed", completed);
+		counts.put("failed", failed);
+		counts.put("cancelled", 0);
+		counts.put("total", completed + failed);
+	}
+
+	private void retrieveVectorStoreFile(Call call) throws IOException {
+		Map<String, ObjectNode> storeFiles = this.vectorStoreFiles.get(call.param(1));
+		ObjectNode file = storeFiles != null ? storeFiles.get(call.param(2)) : null;
+		if (file == null) {
+			notFound(call.exchange(), "vector store file", call.param(2));
+			return;
+		}
+		send(call.exchange(), 200, file);
+	}
+
+	private void deleteVectorStoreFile(Call call) throws IOException {
+		ObjectNode store = this.vectorStores.get(call.param(1));
+		Map<String, ObjectNode> storeFiles = this.vectorStoreFiles
+				.get(call.param(1));
+		if (store == null || storeFiles == null
+				|| storeFiles.remove(call.param(2)) == null) {
+			notFound(call.exchange(), "vector store file", call.param(2));
+			return;
+		}
+		synchronized (store) {
+			updateFileCounts(store, storeFiles);
+		}
+		send(call.exchange(), 200,
+				deleted(call.param(2), "vector_store.file.deleted"));
+	}
+
+	// threads and runs
+
+	private ObjectNode storeThread(JsonNode request) {
+		ObjectNode thread = NODES.objectNode();
+		String id = id("thread_");
+		thread.put("id", id);
+		thread.put("object", "thread");
+		thread.put("created_at", now());
+		thread.set("metadata", request.hasNonNull("metadata") ? request.get("metadata")
+				: NODES.objectNode());
+		this.threads.put(id, thread);
+		return thread;
+	}
+
+	private void createThread(Call call) throws IOException {
+		send(call.exchange(), 200, storeThread(call.json()));
+	}
+
+	private void retrieveThread(Call call) throws IOException {
+		ObjectNode thread = this.threads.get(call.param(1));
+		if (thread == null) {
+			notFound(call.exchange(), "thread", call.param(1));
+			return;
+		}
+		send(call.exchange(), 200, thread);
+	}
+
+	private void modifyThread(Call call) throws IOException {
+		ObjectNode thread = this.threads.get(call.param(1));
+		if (thread == null) {
+			notFound(call.exchange(), "thread", call.param(1));
+			return;
+		}
+		JsonNode request = call.json();
+		synchronized (thread) {
+			if (request.hasNonNull("metadata")) {
+				thread.set("metadata", request.get("metadata"));
+			}
+		}
+		send(call.exchange(), 200, thread);
+	}
+
+	private void deleteThread(Call call) throws IOException {
+		if (this.threads.remove(call.param(1)) == null) {
+			notFound(call.exchange(), "thread", call.param(1));
+			return;
+		}
+		this.runs.values().removeIf(
+				run -> call.param(1).equals(run.path("thread_id").asText()));
+		send(call.exchange(), 200, deleted(call.param(1), "thread.deleted"));
+	}
+
+	private void createThreadAndRun(Call call) throws IOException {
+		JsonNode request = call.json();
+		ObjectNode thread = storeThread(request.path("thread"));
+		send(call.exchange(), 200, storeRun(thread.path("id").asText(), request));
+	}
+
+	private void createRun(Call call) throws IOException {
+		if (!this.threads.containsKey(call.param(1))) {
+			notFound(call.exchange(), "thread", call.param(1));
+			return;
+		}
+		send(call.exchange(), 200, storeRun(call.param(1), call.json()));
+	}
+
+	private ObjectNode storeRun(String threadId, JsonNode request) {
+		if (!request.hasNonNull("assistant_id")) {
+			throw new IllegalArgumentException("'assistant_id' is a required property");
+		}
+		ObjectNode run = NODES.objectNode();
+		String id = id("run_");
+		long created = now();
+		run.put("id", id);
+		run.put("object", "thread.run");
+		run.put("created_at", created);
+		run.put("assistant_id", request.get("assistant_id").asText());
+		run.put("thread_id", threadId);
+		run.put("status", "queued");
+		run.putNull("required_action");
+		run.putNull("last_error");
+		run.put("expires_at", created + 600);
+		run.put("model", request.path("model").asText(DEFAULT_CHAT_MODEL));
+		run.put("instructions", request.path("instructions").asText(""));
+		run.set("tools", request.hasNonNull("tools") ? request.get("tools")
+				: NODES.arrayNode());
+		run.set("metadata", request.hasNonNull("metadata") ? request.get("metadata")
+				: NODES.objectNode());
+		run.put("temperature", request.path("temperature").asDouble(1));
+		run.put("top_p", request.path("top_p").asDouble(1));
+		run.put("parallel_tool_calls",
+				request.path("parallel_tool_calls").asBoolean(true));
+		run.putNull("usage");
+		this.runs.put(id, run);
+		this.readyAt.put(id, System.nanoTime() + this.config.processingTime.toNanos());
+		advanceRun(run);
+		return run;
+	}
+
+	/**
+	 * Moves a run from queued to in_progress and to completed when the processing time
+	 * is over.
+	 */
+	private void advanceRun(ObjectNode run) {
+		synchronized (run) {
+			String status = run.path("status").asText();
+			if (!"queued".equals(status) && !"in_progress".equals(status)) {
+				return;
+			}
+			long now = now();
+			if (!run.hasNonNull("started_at")) {
+				run.put("started_at", now);
+			}
+			if (System.nanoTime() < this.readyAt.getOrDefault(run.path("id").asText(),
+					0L)) {
+				run.put("status", "in_progress");
+				return;
+			}
+			run.put("status", "completed");
+			run.put("completed_at", now);
+			run.set("usage",
+					usage(FakeData.countTokens(run.path("instructions").asText()),
+							this.config.completionTokens));
+		}
+	}
+
+	private ObjectNode run(Call call) throws IOException {
+		ObjectNode run = this.runs.get(call.param(2));
+		if (run == null || !call.param(1).equals(run.path("thread_id").asText())) {
+			notFound(call.exchange(), "run", call.param(2));
+			return null;
+		}
+		return run;
+	}
+
+	private void listRuns(Call call) throws IOException {
+		if (!this.threads.containsKey(call.param(1))) {
+			notFound(call.exchange(), "thread", call.param(1));
+			return;
+		}
+		List<ObjectNode> items = new ArrayList<>();
+		for (ObjectNode run : this.runs.values()) {
+			if (call.param(1).equals(run.path("thread_id").asText())) {
+				advanceRun(run);
+				items.add(run);
+			}
+		}
+		send(call.exchange(), 200, list(items, call, 20));
+	}
+
+	private void retrieveRun(Call call) throws IOException {
+		ObjectNode run = run(call);
+		if (run != null) {
+			advanceRun(run);
+			send(call.exchange(), 200, run);
+		}
+	}
+
+	private void modifyRun(Call call) throws IOException {
+		ObjectNode run = run(call);
+		if (run != null) {
+			JsonNode request = call.json();
+			synchronized (run) {
+				if (request.hasNonNull("metadata")) {
+					run.set("metadata", request.get("metadata"));
+				}
+			}
+			send(call.exchange(), 200, run);
+		}
+	}
+
+	private void cancelRun(Call call) throws IOException {
+		ObjectNode run = run(call);
+		if (run != null) {
+			advanceRun(run);
+			synchronized (run) {
+				String status = run.path("status").asText();
+				if (!"queued".equals(status) && !"in_progress".equals(status)) {
+					throw new IllegalArgumentException(
+							"Cannot cancel run with status '" + status + "'.");
+				}
+				run.put("status", "cancelled");
+				run.put("cancelled_at", now());
+			}
+			send(call.exchange(), 200, run);
+		}
+	}
+
+	private void submitToolOutputs(Call call) throws IOException {
+		ObjectNode run = run(call);
+		if (run != null) {
+			// the stub never calls tools, so no run is waiting for outputs
+			throw new IllegalArgumentException("Runs in status \""
+					+ run.path("status").asText() + "\" do not accept tool outputs.");
+		}
+	}
+
+}
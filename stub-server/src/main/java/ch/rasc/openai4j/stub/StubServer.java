@@ -0,0 +1,406 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.stub;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the OpenAI API, for load, latency and resilience tests without
+ * network access or cost. Point a client at {@link #baseUrl()}:
+ *
+ * <pre>
+ * try (StubServer server = StubServer.builder()
+ * 		.latency(Latency.logNormal(Duration.ofMillis(300), 0.5)).errorRate(0.01)
+ * 		.build().start()) {
+ * 	OpenAIClient client = OpenAIClient
+ * 			.create(c -&gt; c.apiKey("test").baseUrl(server.baseUrl()));
+ * 	...
+ * }
+ * </pre>
+ * <p>
+ * Supported endpoints: /chat/completions (also streamed as server-sent events),
+ * /embeddings (float and base64), /files, /uploads, /batches, /vector_stores including
+ * the vector store files, /threads and /threads/runs. Objects that are created are
+ * kept in memory until the server is closed. Batches and runs are completed after
+ * {@link Builder#processingTime(Duration)}, a batch writes an output file with a
+ * response for every line of the input file.
+ * <p>
+ * Generated text and vectors only depend on the seed and the request body, so
+ * repeated runs return the same payloads. Latency, server errors and 429 responses
+ * are drawn from one random generator and are deterministic for sequential requests.
+ * <p>
+ * The server can also be started from the command line, see {@link #main(String[])}.
+ */
+public final class StubServer implements AutoCloseable {
+
+	static {
+		// the JDK server does not set TCP_NODELAY, a response written in two segments
+		// waits for the delayed ACK of the client, about 40 ms on Linux
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	final Latency latency;
+	final Latency tokenLatency;
+	final double errorRate;
+	final int errorStatus;
+	final double rateLimitRate;
+	final Duration retryAfter;
+	final long requestsPerMinute;
+	final long tokensPerMinute;
+	final int completionTokens;
+	final int embeddingDimensions;
+	final Duration processingTime;
+	final long seed;
+
+	private final String host;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final StubHandler handler;
+
+	private StubServer(Builder builder) {
+		this.latency = builder.latency;
+		this.tokenLatency = builder.tokenLatency;
+		this.errorRate = builder.errorRate;
+		this.errorStatus = builder.errorStatus;
+		this.rateLimitRate = builder.rateLimitRate;
+		this.retryAfter = builder.retryAfter;
+		this.requestsPerMinute = builder.requestsPerMinute;
+		this.tokensPerMinute = builder.tokensPerMinute;
+		this.completionTokens = builder.completionTokens;
+		this.embeddingDimensions = builder.embeddingDimensions;
+		this.processingTime = builder.processingTime;
+		this.seed = builder.seed;
+		this.host = builder.host;
+
+		try {
+			this.server = HttpServer.create(
+					new InetSocketAddress(builder.host, builder.port), builder.backlog);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		// requests block while they simulate latency, a bounded pool would limit the
+		// concurrency of the load test
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = Executors.newCachedThreadPool(r -> {
+			Thread thread = new Thread(r,
+					"openai4j-stub-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.handler = new StubHandler(this);
+		this.server.setExecutor(this.executor);
+		this.server.createContext("/", this.handler);
+	}
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	public static final class Builder {
+		private String host = "localhost";
+		private int port;
+		private int backlog = 1024;
+		private Latency latency = Latency.none();
+		private Latency tokenLatency = Latency.none();
+		private double errorRate;
+		private int errorStatus = 500;
+		private double rateLimitRate;
+		private Duration retryAfter = Duration.ofSeconds(1);
+		private long requestsPerMinute;
+		private long tokensPerMinute;
+		private int completionTokens = 32;
+		private int embeddingDimensions = 1536;
+		private Duration processingTime = Duration.ZERO;
+		private long seed = 42;
+
+		private Builder() {
+		}
+
+		/**
+		 * Address the server binds to. Default: localhost
+		 */
+		public Builder host(String host) {
+			this.host = host;
+			return this;
+		}
+
+		/**
+		 * Port of the server. Default: 0 (a free port)
+		 */
+		public Builder port(int port) {
+			this.port = port;
+			return this;
+		}
+
+		/**
+		 * Maximum number of queued incoming connections. Default: 1024
+		 */
+		public Builder backlog(int backlog) {
+			this.backlog = backlog;
+			return this;
+		}
+
+		/**
+		 * Time until the server sends the response headers, for streams the time to
+		 * the first token. Applies to every request, also to injected errors. Default:
+		 * {@link Latency#none()}
+		 */
+		public Builder latency(Latency latency) {
+			this.latency = latency;
+			return this;
+		}
+
+		/**
+		 * Generation time of one completion token. Streams wait this time before every
+		 * chunk, other chat completions wait the sum for all tokens in addition to
+		 * {@link #latency(Latency)}. Default: {@link Latency#none()}
+		 */
+		public Builder tokenLatency(Latency tokenLatency) {
+			this.tokenLatency = tokenLatency;
+			return this;
+		}
+
+		/**
+		 * Fraction of the requests answered with a server error. Default: 0
+		 */
+		public Builder errorRate(double errorRate) {
+			this.errorRate = errorRate;
+			return this;
+		}
+
+		/**
+		 * Status code of the injected server errors, for example 503 for an overloaded
+		 * server. Default: 500
+		 */
+		public Builder errorStatus(int errorStatus) {
+			this.errorStatus = errorStatus;
+			return this;
+		}
+
+		/**
+		 * Fraction of the requests answered with 429 Too Many Requests, independent of
+		 * the configured limits. Default: 0
+		 */
+		public Builder rateLimitRate(double rateLimitRate) {
+			this.rateLimitRate = rateLimitRate;
+			return this;
+		}
+
+		/**
+		 * Retry-After of the randomly injected 429 responses. Responses caused by
+		 * {@link #requestsPerMinute(long)} and {@link #tokensPerMinute(long)} wait until
+		 * the limit resets. Default: 1 second
+		 */
+		public Builder retryAfter(Duration retryAfter) {
+			this.retryAfter = retryAfter;
+			return this;
+		}
+
+		/**
+		 * Requests per minute. When set the server sends the x-ratelimit-*-requests
+		 * headers and answers with 429 when the limit is exceeded. Default: 0
+		 * (unlimited)
+		 */
+		public Builder requestsPerMinute(long requestsPerMinute) {
+			this.requestsPerMinute = requestsPerMinute;
+			return this;
+		}
+
+		/**
+		 * Tokens per minute, estimated with four characters of the request body per
+		 * token. When set the server sends the x-ratelimit-*-tokens headers and answers
+		 * with 429 when the limit is exceeded. Default: 0 (unlimited)
+		 */
+		public Builder tokensPerMinute(long tokensPerMinute) {
+			this.tokensPerMinute = tokensPerMinute;
+			return this;
+		}
+
+		/**
+		 * Length of generated chat completions. Requests with a smaller max_tokens or
+		 * max_completion_tokens get shorter completions. Default: 32
+		 */
+		public Builder completionTokens(int completionTokens) {
+			this.completionTokens = completionTokens;
+			return this;
+		}
+
+		/**
+		 * Length of the generated embeddings when the request does not set dimensions.
+		 * Default: 1536
+		 */
+		public Builder embeddingDimensions(int embeddingDimensions) {
+			this.embeddingDimensions = embeddingDimensions;
+			return this;
+		}
+
+		/**
+		 * Time until a batch or a run is completed. Before that they are reported as
+		 * in_progress. Default: 0 (completed when created)
+		 */
+		public Builder processingTime(Duration processingTime) {
+			this.processingTime = processingTime;
+			return this;
+		}
+
+		/**
+		 * Seed of the generated payloads and of the random latency and error
+		 * injection. Default: 42
+		 */
+		public Builder seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/**
+		 * Creates the server and binds the port. Call {@link StubServer#start()} to
+		 * accept requests.
+		 */
+		public StubServer build() {
+			if (this.host == null) {
+				throw new IllegalArgumentException("host must not be null");
+			}
+			if (this.latency == null || this.tokenLatency == null) {
+				throw new IllegalArgumentException("latency must not be null");
+			}
+			if (this.errorRate < 0 || this.errorRate > 1 || this.rateLimitRate < 0
+					|| this.rateLimitRate > 1) {
+				throw new IllegalArgumentException("rates must be between 0 and 1");
+			}
+			if (this.errorStatus < 400 || this.errorStatus > 599) {
+				throw new IllegalArgumentException(
+						"errorStatus must be an error status code");
+			}
+			if (this.retryAfter == null || this.retryAfter.isNegative()
+					|| this.processingTime == null || this.processingTime.isNegative()) {
+				throw new IllegalArgumentException("durations must not be negative");
+			}
+			if (this.requestsPerMinute < 0 || this.tokensPerMinute < 0) {
+				throw new IllegalArgumentException("limits must not be negative");
+			}
+			if (this.completionTokens < 1 || this.embeddingDimensions < 1) {
+				throw new IllegalArgumentException(
+						"completionTokens and embeddingDimensions must be positive");
+			}
+			return new StubServer(this);
+		}
+	}
+
+	/**
+	 * Starts accepting requests.
+	 */
+	public StubServer start() {
+		this.server.start();
+		return this;
+	}
+
+	/**
+	 * Port the server is bound to.
+	 */
+	public int port() {
+		return this.server.getAddress().getPort();
+	}
+
+	/**
+	 * Base URL for {@code Configuration.Builder.baseUrl}, for example
+	 * http://localhost:50123/v1
+	 */
+	public String baseUrl() {
+		return "http://" + this.host + ":" + port() + "/v1";
+	}
+
+	/**
+	 * Request counters since the server was created.
+	 */
+	public StubStats stats() {
+		return this.handler.stats();
+	}
+
+	/**
+	 * Stops the server, requests in progress are aborted.
+	 */
+	@Override
+	public void close() {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Runs the server until the process is stopped. Options:
+	 * <ul>
+	 * <li>--port=8080</li>
+	 * <li>--latency-ms=300 median latency</li>
+	 * <li>--latency-sigma=0.5 log-normal spread, 0 for a fixed latency</li>
+	 * <li>--token-latency-ms=20</li>
+	 * <li>--error-rate=0.01</li>
+	 * <li>--error-status=503</li>
+	 * <li>--rate-limit-rate=0.01</li>
+	 * <li>--rpm=500 requests per minute</li>
+	 * <li>--tpm=200000 tokens per minute</li>
+	 * <li>--processing-ms=5000 time until batches and runs complete</li>
+	 * <li>--seed=42</li>
+	 * </ul>
+	 */
+	public static void main(String[] args) {
+		Builder builder = builder().port(8080);
+		double latencyMillis = 0;
+		double sigma = 0;
+		for (String arg : args) {
+			int eq = arg.indexOf('=');
+			if (!arg.startsWith("--") || eq == -1) {
+				throw new IllegalArgumentException("expected --name=value: " + arg);
+			}
+			String name = arg.substring(2, eq);
+			String value = arg.substring(eq + 1);
+			switch (name) {
+			case "port" -> builder.port(Integer.parseInt(value));
+			case "latency-ms" -> latencyMillis = Double.parseDouble(value);
+			case "latency-sigma" -> sigma = Double.parseDouble(value);
+			case "token-latency-ms" -> builder.tokenLatency(
+					Latency.fixed(Duration.ofNanos((long) (Double.parseDouble(value)
+							* 1_000_000))));
+			case "error-rate" -> builder.errorRate(Double.parseDouble(value));
+			case "error-status" -> builder.errorStatus(Integer.parseInt(value));
+			case "rate-limit-rate" -> builder.rateLimitRate(Double.parseDouble(value));
+			case "rpm" -> builder.requestsPerMinute(Long.parseLong(value));
+			case "tpm" -> builder.tokensPerMinute(Long.parseLong(value));
+			case "processing-ms" ->
+				builder.processingTime(Duration.ofMillis(Long.parseLong(value)));
+			case "seed" -> builder.seed(Long.parseLong(value));
+			default -> throw new IllegalArgumentException("unknown option: " + arg);
+			}
+		}
+		Duration median = Duration.ofNanos((long) (latencyMillis * 1_000_000));
+		builder.latency(sigma > 0 ? Latency.logNormal(median, sigma)
+				: Latency.fixed(median));
+
+		StubServer server = builder.build().start();
+		Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+		System.out.println("openai4j stub server listening on " + server.baseUrl());
+	}
+
+}
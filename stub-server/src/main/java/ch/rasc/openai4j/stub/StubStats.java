@@ -0,0 +1,55 @@
+/*
+ * Copyright the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ch.rasc.openai4j.stub;
+
+/**
+ * Request counters of a {@link StubServer}.
+ */
+public record StubStats(long requests, long serverErrors, long rateLimited,
+		long streams) {
+
+	/**
+	 * Total number of requests received, including failed requests.
+	 */
+	@Override
+	public long requests() {
+		return this.requests;
+	}
+
+	/**
+	 * Number of injected server errors.
+	 */
+	@Override
+	public long serverErrors() {
+		return this.serverErrors;
+	}
+
+	/**
+	 * Number of 429 responses, injected or caused by the configured rate limits.
+	 */
+	@Override
+	public long rateLimited() {
+		return this.rateLimited;
+	}
+
+	/**
+	 * Number of chat completions streamed as server-sent events.
+	 */
+	@Override
+	public long streams() {
+		return this.streams;
+	}
+}